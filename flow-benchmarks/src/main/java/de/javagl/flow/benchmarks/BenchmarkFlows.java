@@ -0,0 +1,98 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.generator.FlowGenerators;
+import de.javagl.flow.generator.ModuleCost;
+import de.javagl.flow.generator.ModuleCosts;
+
+/**
+ * Methods to create {@link MutableFlow} instances with different shapes
+ * for benchmarks, using the {@link FlowGenerators}
+ */
+public class BenchmarkFlows
+{
+    /**
+     * Create a flow with the given shape, consisting of modules that do
+     * not perform any computation. Valid shapes are <code>"wide"</code>, 
+     * <code>"deep"</code>, <code>"diamond"</code>, <code>"layered"</code>
+     * and <code>"random"</code>.
+     *
+     * @param shape The shape
+     * @param size The approximate number of modules
+     * @return The flow
+     * @throws IllegalArgumentException If the shape is not valid
+     */
+    public static MutableFlow create(String shape, int size)
+    {
+        ModuleCost none = ModuleCosts.none();
+        switch (shape)
+        {
+            case "wide":
+                return FlowGenerators.createTree(1, size, none);
+            case "deep":
+                return FlowGenerators.createChain(size, none);
+            case "diamond":
+                return FlowGenerators.createDiamonds(
+                    Math.max(1, size / 3), none);
+            case "layered":
+            {
+                int width = Math.max(1, (int) Math.sqrt(size));
+                return FlowGenerators.createLayered(
+                    Math.max(1, size / width), width, 0.1, 0, none);
+            }
+            case "random":
+                return createRandom(size);
+            default:
+                break;
+        }
+        throw new IllegalArgumentException("Invalid shape: " + shape);
+    }
+
+    /**
+     * Create a random directed acyclic flow with the given number of
+     * modules, where each module has about four links on average
+     *
+     * @param size The number of modules
+     * @return The flow
+     */
+    public static MutableFlow createRandom(int size)
+    {
+        double density = Math.min(1.0, 4.0 / Math.max(1, size));
+        return FlowGenerators.createRandomDag(
+            size, density, 0, ModuleCosts.none());
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BenchmarkFlows()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,64 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+/**
+ * Functions that are used for creating method-based modules in benchmarks
+ */
+public class BenchmarkFunctions
+{
+    /**
+     * Returns the sum of the given values
+     *
+     * @param a The first value
+     * @param b The second value
+     * @return The sum
+     */
+    public static double add(double a, double b)
+    {
+        return a + b;
+    }
+
+    /**
+     * Returns the given object
+     *
+     * @param object The object
+     * @return The object
+     */
+    public static Object identity(Object object)
+    {
+        return object;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BenchmarkFunctions()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,60 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Utility methods for the benchmarks
+ */
+class BenchmarkUtils
+{
+    /**
+     * A reference to the logger, to prevent the configuration from
+     * being garbage collected
+     */
+    private static Logger logger;
+
+    /**
+     * Disable all logging output below the WARNING level for the flow
+     * classes, to prevent the logging from dominating the benchmarks
+     */
+    static void disableLogging()
+    {
+        logger = Logger.getLogger("de.javagl.flow");
+        logger.setLevel(Level.WARNING);
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private BenchmarkUtils()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,100 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.execution.FlowExecutor;
+import de.javagl.flow.execution.FlowExecutors;
+
+/**
+ * Benchmarks for executing flows of different shapes with the
+ * default {@link FlowExecutor}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowExecutorBenchmark
+{
+    /**
+     * The shape of the flow
+     */
+    @Param({"wide", "deep", "diamond", "layered"})
+    public String shape;
+
+    /**
+     * The approximate number of modules
+     */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * The executor
+     */
+    private FlowExecutor flowExecutor;
+
+    /**
+     * Set up the flow and the executor
+     */
+    @Setup
+    public void setup()
+    {
+        BenchmarkUtils.disableLogging();
+        flow = BenchmarkFlows.create(shape, size);
+        flowExecutor = FlowExecutors.createDefault();
+    }
+
+    /**
+     * Execute the flow
+     */
+    @Benchmark
+    public void execute()
+    {
+        flowExecutor.execute(flow);
+    }
+}
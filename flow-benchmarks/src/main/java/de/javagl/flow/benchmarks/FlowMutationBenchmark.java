@@ -0,0 +1,150 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleUtils;
+
+/**
+ * Benchmarks for modifying a {@link MutableFlow}
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class FlowMutationBenchmark
+{
+    /**
+     * The number of modules
+     */
+    @Param({"100", "1000", "10000"})
+    public int size;
+
+    /**
+     * The flow that initially contains all modules and links
+     */
+    private MutableFlow flow;
+
+    /**
+     * The flow that contains all modules, but no links
+     */
+    private MutableFlow unlinkedFlow;
+
+    /**
+     * The links that may be added to the {@link #unlinkedFlow}
+     */
+    private List<Link> links;
+
+    /**
+     * The module that is removed and added again
+     */
+    private Module module;
+
+    /**
+     * The links of the {@link #module}
+     */
+    private List<Link> moduleLinks;
+
+    /**
+     * Set up the flows
+     */
+    @Setup
+    public void setup()
+    {
+        BenchmarkUtils.disableLogging();
+        flow = BenchmarkFlows.createRandom(size);
+        List<Module> modules = new ArrayList<Module>(flow.getModules());
+        module = modules.get(modules.size() / 2);
+        moduleLinks = new ArrayList<Link>(ModuleUtils.computeLinks(module));
+
+        MutableFlow template = BenchmarkFlows.createRandom(size);
+        links = new ArrayList<Link>(template.getLinks());
+        for (Link link : links)
+        {
+            template.removeLink(link);
+        }
+        unlinkedFlow = Flows.create();
+        for (Module m : new ArrayList<Module>(template.getModules()))
+        {
+            template.removeModule(m);
+            unlinkedFlow.addModule(m);
+        }
+    }
+
+    /**
+     * Add all links to the flow that does not contain any links,
+     * and remove them again
+     */
+    @Benchmark
+    public void addAndRemoveLinks()
+    {
+        for (Link link : links)
+        {
+            unlinkedFlow.addLink(link);
+        }
+        for (Link link : links)
+        {
+            unlinkedFlow.removeLink(link);
+        }
+    }
+
+    /**
+     * Remove a module (including its links) from the flow, and
+     * add it again
+     */
+    @Benchmark
+    public void removeAndAddModule()
+    {
+        flow.removeModule(module);
+        flow.addModule(module);
+        for (Link link : moduleLinks)
+        {
+            flow.addLink(link);
+        }
+    }
+}
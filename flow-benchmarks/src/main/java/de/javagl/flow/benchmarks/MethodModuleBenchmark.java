@@ -0,0 +1,199 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.lang.reflect.Method;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+import de.javagl.flow.module.SimpleAbstractModule;
+import de.javagl.flow.module.creation.ModuleCreators;
+
+/**
+ * Benchmarks for the overhead of executing a {@link Module} that was
+ * created for a method, compared to a module whose class was generated
+ * for the method, to a hand-written module and to a direct method call
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MethodModuleBenchmark
+{
+    /**
+     * A hand-written module that adds two doubles
+     */
+    private static final class AddModule extends SimpleAbstractModule
+    {
+        /**
+         * Default constructor
+         */
+        AddModule()
+        {
+            super(ModuleInfos.create("Add", "Adds two doubles")
+                .addInput(Double.class, "a", "The first value")
+                .addInput(Double.class, "b", "The second value")
+                .addOutput(Double.class, "sum", "The sum")
+                .build());
+        }
+
+        @Override
+        protected void processCore(Object inputs[], Object outputs[])
+        {
+            double a = (Double) inputs[0];
+            double b = (Double) inputs[1];
+            outputs[0] = a + b;
+        }
+    }
+
+    /**
+     * The module that calls the method
+     */
+    private Module methodModule;
+
+    /**
+     * The module that is an instance of a class that was generated
+     * for the method
+     */
+    private Module generatedModule;
+
+    /**
+     * The hand-written module
+     */
+    private Module handWrittenModule;
+
+    /**
+     * The first input for the direct call
+     */
+    private double a;
+
+    /**
+     * The second input for the direct call
+     */
+    private double b;
+
+    /**
+     * Set up the modules
+     *
+     * @throws Exception If the method can not be found
+     */
+    @Setup
+    public void setup() throws Exception
+    {
+        BenchmarkUtils.disableLogging();
+        a = 1.0;
+        b = 2.0;
+        Method method = BenchmarkFunctions.class.getMethod(
+            "add", double.class, double.class);
+        methodModule = Modules.createForMethod(method);
+        generatedModule = 
+            ModuleCreators.createForMethod(method, null, true).createModule();
+        handWrittenModule = new AddModule();
+        connectInputs(methodModule);
+        connectInputs(generatedModule);
+        connectInputs(handWrittenModule);
+    }
+
+    /**
+     * Connect the inputs of the given module to source modules that
+     * provide constant values, and execute the source modules once,
+     * so that the given module can be executed repeatedly
+     *
+     * @param module The module
+     */
+    private void connectInputs(Module module)
+    {
+        MutableFlow flow = Flows.create();
+        Module sourceA = Modules.createForSupplier(
+            "A", "", () -> a, Double.class);
+        Module sourceB = Modules.createForSupplier(
+            "B", "", () -> b, Double.class);
+        flow.addModule(sourceA);
+        flow.addModule(sourceB);
+        flow.addModule(module);
+        flow.addLink(Links.create(sourceA, 0, module, 0));
+        flow.addLink(Links.create(sourceB, 0, module, 1));
+        sourceA.execute();
+        sourceB.execute();
+    }
+
+    /**
+     * Execute the module that calls the method
+     */
+    @Benchmark
+    public void methodModule()
+    {
+        methodModule.execute();
+    }
+
+    /**
+     * Execute the module whose class was generated for the method
+     */
+    @Benchmark
+    public void generatedModule()
+    {
+        generatedModule.execute();
+    }
+
+    /**
+     * Execute the hand-written module
+     */
+    @Benchmark
+    public void handWrittenModule()
+    {
+        handWrittenModule.execute();
+    }
+
+    /**
+     * Call the method directly
+     *
+     * @return The result
+     */
+    @Benchmark
+    public double directCall()
+    {
+        return BenchmarkFunctions.add(a, b);
+    }
+}
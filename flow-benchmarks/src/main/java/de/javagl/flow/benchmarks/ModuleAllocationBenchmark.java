@@ -0,0 +1,151 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfoBuilder;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+import de.javagl.flow.module.SimpleAbstractModule;
+
+/**
+ * Benchmarks for the allocations that are caused by executing a 
+ * {@link Module} repeatedly. This benchmark is intended to be run with 
+ * the GC profiler, as in <code>-prof gc</code>, and the 
+ * <code>gc.alloc.rate.norm</code> should be zero for all sizes.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class ModuleAllocationBenchmark
+{
+    /**
+     * A module that passes its inputs to its outputs
+     */
+    private static final class PassThroughModule extends SimpleAbstractModule
+    {
+        /**
+         * Creates a new module with the given number of inputs and outputs
+         * 
+         * @param numSlots The number of inputs and outputs
+         */
+        PassThroughModule(int numSlots)
+        {
+            super(createModuleInfoBuilder(numSlots).build());
+        }
+
+        /**
+         * Creates the builder for the module info of a module with the
+         * given number of inputs and outputs
+         * 
+         * @param numSlots The number of inputs and outputs
+         * @return The builder
+         */
+        private static ModuleInfoBuilder createModuleInfoBuilder(int numSlots)
+        {
+            ModuleInfoBuilder builder = 
+                ModuleInfos.create("PassThrough", "Passes inputs to outputs");
+            for (int i = 0; i < numSlots; i++)
+            {
+                builder.addInput(Object.class, "input" + i, "Input " + i);
+                builder.addOutput(Object.class, "output" + i, "Output " + i);
+            }
+            return builder;
+        }
+
+        @Override
+        protected void processCore(Object inputs[], Object outputs[])
+        {
+            System.arraycopy(inputs, 0, outputs, 0, inputs.length);
+        }
+    }
+
+    /**
+     * The number of inputs and outputs of the module
+     */
+    @Param({"1", "4", "16"})
+    private int numSlots;
+
+    /**
+     * The module that is executed
+     */
+    private Module module;
+
+    /**
+     * Set up the module, and connect its inputs and outputs
+     */
+    @Setup
+    public void setup()
+    {
+        BenchmarkUtils.disableLogging();
+        Object value = new Object();
+        MutableFlow flow = Flows.create();
+        module = new PassThroughModule(numSlots);
+        flow.addModule(module);
+        for (int i = 0; i < numSlots; i++)
+        {
+            Module source = Modules.createForSupplier(
+                "Source" + i, "", () -> value, Object.class);
+            Module sink = Modules.createForConsumer(
+                "Sink" + i, "", v -> {}, Object.class);
+            flow.addModule(source);
+            flow.addModule(sink);
+            flow.addLink(Links.create(source, 0, module, i));
+            flow.addLink(Links.create(module, i, sink, 0));
+            source.execute();
+        }
+    }
+
+    /**
+     * Execute the module
+     */
+    @Benchmark
+    public void execute()
+    {
+        module.execute();
+    }
+}
@@ -0,0 +1,153 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.benchmarks;
+
+import java.io.ByteArrayInputStream;
+import java.lang.reflect.Method;
+import java.nio.charset.StandardCharsets;
+import java.util.Collections;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.w3c.dom.Node;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.io.xml.XmlFlowWorkspace;
+import de.javagl.flow.io.xml.XmlUtils;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.creation.ModuleCreator;
+import de.javagl.flow.module.creation.ModuleCreators;
+import de.javagl.flow.repository.Repositories;
+import de.javagl.flow.repository.Repository;
+import de.javagl.flow.workspace.FlowLayouts;
+import de.javagl.flow.workspace.FlowWorkspace;
+import de.javagl.flow.workspace.FlowWorkspaces;
+
+/**
+ * Benchmarks for writing and reading a {@link FlowWorkspace} with
+ * the {@link XmlFlowWorkspace} class
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class XmlRoundTripBenchmark
+{
+    /**
+     * The number of modules
+     */
+    @Param({"10", "100", "1000"})
+    public int size;
+
+    /**
+     * The repository of module creators
+     */
+    private Repository<ModuleInfo, ModuleCreator> moduleCreatorRepository;
+
+    /**
+     * The workspace that is written
+     */
+    private FlowWorkspace flowWorkspace;
+
+    /**
+     * The XML representation of the workspace
+     */
+    private byte[] xmlBytes;
+
+    /**
+     * Set up the workspace, consisting of a chain of modules that
+     * call a method
+     *
+     * @throws Exception If the method can not be found
+     */
+    @Setup
+    public void setup() throws Exception
+    {
+        BenchmarkUtils.disableLogging();
+        Method method = BenchmarkFunctions.class.getMethod(
+            "identity", Object.class);
+        ModuleCreator moduleCreator = ModuleCreators.createForMethod(method);
+        moduleCreatorRepository =
+            Repositories.create(ModuleCreator::getModuleInfo);
+        moduleCreatorRepository.add(Collections.singleton(moduleCreator));
+
+        MutableFlow flow = Flows.create();
+        Module previous = null;
+        for (int i = 0; i < size; i++)
+        {
+            Module module = moduleCreator.createModule();
+            flow.addModule(module);
+            if (previous != null)
+            {
+                flow.addLink(Links.create(previous, 0, module, 0));
+            }
+            previous = module;
+        }
+        flowWorkspace = FlowWorkspaces.create(flow, FlowLayouts.create());
+        xmlBytes = write();
+    }
+
+    /**
+     * Write the workspace to XML
+     *
+     * @return The XML bytes
+     */
+    @Benchmark
+    public byte[] write()
+    {
+        Node node = XmlFlowWorkspace.createNode(
+            flowWorkspace, moduleCreatorRepository);
+        return XmlUtils.toString(node).getBytes(StandardCharsets.UTF_8);
+    }
+
+    /**
+     * Read the workspace from XML
+     *
+     * @return The workspace
+     */
+    @Benchmark
+    public FlowWorkspace read()
+    {
+        Node node = XmlUtils.read(new ByteArrayInputStream(xmlBytes));
+        return XmlFlowWorkspace.parse(node, moduleCreatorRepository);
+    }
+}
@@ -0,0 +1,11 @@
+/**
+ * JMH benchmarks for the flow classes.<br>
+ * <br>
+ * The benchmarks may be run with
+ * <pre><code>
+ * mvn package
+ * java -jar flow-benchmarks/target/benchmarks.jar
+ * </code></pre>
+ */
+package de.javagl.flow.benchmarks;
+
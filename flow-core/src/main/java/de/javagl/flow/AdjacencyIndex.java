@@ -0,0 +1,157 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.module.Module;
+
+/**
+ * An index that stores, for each {@link Module} of a {@link Flow}, the
+ * {@link Link} objects that are attached to the module on one side, and 
+ * the modules that are at the other end of these links. It is updated
+ * incrementally when links are added or removed, so that queries for
+ * the links or neighbors of a module do not have to inspect the slots 
+ * of the module.<br>
+ * <br>
+ * One instance is used for the forward direction (where the key is the
+ * source module of a link, and the neighbor is the target module), and
+ * one for the backward direction.<br>
+ * <br>
+ * This class is not thread-safe.
+ */
+final class AdjacencyIndex
+{
+    /**
+     * The links that are attached to each module
+     */
+    private final Map<Module, Set<Link>> links;
+    
+    /**
+     * For each module, the neighbor modules, mapped to the number of
+     * links that lead to the respective neighbor
+     */
+    private final Map<Module, Map<Module, Integer>> neighbors;
+    
+    /**
+     * Creates a new, empty index
+     */
+    AdjacencyIndex()
+    {
+        this.links = new HashMap<Module, Set<Link>>();
+        this.neighbors = new HashMap<Module, Map<Module, Integer>>();
+    }
+    
+    /**
+     * Add the given link between the given modules to this index
+     * 
+     * @param module The module
+     * @param neighbor The neighbor module
+     * @param link The link
+     */
+    void add(Module module, Module neighbor, Link link)
+    {
+        links.computeIfAbsent(module, 
+            m -> new LinkedHashSet<Link>()).add(link);
+        neighbors.computeIfAbsent(module, 
+            m -> new LinkedHashMap<Module, Integer>())
+            .merge(neighbor, 1, Integer::sum);
+    }
+    
+    /**
+     * Remove the given link between the given modules from this index
+     * 
+     * @param module The module
+     * @param neighbor The neighbor module
+     * @param link The link
+     */
+    void remove(Module module, Module neighbor, Link link)
+    {
+        Set<Link> moduleLinks = links.get(module);
+        if (moduleLinks == null || !moduleLinks.remove(link))
+        {
+            return;
+        }
+        if (moduleLinks.isEmpty())
+        {
+            links.remove(module);
+        }
+        Map<Module, Integer> moduleNeighbors = neighbors.get(module);
+        Integer count = moduleNeighbors.get(neighbor);
+        if (count == 1)
+        {
+            moduleNeighbors.remove(neighbor);
+        }
+        else
+        {
+            moduleNeighbors.put(neighbor, count - 1);
+        }
+        if (moduleNeighbors.isEmpty())
+        {
+            neighbors.remove(module);
+        }
+    }
+    
+    /**
+     * Returns an unmodifiable view on the links that are attached to
+     * the given module
+     * 
+     * @param module The module
+     * @return The links
+     */
+    Set<Link> getLinks(Module module)
+    {
+        Set<Link> moduleLinks = links.get(module);
+        if (moduleLinks == null)
+        {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(moduleLinks);
+    }
+    
+    /**
+     * Returns an unmodifiable view on the neighbors of the given module
+     * 
+     * @param module The module
+     * @return The neighbors
+     */
+    Set<Module> getNeighbors(Module module)
+    {
+        Map<Module, Integer> moduleNeighbors = neighbors.get(module);
+        if (moduleNeighbors == null)
+        {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(moduleNeighbors.keySet());
+    }
+}
@@ -0,0 +1,428 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.WildcardType;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+import java.util.Objects;
+
+import de.javagl.flow.metrics.Counter;
+import de.javagl.flow.metrics.MetricRegistry;
+
+/**
+ * Implementation of a {@link TypeContext} that caches the results of
+ * {@link #isAssignable(Type, Type)} calls of a delegate. The following
+ * metrics are recorded in the {@link MetricRegistry} that is given in
+ * the constructor:
+ * <ul>
+ *   <li>
+ *     <code>typecontext.assignability.hits</code>: A counter for the
+ *     calls that could be answered from the cache
+ *   </li>
+ *   <li>
+ *     <code>typecontext.assignability.misses</code>: A counter for the
+ *     calls that had to be passed to the delegate
+ *   </li>
+ *   <li>
+ *     <code>typecontext.assignability.evictions</code>: A counter for
+ *     the entries that have been removed from the cache because its
+ *     maximum size was reached
+ *   </li>
+ *   <li>
+ *     <code>typecontext.assignability.size</code>: A gauge for the
+ *     number of entries in the cache
+ *   </li>
+ * </ul>
+ * The cached results are only used as long as the
+ * {@link TypeContext#getGeneration() generation} of the delegate does
+ * not change. When the cache reaches its maximum size, the entry that 
+ * was least recently used is removed.<br>
+ * <br>
+ * The cache is guarded by a lock, which is only held while looking up
+ * or storing a result, but not while the delegate computes a result.
+ */
+final class CachingTypeContext implements TypeContext
+{
+    /**
+     * The delegate {@link TypeContext}
+     */
+    private final TypeContext delegate;
+
+    /**
+     * The maximum number of entries in the cache
+     */
+    private final int maximumSize;
+
+    /**
+     * The cache, in access order. This is guarded by its own monitor.
+     */
+    private final Map<TypePair, Boolean> cache;
+
+    /**
+     * The generation of the delegate for which the cache currently
+     * contains entries. This is guarded by the monitor of the 
+     * {@link #cache}.
+     */
+    private long cachedGeneration;
+
+    /**
+     * The counter for cache hits
+     */
+    private final Counter hits;
+
+    /**
+     * The counter for cache misses
+     */
+    private final Counter misses;
+
+    /**
+     * The counter for evicted entries
+     */
+    private final Counter evictions;
+
+    /**
+     * Creates a new instance
+     *
+     * @param delegate The delegate {@link TypeContext}
+     * @param maximumSize The maximum number of cached entries
+     * @param metricRegistry The {@link MetricRegistry}
+     * @throws NullPointerException If the delegate or the metric registry
+     * is <code>null</code>
+     * @throws IllegalArgumentException If the maximum size is not positive
+     */
+    CachingTypeContext(TypeContext delegate, int maximumSize,
+        MetricRegistry metricRegistry)
+    {
+        this.delegate = Objects.requireNonNull(
+            delegate, "The delegate may not be null");
+        Objects.requireNonNull(
+            metricRegistry, "The metricRegistry may not be null");
+        if (maximumSize <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The maximum size must be positive, but is " + maximumSize);
+        }
+        this.maximumSize = maximumSize;
+        this.cache = new LinkedHashMap<TypePair, Boolean>(16, 0.75f, true)
+        {
+            /**
+             * Serial UID
+             */
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(
+                Entry<TypePair, Boolean> eldest)
+            {
+                if (size() > CachingTypeContext.this.maximumSize)
+                {
+                    evictions.increment();
+                    return true;
+                }
+                return false;
+            }
+        };
+        this.cachedGeneration = delegate.getGeneration();
+        this.hits = metricRegistry.counter(
+            "typecontext.assignability.hits");
+        this.misses = metricRegistry.counter(
+            "typecontext.assignability.misses");
+        this.evictions = metricRegistry.counter(
+            "typecontext.assignability.evictions");
+        metricRegistry.gauge(
+            "typecontext.assignability.size", this::size);
+    }
+
+    @Override
+    public boolean isAssignable(Type to, Type from)
+    {
+        long generation = delegate.getGeneration();
+        TypePair key = new TypePair(to, from, generation);
+        synchronized (cache)
+        {
+            if (generation != cachedGeneration)
+            {
+                // The generation is updated before the cache is cleared, 
+                // so that results that are computed for an older 
+                // generation are no longer stored
+                cachedGeneration = generation;
+                cache.clear();
+            }
+            Boolean cached = cache.get(key);
+            if (cached != null)
+            {
+                hits.increment();
+                return cached;
+            }
+        }
+        misses.increment();
+        boolean result = delegate.isAssignable(to, from);
+        synchronized (cache)
+        {
+            // Only store the result if the generation did not change 
+            // while it was computed
+            if (generation == cachedGeneration &&
+                generation == delegate.getGeneration())
+            {
+                cache.put(key, result);
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of entries in the cache
+     * 
+     * @return The number of entries
+     */
+    private int size()
+    {
+        synchronized (cache)
+        {
+            return cache.size();
+        }
+    }
+
+    @Override
+    public Type resolveType(Type type)
+    {
+        return delegate.resolveType(type);
+    }
+
+    @Override
+    public long getGeneration()
+    {
+        return delegate.getGeneration();
+    }
+
+    @Override
+    public String toString()
+    {
+        return "CachingTypeContext["
+            + "delegate=" + delegate + ","
+            + "size=" + size() + ","
+            + "maximumSize=" + maximumSize + "]";
+    }
+
+    /**
+     * The key of the cache, consisting of the types and the generation of
+     * the delegate in which the result was computed. The types are
+     * compared structurally, so that equal parameterized types, wildcard
+     * types and generic array types are considered to be equal, even when
+     * they are instances of different implementation classes.
+     */
+    private static final class TypePair
+    {
+        /**
+         * The type to assign to
+         */
+        private final Type to;
+
+        /**
+         * The type to assign from
+         */
+        private final Type from;
+
+        /**
+         * The generation of the delegate
+         */
+        private final long generation;
+
+        /**
+         * The hash code
+         */
+        private final int hashCode;
+
+        /**
+         * Creates a new instance
+         *
+         * @param to The type to assign to
+         * @param from The type to assign from
+         * @param generation The generation of the delegate
+         */
+        TypePair(Type to, Type from, long generation)
+        {
+            this.to = to;
+            this.from = from;
+            this.generation = generation;
+            this.hashCode = 31 * (31 * typeHashCode(to) + typeHashCode(from))
+                + Long.hashCode(generation);
+        }
+
+        @Override
+        public int hashCode()
+        {
+            return hashCode;
+        }
+
+        @Override
+        public boolean equals(Object object)
+        {
+            if (this == object)
+            {
+                return true;
+            }
+            if (!(object instanceof TypePair))
+            {
+                return false;
+            }
+            TypePair other = (TypePair) object;
+            return hashCode == other.hashCode
+                && generation == other.generation
+                && typeEquals(to, other.to)
+                && typeEquals(from, other.from);
+        }
+    }
+
+    /**
+     * Computes a hash code for the given type that is consistent with
+     * {@link #typeEquals(Type, Type)}
+     *
+     * @param type The type. May be <code>null</code>.
+     * @return The hash code
+     */
+    private static int typeHashCode(Type type)
+    {
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            int result = typeHashCode(parameterizedType.getRawType());
+            result = 31 * result + typeHashCode(
+                parameterizedType.getOwnerType());
+            return 31 * result + typesHashCode(
+                parameterizedType.getActualTypeArguments());
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType) type;
+            int result = typesHashCode(wildcardType.getUpperBounds());
+            return 31 * result + typesHashCode(
+                wildcardType.getLowerBounds());
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType) type;
+            return 31 + typeHashCode(
+                genericArrayType.getGenericComponentType());
+        }
+        return Objects.hashCode(type);
+    }
+
+    /**
+     * Computes a hash code for the given types that is consistent with
+     * {@link #typesEqual(Type[], Type[])}
+     *
+     * @param types The types
+     * @return The hash code
+     */
+    private static int typesHashCode(Type types[])
+    {
+        int result = 1;
+        for (Type type : types)
+        {
+            result = 31 * result + typeHashCode(type);
+        }
+        return result;
+    }
+
+    /**
+     * Returns whether the given types are structurally equal. Classes and
+     * type variables are compared with their <code>equals</code> method.
+     * Parameterized types, wildcard types and generic array types are
+     * equal when their components are structurally equal.
+     *
+     * @param t0 The first type. May be <code>null</code>.
+     * @param t1 The second type. May be <code>null</code>.
+     * @return Whether the types are equal
+     */
+    private static boolean typeEquals(Type t0, Type t1)
+    {
+        if (t0 == t1)
+        {
+            return true;
+        }
+        if (t0 instanceof ParameterizedType &&
+            t1 instanceof ParameterizedType)
+        {
+            ParameterizedType p0 = (ParameterizedType) t0;
+            ParameterizedType p1 = (ParameterizedType) t1;
+            return typeEquals(p0.getRawType(), p1.getRawType())
+                && typeEquals(p0.getOwnerType(), p1.getOwnerType())
+                && typesEqual(p0.getActualTypeArguments(),
+                    p1.getActualTypeArguments());
+        }
+        if (t0 instanceof WildcardType && t1 instanceof WildcardType)
+        {
+            WildcardType w0 = (WildcardType) t0;
+            WildcardType w1 = (WildcardType) t1;
+            return typesEqual(w0.getUpperBounds(), w1.getUpperBounds())
+                && typesEqual(w0.getLowerBounds(), w1.getLowerBounds());
+        }
+        if (t0 instanceof GenericArrayType && t1 instanceof GenericArrayType)
+        {
+            GenericArrayType g0 = (GenericArrayType) t0;
+            GenericArrayType g1 = (GenericArrayType) t1;
+            return typeEquals(g0.getGenericComponentType(),
+                g1.getGenericComponentType());
+        }
+        if (t0 instanceof ParameterizedType || t0 instanceof WildcardType
+            || t0 instanceof GenericArrayType)
+        {
+            return false;
+        }
+        return Objects.equals(t0, t1);
+    }
+
+    /**
+     * Returns whether the given arrays of types have the same length and
+     * contain structurally equal types
+     *
+     * @param types0 The first types
+     * @param types1 The second types
+     * @return Whether the types are equal
+     */
+    private static boolean typesEqual(Type types0[], Type types1[])
+    {
+        if (types0.length != types1.length)
+        {
+            return false;
+        }
+        for (int i = 0; i < types0.length; i++)
+        {
+            if (!typeEquals(types0[i], types1[i]))
+            {
+                return false;
+            }
+        }
+        return true;
+    }
+}
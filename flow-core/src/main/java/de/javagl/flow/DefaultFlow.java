@@ -26,21 +26,41 @@
  */
 package de.javagl.flow;
 
+import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Objects;
 import java.util.Set;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.javagl.flow.link.Link;
 import de.javagl.flow.module.Module;
-import de.javagl.flow.module.ModuleUtils;
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
 
 
 /**
- * Default implementation of a {@link MutableFlow}
+ * Default implementation of a {@link MutableFlow}.<br>
+ * <br>
+ * Modifications of this flow and the creation of {@link #snapshot() 
+ * snapshots} are synchronized on an internal lock, so that a snapshot 
+ * always reflects a consistent state of this flow. The listeners are 
+ * notified after the lock has been released.<br>
+ * <br>
+ * A snapshot is a full copy of the modules and links, so creating it 
+ * takes O(N+E) time for N modules and E links. The adjacency information
+ * of the snapshot is only built when it is queried for the first time.
+ * The snapshot is cached until this flow is modified, so that repeated 
+ * calls without intermediate modifications are cheap.<br>
+ * <br>
+ * The {@link #getModules()} and {@link #getLinks()} methods return the
+ * sets of the current snapshot, so that they may be iterated while other
+ * threads modify this flow. The methods that return the links or 
+ * neighbors of a single module return copies that are created while 
+ * holding the lock, which takes time that is proportional to the number
+ * of links of the module.
  */
 final class DefaultFlow implements MutableFlow
 {
@@ -54,6 +74,28 @@ final class DefaultFlow implements MutableFlow
      */
     private final Set<Link> links;
     
+    /**
+     * The index of outgoing links and successors of each {@link Module}
+     */
+    private final AdjacencyIndex forwardIndex;
+    
+    /**
+     * The index of incoming links and predecessors of each {@link Module}
+     */
+    private final AdjacencyIndex backwardIndex;
+    
+    /**
+     * The lock that is held while this flow is modified, or while a
+     * snapshot of this flow is created
+     */
+    private final Object lock;
+    
+    /**
+     * The most recent snapshot of this flow. This is created lazily,
+     * and set to <code>null</code> when this flow is modified.
+     */
+    private volatile FlowSnapshot snapshot;
+    
     /**
      * The {@link TypeContext} associated with this flow
      */
@@ -66,26 +108,119 @@ final class DefaultFlow implements MutableFlow
     private final List<FlowListener> flowListeners;
     
     /**
-     * Creates a new, empty flow
+     * Creates a new, empty flow with the 
+     * {@link TypeContexts#createDefault() default} {@link TypeContext}
      */
     DefaultFlow()
+    {
+        this(TypeContexts.createDefault());
+    }
+    
+    /**
+     * Creates a new, empty flow with the given {@link TypeContext}
+     * 
+     * @param typeContext The {@link TypeContext}
+     * @throws NullPointerException If the type context is <code>null</code>
+     */
+    DefaultFlow(TypeContext typeContext)
     {
         modules = new LinkedHashSet<Module>();
         links = new LinkedHashSet<Link>();
-        typeContext = new DummyTypeContext();
+        forwardIndex = new AdjacencyIndex();
+        backwardIndex = new AdjacencyIndex();
+        lock = new Object();
+        this.typeContext = Objects.requireNonNull(
+            typeContext, "The typeContext may not be null");
         flowListeners = new CopyOnWriteArrayList<FlowListener>();
     }
     
     @Override
     public Set<Module> getModules()
     {
-        return Collections.unmodifiableSet(modules);
+        return snapshot().getModules();
     }
     
     @Override
     public Set<Link> getLinks()
     {
-        return Collections.unmodifiableSet(links);
+        return snapshot().getLinks();
+    }
+    
+    @Override
+    public Set<Module> getSuccessors(Module module)
+    {
+        synchronized (lock)
+        {
+            return copy(forwardIndex.getNeighbors(module));
+        }
+    }
+    
+    @Override
+    public Set<Module> getPredecessors(Module module)
+    {
+        synchronized (lock)
+        {
+            return copy(backwardIndex.getNeighbors(module));
+        }
+    }
+    
+    @Override
+    public Set<Link> getIncomingLinks(Module module)
+    {
+        synchronized (lock)
+        {
+            return copy(backwardIndex.getLinks(module));
+        }
+    }
+    
+    @Override
+    public Set<Link> getOutgoingLinks(Module module)
+    {
+        synchronized (lock)
+        {
+            return copy(forwardIndex.getLinks(module));
+        }
+    }
+    
+    /**
+     * Returns an unmodifiable copy of the given set
+     * 
+     * @param <T> The element type
+     * @param set The set
+     * @return The copy
+     */
+    private static <T> Set<T> copy(Set<T> set)
+    {
+        if (set.isEmpty())
+        {
+            return Collections.emptySet();
+        }
+        return Collections.unmodifiableSet(new LinkedHashSet<T>(set));
+    }
+    
+    @Override
+    public FlowTopology getTopology()
+    {
+        return snapshot().getTopology();
+    }
+    
+    @Override
+    public Flow snapshot()
+    {
+        FlowSnapshot result = snapshot;
+        if (result == null)
+        {
+            synchronized (lock)
+            {
+                result = snapshot;
+                if (result == null)
+                {
+                    result = new FlowSnapshot(modules, links, typeContext);
+                    snapshot = result;
+                }
+            }
+        }
+        return result;
     }
     
     @Override
@@ -97,10 +232,13 @@ final class DefaultFlow implements MutableFlow
     @Override
     public boolean addModule(Module module)
     {
-        boolean changed = modules.add(module);
+        boolean changed;
+        synchronized (lock)
+        {
+            changed = addModuleInternal(module);
+        }
         if (changed)
         {
-            module.setFlow(this);
             fireModuleAdded(module);
         }
         return changed;
@@ -109,15 +247,25 @@ final class DefaultFlow implements MutableFlow
     @Override
     public boolean removeModule(Module module)
     {
-        Set<Link> links = ModuleUtils.computeLinks(module);
-        for (Link link : links)
+        List<Link> removedLinks = new ArrayList<Link>();
+        boolean changed;
+        synchronized (lock)
         {
-            removeLink(link);
+            for (Link link : computeAttachedLinks(module))
+            {
+                if (removeLinkInternal(link))
+                {
+                    removedLinks.add(link);
+                }
+            }
+            changed = removeModuleInternal(module);
+        }
+        for (Link link : removedLinks)
+        {
+            fireLinkRemoved(link);
         }
-        boolean changed = modules.remove(module);
         if (changed)
         {
-            module.setFlow(null);
             fireModuleRemoved(module);
         }
         return changed;
@@ -125,34 +273,204 @@ final class DefaultFlow implements MutableFlow
 
     @Override
     public boolean addLink(Link link)
+    {
+        boolean changed;
+        synchronized (lock)
+        {
+            changed = addLinkInternal(link);
+        }
+        if (changed)
+        {
+            fireLinkAdded(link);
+        }
+        return changed;
+    }
+    
+    @Override
+    public boolean removeLink(Link link)
+    {
+        boolean changed;
+        synchronized (lock)
+        {
+            changed = removeLinkInternal(link);
+        }
+        if (changed)
+        {
+            fireLinkRemoved(link);
+        }
+        return changed;
+    }
+    
+    @Override
+    public boolean addAll(Collection<? extends Module> modules,
+        Collection<? extends Link> links)
+    {
+        List<Module> addedModules = new ArrayList<Module>();
+        List<Link> addedLinks = new ArrayList<Link>();
+        synchronized (lock)
+        {
+            for (Module module : modules)
+            {
+                if (addModuleInternal(module))
+                {
+                    addedModules.add(module);
+                }
+            }
+            for (Link link : links)
+            {
+                if (addLinkInternal(link))
+                {
+                    addedLinks.add(link);
+                }
+            }
+        }
+        if (addedModules.isEmpty() && addedLinks.isEmpty())
+        {
+            return false;
+        }
+        fireModulesAndLinksAdded(addedModules, addedLinks);
+        return true;
+    }
+
+    @Override
+    public boolean removeAll(Collection<? extends Module> modules,
+        Collection<? extends Link> links)
+    {
+        List<Link> removedLinks = new ArrayList<Link>();
+        List<Module> removedModules = new ArrayList<Module>();
+        synchronized (lock)
+        {
+            for (Link link : links)
+            {
+                if (removeLinkInternal(link))
+                {
+                    removedLinks.add(link);
+                }
+            }
+            for (Module module : modules)
+            {
+                for (Link link : computeAttachedLinks(module))
+                {
+                    if (removeLinkInternal(link))
+                    {
+                        removedLinks.add(link);
+                    }
+                }
+                if (removeModuleInternal(module))
+                {
+                    removedModules.add(module);
+                }
+            }
+        }
+        if (removedModules.isEmpty() && removedLinks.isEmpty())
+        {
+            return false;
+        }
+        fireModulesAndLinksRemoved(removedModules, removedLinks);
+        return true;
+    }
+    
+    /**
+     * Returns a new list containing all {@link Link} objects of this 
+     * flow that are attached to the given {@link Module}
+     * 
+     * @param module The {@link Module}
+     * @return The links
+     */
+    private List<Link> computeAttachedLinks(Module module)
+    {
+        List<Link> links = new ArrayList<Link>();
+        links.addAll(backwardIndex.getLinks(module));
+        links.addAll(forwardIndex.getLinks(module));
+        return links;
+    }
+    
+    /**
+     * Add the given {@link Module} to this flow, without notifying 
+     * the listeners
+     * 
+     * @param module The {@link Module}
+     * @return Whether this flow changed
+     */
+    private boolean addModuleInternal(Module module)
+    {
+        boolean changed = modules.add(module);
+        if (changed)
+        {
+            snapshot = null;
+            module.setFlow(this);
+        }
+        return changed;
+    }
+    
+    /**
+     * Remove the given {@link Module} from this flow, without notifying 
+     * the listeners. The links of the module must already have been 
+     * removed.
+     * 
+     * @param module The {@link Module}
+     * @return Whether this flow changed
+     */
+    private boolean removeModuleInternal(Module module)
+    {
+        boolean changed = modules.remove(module);
+        if (changed)
+        {
+            snapshot = null;
+            module.setFlow(null);
+        }
+        return changed;
+    }
+    
+    /**
+     * Add the given {@link Link} to this flow, without notifying 
+     * the listeners
+     * 
+     * @param link The {@link Link}
+     * @return Whether this flow changed
+     */
+    private boolean addLinkInternal(Link link)
     {
         boolean changed = links.add(link);
         if (changed)
         {
+            snapshot = null;
             OutputSlot sourceSlot = link.getSourceSlot();
             sourceSlot.addOutputLink(link);
             InputSlot targetSlot = link.getTargetSlot();
             targetSlot.setInputLink(link);
-            fireLinkAdded(link);
+            Module source = sourceSlot.getModule();
+            Module target = targetSlot.getModule();
+            forwardIndex.add(source, target, link);
+            backwardIndex.add(target, source, link);
         }
         return changed;
     }
     
-    @Override
-    public boolean removeLink(Link link)
+    /**
+     * Remove the given {@link Link} from this flow, without notifying 
+     * the listeners
+     * 
+     * @param link The {@link Link}
+     * @return Whether this flow changed
+     */
+    private boolean removeLinkInternal(Link link)
     {
         boolean changed = links.remove(link);
         if (changed)
         {
+            snapshot = null;
             OutputSlot sourceSlot = link.getSourceSlot();
             sourceSlot.removeOutputLink(link);
             InputSlot targetSlot = link.getTargetSlot();
             targetSlot.setInputLink(null);
-            fireLinkRemoved(link);
+            Module source = sourceSlot.getModule();
+            Module target = targetSlot.getModule();
+            forwardIndex.remove(source, target, link);
+            backwardIndex.remove(target, source, link);
         }
         return changed;
     }
-
     
     @Override
     public void addFlowListener(FlowListener flowListener)
@@ -227,6 +545,41 @@ final class DefaultFlow implements MutableFlow
         }
     }
     
+    /**
+     * Notify each registered {@link FlowListener} that the given
+     * {@link Module} and {@link Link} objects have been added.
+     * 
+     * @param addedModules The {@link Module} objects that were added
+     * @param addedLinks The {@link Link} objects that were added
+     */
+    protected final void fireModulesAndLinksAdded(
+        List<Module> addedModules, List<Link> addedLinks)
+    {
+        FlowEvent flowEvent = new FlowEvent(this, addedModules, addedLinks);
+        for (FlowListener flowListener : flowListeners)
+        {
+            flowListener.modulesAndLinksAdded(flowEvent);
+        }
+    }
+    
+    /**
+     * Notify each registered {@link FlowListener} that the given
+     * {@link Module} and {@link Link} objects have been removed.
+     * 
+     * @param removedModules The {@link Module} objects that were removed
+     * @param removedLinks The {@link Link} objects that were removed
+     */
+    protected final void fireModulesAndLinksRemoved(
+        List<Module> removedModules, List<Link> removedLinks)
+    {
+        FlowEvent flowEvent = 
+            new FlowEvent(this, removedModules, removedLinks);
+        for (FlowListener flowListener : flowListeners)
+        {
+            flowListener.modulesAndLinksRemoved(flowEvent);
+        }
+    }
+    
     @Override
     public String toString()
     {
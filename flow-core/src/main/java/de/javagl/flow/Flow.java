@@ -41,19 +41,105 @@ import de.javagl.flow.module.Module;
 public interface Flow
 {
     /**
-     * Returns an unmodifiable view on the set of {@link Module} objects 
+     * Returns an unmodifiable set of the {@link Module} objects. Depending
+     * on the implementation, this may be a view that reflects later 
+     * modifications of this flow, or a copy of the state at the time of
+     * the call. Threads that have to iterate over the elements while the
+     * flow may be modified should use a {@link #snapshot()}.
      * 
      * @return The {@link Module} objects
      */
     Set<Module> getModules();
 
     /**
-     * Returns an unmodifiable view on the set of {@link Link} objects 
+     * Returns an unmodifiable set of the {@link Link} objects. Depending
+     * on the implementation, this may be a view that reflects later 
+     * modifications of this flow, or a copy of the state at the time of
+     * the call. Threads that have to iterate over the elements while the
+     * flow may be modified should use a {@link #snapshot()}.
      * 
      * @return The {@link Link} objects
      */
     Set<Link> getLinks();
     
+    /**
+     * Returns an unmodifiable set containing the direct successors of the 
+     * given {@link Module} in this flow. That is, the {@link Module} objects
+     * that are at the end of a {@link Link} of this flow that starts at
+     * the given {@link Module}.<br>
+     * <br>
+     * The returned set may be a view on an internal data structure. This 
+     * flow may not be modified while iterating over this set.
+     * 
+     * @param module The {@link Module}
+     * @return The successors
+     */
+    Set<Module> getSuccessors(Module module);
+    
+    /**
+     * Returns an unmodifiable set containing the direct predecessors of the 
+     * given {@link Module} in this flow. That is, the {@link Module} objects
+     * that are at the start of a {@link Link} of this flow that ends at
+     * the given {@link Module}.<br>
+     * <br>
+     * The returned set may be a view on an internal data structure. This 
+     * flow may not be modified while iterating over this set.
+     * 
+     * @param module The {@link Module}
+     * @return The predecessors
+     */
+    Set<Module> getPredecessors(Module module);
+    
+    /**
+     * Returns an unmodifiable set containing the {@link Link} objects of 
+     * this flow that end at the given {@link Module}.<br>
+     * <br>
+     * The returned set may be a view on an internal data structure. This 
+     * flow may not be modified while iterating over this set.
+     * 
+     * @param module The {@link Module}
+     * @return The incoming links
+     */
+    Set<Link> getIncomingLinks(Module module);
+    
+    /**
+     * Returns an unmodifiable set containing the {@link Link} objects of 
+     * this flow that start at the given {@link Module}.<br>
+     * <br>
+     * The returned set may be a view on an internal data structure. This 
+     * flow may not be modified while iterating over this set.
+     * 
+     * @param module The {@link Module}
+     * @return The outgoing links
+     */
+    Set<Link> getOutgoingLinks(Module module);
+    
+    /**
+     * Returns the {@link FlowTopology} of this flow. This is an immutable
+     * snapshot of the modules and links of this flow, which assigns a 
+     * dense index to each {@link Module} and {@link Link}. Implementations 
+     * may return the same instance as long as this flow is not modified.
+     * 
+     * @return The {@link FlowTopology}
+     */
+    FlowTopology getTopology();
+    
+    /**
+     * Returns an immutable snapshot of this flow. The returned flow 
+     * contains the {@link Module} objects and {@link Link} objects that 
+     * are contained in this flow at the time of the call, and will not 
+     * be affected by later modifications of this flow. It may be used
+     * by other threads, for example, by the threads that execute the 
+     * flow while it is edited. Note that only the structure of the flow
+     * is frozen: The modules themselves are still the same instances.<br>
+     * <br>
+     * Implementations may return the same instance as long as this flow 
+     * is not modified. An immutable flow may return itself.
+     * 
+     * @return The snapshot
+     */
+    Flow snapshot();
+    
     /**
      * Add the given {@link FlowListener} to be informed about
      * changes in this flow
@@ -28,7 +28,11 @@ package de.javagl.flow;
 
 /**
  * Abstract base implementation of a {@link FlowListener}.
- * All methods are empty and may be overridden.
+ * All methods for individual modules and links are empty and may be 
+ * overridden. The methods that receive events about multiple modules 
+ * and links will, by default, pass single-element events to the 
+ * methods for the individual modules and links, as described in
+ * {@link FlowListener}.
  */
 public abstract class FlowAdapter implements FlowListener
 {
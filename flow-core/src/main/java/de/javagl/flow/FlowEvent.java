@@ -27,6 +27,8 @@
 
 package de.javagl.flow;
 
+import java.util.Collection;
+import java.util.Collections;
 import java.util.EventObject;
 
 import de.javagl.flow.link.Link;
@@ -34,7 +36,9 @@ import de.javagl.flow.module.Module;
 
 /**
  * An event that passed to a {@link FlowListener} to indicate
- * a change in a {@link Flow}
+ * a change in a {@link Flow}. The event either refers to a single
+ * {@link Module} or {@link Link}, or to collections of modules
+ * and links that have been added or removed in a single operation.
  */
 public final class FlowEvent extends EventObject
 {
@@ -53,6 +57,16 @@ public final class FlowEvent extends EventObject
      */
     private final Link link;
     
+    /**
+     * The {@link Module} objects that have been added or removed
+     */
+    private final Collection<Module> modules;
+    
+    /**
+     * The {@link Link} objects that have been added or removed
+     */
+    private final Collection<Link> links;
+    
     /**
      * Creates a new event with the given parameters
      * 
@@ -61,7 +75,9 @@ public final class FlowEvent extends EventObject
      */
     FlowEvent(Flow flow, Module module)
     {
-        this(flow, module, null);
+        this(flow, module, null, 
+            Collections.singletonList(module), 
+            Collections.<Link>emptyList());
     }
     
     /**
@@ -72,7 +88,23 @@ public final class FlowEvent extends EventObject
      */
     FlowEvent(Flow flow, Link link)
     {
-        this(flow, null, link);
+        this(flow, null, link, 
+            Collections.<Module>emptyList(), 
+            Collections.singletonList(link));
+    }
+    
+    /**
+     * Creates a new event with the given parameters
+     * 
+     * @param flow The {@link Flow} from which this event originates
+     * @param modules The {@link Module} objects that were added or removed
+     * @param links The {@link Link} objects that were added or removed
+     */
+    FlowEvent(Flow flow, Collection<Module> modules, Collection<Link> links)
+    {
+        this(flow, null, null, 
+            Collections.unmodifiableCollection(modules), 
+            Collections.unmodifiableCollection(links));
     }
     
     /**
@@ -81,13 +113,18 @@ public final class FlowEvent extends EventObject
      * @param flow The {@link Flow} from which this event originates
      * @param module The optional {@link Module} that was added or removed
      * @param link The optional {@link Link} that was added or removed
+     * @param modules The {@link Module} objects that were added or removed
+     * @param links The {@link Link} objects that were added or removed
      */
-    private FlowEvent(Flow flow, Module module, Link link)
+    private FlowEvent(Flow flow, Module module, Link link, 
+        Collection<Module> modules, Collection<Link> links)
     {
         super(flow);
         this.flow = flow;
         this.module = module;
         this.link = link;
+        this.modules = modules;
+        this.links = links;
     }
 
     /**
@@ -101,7 +138,9 @@ public final class FlowEvent extends EventObject
     }
 
     /**
-     * Returns the optional {@link Module} that was added or removed
+     * Returns the optional {@link Module} that was added or removed.
+     * This is <code>null</code> for events that refer to multiple 
+     * modules and links.
      * 
      * @return The optional {@link Module} that was added or removed
      */
@@ -111,7 +150,9 @@ public final class FlowEvent extends EventObject
     }
 
     /**
-     * Returns the optional {@link Link} that was added or removed
+     * Returns the optional {@link Link} that was added or removed.
+     * This is <code>null</code> for events that refer to multiple 
+     * modules and links.
      * 
      * @return The optional {@link Link} that was added or removed
      */
@@ -119,4 +160,28 @@ public final class FlowEvent extends EventObject
     {
         return link;
     }
+    
+    /**
+     * Returns an unmodifiable collection containing all {@link Module} 
+     * objects that were added or removed. For events that refer to a 
+     * single {@link Module}, this contains only this module.
+     * 
+     * @return The {@link Module} objects
+     */
+    public Collection<Module> getModules()
+    {
+        return modules;
+    }
+    
+    /**
+     * Returns an unmodifiable collection containing all {@link Link} 
+     * objects that were added or removed. For events that refer to a 
+     * single {@link Link}, this contains only this link.
+     * 
+     * @return The {@link Link} objects
+     */
+    public Collection<Link> getLinks()
+    {
+        return links;
+    }
 }
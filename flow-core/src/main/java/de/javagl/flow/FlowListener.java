@@ -64,5 +64,62 @@ public interface FlowListener extends EventListener
      * @param flowEvent The {@link FlowEvent} 
      */
     void linkRemoved(FlowEvent flowEvent);
+    
+    /**
+     * Will be called when multiple {@link Module} objects and 
+     * {@link Link} objects have been added to a {@link Flow} in a 
+     * single operation, as in {@link MutableFlow#addAll}. The 
+     * {@link FlowEvent#getModules()} and {@link FlowEvent#getLinks()} 
+     * methods return the elements that have been added. In this case, 
+     * the {@link #moduleAdded} and {@link #linkAdded} methods will 
+     * not be called for the individual elements by the flow.<br>
+     * <br>
+     * The default implementation passes single-element events to the
+     * {@link #moduleAdded} and {@link #linkAdded} methods. Implementations
+     * may override this method to handle all elements at once.
+     * 
+     * @param flowEvent The {@link FlowEvent} 
+     */
+    default void modulesAndLinksAdded(FlowEvent flowEvent)
+    {
+        Flow flow = flowEvent.getFlow();
+        for (Module module : flowEvent.getModules())
+        {
+            moduleAdded(new FlowEvent(flow, module));
+        }
+        for (Link link : flowEvent.getLinks())
+        {
+            linkAdded(new FlowEvent(flow, link));
+        }
+    }
+    
+    /**
+     * Will be called when multiple {@link Module} objects and 
+     * {@link Link} objects have been removed from a {@link Flow} in a 
+     * single operation, as in {@link MutableFlow#removeAll}. The 
+     * {@link FlowEvent#getModules()} and {@link FlowEvent#getLinks()} 
+     * methods return the elements that have been removed. In this case, 
+     * the {@link #moduleRemoved} and {@link #linkRemoved} methods will 
+     * not be called for the individual elements by the flow.<br>
+     * <br>
+     * The default implementation passes single-element events to the
+     * {@link #linkRemoved} and {@link #moduleRemoved} methods. 
+     * Implementations may override this method to handle all elements 
+     * at once.
+     * 
+     * @param flowEvent The {@link FlowEvent} 
+     */
+    default void modulesAndLinksRemoved(FlowEvent flowEvent)
+    {
+        Flow flow = flowEvent.getFlow();
+        for (Link link : flowEvent.getLinks())
+        {
+            linkRemoved(new FlowEvent(flow, link));
+        }
+        for (Module module : flowEvent.getModules())
+        {
+            moduleRemoved(new FlowEvent(flow, module));
+        }
+    }
 
 }
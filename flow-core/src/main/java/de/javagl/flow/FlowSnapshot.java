@@ -0,0 +1,222 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.module.Module;
+
+/**
+ * Implementation of a {@link Flow} that is an immutable snapshot of
+ * the modules and links of another {@link Flow}. Instances of this
+ * class are created with {@link Flow#snapshot()}, and may safely be
+ * shared between threads.
+ */
+final class FlowSnapshot implements Flow
+{
+    /**
+     * The {@link Module} objects in this flow
+     */
+    private final Set<Module> modules;
+
+    /**
+     * The {@link Link} objects in this flow
+     */
+    private final Set<Link> links;
+
+    /**
+     * The {@link AdjacencyIndexes}, created lazily
+     */
+    private volatile AdjacencyIndexes adjacencyIndexes;
+
+    /**
+     * The {@link TypeContext} of the original flow
+     */
+    private final TypeContext typeContext;
+
+    /**
+     * The {@link FlowTopology}, created lazily
+     */
+    private volatile FlowTopology topology;
+
+    /**
+     * Creates a new snapshot that contains the given modules and links.
+     * The given collections will be copied. The adjacency indexes are
+     * only built when they are needed for the first time.
+     *
+     * @param modules The {@link Module} objects
+     * @param links The {@link Link} objects
+     * @param typeContext The {@link TypeContext}
+     */
+    FlowSnapshot(Collection<? extends Module> modules,
+        Collection<? extends Link> links, TypeContext typeContext)
+    {
+        this.modules = Collections.unmodifiableSet(
+            new LinkedHashSet<Module>(modules));
+        this.links = Collections.unmodifiableSet(
+            new LinkedHashSet<Link>(links));
+        this.typeContext = typeContext;
+    }
+
+    @Override
+    public Set<Module> getModules()
+    {
+        return modules;
+    }
+
+    @Override
+    public Set<Link> getLinks()
+    {
+        return links;
+    }
+
+    @Override
+    public Set<Module> getSuccessors(Module module)
+    {
+        return getAdjacencyIndexes().forwardIndex.getNeighbors(module);
+    }
+
+    @Override
+    public Set<Module> getPredecessors(Module module)
+    {
+        return getAdjacencyIndexes().backwardIndex.getNeighbors(module);
+    }
+
+    @Override
+    public Set<Link> getIncomingLinks(Module module)
+    {
+        return getAdjacencyIndexes().backwardIndex.getLinks(module);
+    }
+
+    @Override
+    public Set<Link> getOutgoingLinks(Module module)
+    {
+        return getAdjacencyIndexes().forwardIndex.getLinks(module);
+    }
+
+    /**
+     * Returns the {@link AdjacencyIndexes}, creating them if necessary
+     *
+     * @return The {@link AdjacencyIndexes}
+     */
+    private AdjacencyIndexes getAdjacencyIndexes()
+    {
+        AdjacencyIndexes result = adjacencyIndexes;
+        if (result == null)
+        {
+            result = new AdjacencyIndexes(links);
+            adjacencyIndexes = result;
+        }
+        return result;
+    }
+
+    @Override
+    public FlowTopology getTopology()
+    {
+        FlowTopology result = topology;
+        if (result == null)
+        {
+            result = new FlowTopology(this);
+            topology = result;
+        }
+        return result;
+    }
+
+    @Override
+    public Flow snapshot()
+    {
+        return this;
+    }
+
+    @Override
+    public void addFlowListener(FlowListener flowListener)
+    {
+        // A snapshot never changes, so listeners are not stored
+    }
+
+    @Override
+    public void removeFlowListener(FlowListener flowListener)
+    {
+        // A snapshot never changes, so listeners are not stored
+    }
+
+    @Override
+    public TypeContext getTypeContext()
+    {
+        return typeContext;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FlowSnapshot["
+            + modules.size() + " modules, "
+            + links.size() + " links]";
+    }
+
+    /**
+     * The indexes of the links and neighbors of each {@link Module}, in
+     * both directions. These are stored in one object, so that they can
+     * be published together.
+     */
+    private static final class AdjacencyIndexes
+    {
+        /**
+         * The index of outgoing links and successors of each 
+         * {@link Module}
+         */
+        private final AdjacencyIndex forwardIndex;
+
+        /**
+         * The index of incoming links and predecessors of each 
+         * {@link Module}
+         */
+        private final AdjacencyIndex backwardIndex;
+
+        /**
+         * Creates the indexes for the given links
+         *
+         * @param links The {@link Link} objects
+         */
+        AdjacencyIndexes(Collection<? extends Link> links)
+        {
+            this.forwardIndex = new AdjacencyIndex();
+            this.backwardIndex = new AdjacencyIndex();
+            for (Link link : links)
+            {
+                Module source = link.getSourceSlot().getModule();
+                Module target = link.getTargetSlot().getModule();
+                forwardIndex.add(source, target, link);
+                backwardIndex.add(target, source, link);
+            }
+        }
+    }
+}
@@ -0,0 +1,451 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.module.Module;
+
+/**
+ * An immutable snapshot of the topology of a {@link Flow}.<br>
+ * <br>
+ * Each {@link Module} and each {@link Link} of the flow is assigned a
+ * dense index, starting at 0, in the order in which they are returned
+ * by {@link Flow#getModules()} and {@link Flow#getLinks()}. The
+ * successors and predecessors of each module are stored in the
+ * compressed sparse row (CSR) format, as <code>int</code> arrays
+ * that contain module indices. This allows algorithms to operate on
+ * <code>int</code> arrays and <code>BitSet</code> instances, instead
+ * of hash-based collections of modules.<br>
+ * <br>
+ * Instances of this class are obtained with {@link Flow#getTopology()}.
+ * They are not updated when the flow is modified.
+ */
+public final class FlowTopology
+{
+    /**
+     * The modules, in the order of their indices
+     */
+    private final List<Module> modules;
+
+    /**
+     * The links, in the order of their indices
+     */
+    private final List<Link> links;
+
+    /**
+     * The mapping from modules to their indices
+     */
+    private final Map<Module, Integer> moduleIndices;
+
+    /**
+     * The mapping from links to their indices
+     */
+    private final Map<Link, Integer> linkIndices;
+
+    /**
+     * The index of the source module of each link, or -1 if the source
+     * module is not contained in the flow
+     */
+    private final int[] linkSources;
+
+    /**
+     * The index of the target module of each link, or -1 if the target
+     * module is not contained in the flow
+     */
+    private final int[] linkTargets;
+
+    /**
+     * The offsets of the successors of each module in the
+     * {@link #successors} array. This has a length of
+     * <code>numModules + 1</code>.
+     */
+    private final int[] successorOffsets;
+
+    /**
+     * The indices of the successors of all modules
+     */
+    private final int[] successors;
+
+    /**
+     * The offsets of the predecessors of each module in the
+     * {@link #predecessors} array. This has a length of
+     * <code>numModules + 1</code>.
+     */
+    private final int[] predecessorOffsets;
+
+    /**
+     * The indices of the predecessors of all modules
+     */
+    private final int[] predecessors;
+
+    /**
+     * Creates a new topology for the given {@link Flow}
+     *
+     * @param flow The {@link Flow}
+     */
+    FlowTopology(Flow flow)
+    {
+        this.modules = Collections.unmodifiableList(
+            new ArrayList<Module>(flow.getModules()));
+        this.links = Collections.unmodifiableList(
+            new ArrayList<Link>(flow.getLinks()));
+
+        int numModules = modules.size();
+        this.moduleIndices = new HashMap<Module, Integer>();
+        for (int i = 0; i < numModules; i++)
+        {
+            moduleIndices.put(modules.get(i), i);
+        }
+
+        int numLinks = links.size();
+        this.linkIndices = new HashMap<Link, Integer>();
+        this.linkSources = new int[numLinks];
+        this.linkTargets = new int[numLinks];
+        for (int i = 0; i < numLinks; i++)
+        {
+            Link link = links.get(i);
+            linkIndices.put(link, i);
+            linkSources[i] = getModuleIndex(
+                link.getSourceSlot().getModule());
+            linkTargets[i] = getModuleIndex(
+                link.getTargetSlot().getModule());
+        }
+
+        this.successorOffsets = new int[numModules + 1];
+        this.successors =
+            createAdjacency(linkSources, linkTargets, successorOffsets);
+        this.predecessorOffsets = new int[numModules + 1];
+        this.predecessors =
+            createAdjacency(linkTargets, linkSources, predecessorOffsets);
+    }
+
+    /**
+     * Create the CSR adjacency array for the given links. For each
+     * link <code>i</code>, the module <code>to[i]</code> will be a
+     * neighbor of the module <code>from[i]</code>. Links where one
+     * of the modules is not contained in the flow are ignored, and
+     * each neighbor is only stored once.
+     *
+     * @param from The modules where the links start
+     * @param to The modules where the links end
+     * @param offsets The array that will store the offsets
+     * @return The neighbors array
+     */
+    private static int[] createAdjacency(int from[], int to[], int offsets[])
+    {
+        int numModules = offsets.length - 1;
+        int counts[] = new int[numModules];
+        for (int i = 0; i < from.length; i++)
+        {
+            if (from[i] != -1 && to[i] != -1)
+            {
+                counts[from[i]]++;
+            }
+        }
+        for (int m = 0; m < numModules; m++)
+        {
+            offsets[m + 1] = offsets[m] + counts[m];
+        }
+        int neighbors[] = new int[offsets[numModules]];
+        int fill[] = Arrays.copyOf(offsets, numModules);
+        for (int i = 0; i < from.length; i++)
+        {
+            if (from[i] != -1 && to[i] != -1)
+            {
+                neighbors[fill[from[i]]++] = to[i];
+            }
+        }
+
+        // Remove duplicate neighbors that are caused by multiple
+        // links between the same modules, compacting the array
+        int stamps[] = new int[numModules];
+        Arrays.fill(stamps, -1);
+        int size = 0;
+        int start = 0;
+        for (int m = 0; m < numModules; m++)
+        {
+            int end = offsets[m + 1];
+            offsets[m] = size;
+            for (int k = start; k < end; k++)
+            {
+                int n = neighbors[k];
+                if (stamps[n] != m)
+                {
+                    stamps[n] = m;
+                    neighbors[size++] = n;
+                }
+            }
+            start = end;
+        }
+        offsets[numModules] = size;
+        return Arrays.copyOf(neighbors, size);
+    }
+
+    /**
+     * Returns the number of modules
+     *
+     * @return The number of modules
+     */
+    public int getModuleCount()
+    {
+        return modules.size();
+    }
+
+    /**
+     * Returns the number of links
+     *
+     * @return The number of links
+     */
+    public int getLinkCount()
+    {
+        return links.size();
+    }
+
+    /**
+     * Returns an unmodifiable list containing the modules, in the order
+     * of their indices
+     *
+     * @return The modules
+     */
+    public List<Module> getModules()
+    {
+        return modules;
+    }
+
+    /**
+     * Returns an unmodifiable list containing the links, in the order
+     * of their indices
+     *
+     * @return The links
+     */
+    public List<Link> getLinks()
+    {
+        return links;
+    }
+
+    /**
+     * Returns the module with the given index
+     *
+     * @param index The index
+     * @return The module
+     * @throws IndexOutOfBoundsException If the index is negative or
+     * not smaller than the {@link #getModuleCount() module count}
+     */
+    public Module getModule(int index)
+    {
+        return modules.get(index);
+    }
+
+    /**
+     * Returns the link with the given index
+     *
+     * @param index The index
+     * @return The link
+     * @throws IndexOutOfBoundsException If the index is negative or
+     * not smaller than the {@link #getLinkCount() link count}
+     */
+    public Link getLink(int index)
+    {
+        return links.get(index);
+    }
+
+    /**
+     * Returns the index of the given module, or -1 if the module is
+     * not contained in this topology
+     *
+     * @param module The module
+     * @return The index
+     */
+    public int getModuleIndex(Module module)
+    {
+        Integer index = moduleIndices.get(module);
+        if (index == null)
+        {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the given link, or -1 if the link is
+     * not contained in this topology
+     *
+     * @param link The link
+     * @return The index
+     */
+    public int getLinkIndex(Link link)
+    {
+        Integer index = linkIndices.get(link);
+        if (index == null)
+        {
+            return -1;
+        }
+        return index;
+    }
+
+    /**
+     * Returns the index of the source module of the link with the given
+     * index, or -1 if the source module is not contained in the flow
+     *
+     * @param linkIndex The link index
+     * @return The source module index
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int getLinkSource(int linkIndex)
+    {
+        return linkSources[linkIndex];
+    }
+
+    /**
+     * Returns the index of the target module of the link with the given
+     * index, or -1 if the target module is not contained in the flow
+     *
+     * @param linkIndex The link index
+     * @return The target module index
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int getLinkTarget(int linkIndex)
+    {
+        return linkTargets[linkIndex];
+    }
+
+    /**
+     * Returns the number of distinct successors of the module with the
+     * given index
+     *
+     * @param moduleIndex The module index
+     * @return The number of successors
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int getSuccessorCount(int moduleIndex)
+    {
+        return successorOffsets[moduleIndex + 1]
+            - successorOffsets[moduleIndex];
+    }
+
+    /**
+     * Returns the index of the specified successor of the module with
+     * the given index
+     *
+     * @param moduleIndex The module index
+     * @param k The index of the successor, between 0 (inclusive) and
+     * the {@link #getSuccessorCount(int) successor count} (exclusive)
+     * @return The index of the successor module
+     * @throws IndexOutOfBoundsException If one of the indices is not
+     * valid
+     */
+    public int getSuccessor(int moduleIndex, int k)
+    {
+        if (k < 0 || k >= getSuccessorCount(moduleIndex))
+        {
+            throw new IndexOutOfBoundsException(
+                "Successor index " + k + " is not valid for module "
+                + moduleIndex);
+        }
+        return successors[successorOffsets[moduleIndex] + k];
+    }
+
+    /**
+     * Returns a new array containing the indices of the distinct
+     * successors of the module with the given index
+     *
+     * @param moduleIndex The module index
+     * @return The successor indices
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int[] getSuccessors(int moduleIndex)
+    {
+        return Arrays.copyOfRange(successors,
+            successorOffsets[moduleIndex], successorOffsets[moduleIndex + 1]);
+    }
+
+    /**
+     * Returns the number of distinct predecessors of the module with the
+     * given index
+     *
+     * @param moduleIndex The module index
+     * @return The number of predecessors
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int getPredecessorCount(int moduleIndex)
+    {
+        return predecessorOffsets[moduleIndex + 1]
+            - predecessorOffsets[moduleIndex];
+    }
+
+    /**
+     * Returns the index of the specified predecessor of the module with
+     * the given index
+     *
+     * @param moduleIndex The module index
+     * @param k The index of the predecessor, between 0 (inclusive) and
+     * the {@link #getPredecessorCount(int) predecessor count} (exclusive)
+     * @return The index of the predecessor module
+     * @throws IndexOutOfBoundsException If one of the indices is not
+     * valid
+     */
+    public int getPredecessor(int moduleIndex, int k)
+    {
+        if (k < 0 || k >= getPredecessorCount(moduleIndex))
+        {
+            throw new IndexOutOfBoundsException(
+                "Predecessor index " + k + " is not valid for module "
+                + moduleIndex);
+        }
+        return predecessors[predecessorOffsets[moduleIndex] + k];
+    }
+
+    /**
+     * Returns a new array containing the indices of the distinct
+     * predecessors of the module with the given index
+     *
+     * @param moduleIndex The module index
+     * @return The predecessor indices
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public int[] getPredecessors(int moduleIndex)
+    {
+        return Arrays.copyOfRange(predecessors,
+            predecessorOffsets[moduleIndex],
+            predecessorOffsets[moduleIndex + 1]);
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FlowTopology["
+            + modules.size() + " modules, "
+            + links.size() + " links]";
+    }
+}
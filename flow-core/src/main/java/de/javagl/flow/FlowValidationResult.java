@@ -0,0 +1,119 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.util.Collections;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+import de.javagl.flow.module.slot.Slot;
+
+/**
+ * The result of {@link Flows#validate(Flow) validating} a {@link Flow}.
+ * This summarizes the {@link Link} objects that are not 
+ * {@link Links#isValid(TypeContext, Link) valid}, and the {@link Slot} 
+ * objects whose types contain type variables that could not be bound 
+ * to a type by the {@link TypeContext} of the flow.
+ */
+public final class FlowValidationResult
+{
+    /**
+     * The invalid links
+     */
+    private final Set<Link> invalidLinks;
+
+    /**
+     * The slots with unresolved types
+     */
+    private final Set<Slot> unresolvedSlots;
+
+    /**
+     * Creates a new instance. The given sets will be copied.
+     *
+     * @param invalidLinks The invalid links
+     * @param unresolvedSlots The slots with unresolved types
+     */
+    FlowValidationResult(Set<? extends Link> invalidLinks,
+        Set<? extends Slot> unresolvedSlots)
+    {
+        this.invalidLinks = Collections.unmodifiableSet(
+            new LinkedHashSet<Link>(invalidLinks));
+        this.unresolvedSlots = Collections.unmodifiableSet(
+            new LinkedHashSet<Slot>(unresolvedSlots));
+    }
+
+    /**
+     * Returns whether the flow was valid. That is, whether there are no
+     * {@link #getInvalidLinks() invalid links} and no 
+     * {@link #getUnresolvedSlots() unresolved slots}.
+     *
+     * @return Whether the flow was valid
+     */
+    public boolean isValid()
+    {
+        return invalidLinks.isEmpty() && unresolvedSlots.isEmpty();
+    }
+
+    /**
+     * Returns an unmodifiable set containing the {@link Link} objects of
+     * the flow where the {@link InputSlot#getExpectedType() expected type}
+     * of the target slot is not assignable from the 
+     * {@link OutputSlot#getActualType() actual type} of the source slot.
+     *
+     * @return The invalid links
+     */
+    public Set<Link> getInvalidLinks()
+    {
+        return invalidLinks;
+    }
+
+    /**
+     * Returns an unmodifiable set containing the {@link Slot} objects that
+     * are attached to a {@link Link} of the flow, and whose 
+     * {@link InputSlot#getExpectedType() expected type} or 
+     * {@link OutputSlot#getActualType() actual type} still contains type
+     * variables.
+     *
+     * @return The unresolved slots
+     */
+    public Set<Slot> getUnresolvedSlots()
+    {
+        return unresolvedSlots;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "FlowValidationResult["
+            + "invalidLinks=" + invalidLinks + ","
+            + "unresolvedSlots=" + unresolvedSlots + "]";
+    }
+}
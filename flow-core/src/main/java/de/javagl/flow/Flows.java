@@ -26,6 +26,21 @@
  */
 package de.javagl.flow;
 
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.LinkedHashSet;
+import java.util.Objects;
+import java.util.Set;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+import de.javagl.flow.module.slot.Slot;
+
 /**
  * Utility methods to create {@link Flow} instances
  */
@@ -41,6 +56,134 @@ public class Flows
         return new DefaultFlow();
     }
     
+    /**
+     * Creates a new {@link MutableFlow} whose {@link TypeContext} infers
+     * the types that the type variables of the slots are bound to.<br>
+     * <br>
+     * Whenever a {@link de.javagl.flow.link.Link} is added to or removed 
+     * from the flow, the bindings of the type variables that appear in 
+     * the formal types of its slots are updated. The 
+     * {@link de.javagl.flow.module.slot.InputSlot#getExpectedType() 
+     * expected types} and 
+     * {@link de.javagl.flow.module.slot.OutputSlot#getActualType() 
+     * actual types} of the slots then reflect these bindings. For example,
+     * when the output of a module that has the formal type 
+     * <code>List&lt;T&gt;</code> is connected to an input of the type 
+     * <code>List&lt;String&gt;</code>, then the inputs of the first module
+     * that have the formal type <code>T</code> will have the expected
+     * type <code>String</code>. A link between incompatible types can 
+     * thus be detected before the flow is executed, by checking whether
+     * the expected type of its target slot is 
+     * {@link TypeContext#isAssignable assignable} from the actual type 
+     * of its source slot.  
+     * 
+     * @return The new {@link MutableFlow}
+     */
+    public static MutableFlow createWithTypeInference()
+    {
+        InferringTypeContext typeContext = new InferringTypeContext();
+        DefaultFlow flow = 
+            new DefaultFlow(TypeContexts.createCaching(typeContext));
+        flow.addFlowListener(typeContext);
+        return flow;
+    }
+    
+    /**
+     * Validate the given {@link Flow}. This checks each {@link Link} of
+     * the flow with {@link Links#isValid(TypeContext, Link)}, using the
+     * {@link Flow#getTypeContext() type context} of the flow, and 
+     * collects the slots of the links whose 
+     * {@link InputSlot#getExpectedType() expected type} or
+     * {@link OutputSlot#getActualType() actual type} still contains 
+     * type variables. For a flow that was created with 
+     * {@link #createWithTypeInference()}, these are the slots where 
+     * the type variables could not be bound. The validation operates 
+     * on a {@link Flow#snapshot() snapshot} of the given flow. 
+     * 
+     * @param flow The {@link Flow}
+     * @return The {@link FlowValidationResult}
+     * @throws NullPointerException If the given flow is <code>null</code>
+     */
+    public static FlowValidationResult validate(Flow flow)
+    {
+        Objects.requireNonNull(flow, "The flow may not be null");
+        Flow snapshot = flow.snapshot();
+        TypeContext typeContext = snapshot.getTypeContext();
+        Set<Link> invalidLinks = new LinkedHashSet<Link>();
+        Set<Slot> unresolvedSlots = new LinkedHashSet<Slot>();
+        for (Link link : snapshot.getLinks())
+        {
+            if (!Links.isValid(typeContext, link))
+            {
+                invalidLinks.add(link);
+            }
+            OutputSlot sourceSlot = link.getSourceSlot();
+            if (containsTypeVariable(sourceSlot.getActualType()))
+            {
+                unresolvedSlots.add(sourceSlot);
+            }
+            InputSlot targetSlot = link.getTargetSlot();
+            if (containsTypeVariable(targetSlot.getExpectedType()))
+            {
+                unresolvedSlots.add(targetSlot);
+            }
+        }
+        return new FlowValidationResult(invalidLinks, unresolvedSlots);
+    }
+    
+    /**
+     * Returns whether the given type is or contains a {@link TypeVariable}
+     * 
+     * @param type The type. May be <code>null</code>.
+     * @return Whether the type contains a type variable
+     */
+    private static boolean containsTypeVariable(Type type)
+    {
+        if (type instanceof TypeVariable<?>)
+        {
+            return true;
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType) type;
+            return containsTypeVariable(parameterizedType.getOwnerType()) 
+                || containsTypeVariable(
+                    parameterizedType.getActualTypeArguments());
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType) type;
+            return containsTypeVariable(wildcardType.getUpperBounds()) 
+                || containsTypeVariable(wildcardType.getLowerBounds());
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType) type;
+            return containsTypeVariable(
+                genericArrayType.getGenericComponentType());
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether any of the given types is or contains a 
+     * {@link TypeVariable}
+     * 
+     * @param types The types
+     * @return Whether any type contains a type variable
+     */
+    private static boolean containsTypeVariable(Type types[])
+    {
+        for (Type type : types)
+        {
+            if (containsTypeVariable(type))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
     /**
      * Private constructor to prevent instantiation
      */
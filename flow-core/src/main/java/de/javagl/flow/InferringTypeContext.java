@@ -0,0 +1,721 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.lang.reflect.GenericArrayType;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.lang.reflect.WildcardType;
+import java.util.ArrayDeque;
+import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
+import java.util.function.Function;
+
+import de.javagl.flow.link.Link;
+import de.javagl.types.PrimitiveTypes;
+import de.javagl.types.TypeAssignabilityTester;
+import de.javagl.types.TypeAssignabilityTesters;
+import de.javagl.types.Types;
+
+/**
+ * Implementation of a {@link TypeContext} that infers the types that
+ * the type variables of the slots in a {@link Flow} are bound to.<br>
+ * <br>
+ * This type context is a {@link FlowListener} that has to be attached
+ * to the flow. Each {@link Link} in the flow imposes the constraint that
+ * the formal type of its source slot is assignable to the formal type of
+ * its target slot. These constraints are solved by unification: When
+ * the one type is a type variable, then it is bound to the other type.
+ * When both types are parameterized types, then their type arguments
+ * are unified, after the source type has been converted into the
+ * corresponding supertype, if necessary.<br>
+ * <br>
+ * The bindings are updated incrementally: When a link is added, only
+ * the constraint of this link is solved. When a link is removed, then
+ * only the constraints of the links that are connected to the removed
+ * link via common type variables are solved again.<br>
+ * <br>
+ * The {@link #resolveType(Type)} method replaces the type variables in
+ * the given type with the types that they are bound to. The
+ * {@link #isAssignable(Type, Type)} method checks the assignability of
+ * the resolved types, treating the remaining type variables as free
+ * and unbounded. Conflicting constraints do not cause an error when
+ * the links are added. Instead, a link for which the resolved
+ * {@link de.javagl.flow.module.slot.InputSlot#getExpectedType()
+ * expected type} is not assignable from the resolved
+ * {@link de.javagl.flow.module.slot.OutputSlot#getActualType()
+ * actual type} is not valid in this context.
+ */
+final class InferringTypeContext implements TypeContext, FlowListener
+{
+    /**
+     * The maximum recursion depth for resolving and unifying types,
+     * to guard against types that refer to themselves
+     */
+    private static final int MAX_DEPTH = 100;
+
+    /**
+     * The {@link TypeAssignabilityTester}
+     */
+    private final TypeAssignabilityTester typeAssignabilityTester;
+
+    /**
+     * The union-find structure for the type variables: Each type variable
+     * is mapped to its parent. Type variables that are not contained in
+     * this map are their own representative.
+     */
+    private final Map<TypeVariable<?>, TypeVariable<?>> parents;
+
+    /**
+     * The mapping from representative type variables to the types
+     * that they are bound to
+     */
+    private final Map<TypeVariable<?>, Type> bindings;
+
+    /**
+     * The type variables that appear in the formal types of the slots
+     * of each {@link Link}
+     */
+    private final Map<Link, Set<TypeVariable<?>>> linkVariables;
+
+    /**
+     * The {@link Link}s whose slots have formal types that contain
+     * each type variable
+     */
+    private final Map<TypeVariable<?>, Set<Link>> variableLinks;
+
+    /**
+     * The generation of this type context
+     */
+    private volatile long generation;
+
+    /**
+     * Default constructor
+     */
+    InferringTypeContext()
+    {
+        typeAssignabilityTester =
+            TypeAssignabilityTesters.createForFreeUnboundedTypeVariables();
+        parents = new HashMap<TypeVariable<?>, TypeVariable<?>>();
+        bindings = new HashMap<TypeVariable<?>, Type>();
+        linkVariables = new HashMap<Link, Set<TypeVariable<?>>>();
+        variableLinks = new HashMap<TypeVariable<?>, Set<Link>>();
+    }
+
+    @Override
+    public boolean isAssignable(Type to, Type from)
+    {
+        return typeAssignabilityTester.isAssignable(
+            resolveType(to), resolveType(from));
+    }
+
+    @Override
+    public synchronized Type resolveType(Type type)
+    {
+        return resolve(type, 0);
+    }
+
+    @Override
+    public long getGeneration()
+    {
+        return generation;
+    }
+
+    @Override
+    public void moduleAdded(FlowEvent flowEvent)
+    {
+        // Modules do not impose any constraints
+    }
+
+    @Override
+    public void moduleRemoved(FlowEvent flowEvent)
+    {
+        // The links of the module have already been removed
+    }
+
+    @Override
+    public void linkAdded(FlowEvent flowEvent)
+    {
+        addLinks(Collections.singleton(flowEvent.getLink()));
+    }
+
+    @Override
+    public void linkRemoved(FlowEvent flowEvent)
+    {
+        removeLinks(Collections.singleton(flowEvent.getLink()));
+    }
+
+    @Override
+    public void modulesAndLinksAdded(FlowEvent flowEvent)
+    {
+        addLinks(flowEvent.getLinks());
+    }
+
+    @Override
+    public void modulesAndLinksRemoved(FlowEvent flowEvent)
+    {
+        removeLinks(flowEvent.getLinks());
+    }
+
+    /**
+     * Add the constraints of the given {@link Link}s
+     *
+     * @param links The {@link Link}s
+     */
+    private synchronized void addLinks(Iterable<? extends Link> links)
+    {
+        boolean changed = false;
+        for (Link link : links)
+        {
+            Set<TypeVariable<?>> variables =
+                new LinkedHashSet<TypeVariable<?>>();
+            collectVariables(link.getSourceSlot().getFormalType(), variables);
+            collectVariables(link.getTargetSlot().getFormalType(), variables);
+            if (variables.isEmpty())
+            {
+                continue;
+            }
+            linkVariables.put(link, variables);
+            for (TypeVariable<?> variable : variables)
+            {
+                variableLinks.computeIfAbsent(variable,
+                    v -> new LinkedHashSet<Link>()).add(link);
+            }
+            solve(link);
+            changed = true;
+        }
+        if (changed)
+        {
+            generation++;
+        }
+    }
+
+    /**
+     * Remove the constraints of the given {@link Link}s. This will reset
+     * the bindings of all type variables that are connected to the links
+     * via common type variables, and solve the constraints of the
+     * remaining links that involve these type variables again.
+     *
+     * @param links The {@link Link}s
+     */
+    private synchronized void removeLinks(Iterable<? extends Link> links)
+    {
+        Deque<TypeVariable<?>> queue = new ArrayDeque<TypeVariable<?>>();
+        for (Link link : links)
+        {
+            Set<TypeVariable<?>> variables = linkVariables.remove(link);
+            if (variables == null)
+            {
+                continue;
+            }
+            for (TypeVariable<?> variable : variables)
+            {
+                Set<Link> links0 = variableLinks.get(variable);
+                links0.remove(link);
+                if (links0.isEmpty())
+                {
+                    variableLinks.remove(variable);
+                }
+                queue.add(variable);
+            }
+        }
+        if (queue.isEmpty())
+        {
+            return;
+        }
+        Set<TypeVariable<?>> affectedVariables =
+            new LinkedHashSet<TypeVariable<?>>();
+        Set<Link> affectedLinks = new LinkedHashSet<Link>();
+        while (!queue.isEmpty())
+        {
+            TypeVariable<?> variable = queue.poll();
+            if (!affectedVariables.add(variable))
+            {
+                continue;
+            }
+            Set<Link> links0 = variableLinks.get(variable);
+            if (links0 == null)
+            {
+                continue;
+            }
+            for (Link link : links0)
+            {
+                if (affectedLinks.add(link))
+                {
+                    queue.addAll(linkVariables.get(link));
+                }
+            }
+        }
+        for (TypeVariable<?> variable : affectedVariables)
+        {
+            parents.remove(variable);
+            bindings.remove(variable);
+        }
+        for (Link link : affectedLinks)
+        {
+            solve(link);
+        }
+        generation++;
+    }
+
+    /**
+     * Solve the constraint that is imposed by the given {@link Link}
+     *
+     * @param link The {@link Link}
+     */
+    private void solve(Link link)
+    {
+        unify(link.getTargetSlot().getFormalType(),
+            link.getSourceSlot().getFormalType(), 0);
+    }
+
+    /**
+     * Unify the given types, which describe the constraint that the
+     * type to assign from is assignable to the type to assign to.
+     *
+     * @param to The type to assign to
+     * @param from The type to assign from
+     * @param depth The recursion depth
+     */
+    private void unify(Type to, Type from, int depth)
+    {
+        if (depth > MAX_DEPTH)
+        {
+            return;
+        }
+        if (to instanceof TypeVariable<?> && from instanceof TypeVariable<?>)
+        {
+            unifyVariables(find((TypeVariable<?>)to),
+                find((TypeVariable<?>)from), depth);
+        }
+        else if (to instanceof TypeVariable<?>)
+        {
+            bind(find((TypeVariable<?>)to), from, depth);
+        }
+        else if (from instanceof TypeVariable<?>)
+        {
+            bind(find((TypeVariable<?>)from), to, depth);
+        }
+        else if (to instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedTo = (ParameterizedType)to;
+            Class<?> rawType = (Class<?>)parameterizedTo.getRawType();
+            ParameterizedType parameterizedFrom = asSupertype(from, rawType);
+            if (parameterizedFrom == null)
+            {
+                return;
+            }
+            Type toArguments[] = parameterizedTo.getActualTypeArguments();
+            Type fromArguments[] =
+                parameterizedFrom.getActualTypeArguments();
+            for (int i = 0; i < toArguments.length; i++)
+            {
+                unify(unwrap(toArguments[i]),
+                    unwrap(fromArguments[i]), depth + 1);
+            }
+        }
+        else if (to instanceof WildcardType || from instanceof WildcardType)
+        {
+            unify(unwrap(to), unwrap(from), depth + 1);
+        }
+        else
+        {
+            Type toComponentType = getComponentType(to);
+            Type fromComponentType = getComponentType(from);
+            if (toComponentType != null && fromComponentType != null)
+            {
+                unify(toComponentType, fromComponentType, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Unify the given representative type variables, by making the first
+     * one the representative of the second one, and unifying the types
+     * that they are bound to.
+     *
+     * @param root0 The first type variable
+     * @param root1 The second type variable
+     * @param depth The recursion depth
+     */
+    private void unifyVariables(
+        TypeVariable<?> root0, TypeVariable<?> root1, int depth)
+    {
+        if (root0.equals(root1))
+        {
+            return;
+        }
+        Type binding0 = bindings.get(root0);
+        Type binding1 = bindings.get(root1);
+        if (occurs(root0, binding1, depth) || occurs(root1, binding0, depth))
+        {
+            return;
+        }
+        parents.put(root1, root0);
+        if (binding1 != null)
+        {
+            bindings.remove(root1);
+            if (binding0 == null)
+            {
+                bindings.put(root0, binding1);
+            }
+            else
+            {
+                unify(binding0, binding1, depth + 1);
+            }
+        }
+    }
+
+    /**
+     * Bind the given representative type variable to the given type,
+     * which is not a type variable. If the type variable is already
+     * bound to another type, then the types are unified. If the type
+     * is not within the bounds of the type variable, or contains the
+     * type variable, then the type variable remains unbound.
+     *
+     * @param root The type variable
+     * @param type The type
+     * @param depth The recursion depth
+     */
+    private void bind(TypeVariable<?> root, Type type, int depth)
+    {
+        Type binding = bindings.get(root);
+        if (binding != null)
+        {
+            unify(binding, type, depth + 1);
+            return;
+        }
+        if (occurs(root, type, depth))
+        {
+            return;
+        }
+        Type boundType = PrimitiveTypes.getBoxedType(type);
+        for (Type bound : root.getBounds())
+        {
+            if (!isAssignable(bound, boundType))
+            {
+                return;
+            }
+        }
+        bindings.put(root, boundType);
+    }
+
+    /**
+     * Returns whether the given representative type variable appears in
+     * the given type, after the type has been resolved
+     *
+     * @param root The type variable
+     * @param type The type. May be <code>null</code>.
+     * @param depth The recursion depth
+     * @return Whether the type variable appears in the type
+     */
+    private boolean occurs(TypeVariable<?> root, Type type, int depth)
+    {
+        if (type == null)
+        {
+            return false;
+        }
+        Set<TypeVariable<?>> variables = new LinkedHashSet<TypeVariable<?>>();
+        collectVariables(resolve(type, depth), variables);
+        for (TypeVariable<?> variable : variables)
+        {
+            if (find(variable).equals(root))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Returns the representative of the given type variable
+     *
+     * @param typeVariable The type variable
+     * @return The representative
+     */
+    private TypeVariable<?> find(TypeVariable<?> typeVariable)
+    {
+        TypeVariable<?> root = typeVariable;
+        TypeVariable<?> parent = parents.get(root);
+        while (parent != null)
+        {
+            root = parent;
+            parent = parents.get(root);
+        }
+        if (!root.equals(typeVariable))
+        {
+            parents.put(typeVariable, root);
+        }
+        return root;
+    }
+
+    /**
+     * Resolve the given type, by replacing all type variables with the
+     * types that they are bound to, or with their representative if
+     * they are not bound.
+     *
+     * @param type The type
+     * @param depth The recursion depth
+     * @return The resolved type
+     */
+    private Type resolve(Type type, int depth)
+    {
+        if (depth > MAX_DEPTH || parents.isEmpty() && bindings.isEmpty())
+        {
+            return type;
+        }
+        return substitute(type, typeVariable ->
+        {
+            TypeVariable<?> root = find(typeVariable);
+            Type binding = bindings.get(root);
+            if (binding == null)
+            {
+                return root;
+            }
+            return resolve(binding, depth + 1);
+        });
+    }
+
+    /**
+     * Returns the parameterized supertype of the given type that has the
+     * given raw type, or <code>null</code> if there is no such supertype.
+     *
+     * @param type The type
+     * @param rawType The raw type
+     * @return The supertype
+     */
+    private static ParameterizedType asSupertype(Type type, Class<?> rawType)
+    {
+        Class<?> typeRawType = null;
+        Type typeArguments[] = null;
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            typeRawType = (Class<?>)parameterizedType.getRawType();
+            typeArguments = parameterizedType.getActualTypeArguments();
+            if (typeRawType.equals(rawType))
+            {
+                return parameterizedType;
+            }
+        }
+        else if (type instanceof Class<?>)
+        {
+            typeRawType = (Class<?>)type;
+            typeArguments = new Type[0];
+        }
+        if (typeRawType == null || !rawType.isAssignableFrom(typeRawType))
+        {
+            return null;
+        }
+        TypeVariable<?> typeParameters[] = typeRawType.getTypeParameters();
+        if (typeParameters.length != typeArguments.length)
+        {
+            // A raw type
+            return null;
+        }
+        Map<TypeVariable<?>, Type> arguments =
+            new HashMap<TypeVariable<?>, Type>();
+        for (int i = 0; i < typeParameters.length; i++)
+        {
+            arguments.put(typeParameters[i], typeArguments[i]);
+        }
+        Function<TypeVariable<?>, Type> substitution =
+            typeVariable -> arguments.getOrDefault(typeVariable, typeVariable);
+        Type genericSuperclass = typeRawType.getGenericSuperclass();
+        if (genericSuperclass != null)
+        {
+            ParameterizedType result = asSupertype(
+                substitute(genericSuperclass, substitution), rawType);
+            if (result != null)
+            {
+                return result;
+            }
+        }
+        for (Type genericInterface : typeRawType.getGenericInterfaces())
+        {
+            ParameterizedType result = asSupertype(
+                substitute(genericInterface, substitution), rawType);
+            if (result != null)
+            {
+                return result;
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Returns the type that should be unified for the given type: If
+     * the given type is a wildcard type, then this is its lower bound,
+     * if present, or its upper bound otherwise. For all other types,
+     * the type itself is returned.
+     *
+     * @param type The type
+     * @return The unwrapped type
+     */
+    private static Type unwrap(Type type)
+    {
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            Type lowerBounds[] = wildcardType.getLowerBounds();
+            if (lowerBounds.length > 0)
+            {
+                return lowerBounds[0];
+            }
+            return wildcardType.getUpperBounds()[0];
+        }
+        return type;
+    }
+
+    /**
+     * Returns the component type of the given type, if it is an array
+     * type, or <code>null</code> otherwise
+     *
+     * @param type The type
+     * @return The component type
+     */
+    private static Type getComponentType(Type type)
+    {
+        if (type instanceof GenericArrayType)
+        {
+            return ((GenericArrayType)type).getGenericComponentType();
+        }
+        if (type instanceof Class<?>)
+        {
+            return ((Class<?>)type).getComponentType();
+        }
+        return null;
+    }
+
+    /**
+     * Returns a type that is structurally equal to the given type, but
+     * where all type variables have been replaced by the result of the
+     * given function. If no type variable was replaced, then the given
+     * type is returned.
+     *
+     * @param type The type
+     * @param substitution The substitution function
+     * @return The resulting type
+     */
+    private static Type substitute(
+        Type type, Function<TypeVariable<?>, Type> substitution)
+    {
+        if (type instanceof TypeVariable<?>)
+        {
+            return substitution.apply((TypeVariable<?>)type);
+        }
+        if (type instanceof ParameterizedType)
+        {
+            ParameterizedType parameterizedType = (ParameterizedType)type;
+            Type typeArguments[] = parameterizedType.getActualTypeArguments();
+            Type newTypeArguments[] =
+                substituteAll(typeArguments, substitution);
+            if (newTypeArguments == typeArguments)
+            {
+                return type;
+            }
+            return Types.createParameterizedType(
+                parameterizedType.getRawType(),
+                parameterizedType.getOwnerType(),
+                newTypeArguments);
+        }
+        if (type instanceof WildcardType)
+        {
+            WildcardType wildcardType = (WildcardType)type;
+            Type lowerBounds[] = wildcardType.getLowerBounds();
+            Type upperBounds[] = wildcardType.getUpperBounds();
+            Type newLowerBounds[] = substituteAll(lowerBounds, substitution);
+            Type newUpperBounds[] = substituteAll(upperBounds, substitution);
+            if (newLowerBounds == lowerBounds && newUpperBounds == upperBounds)
+            {
+                return type;
+            }
+            return Types.createWildcardType(newLowerBounds, newUpperBounds);
+        }
+        if (type instanceof GenericArrayType)
+        {
+            GenericArrayType genericArrayType = (GenericArrayType)type;
+            Type componentType = genericArrayType.getGenericComponentType();
+            Type newComponentType = substitute(componentType, substitution);
+            if (newComponentType == componentType)
+            {
+                return type;
+            }
+            return Types.createGenericArrayType(newComponentType);
+        }
+        return type;
+    }
+
+    /**
+     * Calls {@link #substitute(Type, Function)} on all given types. If
+     * none of the types was changed, then the given array is returned.
+     *
+     * @param types The types
+     * @param substitution The substitution function
+     * @return The resulting types
+     */
+    private static Type[] substituteAll(
+        Type types[], Function<TypeVariable<?>, Type> substitution)
+    {
+        Type result[] = types;
+        for (int i = 0; i < types.length; i++)
+        {
+            Type newType = substitute(types[i], substitution);
+            if (newType != types[i])
+            {
+                if (result == types)
+                {
+                    result = types.clone();
+                }
+                result[i] = newType;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Collect all type variables that appear in the given type
+     *
+     * @param type The type
+     * @param variables The set that will receive the type variables
+     */
+    private static void collectVariables(
+        Type type, Set<TypeVariable<?>> variables)
+    {
+        substitute(type, typeVariable ->
+        {
+            variables.add(typeVariable);
+            return typeVariable;
+        });
+    }
+
+}
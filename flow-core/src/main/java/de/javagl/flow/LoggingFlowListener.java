@@ -88,4 +88,20 @@ public final class LoggingFlowListener implements FlowListener
         logger.log(level, "linkRemoved   "+flowEvent.getLink());
     }
     
+    @Override
+    public void modulesAndLinksAdded(FlowEvent flowEvent)
+    {
+        logger.log(level, "modulesAndLinksAdded   "
+            + flowEvent.getModules().size() + " modules, " 
+            + flowEvent.getLinks().size() + " links");
+    }
+
+    @Override
+    public void modulesAndLinksRemoved(FlowEvent flowEvent)
+    {
+        logger.log(level, "modulesAndLinksRemoved "
+            + flowEvent.getModules().size() + " modules, " 
+            + flowEvent.getLinks().size() + " links");
+    }
+    
 }
\ No newline at end of file
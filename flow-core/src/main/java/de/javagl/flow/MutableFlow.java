@@ -26,6 +26,8 @@
  */
 package de.javagl.flow;
 
+import java.util.Collection;
+
 import de.javagl.flow.link.Link;
 import de.javagl.flow.link.Links;
 import de.javagl.flow.module.Module;
@@ -89,4 +91,37 @@ public interface MutableFlow extends Flow
      * @return Whether this {@link Flow} changed through this action
      */
     boolean removeLink(Link link);
+    
+    /**
+     * Add all given {@link Module} objects and afterwards all given 
+     * {@link Link} objects to this {@link Flow}. This has the same effect 
+     * as calling {@link #addModule(Module)} and {@link #addLink(Link)} for 
+     * each element, but the registered {@link FlowListener} instances 
+     * will only receive a single 
+     * {@link FlowListener#modulesAndLinksAdded(FlowEvent)} call that
+     * contains all elements that have actually been added.
+     * 
+     * @param modules The {@link Module} objects to add
+     * @param links The {@link Link} objects to add
+     * @return Whether this {@link Flow} changed through this action
+     */
+    boolean addAll(Collection<? extends Module> modules, 
+        Collection<? extends Link> links);
+    
+    /**
+     * Remove all given {@link Link} objects and afterwards all given
+     * {@link Module} objects from this {@link Flow}. This has the same 
+     * effect as calling {@link #removeLink(Link)} and 
+     * {@link #removeModule(Module)} for each element. This includes the
+     * removal of all links that are connected to the removed modules.
+     * But the registered {@link FlowListener} instances will only receive 
+     * a single {@link FlowListener#modulesAndLinksRemoved(FlowEvent)} call 
+     * that contains all elements that have actually been removed.
+     * 
+     * @param modules The {@link Module} objects to remove
+     * @param links The {@link Link} objects to remove
+     * @return Whether this {@link Flow} changed through this action
+     */
+    boolean removeAll(Collection<? extends Module> modules, 
+        Collection<? extends Link> links);
 }
\ No newline at end of file
@@ -52,4 +52,21 @@ public interface TypeContext
      * @return The resolved type
      */
     Type resolveType(Type type);
+    
+    /**
+     * Returns the generation of this type context. This is a number that 
+     * changes whenever the results of {@link #resolveType(Type)} or 
+     * {@link #isAssignable(Type, Type)} may have changed. Clients may
+     * use this to decide whether results that they have cached are 
+     * still valid.<br>
+     * <br>
+     * The default implementation returns 0, which is appropriate for
+     * type contexts whose results never change.
+     * 
+     * @return The generation
+     */
+    default long getGeneration()
+    {
+        return 0L;
+    }
 }
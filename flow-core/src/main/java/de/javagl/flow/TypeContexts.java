@@ -0,0 +1,116 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow;
+
+import java.util.Objects;
+
+import de.javagl.flow.metrics.MetricRegistries;
+import de.javagl.flow.metrics.MetricRegistry;
+
+/**
+ * Methods to create {@link TypeContext} instances
+ */
+public class TypeContexts
+{
+    /**
+     * The default maximum number of cached assignability results
+     */
+    private static final int DEFAULT_MAXIMUM_CACHE_SIZE = 10000;
+    
+    /**
+     * Creates the default {@link TypeContext}. This is the type context
+     * that is used by the flows that are created with {@link Flows}. 
+     * It caches the results of {@link TypeContext#isAssignable} calls.
+     * 
+     * @return The {@link TypeContext}
+     */
+    public static TypeContext createDefault()
+    {
+        return createCaching(new DummyTypeContext());
+    }
+    
+    /**
+     * Creates a {@link TypeContext} that caches the results of the 
+     * {@link TypeContext#isAssignable} calls of the given delegate, 
+     * with a default maximum size, and without recording any metrics.
+     * See {@link #createCaching(TypeContext, int, MetricRegistry)} for
+     * details.
+     * 
+     * @param delegate The delegate {@link TypeContext}
+     * @return The {@link TypeContext}
+     * @throws NullPointerException If the delegate is <code>null</code>
+     */
+    public static TypeContext createCaching(TypeContext delegate)
+    {
+        return createCaching(delegate, 
+            DEFAULT_MAXIMUM_CACHE_SIZE, MetricRegistries.createNoOp());
+    }
+    
+    /**
+     * Creates a {@link TypeContext} that caches the results of the 
+     * {@link TypeContext#isAssignable} calls of the given delegate.
+     * <br>
+     * <br>
+     * The cache contains at most the given number of entries. When this
+     * size is reached, a part of the entries is removed. The cached 
+     * results are discarded when the {@link TypeContext#getGeneration() 
+     * generation} of the delegate changes. The types are compared 
+     * structurally: Parameterized types, wildcard types and generic 
+     * array types are considered to be equal when their components are
+     * equal, even if they are instances of different classes.<br>
+     * <br>
+     * The numbers of cache hits, misses and evictions, and the size of 
+     * the cache are recorded in the given {@link MetricRegistry}, under 
+     * the names 
+     * <code>typecontext.assignability.hits</code>, 
+     * <code>typecontext.assignability.misses</code>, 
+     * <code>typecontext.assignability.evictions</code> and 
+     * <code>typecontext.assignability.size</code>.
+     * 
+     * @param delegate The delegate {@link TypeContext}
+     * @param maximumSize The maximum number of cached results
+     * @param metricRegistry The {@link MetricRegistry}
+     * @return The {@link TypeContext}
+     * @throws NullPointerException If the delegate or the metric registry
+     * is <code>null</code>
+     * @throws IllegalArgumentException If the maximum size is not positive
+     */
+    public static TypeContext createCaching(TypeContext delegate, 
+        int maximumSize, MetricRegistry metricRegistry)
+    {
+        Objects.requireNonNull(delegate, "The delegate may not be null");
+        return new CachingTypeContext(delegate, maximumSize, metricRegistry);
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private TypeContexts()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
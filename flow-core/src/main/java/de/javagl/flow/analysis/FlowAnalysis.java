@@ -0,0 +1,606 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.analysis;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.function.ToDoubleFunction;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.FlowTopology;
+import de.javagl.flow.module.Module;
+
+/**
+ * Methods for analyzing the structure of a {@link Flow}. They work on
+ * the {@link FlowTopology} of the flow, and run in time that is linear
+ * in the number of modules and links.<br>
+ * <br>
+ * Unless otherwise noted, the methods that require the flow to be
+ * acyclic will throw an <code>IllegalArgumentException</code> that
+ * describes one cycle when the flow contains cycles.
+ */
+public class FlowAnalysis
+{
+    /**
+     * Compute a topological order of the {@link Module} objects in the
+     * given {@link Flow}. In the returned list, each module will appear
+     * after all of its predecessors.
+     *
+     * @param flow The {@link Flow}
+     * @return An unmodifiable list containing the modules
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static List<Module> computeTopologicalOrder(Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        int order[] = computeOrder(topology);
+        return Collections.unmodifiableList(toModules(topology, order));
+    }
+
+    /**
+     * Find a cycle in the given {@link Flow}. If the flow contains a
+     * cycle, then the returned list will contain the modules of one
+     * cycle, in the order in which they are connected: Each module is
+     * a predecessor of the next one, and the last one is a predecessor
+     * of the first one. If the flow does not contain a cycle, then the
+     * returned list will be empty.
+     *
+     * @param flow The {@link Flow}
+     * @return An unmodifiable list containing the modules of the cycle
+     */
+    public static List<Module> findCycle(Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        BitSet all = new BitSet();
+        all.set(0, topology.getModuleCount());
+        int cycle[] = findCycle(topology, all);
+        return Collections.unmodifiableList(toModules(topology, cycle));
+    }
+
+    /**
+     * Find a cycle among the modules of the given {@link FlowTopology}
+     * whose indices are set in the given set, as described in
+     * {@link #findCycle(Flow)}.
+     *
+     * @param topology The {@link FlowTopology}
+     * @param selection The indices of the modules that should be
+     * considered
+     * @return The indices of the modules of the cycle, or an empty
+     * array if there is no cycle
+     */
+    public static int[] findCycle(FlowTopology topology, BitSet selection)
+    {
+        int n = topology.getModuleCount();
+
+        // An iterative depth-first search. The state of a module is
+        // 0 if it was not visited, 1 if it is on the current path, and
+        // 2 if it was completely processed
+        int state[] = new int[n];
+        int stack[] = new int[n];
+        int stackPositions[] = new int[n];
+        int successorPositions[] = new int[n];
+        for (int start = selection.nextSetBit(0); start >= 0;
+            start = selection.nextSetBit(start + 1))
+        {
+            if (start >= n || state[start] != 0)
+            {
+                continue;
+            }
+            int size = 0;
+            stack[size] = start;
+            stackPositions[start] = size;
+            successorPositions[start] = 0;
+            state[start] = 1;
+            size++;
+            while (size > 0)
+            {
+                int m = stack[size - 1];
+                if (successorPositions[m] < topology.getSuccessorCount(m))
+                {
+                    int s = topology.getSuccessor(m, successorPositions[m]);
+                    successorPositions[m]++;
+                    if (!selection.get(s))
+                    {
+                        continue;
+                    }
+                    if (state[s] == 1)
+                    {
+                        int from = stackPositions[s];
+                        return Arrays.copyOfRange(stack, from, size);
+                    }
+                    if (state[s] == 0)
+                    {
+                        stack[size] = s;
+                        stackPositions[s] = size;
+                        successorPositions[s] = 0;
+                        state[s] = 1;
+                        size++;
+                    }
+                }
+                else
+                {
+                    state[m] = 2;
+                    size--;
+                }
+            }
+        }
+        return new int[0];
+    }
+
+    /**
+     * Compute the strongly connected components of the given {@link Flow},
+     * using Tarjan's algorithm. Each component is a maximal set of modules
+     * where each module is reachable from each other module. In an acyclic
+     * flow, each component consists of a single module. The components are
+     * returned in reverse topological order: No module of a component has
+     * a successor in a component that appears later in the list.
+     *
+     * @param flow The {@link Flow}
+     * @return An unmodifiable list containing the components
+     */
+    public static List<Set<Module>> computeStronglyConnectedComponents(
+        Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        int n = topology.getModuleCount();
+        int indices[] = new int[n];
+        Arrays.fill(indices, -1);
+        int lowLinks[] = new int[n];
+        boolean onStack[] = new boolean[n];
+        int componentStack[] = new int[n];
+        int componentStackSize = 0;
+        int callStack[] = new int[n];
+        int successorPositions[] = new int[n];
+        int nextIndex = 0;
+        List<Set<Module>> components = new ArrayList<Set<Module>>();
+        for (int start = 0; start < n; start++)
+        {
+            if (indices[start] != -1)
+            {
+                continue;
+            }
+            int callStackSize = 0;
+            callStack[callStackSize++] = start;
+            indices[start] = nextIndex;
+            lowLinks[start] = nextIndex;
+            nextIndex++;
+            componentStack[componentStackSize++] = start;
+            onStack[start] = true;
+            successorPositions[start] = 0;
+            while (callStackSize > 0)
+            {
+                int m = callStack[callStackSize - 1];
+                if (successorPositions[m] < topology.getSuccessorCount(m))
+                {
+                    int s = topology.getSuccessor(m, successorPositions[m]);
+                    successorPositions[m]++;
+                    if (indices[s] == -1)
+                    {
+                        callStack[callStackSize++] = s;
+                        indices[s] = nextIndex;
+                        lowLinks[s] = nextIndex;
+                        nextIndex++;
+                        componentStack[componentStackSize++] = s;
+                        onStack[s] = true;
+                        successorPositions[s] = 0;
+                    }
+                    else if (onStack[s])
+                    {
+                        lowLinks[m] = Math.min(lowLinks[m], indices[s]);
+                    }
+                    continue;
+                }
+                callStackSize--;
+                if (callStackSize > 0)
+                {
+                    int parent = callStack[callStackSize - 1];
+                    lowLinks[parent] = Math.min(lowLinks[parent], lowLinks[m]);
+                }
+                if (lowLinks[m] == indices[m])
+                {
+                    Set<Module> component = new LinkedHashSet<Module>();
+                    int c;
+                    do
+                    {
+                        c = componentStack[--componentStackSize];
+                        onStack[c] = false;
+                        component.add(topology.getModule(c));
+                    }
+                    while (c != m);
+                    components.add(Collections.unmodifiableSet(component));
+                }
+            }
+        }
+        return Collections.unmodifiableList(components);
+    }
+
+    /**
+     * Compute the set of indices of all modules that are reachable from
+     * the module with the given index in the given {@link FlowTopology},
+     * by following one or more links. The given module itself will only
+     * be contained in the result if it is part of a cycle.
+     *
+     * @param topology The {@link FlowTopology}
+     * @param moduleIndex The index of the start module
+     * @return The indices of the reachable modules
+     * @throws IndexOutOfBoundsException If the index is not valid
+     */
+    public static BitSet computeReachable(
+        FlowTopology topology, int moduleIndex)
+    {
+        int n = topology.getModuleCount();
+        BitSet reachable = new BitSet(n);
+        int queue[] = new int[n];
+        int head = 0;
+        int tail = 0;
+        queue[tail++] = moduleIndex;
+        while (head < tail)
+        {
+            int m = queue[head++];
+            int count = topology.getSuccessorCount(m);
+            for (int k = 0; k < count; k++)
+            {
+                int s = topology.getSuccessor(m, k);
+                if (!reachable.get(s))
+                {
+                    reachable.set(s);
+                    if (s != moduleIndex)
+                    {
+                        queue[tail++] = s;
+                    }
+                }
+            }
+        }
+        return reachable;
+    }
+
+    /**
+     * Compute the immediate dominators of the {@link Module} objects in
+     * the given acyclic {@link Flow}. A module <code>d</code> dominates
+     * a module <code>m</code> if every path from a module without
+     * predecessors to <code>m</code> passes through <code>d</code>.
+     * The immediate dominator is the dominator that is closest to
+     * <code>m</code>. If the failure of one module prevents the execution
+     * of another module, then the first one dominates the second one.<br>
+     * <br>
+     * The returned map contains an entry for each module. The value
+     * is <code>null</code> for modules that are not dominated by any
+     * other module, for example, modules without predecessors.
+     *
+     * @param flow The {@link Flow}
+     * @return An unmodifiable map from modules to their immediate dominators
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static Map<Module, Module> computeImmediateDominators(Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        int order[] = computeOrder(topology);
+        int n = topology.getModuleCount();
+
+        // The dominators are computed in topological order, so that the
+        // dominators of all predecessors are known. The value -1 denotes
+        // a virtual root module that precedes all modules.
+        int dominators[] = new int[n];
+        int depths[] = new int[n];
+        for (int m : order)
+        {
+            int count = topology.getPredecessorCount(m);
+            int d = -1;
+            if (count > 0)
+            {
+                d = topology.getPredecessor(m, 0);
+                for (int k = 1; k < count && d != -1; k++)
+                {
+                    int p = topology.getPredecessor(m, k);
+                    d = intersect(d, p, dominators, depths);
+                }
+            }
+            dominators[m] = d;
+            depths[m] = d == -1 ? 1 : depths[d] + 1;
+        }
+        Map<Module, Module> result = new LinkedHashMap<Module, Module>();
+        for (int m = 0; m < n; m++)
+        {
+            int d = dominators[m];
+            result.put(topology.getModule(m),
+                d == -1 ? null : topology.getModule(d));
+        }
+        return Collections.unmodifiableMap(result);
+    }
+
+    /**
+     * Compute the nearest common dominator of the given modules
+     *
+     * @param a The first module
+     * @param b The second module
+     * @param dominators The immediate dominators
+     * @param depths The depths of the modules in the dominator tree
+     * @return The nearest common dominator, or -1 for the virtual root
+     */
+    private static int intersect(int a, int b, int dominators[], int depths[])
+    {
+        int x = a;
+        int y = b;
+        while (x != y)
+        {
+            if (x == -1 || y == -1)
+            {
+                return -1;
+            }
+            if (depths[x] >= depths[y])
+            {
+                x = dominators[x];
+            }
+            else
+            {
+                y = dominators[y];
+            }
+        }
+        return x;
+    }
+
+    /**
+     * Compute the longest path in the given acyclic {@link Flow}, where
+     * the length of a path is the sum of the costs of its modules, as
+     * given by the given function. When the cost function returns the
+     * measured execution time of each module, then this is the critical
+     * path of the flow: Its length is the minimum time that is required
+     * for executing the flow, regardless of the number of threads.
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The function that provides the cost of each
+     * module. The costs should not be negative.
+     * @return An unmodifiable list containing the modules of the path,
+     * in execution order. This is empty if the flow is empty.
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static List<Module> computeLongestPath(Flow flow,
+        ToDoubleFunction<? super Module> costFunction)
+    {
+        Objects.requireNonNull(costFunction,
+            "The costFunction may not be null");
+        FlowTopology topology = flow.getTopology();
+        int order[] = computeOrder(topology);
+        int n = topology.getModuleCount();
+        double lengths[] = new double[n];
+        int previous[] = new int[n];
+        int last = -1;
+        for (int m : order)
+        {
+            double maxLength = 0.0;
+            int maxPredecessor = -1;
+            int count = topology.getPredecessorCount(m);
+            for (int k = 0; k < count; k++)
+            {
+                int p = topology.getPredecessor(m, k);
+                if (maxPredecessor == -1 || lengths[p] > maxLength)
+                {
+                    maxLength = lengths[p];
+                    maxPredecessor = p;
+                }
+            }
+            double cost = costFunction.applyAsDouble(topology.getModule(m));
+            lengths[m] = maxLength + cost;
+            previous[m] = maxPredecessor;
+            if (last == -1 || lengths[m] > lengths[last])
+            {
+                last = m;
+            }
+        }
+        List<Module> path = new ArrayList<Module>();
+        int current = last;
+        while (current != -1)
+        {
+            path.add(topology.getModule(current));
+            current = previous[current];
+        }
+        Collections.reverse(path);
+        return Collections.unmodifiableList(path);
+    }
+
+    /**
+     * Compute the number of modules in each level of the given acyclic
+     * {@link Flow}. The modules without predecessors are in level 0, and
+     * each other module is in the level that follows the highest level
+     * of its predecessors. This corresponds to the sets of modules that
+     * may be executed in parallel, and thus, to an estimate of the number
+     * of threads that may be used for executing the flow.
+     *
+     * @param flow The {@link Flow}
+     * @return The number of modules in each level
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static int[] computeLevelWidths(Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        int levels[] = computeLevels(topology, computeOrder(topology));
+        int n = topology.getModuleCount();
+        int widths[] = new int[n];
+        int numLevels = 0;
+        for (int m = 0; m < n; m++)
+        {
+            widths[levels[m]]++;
+            numLevels = Math.max(numLevels, levels[m] + 1);
+        }
+        return Arrays.copyOf(widths, numLevels);
+    }
+
+    /**
+     * Compute the level of each module of the given {@link FlowTopology},
+     * as described in {@link #computeLevelWidths(Flow)}
+     *
+     * @param topology The {@link FlowTopology}
+     * @param order The module indices, in topological order
+     * @return The level of each module
+     */
+    static int[] computeLevels(FlowTopology topology, int order[])
+    {
+        int levels[] = new int[topology.getModuleCount()];
+        for (int m : order)
+        {
+            int level = 0;
+            int count = topology.getPredecessorCount(m);
+            for (int k = 0; k < count; k++)
+            {
+                int p = topology.getPredecessor(m, k);
+                level = Math.max(level, levels[p] + 1);
+            }
+            levels[m] = level;
+        }
+        return levels;
+    }
+
+    /**
+     * Compute the maximum number of modules in one level of the given
+     * acyclic {@link Flow}, as described in
+     * {@link #computeLevelWidths(Flow)}
+     *
+     * @param flow The {@link Flow}
+     * @return The maximum width
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static int computeMaximumWidth(Flow flow)
+    {
+        int maximumWidth = 0;
+        for (int width : computeLevelWidths(flow))
+        {
+            maximumWidth = Math.max(maximumWidth, width);
+        }
+        return maximumWidth;
+    }
+
+    /**
+     * Create a string representation of the given cycle, consisting
+     * of the string representations of the modules, separated by
+     * arrows, and ending with the first module
+     *
+     * @param topology The {@link FlowTopology}
+     * @param cycle The indices of the modules of the cycle
+     * @return The string
+     */
+    public static String createCycleString(FlowTopology topology, int cycle[])
+    {
+        StringBuilder sb = new StringBuilder();
+        for (int m : cycle)
+        {
+            sb.append(topology.getModule(m)).append(" -> ");
+        }
+        if (cycle.length > 0)
+        {
+            sb.append(topology.getModule(cycle[0]));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Compute a topological order of the module indices of the given
+     * {@link FlowTopology}, using Kahn's algorithm
+     *
+     * @param topology The {@link FlowTopology}
+     * @return The module indices, in topological order
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    static int[] computeOrder(FlowTopology topology)
+    {
+        int n = topology.getModuleCount();
+        int pendingPredecessors[] = new int[n];
+        int order[] = new int[n];
+        int size = 0;
+        for (int m = 0; m < n; m++)
+        {
+            pendingPredecessors[m] = topology.getPredecessorCount(m);
+            if (pendingPredecessors[m] == 0)
+            {
+                order[size++] = m;
+            }
+        }
+        for (int i = 0; i < size; i++)
+        {
+            int m = order[i];
+            int count = topology.getSuccessorCount(m);
+            for (int k = 0; k < count; k++)
+            {
+                int s = topology.getSuccessor(m, k);
+                pendingPredecessors[s]--;
+                if (pendingPredecessors[s] == 0)
+                {
+                    order[size++] = s;
+                }
+            }
+        }
+        if (size < n)
+        {
+            BitSet remaining = new BitSet(n);
+            for (int m = 0; m < n; m++)
+            {
+                if (pendingPredecessors[m] > 0)
+                {
+                    remaining.set(m);
+                }
+            }
+            int cycle[] = findCycle(topology, remaining);
+            throw new IllegalArgumentException(
+                "The flow contains a cycle: "
+                + createCycleString(topology, cycle));
+        }
+        return order;
+    }
+
+    /**
+     * Returns a list containing the modules with the given indices
+     *
+     * @param topology The {@link FlowTopology}
+     * @param indices The indices
+     * @return The modules
+     */
+    private static List<Module> toModules(FlowTopology topology,
+        int indices[])
+    {
+        List<Module> modules = new ArrayList<Module>(indices.length);
+        for (int m : indices)
+        {
+            modules.add(topology.getModule(m));
+        }
+        return modules;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlowAnalysis()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,361 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.analysis;
+
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.function.ToDoubleFunction;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.FlowTopology;
+import de.javagl.flow.module.Module;
+
+/**
+ * Methods for estimating how well the execution of a {@link Flow} can
+ * benefit from using multiple threads.<br>
+ * <br>
+ * All methods receive a cost function that provides the (estimated or
+ * measured) execution time of each {@link Module}. The modules are
+ * never executed by these methods. All methods require the flow to be
+ * acyclic, and throw an <code>IllegalArgumentException</code> if the
+ * flow contains a cycle.<br>
+ * <br>
+ * The estimates are based on two quantities: The <i>work</i> is the
+ * sum of the costs of all modules. This is the time that is required
+ * for executing the flow with a single thread. The <i>span</i> is the
+ * length of the longest path through the flow. This is the time that is
+ * required for executing the flow with an unlimited number of threads.
+ * The ratio between the work and the span is an upper bound for the
+ * speedup that can be achieved by using multiple threads.<br>
+ * <br>
+ * The {@link #simulateExecution simulation} models the "wave front"
+ * strategy of the default {@link de.javagl.flow.execution.FlowExecutor}:
+ * The modules are executed level by level, and all modules of one level
+ * have to be finished before the next level is started.
+ */
+public class FlowParallelism
+{
+    /**
+     * The relative tolerance for the
+     * {@link #recommendThreadCount(Flow, ToDoubleFunction, int)
+     * recommended thread count}
+     */
+    private static final double RECOMMENDATION_TOLERANCE = 0.05;
+
+    /**
+     * Compute the work of the given {@link Flow}, which is the sum
+     * of the costs of all modules
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @return The work
+     */
+    public static double computeWork(Flow flow,
+        ToDoubleFunction<? super Module> costFunction)
+    {
+        Objects.requireNonNull(costFunction,
+            "The costFunction may not be null");
+        double work = 0.0;
+        for (Module module : flow.getTopology().getModules())
+        {
+            work += costFunction.applyAsDouble(module);
+        }
+        return work;
+    }
+
+    /**
+     * Compute the span of the given {@link Flow}, which is the sum of the
+     * costs of the modules on the
+     * {@link FlowAnalysis#computeLongestPath longest path}
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @return The span
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static double computeSpan(Flow flow,
+        ToDoubleFunction<? super Module> costFunction)
+    {
+        double span = 0.0;
+        for (Module module :
+            FlowAnalysis.computeLongestPath(flow, costFunction))
+        {
+            span += costFunction.applyAsDouble(module);
+        }
+        return span;
+    }
+
+    /**
+     * Compute the maximum speedup that can be achieved for the given
+     * {@link Flow} with an unlimited number of threads, which is the
+     * ratio between the work and the span. If the span is 0, then
+     * 1.0 will be returned.
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @return The maximum speedup
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static double computeMaximumSpeedup(Flow flow,
+        ToDoubleFunction<? super Module> costFunction)
+    {
+        double span = computeSpan(flow, costFunction);
+        if (span <= 0.0)
+        {
+            return 1.0;
+        }
+        return computeWork(flow, costFunction) / span;
+    }
+
+    /**
+     * Simulate the execution of the given {@link Flow} with the given
+     * number of threads, and return the time that the execution would
+     * take. The modules of each level are assigned to the thread that
+     * becomes available first, in the order in which they appear in
+     * the flow, and each level starts when the previous level has
+     * been finished.
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @param numThreads The number of threads
+     * @return The simulated execution time
+     * @throws IllegalArgumentException If the flow contains a cycle, or
+     * the number of threads is not positive
+     */
+    public static double simulateExecution(Flow flow,
+        ToDoubleFunction<? super Module> costFunction, int numThreads)
+    {
+        validateNumThreads(numThreads);
+        Objects.requireNonNull(costFunction,
+            "The costFunction may not be null");
+        FlowTopology topology = flow.getTopology();
+        Schedule schedule = new Schedule(topology, costFunction);
+        return schedule.simulate(numThreads);
+    }
+
+    /**
+     * Estimate the speedup that can be achieved by executing the given
+     * {@link Flow} with the given number of threads, compared to
+     * executing it with a single thread, based on the
+     * {@link #simulateExecution simulated} execution times. If the
+     * simulated time is 0, then 1.0 will be returned.
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @param numThreads The number of threads
+     * @return The estimated speedup
+     * @throws IllegalArgumentException If the flow contains a cycle, or
+     * the number of threads is not positive
+     */
+    public static double estimateSpeedup(Flow flow,
+        ToDoubleFunction<? super Module> costFunction, int numThreads)
+    {
+        validateNumThreads(numThreads);
+        Objects.requireNonNull(costFunction,
+            "The costFunction may not be null");
+        FlowTopology topology = flow.getTopology();
+        Schedule schedule = new Schedule(topology, costFunction);
+        double time = schedule.simulate(numThreads);
+        if (time <= 0.0)
+        {
+            return 1.0;
+        }
+        return schedule.simulate(1) / time;
+    }
+
+    /**
+     * Recommend the number of threads for executing the given
+     * {@link Flow}. This is the smallest number of threads for which the
+     * {@link #simulateExecution simulated} execution time is at most
+     * 5 percent larger than the execution time with the given maximum
+     * number of threads. The result will never be larger than the
+     * maximum width of the levels of the flow.
+     *
+     * @param flow The {@link Flow}
+     * @param costFunction The cost function
+     * @param maxThreads The maximum number of threads, for example,
+     * the number of available processors
+     * @return The recommended number of threads
+     * @throws IllegalArgumentException If the flow contains a cycle, or
+     * the maximum number of threads is not positive
+     */
+    public static int recommendThreadCount(Flow flow,
+        ToDoubleFunction<? super Module> costFunction, int maxThreads)
+    {
+        validateNumThreads(maxThreads);
+        Objects.requireNonNull(costFunction,
+            "The costFunction may not be null");
+        FlowTopology topology = flow.getTopology();
+        Schedule schedule = new Schedule(topology, costFunction);
+        int limit = Math.max(1, Math.min(maxThreads, schedule.maxWidth));
+        double bestTime = schedule.simulate(limit);
+        double threshold = bestTime * (1.0 + RECOMMENDATION_TOLERANCE);
+        for (int numThreads = 1; numThreads < limit; numThreads++)
+        {
+            if (schedule.simulate(numThreads) <= threshold)
+            {
+                return numThreads;
+            }
+        }
+        return limit;
+    }
+
+    /**
+     * Make sure that the given number of threads is positive
+     *
+     * @param numThreads The number of threads
+     * @throws IllegalArgumentException If the number is not positive
+     */
+    private static void validateNumThreads(int numThreads)
+    {
+        if (numThreads <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of threads must be positive, but is "
+                + numThreads);
+        }
+    }
+
+    /**
+     * The levels of a flow and the costs of its modules, which are
+     * computed once and may be used for multiple simulations
+     */
+    private static class Schedule
+    {
+        /**
+         * The costs of the modules of each level, in the order in
+         * which they appear in the flow
+         */
+        private final double levelCosts[][];
+
+        /**
+         * The maximum number of modules in one level
+         */
+        private final int maxWidth;
+
+        /**
+         * Creates a new schedule
+         *
+         * @param topology The {@link FlowTopology}
+         * @param costFunction The cost function
+         * @throws IllegalArgumentException If the flow contains a cycle
+         */
+        Schedule(FlowTopology topology,
+            ToDoubleFunction<? super Module> costFunction)
+        {
+            int order[] = FlowAnalysis.computeOrder(topology);
+            int levels[] = FlowAnalysis.computeLevels(topology, order);
+            int n = topology.getModuleCount();
+            int numLevels = 0;
+            for (int m = 0; m < n; m++)
+            {
+                numLevels = Math.max(numLevels, levels[m] + 1);
+            }
+            int widths[] = new int[numLevels];
+            for (int m = 0; m < n; m++)
+            {
+                widths[levels[m]]++;
+            }
+            int width = 0;
+            levelCosts = new double[numLevels][];
+            for (int level = 0; level < numLevels; level++)
+            {
+                levelCosts[level] = new double[widths[level]];
+                width = Math.max(width, widths[level]);
+            }
+            maxWidth = width;
+            int fill[] = new int[numLevels];
+            for (int m = 0; m < n; m++)
+            {
+                int level = levels[m];
+                double cost =
+                    costFunction.applyAsDouble(topology.getModule(m));
+                levelCosts[level][fill[level]++] = cost;
+            }
+        }
+
+        /**
+         * Simulate the execution with the given number of threads
+         *
+         * @param numThreads The number of threads
+         * @return The simulated execution time
+         */
+        double simulate(int numThreads)
+        {
+            double time = 0.0;
+            for (double costs[] : levelCosts)
+            {
+                time += simulateLevel(costs, numThreads);
+            }
+            return time;
+        }
+
+        /**
+         * Simulate the execution of one level with the given number of
+         * threads, by assigning each module to the thread that becomes
+         * available first
+         *
+         * @param costs The costs of the modules of the level
+         * @param numThreads The number of threads
+         * @return The time until all modules of the level are finished
+         */
+        private static double simulateLevel(double costs[], int numThreads)
+        {
+            if (numThreads >= costs.length)
+            {
+                double max = 0.0;
+                for (double cost : costs)
+                {
+                    max = Math.max(max, cost);
+                }
+                return max;
+            }
+            PriorityQueue<Double> threads =
+                new PriorityQueue<Double>(numThreads);
+            for (int t = 0; t < numThreads; t++)
+            {
+                threads.add(0.0);
+            }
+            double end = 0.0;
+            for (double cost : costs)
+            {
+                double finish = threads.poll() + cost;
+                threads.add(finish);
+                end = Math.max(end, finish);
+            }
+            return end;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlowParallelism()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
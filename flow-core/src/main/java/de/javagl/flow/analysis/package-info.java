@@ -0,0 +1,5 @@
+/**
+ * Classes for analyzing the structure of a {@link de.javagl.flow.Flow Flow}.
+ */
+package de.javagl.flow.analysis;
+
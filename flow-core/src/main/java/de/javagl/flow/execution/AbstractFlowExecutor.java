@@ -31,6 +31,7 @@ import java.util.List;
 import java.util.concurrent.CopyOnWriteArrayList;
 
 import de.javagl.flow.Flow;
+import de.javagl.flow.metrics.MetricRegistry;
 
 /**
  * Abstract base implementation of a {@link FlowExecutor}. This implementation
@@ -44,12 +45,36 @@ abstract class AbstractFlowExecutor implements FlowExecutor
     private final List<FlowExecutorListener> flowExecutorListeners;
     
     /**
-     * Default constructor
+     * The {@link FlowExecutorMetrics} 
      */
-    protected AbstractFlowExecutor()
+    private final FlowExecutorMetrics flowExecutorMetrics;
+    
+    /**
+     * The time when the current execution started
+     */
+    private volatile long executionStartNs;
+    
+    /**
+     * Creates a new instance that records metrics in the given
+     * {@link MetricRegistry}
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     */
+    protected AbstractFlowExecutor(MetricRegistry metricRegistry)
     {
         flowExecutorListeners = 
             new CopyOnWriteArrayList<FlowExecutorListener>();
+        flowExecutorMetrics = new FlowExecutorMetrics(metricRegistry);
+    }
+    
+    /**
+     * Returns the {@link FlowExecutorMetrics} of this executor
+     * 
+     * @return The {@link FlowExecutorMetrics}
+     */
+    protected final FlowExecutorMetrics getFlowExecutorMetrics()
+    {
+        return flowExecutorMetrics;
     }
     
     /**
@@ -60,6 +85,7 @@ abstract class AbstractFlowExecutor implements FlowExecutor
      */
     protected final void fireBeforeExecution(Flow flow)
     {
+        executionStartNs = System.nanoTime();
         if (!flowExecutorListeners.isEmpty())
         {
             FlowExecutorEvent flowExecutorEvent = 
@@ -84,6 +110,10 @@ abstract class AbstractFlowExecutor implements FlowExecutor
     protected final void fireAfterExecution(
         Flow flow, boolean cancelled, Collection<? extends Throwable> errors)
     {
+        long executionEndNs = System.nanoTime();
+        boolean failed = errors != null && !errors.isEmpty();
+        flowExecutorMetrics.flowExecuted(
+            executionEndNs - executionStartNs, failed);
         if (!flowExecutorListeners.isEmpty())
         {
             FlowExecutorEvent flowExecutorEvent = 
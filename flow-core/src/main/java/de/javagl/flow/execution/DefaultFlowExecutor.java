@@ -28,9 +28,11 @@ package de.javagl.flow.execution;
 
 import java.util.Collection;
 import java.util.Collections;
+import java.util.LinkedHashSet;
 import java.util.List;
 import java.util.Locale;
 import java.util.Set;
+import java.util.WeakHashMap;
 import java.util.concurrent.Callable;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.TimeUnit;
@@ -39,7 +41,10 @@ import java.util.logging.Level;
 import java.util.logging.Logger;
 
 import de.javagl.flow.Flow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.metrics.MetricRegistry;
 import de.javagl.flow.module.Module;
+import de.javagl.flow.optimization.FlowOptimizations;
 
 /**
  * Default implementation of a {@link FlowExecutor}.<br>
@@ -47,6 +52,14 @@ import de.javagl.flow.module.Module;
  * This {@link FlowExecutor} will execute all {@link Module} instances in 
  * a given {@link Flow} using "wave fronts": At each step, it will 
  * execute all modules whose predecessors have already been executed. 
+ * Modules that are {@link de.javagl.flow.module.ModuleInfo#isPure() pure}
+ * and whose outputs are never consumed by a module that has side effects
+ * are not executed at all.<br>
+ * <br>
+ * If a memory budget is given, then the contents of each {@link Link} 
+ * are cleared as soon as all consumers of the respective output have 
+ * been executed, and the execution of modules is throttled to stay 
+ * within the budget, as described in {@link MemoryTracker}.
  */
 class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
 {
@@ -71,6 +84,57 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
      */
     private volatile boolean cancelled;
 
+    /**
+     * The number of threads that are used for the execution, or 0 if
+     * new threads should be created as needed
+     */
+    private final int numThreads;
+    
+    /**
+     * The {@link SchedulingPolicy} that determines the threads that 
+     * execute the modules, or <code>null</code> if all modules should 
+     * be executed by the same thread pool
+     */
+    private final SchedulingPolicy schedulingPolicy;
+    
+    /**
+     * The modules that have been observed to be CPU-heavy during 
+     * previous executions, when a {@link SchedulingPolicy} is used
+     */
+    private final Set<Module> observedCpuHeavyModules;
+    
+    /**
+     * The memory budget, in bytes, or a negative value if intermediate
+     * results should not be released during the execution
+     */
+    private final long memoryBudget;
+    
+    /**
+     * Creates a new instance that records metrics in the given
+     * {@link MetricRegistry}
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param numThreads The number of threads that are used for the 
+     * execution, or 0 if new threads should be created as needed. This
+     * is ignored if a {@link SchedulingPolicy} is given.
+     * @param schedulingPolicy The {@link SchedulingPolicy} that determines
+     * the threads that execute the modules, or <code>null</code> if all 
+     * modules should be executed by the same thread pool
+     * @param memoryBudget The memory budget, in bytes, for the 
+     * {@link MemoryTracker}, or a negative value if intermediate results 
+     * should not be released during the execution
+     */
+    DefaultFlowExecutor(MetricRegistry metricRegistry, int numThreads,
+        SchedulingPolicy schedulingPolicy, long memoryBudget)
+    {
+        super(metricRegistry);
+        this.numThreads = numThreads;
+        this.schedulingPolicy = schedulingPolicy;
+        this.observedCpuHeavyModules = Collections.synchronizedSet(
+            Collections.newSetFromMap(new WeakHashMap<Module, Boolean>()));
+        this.memoryBudget = memoryBudget;
+    }
+    
     @Override
     public void execute(Flow flow)
     {
@@ -78,10 +142,23 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
         cancelled = false;
         fireBeforeExecution(flow);
 
-        executorService = 
-            ExecutorExtensions.newExceptionAwareCachedThreadPool();
+        if (schedulingPolicy != null)
+        {
+            executorService = new RoutingExecutorService(
+                schedulingPolicy, observedCpuHeavyModules);
+        }
+        else if (numThreads > 0)
+        {
+            executorService = 
+                ExecutorExtensions.newExceptionAwareFixedThreadPool(numThreads);
+        }
+        else
+        {
+            executorService = 
+                ExecutorExtensions.newExceptionAwareCachedThreadPool();
+        }
         
-        Set<Module> modules = flow.getModules();
+        Set<Module> modules = computeLiveModules(flow.snapshot());
         Exception error = execute(modules);
         
         // Immediately attempt an orderly shutdown, waiting infinitely
@@ -193,6 +270,30 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
             "Could not shut down within " + timeout + " " + unit);
     }
     
+    /**
+     * Compute the set of {@link Module} instances of the given {@link Flow}
+     * that have to be executed. These are all modules, except for the 
+     * {@link FlowOptimizations#findDeadModules(Flow) dead} ones, which 
+     * are pure modules whose outputs are never consumed by a module that
+     * has side effects.
+     * 
+     * @param flow The {@link Flow}
+     * @return The {@link Module} instances
+     */
+    private static Set<Module> computeLiveModules(Flow flow)
+    {
+        Set<Module> deadModules = FlowOptimizations.findDeadModules(flow);
+        if (deadModules.isEmpty())
+        {
+            return flow.getModules();
+        }
+        logger.log(level, "Skipping " + deadModules.size() 
+            + " dead modules");
+        Set<Module> modules = new LinkedHashSet<Module>(flow.getModules());
+        modules.removeAll(deadModules);
+        return modules;
+    }
+    
     /**
      * Execute the given collection of {@link Module} instances
      * 
@@ -200,12 +301,26 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
      * @return The first exception that was caused, or <code>null</code> if
      * the execution finished normally. The returned exception will usually
      * be an <code>ExecutionException</code> or an 
-     * <code>InterruptedException</code>
+     * <code>InterruptedException</code>, or an 
+     * <code>IllegalArgumentException</code> if the modules contain a cycle
      */
     private Exception execute(Collection<? extends Module> modules)
     {
-        List<Set<Module>> executionSets = 
-            FlowExecutorUtils.computeExecutionSets(modules);
+        List<Set<Module>> executionSets = null;
+        try
+        {
+            executionSets = FlowExecutorUtils.computeExecutionSets(modules);
+        }
+        catch (IllegalArgumentException e)
+        {
+            logger.warning("Cannot execute modules: " + e.getMessage());
+            return e;
+        }
+        MemoryTracker memoryTracker = null;
+        if (memoryBudget >= 0)
+        {
+            memoryTracker = new MemoryTracker(modules, memoryBudget);
+        }
         for (Set<Module> executionSet : executionSets)
         {
             if (cancelled)
@@ -213,7 +328,7 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
                 return null;
             }
             FlowExecutorUtils.log(level, "Executing ", executionSet);
-            Exception error = executeAll(executionSet);
+            Exception error = executeAll(executionSet, memoryTracker);
             if (error != null)
             {
                 logger.fine("Executing failed: " + error);
@@ -229,18 +344,22 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
      * calling their {@link Module#execute()} methods.
      * 
      * @param modules The {@link Module} instances
+     * @param memoryTracker The optional {@link MemoryTracker}
      * @return The first exception that was caused, or <code>null</code> if
      * the execution finished normally. The returned exception will usually
      * be an <code>ExecutionException</code> or an 
      * <code>InterruptedException</code>
      */
-    private Exception executeAll(Iterable<? extends Module> modules)
+    private Exception executeAll(Iterable<? extends Module> modules,
+        MemoryTracker memoryTracker)
     {
+        Collection<Callable<Object>> callables = 
+            FlowExecutorUtils.createCallables(
+                modules, getFlowExecutorMetrics());
         try
         {
-            Collection<Callable<Object>> callables = 
-                FlowExecutorUtils.createCallables(modules);
-            return FlowExecutorUtils.executeAll(executorService, callables);
+            return FlowExecutorUtils.executeAll(
+                executorService, callables, memoryTracker);
         } 
         catch (InterruptedException e)
         {
@@ -249,6 +368,10 @@ class DefaultFlowExecutor extends AbstractFlowExecutor implements FlowExecutor
             Thread.currentThread().interrupt();
             return e;
         }
+        finally
+        {
+            FlowExecutorUtils.releaseUnstarted(callables);
+        }
     }
     
 }
@@ -26,10 +26,12 @@
  */
 package de.javagl.flow.execution;
 
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.CancellationException;
 import java.util.concurrent.ExecutionException;
 import java.util.concurrent.ExecutorService;
 import java.util.concurrent.Future;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.SynchronousQueue;
 import java.util.concurrent.ThreadPoolExecutor;
 import java.util.concurrent.TimeUnit;
@@ -48,8 +50,41 @@ class ExecutorExtensions
      */
     static ExecutorService newExceptionAwareCachedThreadPool()
     {
-        return new ThreadPoolExecutor(0, Integer.MAX_VALUE, 60L,
-            TimeUnit.SECONDS, new SynchronousQueue<Runnable>())
+        return newExceptionAwareThreadPool(0, Integer.MAX_VALUE, 60L,
+            TimeUnit.SECONDS, new SynchronousQueue<Runnable>());
+    }
+    
+    /**
+     * Returns an ExecutorService that is similar to one returned by
+     * <code>Executors#newFixedThreadPool</code>, but re-throws 
+     * exceptions that happen in one of the submitted tasks.
+     * 
+     * @param numThreads The number of threads
+     * @return The new ExecutorService
+     */
+    static ExecutorService newExceptionAwareFixedThreadPool(int numThreads)
+    {
+        return newExceptionAwareThreadPool(numThreads, numThreads, 0L,
+            TimeUnit.MILLISECONDS, new LinkedBlockingQueue<Runnable>());
+    }
+    
+    /**
+     * Returns a ThreadPoolExecutor with the given parameters that
+     * re-throws exceptions that happen in one of the submitted tasks.
+     * 
+     * @param corePoolSize The core pool size
+     * @param maximumPoolSize The maximum pool size
+     * @param keepAliveTime The keep-alive time for idle threads
+     * @param unit The unit of the keep-alive time
+     * @param workQueue The work queue
+     * @return The new ExecutorService
+     */
+    private static ExecutorService newExceptionAwareThreadPool(
+        int corePoolSize, int maximumPoolSize, long keepAliveTime, 
+        TimeUnit unit, BlockingQueue<Runnable> workQueue)
+    {
+        return new ThreadPoolExecutor(corePoolSize, maximumPoolSize, 
+            keepAliveTime, unit, workQueue)
         {
             @Override
             protected void afterExecute(Runnable r, Throwable t)
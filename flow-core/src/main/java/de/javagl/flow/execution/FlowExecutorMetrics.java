@@ -0,0 +1,219 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.metrics.Counter;
+import de.javagl.flow.metrics.Histogram;
+import de.javagl.flow.metrics.MetricRegistry;
+import de.javagl.flow.module.Module;
+
+/**
+ * A class summarizing the metrics that are recorded by a
+ * {@link FlowExecutor} in a {@link MetricRegistry}:
+ * <ul>
+ *   <li>
+ *     <code>flow.executions</code>: A counter for the {@link Flow}
+ *     executions
+ *   </li>
+ *   <li>
+ *     <code>flow.failures</code>: A counter for the {@link Flow}
+ *     executions that caused an error
+ *   </li>
+ *   <li>
+ *     <code>flow.duration</code>: A histogram of the durations of
+ *     the {@link Flow} executions, in nanoseconds
+ *   </li>
+ *   <li>
+ *     <code>module.duration</code>: A histogram of the durations of
+ *     the {@link Module} executions, in nanoseconds, tagged with the
+ *     <code>module</code> name from the module info
+ *   </li>
+ *   <li>
+ *     <code>module.failures</code>: A counter for the {@link Module}
+ *     executions that caused an error, tagged with the
+ *     <code>module</code> name from the module info
+ *   </li>
+ *   <li>
+ *     <code>executor.tasks.active</code>: A gauge for the number of
+ *     module executions that are currently running, tagged with the
+ *     <code>executor</code> ID
+ *   </li>
+ *   <li>
+ *     <code>executor.tasks.queued</code>: A gauge for the number of
+ *     module executions that have been scheduled, but not started yet,
+ *     tagged with the <code>executor</code> ID
+ *   </li>
+ * </ul>
+ * The counters and histograms are shared by all executors that use the
+ * same registry. The gauges are tagged with an <code>executor</code> ID
+ * that is unique for each instance of this class, because the registry 
+ * replaces a gauge when another one with the same name and tags is 
+ * registered. Note that these gauges remain in the registry after the 
+ * executor is no longer used. 
+ */
+final class FlowExecutorMetrics
+{
+    /**
+     * The counter for creating the executor IDs
+     */
+    private static final AtomicInteger executorIdCounter = 
+        new AtomicInteger();
+
+    /**
+     * The {@link MetricRegistry}
+     */
+    private final MetricRegistry metricRegistry;
+
+    /**
+     * The counter for the flow executions
+     */
+    private final Counter flowExecutions;
+
+    /**
+     * The counter for the failed flow executions
+     */
+    private final Counter flowFailures;
+
+    /**
+     * The histogram for the flow execution durations
+     */
+    private final Histogram flowDuration;
+
+    /**
+     * The histograms for the module execution durations, by module name
+     */
+    private final Map<String, Histogram> moduleDurations;
+
+    /**
+     * The counters for the failed module executions, by module name
+     */
+    private final Map<String, Counter> moduleFailures;
+
+    /**
+     * The number of module executions that are currently running
+     */
+    private final AtomicInteger activeTasks;
+
+    /**
+     * The number of module executions that are scheduled but not started
+     */
+    private final AtomicInteger queuedTasks;
+
+    /**
+     * Creates a new instance that records the metrics in the given registry
+     *
+     * @param metricRegistry The {@link MetricRegistry}
+     */
+    FlowExecutorMetrics(MetricRegistry metricRegistry)
+    {
+        this.metricRegistry = Objects.requireNonNull(metricRegistry,
+            "The metricRegistry may not be null");
+        this.flowExecutions = metricRegistry.counter("flow.executions");
+        this.flowFailures = metricRegistry.counter("flow.failures");
+        this.flowDuration = metricRegistry.histogram("flow.duration");
+        this.moduleDurations = new ConcurrentHashMap<String, Histogram>();
+        this.moduleFailures = new ConcurrentHashMap<String, Counter>();
+        this.activeTasks = new AtomicInteger();
+        this.queuedTasks = new AtomicInteger();
+        String executorId = 
+            String.valueOf(executorIdCounter.getAndIncrement());
+        metricRegistry.gauge("executor.tasks.active", activeTasks::get, 
+            "executor", executorId);
+        metricRegistry.gauge("executor.tasks.queued", queuedTasks::get, 
+            "executor", executorId);
+    }
+
+    /**
+     * Will be called when a {@link Flow} was executed
+     *
+     * @param durationNs The duration of the execution, in nanoseconds
+     * @param failed Whether the execution caused an error
+     */
+    void flowExecuted(long durationNs, boolean failed)
+    {
+        flowExecutions.increment();
+        flowDuration.record(durationNs);
+        if (failed)
+        {
+            flowFailures.increment();
+        }
+    }
+
+    /**
+     * Will be called when the execution of a {@link Module} was scheduled
+     */
+    void moduleScheduled()
+    {
+        queuedTasks.incrementAndGet();
+    }
+
+    /**
+     * Will be called when the execution of a {@link Module} was started
+     */
+    void moduleStarted()
+    {
+        queuedTasks.decrementAndGet();
+        activeTasks.incrementAndGet();
+    }
+
+    /**
+     * Will be called when a scheduled {@link Module} execution was
+     * cancelled before it was started
+     */
+    void moduleCancelled()
+    {
+        queuedTasks.decrementAndGet();
+    }
+
+    /**
+     * Will be called when the execution of a {@link Module} was finished
+     *
+     * @param module The {@link Module}
+     * @param durationNs The duration of the execution, in nanoseconds
+     * @param failed Whether the execution caused an error
+     */
+    void moduleExecuted(Module module, long durationNs, boolean failed)
+    {
+        activeTasks.decrementAndGet();
+        String name = module.getModuleInfo().getName();
+        Histogram histogram = moduleDurations.computeIfAbsent(name,
+            n -> metricRegistry.histogram("module.duration", "module", n));
+        histogram.record(durationNs);
+        if (failed)
+        {
+            Counter counter = moduleFailures.computeIfAbsent(name,
+                n -> metricRegistry.counter("module.failures", "module", n));
+            counter.increment();
+        }
+    }
+}
@@ -26,25 +26,36 @@
  */
 package de.javagl.flow.execution;
 
+import java.util.ArrayDeque;
 import java.util.ArrayList;
+import java.util.BitSet;
 import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
+import java.util.HashMap;
 import java.util.LinkedHashSet;
 import java.util.List;
+import java.util.Map;
 import java.util.Objects;
 import java.util.Set;
+import java.util.concurrent.BlockingQueue;
 import java.util.concurrent.Callable;
-import java.util.concurrent.CompletionService;
 import java.util.concurrent.ExecutionException;
-import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Executor;
 import java.util.concurrent.ExecutorService;
-import java.util.concurrent.Executors;
 import java.util.concurrent.Future;
+import java.util.concurrent.FutureTask;
+import java.util.concurrent.LinkedBlockingQueue;
 import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.logging.Level;
 import java.util.logging.Logger;
 
+import de.javagl.flow.Flow;
+import de.javagl.flow.FlowTopology;
+import de.javagl.flow.analysis.FlowAnalysis;
 import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
 import de.javagl.flow.module.ModuleUtils;
 
 /**
@@ -61,56 +72,135 @@ class FlowExecutorUtils
     /**
      * Create a list containing one callable object for each {@link Module} 
      * of the given sequence, where the callable will call the 
-     * {@link Module#execute()} method.
+     * {@link Module#execute()} method, and record the execution in the
+     * given {@link FlowExecutorMetrics}. The execution of each callable
+     * is considered to be scheduled when this method is called. 
+     * Callables that are cancelled before they are started must be 
+     * passed to {@link #releaseUnstarted(Collection)}.
      * 
      * @param modules The {@link Module} instances
+     * @param flowExecutorMetrics The {@link FlowExecutorMetrics}
      * @return The callable objects
      */
     static Collection<Callable<Object>> createCallables(
-        Iterable<? extends Module> modules)
+        Iterable<? extends Module> modules, 
+        FlowExecutorMetrics flowExecutorMetrics)
     {
         Collection<Callable<Object>> callables = 
             new ArrayList<Callable<Object>>();
         for (Module module : modules)
         {
-            callables.add(FlowExecutorUtils.createCallable(module));
+            callables.add(
+                new MonitoredCallable(module, flowExecutorMetrics));
         }
         return callables;
     }
     
     /**
-     * Create a callable that calls the {@link Module#execute()} method of
-     * the given {@link Module}.
+     * Inform the {@link FlowExecutorMetrics} of all callables that have 
+     * been created with {@link #createCallables(Iterable, 
+     * FlowExecutorMetrics)} and have not been started, that they will 
+     * not be started any more. 
      * 
-     * @param module The {@link Module}
-     * @return The callable.
+     * @param callables The callables
      */
-    private static Callable<Object> createCallable(Module module)
+    static void releaseUnstarted(Collection<Callable<Object>> callables)
     {
-        Objects.requireNonNull(module, "The module may not be null");
-        return Executors.callable(new Runnable()
+        for (Callable<Object> callable : callables)
         {
-            @Override
-            public void run()
+            if (callable instanceof MonitoredCallable)
             {
-                try
-                {
-                    module.execute();
-                }
-                catch (Throwable t)
-                {
-                    RuntimeException r = new RuntimeException(
-                        "Error in module " + module + ": " + t, t);
-                    throw r;
-                }
+                MonitoredCallable monitoredCallable = 
+                    (MonitoredCallable) callable;
+                monitoredCallable.release();
             }
-            
-            @Override
-            public String toString()
+        }
+    }
+    
+    /**
+     * A callable that calls the {@link Module#execute()} method of a 
+     * {@link Module}, and records the execution in 
+     * {@link FlowExecutorMetrics}
+     */
+    private static final class MonitoredCallable implements Callable<Object>
+    {
+        /**
+         * The {@link Module}
+         */
+        private final Module module;
+        
+        /**
+         * The {@link FlowExecutorMetrics}
+         */
+        private final FlowExecutorMetrics flowExecutorMetrics;
+        
+        /**
+         * Whether this callable was started or released
+         */
+        private final AtomicBoolean started;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param module The {@link Module}
+         * @param flowExecutorMetrics The {@link FlowExecutorMetrics}
+         */
+        MonitoredCallable(
+            Module module, FlowExecutorMetrics flowExecutorMetrics)
+        {
+            this.module = Objects.requireNonNull(
+                module, "The module may not be null");
+            this.flowExecutorMetrics = flowExecutorMetrics;
+            this.started = new AtomicBoolean();
+            flowExecutorMetrics.moduleScheduled();
+        }
+        
+        /**
+         * Release this callable if it was not started yet
+         */
+        void release()
+        {
+            if (started.compareAndSet(false, true))
             {
-                return "Task for " + module;
+                flowExecutorMetrics.moduleCancelled();
             }
-        });
+        }
+        
+        @Override
+        public Object call()
+        {
+            if (!started.compareAndSet(false, true))
+            {
+                return null;
+            }
+            flowExecutorMetrics.moduleStarted();
+            long beforeNs = System.nanoTime();
+            boolean failed = true;
+            try
+            {
+                module.execute();
+                failed = false;
+            }
+            catch (Throwable t)
+            {
+                RuntimeException r = new RuntimeException(
+                    "Error in module " + module + ": " + t, t);
+                throw r;
+            }
+            finally
+            {
+                long afterNs = System.nanoTime();
+                flowExecutorMetrics.moduleExecuted(
+                    module, afterNs - beforeNs, failed);
+            }
+            return null;
+        }
+        
+        @Override
+        public String toString()
+        {
+            return "Task for " + module;
+        }
     }
     
     /**
@@ -149,9 +239,176 @@ class FlowExecutorUtils
      * 
      * @param modules The input {@link Module} collection
      * @return The execution sets
+     * @throws IllegalArgumentException If the given modules contain 
+     * a cycle
      */
     static List<Set<Module>> computeExecutionSets(
         Collection<? extends Module> modules)
+    {
+        FlowTopology topology = obtainCommonTopology(modules);
+        if (topology != null)
+        {
+            return computeExecutionSets(topology, modules);
+        }
+        return computeExecutionSetsFromSlots(modules);
+    }
+    
+    /**
+     * Returns the {@link FlowTopology} of the {@link Flow} that contains 
+     * all of the given {@link Module} instances, or <code>null</code> if 
+     * the modules do not belong to a single {@link Flow}, or if the 
+     * topology of the flow does not contain all modules.
+     * 
+     * @param modules The {@link Module} instances
+     * @return The {@link FlowTopology}
+     */
+    private static FlowTopology obtainCommonTopology(
+        Collection<? extends Module> modules)
+    {
+        Flow flow = null;
+        for (Module module : modules)
+        {
+            Flow moduleFlow = module.getFlow();
+            if (moduleFlow == null)
+            {
+                return null;
+            }
+            if (flow == null)
+            {
+                flow = moduleFlow;
+            }
+            else if (flow != moduleFlow)
+            {
+                return null;
+            }
+        }
+        if (flow == null)
+        {
+            return null;
+        }
+        
+        // The flow may have been modified since the given modules
+        // have been obtained, so make sure that the topology still
+        // contains all of them
+        FlowTopology topology = flow.getTopology();
+        for (Module module : modules)
+        {
+            if (topology.getModuleIndex(module) == -1)
+            {
+                return null;
+            }
+        }
+        return topology;
+    }
+    
+    /**
+     * Compute the execution sets for the given {@link Module} collection,
+     * as described in {@link #computeExecutionSets(Collection)}, using 
+     * the given {@link FlowTopology}, which must contain all modules.
+     * 
+     * @param topology The {@link FlowTopology}
+     * @param modules The input {@link Module} collection
+     * @return The execution sets
+     * @throws IllegalArgumentException If the given modules contain 
+     * a cycle
+     */
+    private static List<Set<Module>> computeExecutionSets(
+        FlowTopology topology, Collection<? extends Module> modules)
+    {
+        int numModules = topology.getModuleCount();
+        BitSet selected = new BitSet(numModules);
+        for (Module module : modules)
+        {
+            selected.set(topology.getModuleIndex(module));
+        }
+        
+        // Count the number of predecessors of each selected module
+        // that are also selected, and collect the root modules
+        int numSelected = selected.cardinality();
+        int pendingPredecessors[] = new int[numModules];
+        int current[] = new int[numSelected];
+        int currentSize = 0;
+        for (int m = selected.nextSetBit(0); m >= 0; 
+            m = selected.nextSetBit(m + 1))
+        {
+            int n = topology.getPredecessorCount(m);
+            for (int k = 0; k < n; k++)
+            {
+                if (selected.get(topology.getPredecessor(m, k)))
+                {
+                    pendingPredecessors[m]++;
+                }
+            }
+            if (pendingPredecessors[m] == 0)
+            {
+                current[currentSize++] = m;
+            }
+        }
+        
+        List<Set<Module>> sets = new ArrayList<Set<Module>>();
+        int next[] = new int[numSelected];
+        int processed = 0;
+        while (currentSize > 0)
+        {
+            Set<Module> set = new LinkedHashSet<Module>();
+            int nextSize = 0;
+            for (int i = 0; i < currentSize; i++)
+            {
+                int m = current[i];
+                set.add(topology.getModule(m));
+                int n = topology.getSuccessorCount(m);
+                for (int k = 0; k < n; k++)
+                {
+                    int s = topology.getSuccessor(m, k);
+                    if (selected.get(s))
+                    {
+                        pendingPredecessors[s]--;
+                        if (pendingPredecessors[s] == 0)
+                        {
+                            next[nextSize++] = s;
+                        }
+                    }
+                }
+            }
+            sets.add(set);
+            processed += currentSize;
+            int temp[] = current;
+            current = next;
+            next = temp;
+            currentSize = nextSize;
+        }
+        if (processed < numSelected)
+        {
+            BitSet remaining = new BitSet(numModules);
+            for (int m = selected.nextSetBit(0); m >= 0; 
+                m = selected.nextSetBit(m + 1))
+            {
+                if (pendingPredecessors[m] > 0)
+                {
+                    remaining.set(m);
+                }
+            }
+            int cycle[] = FlowAnalysis.findCycle(topology, remaining);
+            throw new IllegalArgumentException(
+                "The modules contain a cycle: " 
+                + FlowAnalysis.createCycleString(topology, cycle));
+        }
+        return sets;
+    }
+    
+    /**
+     * Compute the execution sets for the given {@link Module} collection,
+     * as described in {@link #computeExecutionSets(Collection)}, by 
+     * inspecting the slots of the modules. This is used for modules 
+     * that do not belong to a single {@link Flow}.
+     * 
+     * @param modules The input {@link Module} collection
+     * @return The execution sets
+     * @throws IllegalArgumentException If the given modules contain 
+     * a cycle
+     */
+    private static List<Set<Module>> computeExecutionSetsFromSlots(
+        Collection<? extends Module> modules)
     {
         Set<Module> allModules = new LinkedHashSet<Module>(modules);
         List<Set<Module>> sets = new ArrayList<Set<Module>>();
@@ -182,6 +439,11 @@ class FlowExecutorUtils
                     set.add(module);
                 }
             }
+            if (set.isEmpty())
+            {
+                throw new IllegalArgumentException(
+                    "The modules contain a cycle, involving " + remaining);
+            }
             sets.add(set);
             processed.addAll(set);
             remaining.removeAll(set);
@@ -191,7 +453,15 @@ class FlowExecutorUtils
     
     /**
      * Execute the given callables. If one of them throws an ExecutionException,
-     * the remaining ones are cancelled.
+     * the remaining ones are cancelled.<br>
+     * <br>
+     * If the given executor service is a {@link RoutingExecutorService},
+     * then each callable that was created with {@link #createCallables}
+     * will be executed with the executor that is 
+     * {@link RoutingExecutorService#selectExecutor(Module) selected} for
+     * its module, and callables for modules whose number of concurrent
+     * executions is limited will only be submitted when this limit is
+     * not exceeded. 
      * 
      * @param executorService The executor service 
      * @param callables The callables
@@ -204,23 +474,48 @@ class FlowExecutorUtils
         Collection<Callable<Object>> callables) 
         throws InterruptedException
     {
-        CompletionService<Object> completionService =
-            new ExecutorCompletionService<Object>(executorService);
-        int n = callables.size();
-        List<Future<Object>> futures = new ArrayList<Future<Object>>(n);
+        return executeAll(executorService, callables, null);
+    }
+    
+    /**
+     * Execute the given callables, as described in 
+     * {@link #executeAll(ExecutorService, Collection)}.<br>
+     * <br>
+     * If the given {@link MemoryTracker} is not <code>null</code>, then 
+     * each callable that was created with {@link #createCallables} will 
+     * only be submitted when the tracker admits the execution of its 
+     * module, and the tracker will be informed about each module that 
+     * has been executed.
+     * 
+     * @param executorService The executor service 
+     * @param callables The callables
+     * @param memoryTracker The optional {@link MemoryTracker}
+     * @return The first exception that was caused, or 
+     * <code>null</code> if the execution finished normally
+     * @throws InterruptedException If the thread was interrupted
+     */
+    static Exception executeAll(
+        ExecutorService executorService, 
+        Collection<Callable<Object>> callables,
+        MemoryTracker memoryTracker) 
+        throws InterruptedException
+    {
+        TaskScheduler taskScheduler = 
+            new TaskScheduler(executorService, memoryTracker);
         Exception caughtException = null;
         try
         {
             for (Callable<Object> callable : callables)
             {
-                futures.add(completionService.submit(callable));
+                taskScheduler.schedule(callable);
             }
+            int n = callables.size();
             for (int i = 0; i < n; ++i)
             {
+                CompletionTask task = taskScheduler.takeCompleted();
                 try
                 {
-                    Future<Object> future = completionService.take();
-                    future.get();
+                    task.get();
                 } 
                 catch (ExecutionException e)
                 {
@@ -228,6 +523,7 @@ class FlowExecutorUtils
                     caughtException = e;
                     break;
                 }
+                taskScheduler.completed(task);
             }
         } 
         catch (RejectedExecutionException e)
@@ -242,15 +538,313 @@ class FlowExecutorUtils
             if (caughtException != null)
             {
                 logger.info("Canceling execution of remaining tasks");
-                for (Future<Object> f : futures)
-                {
-                    f.cancel(true);
-                }
+                taskScheduler.cancelAll();
             }
         }
         return caughtException;
     }    
     
+    /**
+     * A class that submits the callables for the module executions to an
+     * executor service, while obeying the concurrency limits of a 
+     * {@link RoutingExecutorService} and the memory budget of a 
+     * {@link MemoryTracker}. Callables that may not be submitted yet are 
+     * held back until the completion of other tasks allows it. This class 
+     * is only used by the thread that calls 
+     * {@link FlowExecutorUtils#executeAll}.
+     */
+    private static final class TaskScheduler
+    {
+        /**
+         * The executor service
+         */
+        private final ExecutorService executorService;
+        
+        /**
+         * The executor service, if it is a {@link RoutingExecutorService},
+         * or <code>null</code>
+         */
+        private final RoutingExecutorService routingExecutorService;
+        
+        /**
+         * The optional {@link MemoryTracker}
+         */
+        private final MemoryTracker memoryTracker;
+        
+        /**
+         * The queue that receives the completed tasks
+         */
+        private final BlockingQueue<CompletionTask> completed;
+        
+        /**
+         * The tasks that have been submitted
+         */
+        private final List<Future<Object>> futures;
+        
+        /**
+         * The number of running tasks for each {@link ModuleInfo} whose
+         * concurrency is limited
+         */
+        private final Map<ModuleInfo, Integer> runningCounts;
+        
+        /**
+         * The callables that are waiting because the concurrency for 
+         * their {@link ModuleInfo} is limited
+         */
+        private final Map<ModuleInfo, Deque<Callable<Object>>> 
+            limitWaitingCallables;
+        
+        /**
+         * The callables that are waiting until the {@link MemoryTracker}
+         * admits their execution
+         */
+        private final Deque<Callable<Object>> memoryWaitingCallables;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param executorService The executor service
+         * @param memoryTracker The optional {@link MemoryTracker}
+         */
+        TaskScheduler(
+            ExecutorService executorService, MemoryTracker memoryTracker)
+        {
+            this.executorService = executorService;
+            if (executorService instanceof RoutingExecutorService)
+            {
+                this.routingExecutorService = 
+                    (RoutingExecutorService) executorService;
+            }
+            else
+            {
+                this.routingExecutorService = null;
+            }
+            this.memoryTracker = memoryTracker;
+            this.completed = new LinkedBlockingQueue<CompletionTask>();
+            this.futures = new ArrayList<Future<Object>>();
+            this.runningCounts = new HashMap<ModuleInfo, Integer>();
+            this.limitWaitingCallables = 
+                new HashMap<ModuleInfo, Deque<Callable<Object>>>();
+            this.memoryWaitingCallables = new ArrayDeque<Callable<Object>>();
+        }
+        
+        /**
+         * Schedule the given callable for execution. It will be submitted
+         * immediately, or as soon as the concurrency limit and the memory
+         * budget allow it.
+         * 
+         * @param callable The callable
+         */
+        void schedule(Callable<Object> callable)
+        {
+            Module module = getModule(callable);
+            ModuleInfo limitKey = getLimitKey(module);
+            if (limitKey != null)
+            {
+                int limit = routingExecutorService.getConcurrencyLimit(module);
+                Integer runningCount = runningCounts.get(limitKey);
+                int count = runningCount == null ? 0 : runningCount;
+                if (count >= limit)
+                {
+                    limitWaitingCallables.computeIfAbsent(limitKey, 
+                        k -> new ArrayDeque<Callable<Object>>())
+                        .add(callable);
+                    return;
+                }
+                runningCounts.put(limitKey, count + 1);
+            }
+            admit(callable);
+        }
+        
+        /**
+         * Submit the given callable if the {@link MemoryTracker} admits
+         * it, or let it wait until it is admitted
+         * 
+         * @param callable The callable
+         */
+        private void admit(Callable<Object> callable)
+        {
+            Module module = getModule(callable);
+            if (memoryTracker != null && module != null)
+            {
+                if (!memoryWaitingCallables.isEmpty() || 
+                    !memoryTracker.tryAdmit(module))
+                {
+                    memoryWaitingCallables.add(callable);
+                    return;
+                }
+            }
+            submit(callable);
+        }
+        
+        /**
+         * Wait until the next submitted task is completed, and return it
+         * 
+         * @return The completed task
+         * @throws InterruptedException If the thread was interrupted
+         */
+        CompletionTask takeCompleted() throws InterruptedException
+        {
+            return completed.take();
+        }
+        
+        /**
+         * Will be called when the given task was completed normally. This
+         * will submit the waiting callables that may be executed now.
+         * 
+         * @param task The task
+         */
+        void completed(CompletionTask task)
+        {
+            Module module = task.module;
+            if (memoryTracker != null && module != null)
+            {
+                memoryTracker.moduleExecuted(module);
+                while (!memoryWaitingCallables.isEmpty())
+                {
+                    Callable<Object> next = memoryWaitingCallables.peek();
+                    if (!memoryTracker.tryAdmit(getModule(next)))
+                    {
+                        break;
+                    }
+                    memoryWaitingCallables.poll();
+                    submit(next);
+                }
+            }
+            ModuleInfo limitKey = getLimitKey(module);
+            if (limitKey != null)
+            {
+                Deque<Callable<Object>> waiting = 
+                    limitWaitingCallables.get(limitKey);
+                Callable<Object> next = 
+                    waiting == null ? null : waiting.poll();
+                if (next != null)
+                {
+                    admit(next);
+                }
+                else
+                {
+                    runningCounts.put(limitKey, 
+                        runningCounts.get(limitKey) - 1);
+                }
+            }
+        }
+        
+        /**
+         * Cancel all tasks that have been submitted
+         */
+        void cancelAll()
+        {
+            for (Future<Object> f : futures)
+            {
+                f.cancel(true);
+            }
+        }
+        
+        /**
+         * Returns the {@link ModuleInfo} that serves as the key for the 
+         * concurrency limit of the given {@link Module}, or 
+         * <code>null</code> if the concurrency is not limited
+         * 
+         * @param module The {@link Module}. May be <code>null</code>.
+         * @return The key
+         */
+        private ModuleInfo getLimitKey(Module module)
+        {
+            if (routingExecutorService == null || module == null)
+            {
+                return null;
+            }
+            int limit = routingExecutorService.getConcurrencyLimit(module);
+            if (limit == Integer.MAX_VALUE)
+            {
+                return null;
+            }
+            return module.getModuleInfo();
+        }
+        
+        /**
+         * Submit a {@link CompletionTask} for the given callable to the
+         * executor service, or to the executor that is selected by
+         * the {@link RoutingExecutorService}
+         * 
+         * @param callable The callable
+         */
+        private void submit(Callable<Object> callable)
+        {
+            Executor executor = executorService;
+            Callable<Object> actualCallable = callable;
+            Module module = getModule(callable);
+            if (routingExecutorService != null && module != null)
+            {
+                executor = routingExecutorService.selectExecutor(module);
+                actualCallable = 
+                    routingExecutorService.createObservingCallable(
+                        module, callable);
+            }
+            CompletionTask task = 
+                new CompletionTask(actualCallable, module, completed);
+            futures.add(task);
+            executor.execute(task);
+        }
+    }
+    
+    /**
+     * Returns the {@link Module} that is executed by the given callable,
+     * if it was created with {@link #createCallables}, or 
+     * <code>null</code> otherwise
+     * 
+     * @param callable The callable
+     * @return The {@link Module}
+     */
+    private static Module getModule(Callable<Object> callable)
+    {
+        if (callable instanceof MonitoredCallable)
+        {
+            MonitoredCallable monitoredCallable = 
+                (MonitoredCallable) callable;
+            return monitoredCallable.module;
+        }
+        return null;
+    }
+    
+    /**
+     * A future task that adds itself to a queue when it is done
+     */
+    private static final class CompletionTask extends FutureTask<Object>
+    {
+        /**
+         * The {@link Module} that is executed, or <code>null</code>
+         */
+        private final Module module;
+        
+        /**
+         * The queue that receives the completed tasks
+         */
+        private final BlockingQueue<CompletionTask> completed;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param callable The callable
+         * @param module The {@link Module} that is executed, or 
+         * <code>null</code>
+         * @param completed The queue that receives the completed tasks
+         */
+        CompletionTask(Callable<Object> callable, Module module,
+            BlockingQueue<CompletionTask> completed)
+        {
+            super(callable);
+            this.module = module;
+            this.completed = completed;
+        }
+        
+        @Override
+        protected void done()
+        {
+            completed.add(this);
+        }
+    }
     
     /**
      * Log the give message and the string representations of the given modules
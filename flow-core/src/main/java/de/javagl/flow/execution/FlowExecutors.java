@@ -26,8 +26,13 @@
  */
 package de.javagl.flow.execution;
 
+import java.util.Objects;
+
 import de.javagl.flow.Flow;
+import de.javagl.flow.metrics.MetricRegistries;
+import de.javagl.flow.metrics.MetricRegistry;
 import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
 
 /**
  * Utility methods to create {@link FlowExecutor} instances.
@@ -40,12 +45,170 @@ public class FlowExecutors
      * This {@link FlowExecutor} will execute all {@link Module} instances in 
      * a given {@link Flow} using "wave fronts": At each step, it will 
      * execute all modules whose predecessors have already been executed. 
+     * Pure modules whose outputs are never consumed by a module that has 
+     * side effects are skipped.
      * 
      * @return The new {@link FlowExecutor}
      */
     public static FlowExecutor createDefault()
     {
-        return new DefaultFlowExecutor();
+        return createDefault(MetricRegistries.createNoOp());
+    }
+    
+    /**
+     * Create a default {@link FlowExecutor} that records metrics about
+     * the execution in the given {@link MetricRegistry}.<br>
+     * <br>
+     * This {@link FlowExecutor} will execute all {@link Module} instances in 
+     * a given {@link Flow} using "wave fronts": At each step, it will 
+     * execute all modules whose predecessors have already been executed. 
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @return The new {@link FlowExecutor}
+     */
+    public static FlowExecutor createDefault(MetricRegistry metricRegistry)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        return new DefaultFlowExecutor(metricRegistry, 0, null, -1L);
+    }
+    
+    /**
+     * Create a default {@link FlowExecutor} that uses the given number 
+     * of threads, and records metrics about the execution in the given 
+     * {@link MetricRegistry}.<br>
+     * <br>
+     * This {@link FlowExecutor} will execute all {@link Module} instances in 
+     * a given {@link Flow} using "wave fronts", as described in 
+     * {@link #createDefault()}. The 
+     * {@link de.javagl.flow.analysis.FlowParallelism} class offers 
+     * methods to estimate a suitable number of threads for a given flow.
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param numThreads The number of threads
+     * @return The new {@link FlowExecutor}
+     * @throws IllegalArgumentException If the number of threads is not 
+     * positive
+     */
+    public static FlowExecutor createDefault(
+        MetricRegistry metricRegistry, int numThreads)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        validateNumThreads(numThreads);
+        return new DefaultFlowExecutor(
+            metricRegistry, numThreads, null, -1L);
+    }
+    
+    /**
+     * Create a resource-aware {@link FlowExecutor}.<br>
+     * <br>
+     * This {@link FlowExecutor} will execute the modules in the same 
+     * order as the one that is created with {@link #createDefault()},
+     * but assign each {@link Module} to a thread pool based on its 
+     * {@link de.javagl.flow.module.ExecutionTrait execution traits} and
+     * the observed CPU usage of its previous executions, as described 
+     * in the given {@link SchedulingPolicy}.
+     * 
+     * @param schedulingPolicy The {@link SchedulingPolicy}
+     * @return The new {@link FlowExecutor}
+     */
+    public static FlowExecutor createResourceAware(
+        SchedulingPolicy schedulingPolicy)
+    {
+        return createResourceAware(
+            MetricRegistries.createNoOp(), schedulingPolicy);
+    }
+    
+    /**
+     * Create a resource-aware {@link FlowExecutor} that records metrics 
+     * about the execution in the given {@link MetricRegistry}.<br>
+     * <br>
+     * The {@link FlowExecutor} will assign the modules to threads as 
+     * described in {@link #createResourceAware(SchedulingPolicy)}.
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param schedulingPolicy The {@link SchedulingPolicy}
+     * @return The new {@link FlowExecutor}
+     */
+    public static FlowExecutor createResourceAware(
+        MetricRegistry metricRegistry, SchedulingPolicy schedulingPolicy)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        Objects.requireNonNull(schedulingPolicy, 
+            "The schedulingPolicy may not be null");
+        return new DefaultFlowExecutor(
+            metricRegistry, 0, schedulingPolicy, -1L);
+    }
+    
+    /**
+     * Create a memory-bounded {@link FlowExecutor}.<br>
+     * <br>
+     * This {@link FlowExecutor} will execute the modules in the same 
+     * order as the one that is created with {@link #createDefault()}, 
+     * but will {@link de.javagl.flow.link.Link#clear() clear} the contents 
+     * of each link as soon as all modules that consume the respective 
+     * output have been executed, unless the link is 
+     * {@link de.javagl.flow.link.Link#isRetained() retained}. So the 
+     * intermediate results of the execution may be garbage collected 
+     * as early as possible.<br>
+     * <br>
+     * Additionally, the execution of modules will be delayed when the sum
+     * of the {@link ModuleInfo#getExpectedMemoryFootprint() expected 
+     * memory footprints} of the modules that are executed, or 
+     * whose outputs have not been consumed yet, would exceed the given 
+     * budget. A budget of <code>Long.MAX_VALUE</code> only causes the 
+     * intermediate results to be released, without limiting the execution.
+     * 
+     * @param memoryBudget The memory budget, in bytes
+     * @return The new {@link FlowExecutor}
+     * @throws IllegalArgumentException If the budget is negative
+     */
+    public static FlowExecutor createMemoryBounded(long memoryBudget)
+    {
+        return createMemoryBounded(
+            MetricRegistries.createNoOp(), memoryBudget);
+    }
+    
+    /**
+     * Create a memory-bounded {@link FlowExecutor} that records metrics 
+     * about the execution in the given {@link MetricRegistry}.<br>
+     * <br>
+     * The {@link FlowExecutor} will release intermediate results and 
+     * limit the execution as described in 
+     * {@link #createMemoryBounded(long)}.
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param memoryBudget The memory budget, in bytes
+     * @return The new {@link FlowExecutor}
+     * @throws IllegalArgumentException If the budget is negative
+     */
+    public static FlowExecutor createMemoryBounded(
+        MetricRegistry metricRegistry, long memoryBudget)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        if (memoryBudget < 0)
+        {
+            throw new IllegalArgumentException(
+                "The memory budget may not be negative, but is " 
+                + memoryBudget);
+        }
+        return new DefaultFlowExecutor(
+            metricRegistry, 0, null, memoryBudget);
+    }
+    
+    /**
+     * Create a new {@link SchedulingPolicyBuilder} for building a 
+     * {@link SchedulingPolicy} that may be passed to 
+     * {@link #createResourceAware(SchedulingPolicy)}
+     * 
+     * @return The new {@link SchedulingPolicyBuilder}
+     */
+    public static SchedulingPolicyBuilder createSchedulingPolicyBuilder()
+    {
+        return new SchedulingPolicyBuilder();
     }
     
     /**
@@ -57,7 +220,61 @@ public class FlowExecutors
      */
     public static FlowExecutor createResponsive()
     {
-        return new ResponsiveFlowExecutor();
+        return createResponsive(MetricRegistries.createNoOp());
+    }
+    
+    /**
+     * Create a responsive {@link FlowExecutor} that records metrics about
+     * the execution in the given {@link MetricRegistry}.<br>
+     * <br>
+     * TODO: This is experimental. 
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @return The new {@link FlowExecutor}
+     */
+    public static FlowExecutor createResponsive(MetricRegistry metricRegistry)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        return new ResponsiveFlowExecutor(metricRegistry, 0);
+    }
+    
+    /**
+     * Create a responsive {@link FlowExecutor} that uses the given number 
+     * of threads, and records metrics about the execution in the given 
+     * {@link MetricRegistry}.<br>
+     * <br>
+     * TODO: This is experimental. 
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param numThreads The number of threads
+     * @return The new {@link FlowExecutor}
+     * @throws IllegalArgumentException If the number of threads is not 
+     * positive
+     */
+    public static FlowExecutor createResponsive(
+        MetricRegistry metricRegistry, int numThreads)
+    {
+        Objects.requireNonNull(metricRegistry, 
+            "The metricRegistry may not be null");
+        validateNumThreads(numThreads);
+        return new ResponsiveFlowExecutor(metricRegistry, numThreads);
+    }
+    
+    /**
+     * Make sure that the given number of threads is positive
+     * 
+     * @param numThreads The number of threads
+     * @throws IllegalArgumentException If the number is not positive
+     */
+    private static void validateNumThreads(int numThreads)
+    {
+        if (numThreads <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of threads must be positive, but is " 
+                + numThreads);
+        }
     }
     
     /**
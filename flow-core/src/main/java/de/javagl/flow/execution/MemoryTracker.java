@@ -0,0 +1,289 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution;
+
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+
+/**
+ * A class that keeps track of the intermediate results during the
+ * execution of a set of {@link Module} instances.<br>
+ * <br>
+ * It counts the consumers of each {@link OutputSlot}, which are the
+ * modules that are to be executed and that have an input that is
+ * connected to the slot. When the last consumer of an output slot has
+ * been executed, then all {@link Link} instances of the slot are
+ * {@link Link#clear() cleared}, unless they are
+ * {@link Link#isRetained() retained}.<br>
+ * <br>
+ * Additionally, it limits the total
+ * {@link ModuleInfo#getExpectedMemoryFootprint() expected memory footprint}
+ * of the modules that are currently executed, or whose outputs are still
+ * waiting for consumers, to a certain budget. A module whose footprint
+ * would exceed this budget is only admitted when no other module is
+ * currently executed, so that the execution always makes progress.<br>
+ * <br>
+ * This class is not thread-safe. It is only used by the thread that
+ * schedules the module executions.
+ */
+class MemoryTracker
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(MemoryTracker.class.getName());
+
+    /**
+     * The log level for the release messages
+     */
+    private static final Level level = Level.FINER;
+
+    /**
+     * The memory budget, in bytes
+     */
+    private final long memoryBudget;
+
+    /**
+     * The modules that are to be executed
+     */
+    private final Set<Module> modules;
+
+    /**
+     * The number of consumers of each output slot that have not been
+     * executed yet
+     */
+    private final Map<OutputSlot, Integer> pendingConsumers;
+
+    /**
+     * The number of output slots of each module that still have pending
+     * consumers
+     */
+    private final Map<Module, Integer> pendingOutputSlots;
+
+    /**
+     * The modules whose footprint is currently reserved
+     */
+    private final Set<Module> reservedModules;
+
+    /**
+     * The sum of the footprints of the reserved modules
+     */
+    private long reservedMemory;
+
+    /**
+     * The number of modules that have been admitted and not yet executed
+     */
+    private int runningModules;
+
+    /**
+     * Creates a new instance for the given modules
+     *
+     * @param modules The modules that are to be executed
+     * @param memoryBudget The memory budget, in bytes
+     */
+    MemoryTracker(Collection<? extends Module> modules, long memoryBudget)
+    {
+        this.memoryBudget = memoryBudget;
+        this.modules = new HashSet<Module>(modules);
+        this.pendingConsumers = new HashMap<OutputSlot, Integer>();
+        this.pendingOutputSlots = new HashMap<Module, Integer>();
+        this.reservedModules = new HashSet<Module>();
+        for (Module module : modules)
+        {
+            for (InputSlot inputSlot : module.getInputSlots())
+            {
+                Link link = inputSlot.getInputLink();
+                if (link == null)
+                {
+                    continue;
+                }
+                OutputSlot sourceSlot = link.getSourceSlot();
+                if (!this.modules.contains(sourceSlot.getModule()))
+                {
+                    continue;
+                }
+                Integer count = pendingConsumers.get(sourceSlot);
+                if (count == null)
+                {
+                    pendingConsumers.put(sourceSlot, 1);
+                    pendingOutputSlots.merge(
+                        sourceSlot.getModule(), 1, Integer::sum);
+                }
+                else
+                {
+                    pendingConsumers.put(sourceSlot, count + 1);
+                }
+            }
+        }
+    }
+
+    /**
+     * Try to admit the execution of the given {@link Module}. If the
+     * module is admitted, then its footprint is reserved until all
+     * consumers of its outputs have been executed.
+     *
+     * @param module The {@link Module}
+     * @return Whether the module was admitted
+     */
+    boolean tryAdmit(Module module)
+    {
+        long footprint = getFootprint(module);
+        if (runningModules > 0 && reservedMemory + footprint > memoryBudget)
+        {
+            return false;
+        }
+        runningModules++;
+        reservedMemory += footprint;
+        reservedModules.add(module);
+        return true;
+    }
+
+    /**
+     * Will be called when the given {@link Module} has been executed.
+     * This will release the outputs of all modules for which the given
+     * module was the last consumer.
+     *
+     * @param module The {@link Module}
+     */
+    void moduleExecuted(Module module)
+    {
+        if (reservedModules.contains(module))
+        {
+            runningModules--;
+        }
+        for (InputSlot inputSlot : module.getInputSlots())
+        {
+            Link link = inputSlot.getInputLink();
+            if (link == null)
+            {
+                continue;
+            }
+            OutputSlot sourceSlot = link.getSourceSlot();
+            Integer count = pendingConsumers.get(sourceSlot);
+            if (count == null)
+            {
+                continue;
+            }
+            if (count > 1)
+            {
+                pendingConsumers.put(sourceSlot, count - 1);
+                continue;
+            }
+            pendingConsumers.remove(sourceSlot);
+            clear(sourceSlot);
+            Module source = sourceSlot.getModule();
+            int remaining = pendingOutputSlots.get(source) - 1;
+            if (remaining == 0)
+            {
+                pendingOutputSlots.remove(source);
+                release(source);
+            }
+            else
+            {
+                pendingOutputSlots.put(source, remaining);
+            }
+        }
+
+        // Outputs that are not consumed by any module that is executed
+        // are released immediately
+        for (OutputSlot outputSlot : module.getOutputSlots())
+        {
+            if (!pendingConsumers.containsKey(outputSlot))
+            {
+                clear(outputSlot);
+            }
+        }
+        if (!pendingOutputSlots.containsKey(module))
+        {
+            release(module);
+        }
+    }
+
+    /**
+     * Clear all {@link Link} instances of the given {@link OutputSlot}
+     * that are not {@link Link#isRetained() retained}
+     *
+     * @param outputSlot The {@link OutputSlot}
+     */
+    private static void clear(OutputSlot outputSlot)
+    {
+        List<Link> outputLinks = outputSlot.getOutputLinks();
+        for (Link link : outputLinks)
+        {
+            if (!link.isRetained())
+            {
+                link.clear();
+            }
+        }
+    }
+
+    /**
+     * Release the footprint that was reserved for the given {@link Module}
+     *
+     * @param module The {@link Module}
+     */
+    private void release(Module module)
+    {
+        if (reservedModules.remove(module))
+        {
+            long footprint = getFootprint(module);
+            reservedMemory -= footprint;
+            if (logger.isLoggable(level))
+            {
+                logger.log(level, "Released " + footprint + " bytes of "
+                    + module + ", reserved: " + reservedMemory + " bytes");
+            }
+        }
+    }
+
+    /**
+     * Returns the expected memory footprint of the given {@link Module},
+     * or 0 if it is not known
+     *
+     * @param module The {@link Module}
+     * @return The footprint
+     */
+    private static long getFootprint(Module module)
+    {
+        long footprint =
+            module.getModuleInfo().getExpectedMemoryFootprint();
+        return Math.max(0, footprint);
+    }
+}
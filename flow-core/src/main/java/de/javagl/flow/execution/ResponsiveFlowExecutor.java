@@ -45,6 +45,7 @@ import java.util.logging.Logger;
 
 import de.javagl.common.beans.PropertyChangeUtils;
 import de.javagl.flow.Flow;
+import de.javagl.flow.metrics.MetricRegistry;
 import de.javagl.flow.FlowAdapter;
 import de.javagl.flow.FlowEvent;
 import de.javagl.flow.FlowListener;
@@ -86,10 +87,23 @@ class ResponsiveFlowExecutor
     private final Map<Module, PropertyChangeListener> propertyChangeListeners;
     
     /**
-     * Default constructor
+     * The number of threads that are used for the execution, or 0 if
+     * new threads should be created as needed
      */
-    ResponsiveFlowExecutor()
+    private final int numThreads;
+    
+    /**
+     * Creates a new instance that records metrics in the given
+     * {@link MetricRegistry}
+     * 
+     * @param metricRegistry The {@link MetricRegistry}
+     * @param numThreads The number of threads that are used for the 
+     * execution, or 0 if new threads should be created as needed
+     */
+    ResponsiveFlowExecutor(MetricRegistry metricRegistry, int numThreads)
     {
+        super(metricRegistry);
+        this.numThreads = numThreads;
         this.propertyChangeListeners = 
             new LinkedHashMap<Module, PropertyChangeListener>();
     }
@@ -101,10 +115,18 @@ class ResponsiveFlowExecutor
         cancelled = false;
         fireBeforeExecution(flow);
 
-        executorService = 
-            ExecutorExtensions.newExceptionAwareCachedThreadPool();
+        if (numThreads > 0)
+        {
+            executorService = 
+                ExecutorExtensions.newExceptionAwareFixedThreadPool(numThreads);
+        }
+        else
+        {
+            executorService = 
+                ExecutorExtensions.newExceptionAwareCachedThreadPool();
+        }
         
-        Set<Module> modules = flow.getModules();
+        Set<Module> modules = flow.snapshot().getModules();
         for (Module module : modules)
         {
             addModuleConfigurationListener(module);
@@ -242,13 +264,22 @@ class ResponsiveFlowExecutor
      * @return The first exception that was caused, or <code>null</code> if
      * the execution finished normally. The returned exception will usually
      * be an <code>ExecutionException</code> or an 
-     * <code>InterruptedException</code>
+     * <code>InterruptedException</code>, or an 
+     * <code>IllegalArgumentException</code> if the modules contain a cycle
      */
     private Exception execute(Collection<? extends Module> modules)
     {
         logger.info("Executing " + modules.size() + " modules");
-        List<Set<Module>> executionSets = 
-            FlowExecutorUtils.computeExecutionSets(modules);
+        List<Set<Module>> executionSets = null;
+        try
+        {
+            executionSets = FlowExecutorUtils.computeExecutionSets(modules);
+        }
+        catch (IllegalArgumentException e)
+        {
+            logger.warning("Cannot execute modules: " + e.getMessage());
+            return e;
+        }
         for (Set<Module> executionSet : executionSets)
         {
             if (cancelled)
@@ -280,10 +311,11 @@ class ResponsiveFlowExecutor
      */
     private Exception executeAll(Iterable<? extends Module> modules)
     {
+        Collection<Callable<Object>> callables = 
+            FlowExecutorUtils.createCallables(
+                modules, getFlowExecutorMetrics());
         try
         {
-            Collection<Callable<Object>> callables = 
-                FlowExecutorUtils.createCallables(modules);
             return FlowExecutorUtils.executeAll(executorService, callables);
         } 
         catch (InterruptedException e)
@@ -293,6 +325,10 @@ class ResponsiveFlowExecutor
             Thread.currentThread().interrupt();
             return e;
         }
+        finally
+        {
+            FlowExecutorUtils.releaseUnstarted(callables);
+        }
     }
     
     /**
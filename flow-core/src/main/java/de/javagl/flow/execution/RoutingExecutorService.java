@@ -0,0 +1,460 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution;
+
+import java.awt.EventQueue;
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.AbstractExecutorService;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import de.javagl.flow.module.ExecutionTrait;
+import de.javagl.flow.module.Module;
+
+/**
+ * Implementation of an ExecutorService that maintains one thread pool
+ * for CPU-heavy modules and one elastic thread pool for all other
+ * modules, and assigns each {@link Module} to one of these pools, or
+ * to the Event Dispatch Thread, as described in {@link SchedulingPolicy}.
+ * <br>
+ * <br>
+ * Tasks that are submitted directly to this service are executed in the
+ * elastic thread pool. The routing of modules is done by the 
+ * {@link FlowExecutorUtils}, using {@link #selectExecutor(Module)}.<br>
+ * <br>
+ * The tasks that are executed on the Event Dispatch Thread are tracked,
+ * so that this service is only {@link #isTerminated() terminated} when
+ * none of these tasks is pending or running.
+ */
+class RoutingExecutorService extends AbstractExecutorService
+{
+    /**
+     * The executor that executes tasks on the Event Dispatch Thread. If
+     * it is called on the Event Dispatch Thread, then the task will be
+     * executed directly, to avoid deadlocks.
+     */
+    private final Executor eventDispatchThreadExecutor =
+        new Executor()
+    {
+        @Override
+        public void execute(Runnable command)
+        {
+            executeOnEventDispatchThread(command);
+        }
+    };
+
+    /**
+     * The lock for the state of the tasks that are executed on the 
+     * Event Dispatch Thread
+     */
+    private final Object eventDispatchThreadLock = new Object();
+
+    /**
+     * The tasks that have been passed to the Event Dispatch Thread and 
+     * did not start yet
+     */
+    private final Set<EventDispatchThreadTask> pendingEventDispatchThreadTasks;
+
+    /**
+     * The number of tasks that have been passed to the Event Dispatch 
+     * Thread and did not finish yet
+     */
+    private int activeEventDispatchThreadTasks;
+
+    /**
+     * Whether this service has been shut down, so that no further tasks
+     * are accepted for the Event Dispatch Thread
+     */
+    private boolean eventDispatchThreadShutdown;
+
+    /**
+     * The {@link SchedulingPolicy}
+     */
+    private final SchedulingPolicy schedulingPolicy;
+
+    /**
+     * The set of modules that have been observed to be CPU-heavy
+     */
+    private final Set<Module> observedCpuHeavyModules;
+
+    /**
+     * The thread pool for CPU-heavy modules
+     */
+    private final ExecutorService cpuExecutorService;
+
+    /**
+     * The elastic thread pool for all other modules
+     */
+    private final ExecutorService elasticExecutorService;
+
+    /**
+     * The bean for measuring the CPU time of threads, or <code>null</code>
+     * if this is not supported
+     */
+    private final ThreadMXBean threadMXBean;
+
+    /**
+     * Creates a new instance
+     *
+     * @param schedulingPolicy The {@link SchedulingPolicy}
+     * @param observedCpuHeavyModules The set of modules that have been
+     * observed to be CPU-heavy. This set will be updated by this
+     * instance, and must therefore be thread-safe.
+     */
+    RoutingExecutorService(SchedulingPolicy schedulingPolicy,
+        Set<Module> observedCpuHeavyModules)
+    {
+        this.schedulingPolicy = schedulingPolicy;
+        this.observedCpuHeavyModules = observedCpuHeavyModules;
+        this.cpuExecutorService =
+            ExecutorExtensions.newExceptionAwareFixedThreadPool(
+                schedulingPolicy.getCpuThreads());
+        this.elasticExecutorService =
+            ExecutorExtensions.newExceptionAwareCachedThreadPool();
+        this.pendingEventDispatchThreadTasks = 
+            new LinkedHashSet<EventDispatchThreadTask>();
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (bean.isCurrentThreadCpuTimeSupported())
+        {
+            this.threadMXBean = bean;
+        }
+        else
+        {
+            this.threadMXBean = null;
+        }
+    }
+
+    /**
+     * Returns the executor that should execute the given {@link Module}
+     *
+     * @param module The {@link Module}
+     * @return The executor
+     */
+    Executor selectExecutor(Module module)
+    {
+        Set<ExecutionTrait> executionTraits =
+            module.getModuleInfo().getExecutionTraits();
+        if (schedulingPolicy.isUseEventDispatchThread() &&
+            executionTraits.contains(ExecutionTrait.EVENT_DISPATCH_THREAD))
+        {
+            return eventDispatchThreadExecutor;
+        }
+        if (executionTraits.contains(ExecutionTrait.CPU_HEAVY))
+        {
+            return cpuExecutorService;
+        }
+        if (executionTraits.contains(ExecutionTrait.BLOCKING_IO))
+        {
+            return elasticExecutorService;
+        }
+        if (observedCpuHeavyModules.contains(module))
+        {
+            return cpuExecutorService;
+        }
+        return elasticExecutorService;
+    }
+
+    /**
+     * Returns the maximum number of modules with the same
+     * {@link de.javagl.flow.module.ModuleInfo} as the given module that
+     * may be executed concurrently
+     *
+     * @param module The {@link Module}
+     * @return The concurrency limit
+     */
+    int getConcurrencyLimit(Module module)
+    {
+        return schedulingPolicy.getConcurrencyLimit(module.getModuleInfo());
+    }
+
+    /**
+     * Returns a callable that calls the given one, and observes whether
+     * the execution of the given {@link Module} is CPU-heavy. This is the
+     * case when it took longer than the
+     * {@link SchedulingPolicy#getCpuHeavyThresholdNs() threshold}, and
+     * at least half of the time was spent using the CPU.
+     *
+     * @param module The {@link Module}
+     * @param callable The callable that executes the module
+     * @return The observing callable
+     */
+    Callable<Object> createObservingCallable(
+        Module module, Callable<Object> callable)
+    {
+        if (threadMXBean == null)
+        {
+            return callable;
+        }
+        return new Callable<Object>()
+        {
+            @Override
+            public Object call() throws Exception
+            {
+                long beforeCpuNs = threadMXBean.getCurrentThreadCpuTime();
+                long beforeNs = System.nanoTime();
+                try
+                {
+                    return callable.call();
+                }
+                finally
+                {
+                    long wallNs = System.nanoTime() - beforeNs;
+                    long cpuNs =
+                        threadMXBean.getCurrentThreadCpuTime() - beforeCpuNs;
+                    if (wallNs >= schedulingPolicy.getCpuHeavyThresholdNs())
+                    {
+                        if (cpuNs * 2 >= wallNs)
+                        {
+                            observedCpuHeavyModules.add(module);
+                        }
+                        else
+                        {
+                            observedCpuHeavyModules.remove(module);
+                        }
+                    }
+                }
+            }
+        };
+    }
+
+    /**
+     * Execute the given command on the Event Dispatch Thread. If this 
+     * method is called on the Event Dispatch Thread, then the command 
+     * is executed directly.
+     * 
+     * @param command The command
+     * @throws RejectedExecutionException If this service was shut down
+     */
+    private void executeOnEventDispatchThread(Runnable command)
+    {
+        EventDispatchThreadTask task = new EventDispatchThreadTask(command);
+        synchronized (eventDispatchThreadLock)
+        {
+            if (eventDispatchThreadShutdown)
+            {
+                throw new RejectedExecutionException(
+                    "The executor service was shut down");
+            }
+            pendingEventDispatchThreadTasks.add(task);
+            activeEventDispatchThreadTasks++;
+        }
+        if (EventQueue.isDispatchThread())
+        {
+            task.run();
+        }
+        else
+        {
+            EventQueue.invokeLater(task);
+        }
+    }
+
+    /**
+     * Returns whether none of the tasks that have been passed to the
+     * Event Dispatch Thread is pending or running
+     * 
+     * @return Whether the Event Dispatch Thread tasks are terminated
+     */
+    private boolean isEventDispatchThreadTerminated()
+    {
+        synchronized (eventDispatchThreadLock)
+        {
+            return eventDispatchThreadShutdown 
+                && activeEventDispatchThreadTasks == 0;
+        }
+    }
+
+    @Override
+    public void execute(Runnable command)
+    {
+        elasticExecutorService.execute(command);
+    }
+
+    @Override
+    public void shutdown()
+    {
+        cpuExecutorService.shutdown();
+        elasticExecutorService.shutdown();
+        synchronized (eventDispatchThreadLock)
+        {
+            eventDispatchThreadShutdown = true;
+            eventDispatchThreadLock.notifyAll();
+        }
+    }
+
+    /**
+     * {@inheritDoc}<br>
+     * <br>
+     * The tasks for the Event Dispatch Thread that did not start yet 
+     * will not be executed, and are contained in the returned list. 
+     */
+    @Override
+    public List<Runnable> shutdownNow()
+    {
+        List<Runnable> result = new ArrayList<Runnable>();
+        result.addAll(cpuExecutorService.shutdownNow());
+        result.addAll(elasticExecutorService.shutdownNow());
+        synchronized (eventDispatchThreadLock)
+        {
+            eventDispatchThreadShutdown = true;
+            for (EventDispatchThreadTask task : 
+                pendingEventDispatchThreadTasks)
+            {
+                result.add(task.command);
+                activeEventDispatchThreadTasks--;
+            }
+            pendingEventDispatchThreadTasks.clear();
+            eventDispatchThreadLock.notifyAll();
+        }
+        return result;
+    }
+
+    @Override
+    public boolean isShutdown()
+    {
+        return cpuExecutorService.isShutdown()
+            && elasticExecutorService.isShutdown();
+    }
+
+    @Override
+    public boolean isTerminated()
+    {
+        return cpuExecutorService.isTerminated()
+            && elasticExecutorService.isTerminated()
+            && isEventDispatchThreadTerminated();
+    }
+
+    @Override
+    public boolean awaitTermination(long timeout, TimeUnit unit)
+        throws InterruptedException
+    {
+        long timeoutNs = unit.toNanos(timeout);
+        long deadlineNs = System.nanoTime() + timeoutNs;
+        if (!cpuExecutorService.awaitTermination(
+            timeoutNs, TimeUnit.NANOSECONDS))
+        {
+            return false;
+        }
+        if (!elasticExecutorService.awaitTermination(
+            remainingNs(timeoutNs, deadlineNs), TimeUnit.NANOSECONDS))
+        {
+            return false;
+        }
+        synchronized (eventDispatchThreadLock)
+        {
+            while (!isEventDispatchThreadTerminated())
+            {
+                long remainingNs = remainingNs(timeoutNs, deadlineNs);
+                if (remainingNs <= 0)
+                {
+                    return false;
+                }
+                TimeUnit.NANOSECONDS.timedWait(
+                    eventDispatchThreadLock, remainingNs);
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Returns the number of nanoseconds that remain until the given 
+     * deadline. If the given timeout is <code>Long.MAX_VALUE</code>, 
+     * then <code>Long.MAX_VALUE</code> is returned.
+     * 
+     * @param timeoutNs The timeout, in nanoseconds
+     * @param deadlineNs The deadline, in nanoseconds
+     * @return The remaining time, in nanoseconds
+     */
+    private static long remainingNs(long timeoutNs, long deadlineNs)
+    {
+        if (timeoutNs == Long.MAX_VALUE)
+        {
+            return Long.MAX_VALUE;
+        }
+        return Math.max(0, deadlineNs - System.nanoTime());
+    }
+
+    @Override
+    public String toString()
+    {
+        return "RoutingExecutorService[" + schedulingPolicy + "]";
+    }
+
+    /**
+     * A task that is executed on the Event Dispatch Thread, and updates
+     * the state of the tasks of the Event Dispatch Thread
+     */
+    private final class EventDispatchThreadTask implements Runnable
+    {
+        /**
+         * The command that is executed
+         */
+        private final Runnable command;
+
+        /**
+         * Creates a new task for the given command
+         * 
+         * @param command The command
+         */
+        EventDispatchThreadTask(Runnable command)
+        {
+            this.command = command;
+        }
+
+        @Override
+        public void run()
+        {
+            synchronized (eventDispatchThreadLock)
+            {
+                if (!pendingEventDispatchThreadTasks.remove(this))
+                {
+                    // The task was discarded by shutdownNow
+                    return;
+                }
+            }
+            try
+            {
+                command.run();
+            }
+            finally
+            {
+                synchronized (eventDispatchThreadLock)
+                {
+                    activeEventDispatchThreadTasks--;
+                    eventDispatchThreadLock.notifyAll();
+                }
+            }
+        }
+    }
+}
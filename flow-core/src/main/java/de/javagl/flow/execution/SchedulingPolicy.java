@@ -0,0 +1,176 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.javagl.flow.module.ExecutionTrait;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+
+/**
+ * A description of how a resource-aware {@link FlowExecutor} assigns
+ * {@link Module} instances to threads. Instances of this class are
+ * created with a {@link SchedulingPolicyBuilder}, which may be obtained
+ * from {@link FlowExecutors#createSchedulingPolicyBuilder()}.<br>
+ * <br>
+ * The executor routes each module based on the {@link ExecutionTrait}
+ * values of its {@link ModuleInfo}:
+ * <ul>
+ *   <li>
+ *     Modules with {@link ExecutionTrait#EVENT_DISPATCH_THREAD} are
+ *     executed on the Swing Event Dispatch Thread, if this is
+ *     {@link #isUseEventDispatchThread() enabled}
+ *   </li>
+ *   <li>
+ *     Modules with {@link ExecutionTrait#CPU_HEAVY} are executed in a
+ *     thread pool with a fixed {@link #getCpuThreads() number of threads}
+ *   </li>
+ *   <li>
+ *     Modules with {@link ExecutionTrait#BLOCKING_IO} are executed in
+ *     an elastic thread pool that creates threads as needed
+ *   </li>
+ *   <li>
+ *     All other modules are executed in the elastic thread pool, unless
+ *     their previous execution took longer than the
+ *     {@link #getCpuHeavyThresholdNs() CPU-heavy threshold} and was
+ *     mainly spent using the CPU. Such modules are executed in the
+ *     fixed-size thread pool.
+ *   </li>
+ * </ul>
+ * Additionally, the number of modules with a certain {@link ModuleInfo}
+ * that are executed concurrently may be
+ * {@link #getConcurrencyLimit(ModuleInfo) limited}.
+ */
+public final class SchedulingPolicy
+{
+    /**
+     * The number of threads for CPU-heavy modules
+     */
+    private final int cpuThreads;
+
+    /**
+     * The threshold for observing modules as being CPU-heavy
+     */
+    private final long cpuHeavyThresholdNs;
+
+    /**
+     * Whether the Event Dispatch Thread should be used
+     */
+    private final boolean useEventDispatchThread;
+
+    /**
+     * The concurrency limits
+     */
+    private final Map<ModuleInfo, Integer> concurrencyLimits;
+
+    /**
+     * Creates a new instance
+     *
+     * @param cpuThreads The number of threads for CPU-heavy modules
+     * @param cpuHeavyThresholdNs The threshold for observing modules as
+     * being CPU-heavy
+     * @param useEventDispatchThread Whether the Event Dispatch Thread
+     * should be used
+     * @param concurrencyLimits The concurrency limits
+     */
+    SchedulingPolicy(int cpuThreads, long cpuHeavyThresholdNs,
+        boolean useEventDispatchThread,
+        Map<ModuleInfo, Integer> concurrencyLimits)
+    {
+        this.cpuThreads = cpuThreads;
+        this.cpuHeavyThresholdNs = cpuHeavyThresholdNs;
+        this.useEventDispatchThread = useEventDispatchThread;
+        this.concurrencyLimits = Collections.unmodifiableMap(
+            new LinkedHashMap<ModuleInfo, Integer>(concurrencyLimits));
+    }
+
+    /**
+     * Returns the number of threads that are used for executing
+     * CPU-heavy modules
+     *
+     * @return The number of threads
+     */
+    public int getCpuThreads()
+    {
+        return cpuThreads;
+    }
+
+    /**
+     * Returns the execution time, in nanoseconds, above which modules
+     * that mainly use the CPU are considered to be CPU-heavy, even if
+     * they do not declare {@link ExecutionTrait#CPU_HEAVY}
+     *
+     * @return The threshold, in nanoseconds
+     */
+    public long getCpuHeavyThresholdNs()
+    {
+        return cpuHeavyThresholdNs;
+    }
+
+    /**
+     * Returns whether modules with
+     * {@link ExecutionTrait#EVENT_DISPATCH_THREAD} are executed on the
+     * Swing Event Dispatch Thread
+     *
+     * @return Whether the Event Dispatch Thread is used
+     */
+    public boolean isUseEventDispatchThread()
+    {
+        return useEventDispatchThread;
+    }
+
+    /**
+     * Returns the maximum number of modules with the given
+     * {@link ModuleInfo} that may be executed concurrently, or
+     * <code>Integer.MAX_VALUE</code> if this number is not limited
+     *
+     * @param moduleInfo The {@link ModuleInfo}
+     * @return The concurrency limit
+     */
+    public int getConcurrencyLimit(ModuleInfo moduleInfo)
+    {
+        Integer concurrencyLimit = concurrencyLimits.get(moduleInfo);
+        if (concurrencyLimit == null)
+        {
+            return Integer.MAX_VALUE;
+        }
+        return concurrencyLimit;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SchedulingPolicy["
+            + "cpuThreads=" + cpuThreads + ","
+            + "cpuHeavyThresholdNs=" + cpuHeavyThresholdNs + ","
+            + "useEventDispatchThread=" + useEventDispatchThread + ","
+            + "concurrencyLimits=" + concurrencyLimits + "]";
+    }
+}
@@ -0,0 +1,165 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution;
+
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+import de.javagl.flow.module.ExecutionTrait;
+import de.javagl.flow.module.ModuleInfo;
+
+/**
+ * A builder for {@link SchedulingPolicy} instances.
+ */
+public final class SchedulingPolicyBuilder
+{
+    /**
+     * The default threshold for observing modules as being CPU-heavy
+     */
+    private static final long DEFAULT_CPU_HEAVY_THRESHOLD_NS = 10000000L;
+
+    /**
+     * The number of threads for CPU-heavy modules
+     */
+    private int cpuThreads;
+
+    /**
+     * The threshold for observing modules as being CPU-heavy
+     */
+    private long cpuHeavyThresholdNs;
+
+    /**
+     * Whether the Event Dispatch Thread should be used
+     */
+    private boolean useEventDispatchThread;
+
+    /**
+     * The concurrency limits
+     */
+    private final Map<ModuleInfo, Integer> concurrencyLimits;
+
+    /**
+     * Creates a new builder, initialized with the default values
+     */
+    SchedulingPolicyBuilder()
+    {
+        this.cpuThreads = Runtime.getRuntime().availableProcessors();
+        this.cpuHeavyThresholdNs = DEFAULT_CPU_HEAVY_THRESHOLD_NS;
+        this.useEventDispatchThread = true;
+        this.concurrencyLimits = new LinkedHashMap<ModuleInfo, Integer>();
+    }
+
+    /**
+     * Set the number of threads that are used for executing CPU-heavy
+     * modules. The default is the number of available processors.
+     *
+     * @param cpuThreads The number of threads
+     * @return This builder
+     * @throws IllegalArgumentException If the number is not positive
+     */
+    public SchedulingPolicyBuilder setCpuThreads(int cpuThreads)
+    {
+        if (cpuThreads <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of threads must be positive, but is "
+                + cpuThreads);
+        }
+        this.cpuThreads = cpuThreads;
+        return this;
+    }
+
+    /**
+     * Set the execution time, in nanoseconds, above which modules that
+     * mainly use the CPU are considered to be CPU-heavy, even if they
+     * do not declare {@link ExecutionTrait#CPU_HEAVY}. The default is
+     * 10 milliseconds. A value of <code>Long.MAX_VALUE</code> disables
+     * this observation.
+     *
+     * @param cpuHeavyThresholdNs The threshold, in nanoseconds
+     * @return This builder
+     */
+    public SchedulingPolicyBuilder setCpuHeavyThresholdNs(
+        long cpuHeavyThresholdNs)
+    {
+        this.cpuHeavyThresholdNs = cpuHeavyThresholdNs;
+        return this;
+    }
+
+    /**
+     * Set whether modules with {@link ExecutionTrait#EVENT_DISPATCH_THREAD}
+     * should be executed on the Swing Event Dispatch Thread. The default
+     * is <code>true</code>.
+     *
+     * @param useEventDispatchThread Whether the Event Dispatch Thread
+     * should be used
+     * @return This builder
+     */
+    public SchedulingPolicyBuilder setUseEventDispatchThread(
+        boolean useEventDispatchThread)
+    {
+        this.useEventDispatchThread = useEventDispatchThread;
+        return this;
+    }
+
+    /**
+     * Set the maximum number of modules with the given {@link ModuleInfo}
+     * that may be executed concurrently.
+     *
+     * @param moduleInfo The {@link ModuleInfo}
+     * @param concurrencyLimit The concurrency limit
+     * @return This builder
+     * @throws NullPointerException If the {@link ModuleInfo} is
+     * <code>null</code>
+     * @throws IllegalArgumentException If the limit is not positive
+     */
+    public SchedulingPolicyBuilder setConcurrencyLimit(
+        ModuleInfo moduleInfo, int concurrencyLimit)
+    {
+        Objects.requireNonNull(moduleInfo, "The moduleInfo may not be null");
+        if (concurrencyLimit <= 0)
+        {
+            throw new IllegalArgumentException(
+                "The concurrency limit must be positive, but is "
+                + concurrencyLimit);
+        }
+        concurrencyLimits.put(moduleInfo, concurrencyLimit);
+        return this;
+    }
+
+    /**
+     * Build the {@link SchedulingPolicy} that has been described so far.
+     *
+     * @return The new {@link SchedulingPolicy}
+     */
+    public SchedulingPolicy build()
+    {
+        return new SchedulingPolicy(cpuThreads, cpuHeavyThresholdNs,
+            useEventDispatchThread, concurrencyLimits);
+    }
+}
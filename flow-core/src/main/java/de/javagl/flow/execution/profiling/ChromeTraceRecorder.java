@@ -0,0 +1,545 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicLong;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.execution.FlowExecutor;
+import de.javagl.flow.execution.FlowExecutorEvent;
+import de.javagl.flow.execution.FlowExecutorListener;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.LinkEvent;
+import de.javagl.flow.link.LinkListener;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleExecutionEvent;
+import de.javagl.flow.module.ModuleExecutionListener;
+
+/**
+ * A {@link FlowExecutorListener} that records the executions of a
+ * {@link Flow} as events in the Chrome <code>trace_event</code> format.
+ * The resulting JSON file can be opened in <code>chrome://tracing</code>
+ * or in Perfetto, to show the module executions on per-thread
+ * timelines.<br>
+ * <br>
+ * An instance of this class may be attached to a {@link FlowExecutor}
+ * by passing it to {@link FlowExecutor#addFlowExecutorListener}. When
+ * the execution of a flow starts, it will attach listeners to all
+ * modules and links of the flow, and remove them when the execution
+ * ends. When the recorder is not {@link #setEnabled(boolean) enabled},
+ * then no listeners will be attached, and the execution of the flow
+ * is not affected.<br>
+ * <br>
+ * The following events are recorded:
+ * <ul>
+ *   <li>
+ *     One slice for each flow execution, on the thread that called
+ *     {@link FlowExecutor#execute(Flow)}
+ *   </li>
+ *   <li>
+ *     One slice for each module execution, with a nested slice for the
+ *     actual processing
+ *   </li>
+ *   <li>
+ *     One flow arrow for each object that is passed through a
+ *     {@link Link}, from the thread that produced the object to the
+ *     thread that consumed it
+ *   </li>
+ * </ul>
+ */
+public final class ChromeTraceRecorder implements FlowExecutorListener
+{
+    /**
+     * A single trace event
+     */
+    private static class TraceEvent
+    {
+        /**
+         * The name of the event
+         */
+        String name;
+
+        /**
+         * The category of the event
+         */
+        String category;
+
+        /**
+         * The phase of the event, as defined in the trace event format
+         */
+        String phase;
+
+        /**
+         * The time stamp, in nanoseconds, relative to the time when
+         * the recorder was created
+         */
+        long timeNs;
+
+        /**
+         * The duration, in nanoseconds, for complete events
+         */
+        long durationNs;
+
+        /**
+         * The thread ID
+         */
+        long threadId;
+
+        /**
+         * The ID for flow events, or -1
+         */
+        long id = -1;
+
+        /**
+         * An optional string argument
+         */
+        String detail;
+    }
+
+    /**
+     * The information about a module execution that is ongoing
+     */
+    private static class ModuleRecord
+    {
+        /**
+         * The time when the execution started
+         */
+        long startNs;
+
+        /**
+         * The time when the processing started, or -1
+         */
+        long processingStartNs = -1;
+    }
+
+    /**
+     * The base time for all time stamps
+     */
+    private final long baseNs;
+
+    /**
+     * The events that have been recorded
+     */
+    private final Queue<TraceEvent> events;
+
+    /**
+     * The names of all threads that have been observed
+     */
+    private final Map<Long, String> threadNames;
+
+    /**
+     * The records of the module executions that are currently ongoing
+     */
+    private final Map<Module, ModuleRecord> moduleRecords;
+
+    /**
+     * The IDs of the flow events for objects that have been accepted
+     * by a link, but not yet provided
+     */
+    private final Map<Link, Long> pendingTransfers;
+
+    /**
+     * The counter for flow event IDs
+     */
+    private final AtomicLong transferCounter;
+
+    /**
+     * The listener that is attached to all modules
+     */
+    private final ModuleExecutionListener moduleExecutionListener;
+
+    /**
+     * The listener that is attached to all links
+     */
+    private final LinkListener linkListener;
+
+    /**
+     * The modules that the {@link #moduleExecutionListener} is
+     * currently attached to
+     */
+    private final List<Module> attachedModules;
+
+    /**
+     * The links that the {@link #linkListener} is currently attached to
+     */
+    private final List<Link> attachedLinks;
+
+    /**
+     * The time when the current flow execution started
+     */
+    private volatile long flowStartNs;
+
+    /**
+     * Whether this recorder is currently enabled
+     */
+    private volatile boolean enabled;
+
+    /**
+     * Creates a new, enabled recorder
+     */
+    public ChromeTraceRecorder()
+    {
+        this.baseNs = System.nanoTime();
+        this.events = new ConcurrentLinkedQueue<TraceEvent>();
+        this.threadNames = new ConcurrentHashMap<Long, String>();
+        this.moduleRecords = new ConcurrentHashMap<Module, ModuleRecord>();
+        this.pendingTransfers = new ConcurrentHashMap<Link, Long>();
+        this.transferCounter = new AtomicLong();
+        this.moduleExecutionListener = createModuleExecutionListener();
+        this.linkListener = createLinkListener();
+        this.attachedModules = new ArrayList<Module>();
+        this.attachedLinks = new ArrayList<Link>();
+        this.enabled = true;
+    }
+
+    /**
+     * Set whether this recorder is enabled. If the recorder is disabled,
+     * then no events will be recorded for subsequent flow executions.
+     *
+     * @param enabled Whether the recorder is enabled
+     */
+    public void setEnabled(boolean enabled)
+    {
+        this.enabled = enabled;
+    }
+
+    /**
+     * Returns whether this recorder is enabled
+     *
+     * @return Whether the recorder is enabled
+     */
+    public boolean isEnabled()
+    {
+        return enabled;
+    }
+
+    /**
+     * Create the listener that will be attached to the modules
+     *
+     * @return The listener
+     */
+    private ModuleExecutionListener createModuleExecutionListener()
+    {
+        return new ModuleExecutionListener()
+        {
+            @Override
+            public void beforeExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ModuleRecord record = new ModuleRecord();
+                record.startNs = System.nanoTime();
+                moduleRecords.put(moduleExecutionEvent.getModule(), record);
+            }
+
+            @Override
+            public void beforeProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ModuleRecord record =
+                    moduleRecords.get(moduleExecutionEvent.getModule());
+                if (record != null)
+                {
+                    record.processingStartNs = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void progressChanged(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                // Not recorded
+            }
+
+            @Override
+            public void afterProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                Module module = moduleExecutionEvent.getModule();
+                ModuleRecord record = moduleRecords.get(module);
+                if (record != null && record.processingStartNs >= 0)
+                {
+                    long endNs = System.nanoTime();
+                    addCompleteEvent("process", "module",
+                        record.processingStartNs, endNs, null);
+                }
+            }
+
+            @Override
+            public void afterExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                long endNs = System.nanoTime();
+                Module module = moduleExecutionEvent.getModule();
+                ModuleRecord record = moduleRecords.remove(module);
+                if (record != null)
+                {
+                    String detail = String.valueOf(module);
+                    Throwable throwable = moduleExecutionEvent.getThrowable();
+                    if (throwable != null)
+                    {
+                        detail += ", error: " + throwable;
+                    }
+                    addCompleteEvent(module.getModuleInfo().getName(),
+                        "module", record.startNs, endNs, detail);
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the listener that will be attached to the links
+     *
+     * @return The listener
+     */
+    private LinkListener createLinkListener()
+    {
+        return new LinkListener()
+        {
+            @Override
+            public void objectAccepted(LinkEvent linkEvent)
+            {
+                long id = transferCounter.incrementAndGet();
+                pendingTransfers.put(linkEvent.getLink(), id);
+                addFlowEvent("s", id, System.nanoTime());
+            }
+
+            @Override
+            public void objectProvided(LinkEvent linkEvent)
+            {
+                Long id = pendingTransfers.get(linkEvent.getLink());
+                if (id != null)
+                {
+                    addFlowEvent("f", id, System.nanoTime());
+                }
+            }
+        };
+    }
+
+    /**
+     * Add a complete event for the current thread
+     *
+     * @param name The name
+     * @param category The category
+     * @param startNs The start time
+     * @param endNs The end time
+     * @param detail The optional detail string
+     */
+    private void addCompleteEvent(String name, String category,
+        long startNs, long endNs, String detail)
+    {
+        TraceEvent event = new TraceEvent();
+        event.name = name;
+        event.category = category;
+        event.phase = "X";
+        event.timeNs = startNs - baseNs;
+        event.durationNs = endNs - startNs;
+        event.threadId = obtainThreadId();
+        event.detail = detail;
+        events.add(event);
+    }
+
+    /**
+     * Add a flow event for the current thread
+     *
+     * @param phase The phase, "s" or "f"
+     * @param id The flow event ID
+     * @param timeNs The time
+     */
+    private void addFlowEvent(String phase, long id, long timeNs)
+    {
+        TraceEvent event = new TraceEvent();
+        event.name = "transfer";
+        event.category = "link";
+        event.phase = phase;
+        event.timeNs = timeNs - baseNs;
+        event.threadId = obtainThreadId();
+        event.id = id;
+        events.add(event);
+    }
+
+    /**
+     * Returns the ID of the current thread, and store its name
+     *
+     * @return The thread ID
+     */
+    private long obtainThreadId()
+    {
+        Thread thread = Thread.currentThread();
+        long threadId = thread.getId();
+        if (!threadNames.containsKey(threadId))
+        {
+            threadNames.put(threadId, thread.getName());
+        }
+        return threadId;
+    }
+
+    @Override
+    public void beforeExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        if (!enabled)
+        {
+            return;
+        }
+        Flow flow = flowExecutorEvent.getFlow().snapshot();
+        synchronized (attachedModules)
+        {
+            for (Module module : flow.getModules())
+            {
+                module.addModuleExecutionListener(moduleExecutionListener);
+                attachedModules.add(module);
+            }
+            for (Link link : flow.getLinks())
+            {
+                link.addLinkListener(linkListener);
+                attachedLinks.add(link);
+            }
+        }
+        flowStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void afterExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        long flowEndNs = System.nanoTime();
+        synchronized (attachedModules)
+        {
+            if (attachedModules.isEmpty() && attachedLinks.isEmpty())
+            {
+                return;
+            }
+            for (Module module : attachedModules)
+            {
+                module.removeModuleExecutionListener(moduleExecutionListener);
+            }
+            attachedModules.clear();
+            for (Link link : attachedLinks)
+            {
+                link.removeLinkListener(linkListener);
+            }
+            attachedLinks.clear();
+        }
+        String detail = "cancelled: " + flowExecutorEvent.isCancelled()
+            + ", errors: " + flowExecutorEvent.getErrors().size();
+        addCompleteEvent("Flow execution", "executor",
+            flowStartNs, flowEndNs, detail);
+        moduleRecords.clear();
+        pendingTransfers.clear();
+    }
+
+    /**
+     * Remove all events that have been recorded so far
+     */
+    public void clear()
+    {
+        events.clear();
+    }
+
+    /**
+     * Write all events that have been recorded so far to the given
+     * writer, in the Chrome <code>trace_event</code> JSON format. The
+     * caller is responsible for closing the given writer.
+     *
+     * @param writer The writer
+     * @throws IOException If an IO error occurs
+     */
+    public void write(Writer writer) throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\"traceEvents\":[\n");
+        boolean first = true;
+        for (Map.Entry<Long, String> entry : threadNames.entrySet())
+        {
+            if (!first)
+            {
+                sb.append(",\n");
+            }
+            first = false;
+            sb.append("{\"name\":\"thread_name\",\"ph\":\"M\",\"pid\":1,");
+            sb.append("\"tid\":").append(entry.getKey()).append(",");
+            sb.append("\"args\":{\"name\":");
+            sb.append(FlowProfiles.escapeJson(entry.getValue())).append("}}");
+        }
+        for (TraceEvent event : events)
+        {
+            if (!first)
+            {
+                sb.append(",\n");
+            }
+            first = false;
+            sb.append("{\"name\":");
+            sb.append(FlowProfiles.escapeJson(event.name)).append(",");
+            sb.append("\"cat\":\"").append(event.category).append("\",");
+            sb.append("\"ph\":\"").append(event.phase).append("\",");
+            sb.append("\"ts\":").append(toMicros(event.timeNs)).append(",");
+            if (event.phase.equals("X"))
+            {
+                sb.append("\"dur\":");
+                sb.append(toMicros(event.durationNs)).append(",");
+            }
+            if (event.id >= 0)
+            {
+                sb.append("\"id\":").append(event.id).append(",");
+            }
+            if (event.phase.equals("f"))
+            {
+                sb.append("\"bp\":\"e\",");
+            }
+            if (event.detail != null)
+            {
+                sb.append("\"args\":{\"detail\":");
+                sb.append(FlowProfiles.escapeJson(event.detail)).append("},");
+            }
+            sb.append("\"pid\":1,\"tid\":").append(event.threadId);
+            sb.append("}");
+        }
+        sb.append("\n]}\n");
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    /**
+     * Convert the given nanoseconds into a string containing the
+     * microseconds
+     *
+     * @param ns The nanoseconds
+     * @return The string
+     */
+    private static String toMicros(long ns)
+    {
+        return String.format(Locale.ENGLISH, "%.3f", ns * 1e-3);
+    }
+
+}
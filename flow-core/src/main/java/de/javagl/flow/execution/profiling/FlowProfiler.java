@@ -0,0 +1,449 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution.profiling;
+
+import java.lang.management.ManagementFactory;
+import java.lang.management.ThreadMXBean;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.execution.FlowExecutor;
+import de.javagl.flow.execution.FlowExecutorEvent;
+import de.javagl.flow.execution.FlowExecutorListener;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleExecutionEvent;
+import de.javagl.flow.module.ModuleExecutionListener;
+import de.javagl.flow.module.ModuleUtils;
+
+/**
+ * A {@link FlowExecutorListener} that records profiling information about
+ * the execution of the {@link Module} instances of a {@link Flow}.<br>
+ * <br>
+ * An instance of this class may be attached to a {@link FlowExecutor}
+ * by passing it to {@link FlowExecutor#addFlowExecutorListener}. When
+ * the execution of a flow starts, it will attach a
+ * {@link ModuleExecutionListener} to all modules of the flow, and record
+ * timing and allocation information for each module execution. When the
+ * execution of the flow ends, these listeners are removed again.<br>
+ * <br>
+ * The information is aggregated over all executions, and may be obtained
+ * as a list of {@link ModuleProfile} instances. The {@link FlowProfiles}
+ * class offers methods for exporting this information.
+ */
+public final class FlowProfiler implements FlowExecutorListener
+{
+    /**
+     * The information about a single, ongoing module execution
+     */
+    private static class ExecutionRecord
+    {
+        /**
+         * The time when the execution started
+         */
+        long startNs;
+
+        /**
+         * The time when all predecessors had been executed
+         */
+        long readyNs;
+
+        /**
+         * The time when the processing started, or -1
+         */
+        long processingStartNs = -1;
+
+        /**
+         * The time when the processing ended, or -1
+         */
+        long processingEndNs = -1;
+
+        /**
+         * The number of bytes allocated by the executing thread at the
+         * start of the execution, or -1
+         */
+        long allocatedBytesAtStart = -1;
+    }
+
+    /**
+     * The thread MX bean that is used for obtaining allocation information,
+     * or <code>null</code> if this is not supported
+     */
+    private static final com.sun.management.ThreadMXBean threadMXBean =
+        obtainThreadMXBean();
+
+    /**
+     * The {@link ModuleProfile} for each {@link Module}
+     */
+    private final Map<Module, ModuleProfile> moduleProfiles;
+
+    /**
+     * The records for the module executions that are currently ongoing
+     */
+    private final Map<Module, ExecutionRecord> executionRecords;
+
+    /**
+     * The times when the modules have been executed in the current
+     * flow execution
+     */
+    private final Map<Module, Long> endTimes;
+
+    /**
+     * The statistics about the flow execution times
+     */
+    private final ProfileStatistics flowExecutionNs;
+
+    /**
+     * The listener that is attached to all modules while the flow
+     * is executed
+     */
+    private final ModuleExecutionListener moduleExecutionListener;
+
+    /**
+     * The modules that the {@link #moduleExecutionListener} is
+     * currently attached to
+     */
+    private final List<Module> attachedModules;
+
+    /**
+     * The {@link Flow} that was executed most recently
+     */
+    private volatile Flow flow;
+
+    /**
+     * The time when the current flow execution started
+     */
+    private volatile long flowStartNs;
+
+    /**
+     * Creates a new profiler
+     */
+    public FlowProfiler()
+    {
+        this.moduleProfiles = new LinkedHashMap<Module, ModuleProfile>();
+        this.executionRecords =
+            new ConcurrentHashMap<Module, ExecutionRecord>();
+        this.endTimes = new ConcurrentHashMap<Module, Long>();
+        this.flowExecutionNs = new ProfileStatistics();
+        this.moduleExecutionListener = createModuleExecutionListener();
+        this.attachedModules = new ArrayList<Module>();
+    }
+
+    /**
+     * Try to obtain the thread MX bean that supports measuring the
+     * allocated memory
+     *
+     * @return The thread MX bean, or <code>null</code>
+     */
+    private static com.sun.management.ThreadMXBean obtainThreadMXBean()
+    {
+        ThreadMXBean bean = ManagementFactory.getThreadMXBean();
+        if (!(bean instanceof com.sun.management.ThreadMXBean))
+        {
+            return null;
+        }
+        com.sun.management.ThreadMXBean result =
+            (com.sun.management.ThreadMXBean) bean;
+        if (!result.isThreadAllocatedMemorySupported())
+        {
+            return null;
+        }
+        if (!result.isThreadAllocatedMemoryEnabled())
+        {
+            try
+            {
+                result.setThreadAllocatedMemoryEnabled(true);
+            }
+            catch (UnsupportedOperationException e)
+            {
+                return null;
+            }
+        }
+        return result;
+    }
+
+    /**
+     * Returns the number of bytes that have been allocated by the
+     * current thread, or -1 if this is not supported
+     *
+     * @return The allocated bytes
+     */
+    private static long obtainAllocatedBytes()
+    {
+        if (threadMXBean == null)
+        {
+            return -1;
+        }
+        return threadMXBean.getThreadAllocatedBytes(
+            Thread.currentThread().getId());
+    }
+
+    /**
+     * Create the listener that will be attached to the modules
+     *
+     * @return The listener
+     */
+    private ModuleExecutionListener createModuleExecutionListener()
+    {
+        return new ModuleExecutionListener()
+        {
+            @Override
+            public void beforeExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                moduleExecutionStarted(moduleExecutionEvent.getModule());
+            }
+
+            @Override
+            public void beforeProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ExecutionRecord record =
+                    executionRecords.get(moduleExecutionEvent.getModule());
+                if (record != null)
+                {
+                    record.processingStartNs = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void progressChanged(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                // Not profiled
+            }
+
+            @Override
+            public void afterProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ExecutionRecord record =
+                    executionRecords.get(moduleExecutionEvent.getModule());
+                if (record != null)
+                {
+                    record.processingEndNs = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void afterExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                moduleExecutionFinished(moduleExecutionEvent.getModule(),
+                    moduleExecutionEvent.getThrowable() != null);
+            }
+        };
+    }
+
+    /**
+     * Will be called when the execution of the given {@link Module} started
+     *
+     * @param module The {@link Module}
+     */
+    private void moduleExecutionStarted(Module module)
+    {
+        ExecutionRecord record = new ExecutionRecord();
+        record.startNs = System.nanoTime();
+        record.readyNs = flowStartNs;
+        Set<Module> predecessors = ModuleUtils.computePredecessors(module);
+        for (Module predecessor : predecessors)
+        {
+            Long endNs = endTimes.get(predecessor);
+            if (endNs != null)
+            {
+                record.readyNs = Math.max(record.readyNs, endNs);
+            }
+        }
+        record.allocatedBytesAtStart = obtainAllocatedBytes();
+        executionRecords.put(module, record);
+    }
+
+    /**
+     * Will be called when the execution of the given {@link Module} finished
+     *
+     * @param module The {@link Module}
+     * @param failed Whether the execution caused an error
+     */
+    private void moduleExecutionFinished(Module module, boolean failed)
+    {
+        long endNs = System.nanoTime();
+        long allocatedBytesAtEnd = obtainAllocatedBytes();
+        ExecutionRecord record = executionRecords.remove(module);
+        if (record == null)
+        {
+            return;
+        }
+        endTimes.put(module, endNs);
+
+        long queueWait = Math.max(0, record.startNs - record.readyNs);
+        long execution = endNs - record.startNs;
+        long processing = -1;
+        if (record.processingStartNs >= 0 && record.processingEndNs >= 0)
+        {
+            processing = record.processingEndNs - record.processingStartNs;
+        }
+        long allocated = -1;
+        if (record.allocatedBytesAtStart >= 0 && allocatedBytesAtEnd >= 0)
+        {
+            allocated = allocatedBytesAtEnd - record.allocatedBytesAtStart;
+        }
+        ModuleProfile moduleProfile = null;
+        synchronized (moduleProfiles)
+        {
+            moduleProfile = moduleProfiles.get(module);
+            if (moduleProfile == null)
+            {
+                moduleProfile = new ModuleProfile(module);
+                moduleProfiles.put(module, moduleProfile);
+            }
+        }
+        moduleProfile.add(queueWait, execution, processing, allocated, failed);
+    }
+
+    @Override
+    public void beforeExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        Flow flow = flowExecutorEvent.getFlow();
+        this.flow = flow;
+        executionRecords.clear();
+        endTimes.clear();
+        synchronized (attachedModules)
+        {
+            for (Module module : flow.snapshot().getModules())
+            {
+                module.addModuleExecutionListener(moduleExecutionListener);
+                attachedModules.add(module);
+            }
+        }
+        flowStartNs = System.nanoTime();
+    }
+
+    @Override
+    public void afterExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        long flowEndNs = System.nanoTime();
+        synchronized (flowExecutionNs)
+        {
+            flowExecutionNs.add(flowEndNs - flowStartNs);
+        }
+        synchronized (attachedModules)
+        {
+            for (Module module : attachedModules)
+            {
+                module.removeModuleExecutionListener(moduleExecutionListener);
+            }
+            attachedModules.clear();
+        }
+    }
+
+    /**
+     * Returns the {@link Flow} that was executed most recently, or
+     * <code>null</code> if no flow was executed yet
+     *
+     * @return The {@link Flow}
+     */
+    public Flow getFlow()
+    {
+        return flow;
+    }
+
+    /**
+     * Returns the statistics about the execution times of the whole
+     * flow, in nanoseconds
+     *
+     * @return The statistics
+     */
+    public ProfileStatistics getFlowExecutionNs()
+    {
+        synchronized (flowExecutionNs)
+        {
+            return new ProfileStatistics(flowExecutionNs);
+        }
+    }
+
+    /**
+     * Returns an unmodifiable list containing snapshots of the current
+     * {@link ModuleProfile} instances, in the order in which the modules
+     * have been executed for the first time.
+     *
+     * @return The {@link ModuleProfile} instances
+     */
+    public List<ModuleProfile> getModuleProfiles()
+    {
+        List<ModuleProfile> result = new ArrayList<ModuleProfile>();
+        synchronized (moduleProfiles)
+        {
+            for (ModuleProfile moduleProfile : moduleProfiles.values())
+            {
+                result.add(moduleProfile.copy());
+            }
+        }
+        return Collections.unmodifiableList(result);
+    }
+
+    /**
+     * Returns a snapshot of the {@link ModuleProfile} for the given
+     * {@link Module}, or <code>null</code> if the given module was not
+     * executed yet
+     *
+     * @param module The {@link Module}
+     * @return The {@link ModuleProfile}
+     */
+    public ModuleProfile getModuleProfile(Module module)
+    {
+        synchronized (moduleProfiles)
+        {
+            ModuleProfile moduleProfile = moduleProfiles.get(module);
+            if (moduleProfile == null)
+            {
+                return null;
+            }
+            return moduleProfile.copy();
+        }
+    }
+
+    /**
+     * Reset all information that has been recorded so far
+     */
+    public void reset()
+    {
+        synchronized (moduleProfiles)
+        {
+            moduleProfiles.clear();
+        }
+        synchronized (flowExecutionNs)
+        {
+            flowExecutionNs.reset();
+        }
+    }
+
+}
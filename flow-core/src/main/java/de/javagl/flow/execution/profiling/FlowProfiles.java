@@ -0,0 +1,403 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution.profiling;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.function.ToDoubleFunction;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.analysis.FlowAnalysis;
+import de.javagl.flow.module.Module;
+
+/**
+ * Utility methods for exporting the information that was recorded by
+ * a {@link FlowProfiler}
+ */
+public class FlowProfiles
+{
+    /**
+     * Write the {@link ModuleProfile} information of the given
+     * {@link FlowProfiler} as CSV (comma separated values) to the given
+     * writer. The first line will contain the column names. Each following
+     * line will contain the information for one {@link Module}. All times
+     * are given in nanoseconds. The caller is responsible for closing the
+     * given writer.
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @param writer The writer
+     * @throws IOException If an IO error occurs
+     */
+    public static void writeCsv(FlowProfiler flowProfiler, Writer writer)
+        throws IOException
+    {
+        writer.write("module,name,executions,failures,"
+            + "queueWaitMean,queueWaitMax,"
+            + "executionMean,executionMin,executionMax,executionTotal,"
+            + "processingMean,processingTotal,"
+            + "allocatedBytesMean,allocatedBytesTotal\n");
+        for (ModuleProfile moduleProfile : flowProfiler.getModuleProfiles())
+        {
+            Module module = moduleProfile.getModule();
+            StringBuilder sb = new StringBuilder();
+            sb.append(escapeCsv(String.valueOf(module))).append(",");
+            sb.append(escapeCsv(module.getModuleInfo().getName())).append(",");
+            sb.append(moduleProfile.getExecutionCount()).append(",");
+            sb.append(moduleProfile.getFailureCount()).append(",");
+            ProfileStatistics queueWait = moduleProfile.getQueueWaitNs();
+            sb.append(format(queueWait.getMean())).append(",");
+            sb.append(queueWait.getMax()).append(",");
+            ProfileStatistics execution = moduleProfile.getExecutionNs();
+            sb.append(format(execution.getMean())).append(",");
+            sb.append(execution.getMin()).append(",");
+            sb.append(execution.getMax()).append(",");
+            sb.append(execution.getSum()).append(",");
+            ProfileStatistics processing = moduleProfile.getProcessingNs();
+            sb.append(format(processing.getMean())).append(",");
+            sb.append(processing.getSum()).append(",");
+            ProfileStatistics allocated = moduleProfile.getAllocatedBytes();
+            sb.append(format(allocated.getMean())).append(",");
+            sb.append(allocated.getSum());
+            sb.append("\n");
+            writer.write(sb.toString());
+        }
+        writer.flush();
+    }
+
+    /**
+     * Write the information of the given {@link FlowProfiler} as JSON
+     * to the given writer. This will include the statistics about the
+     * flow executions, the {@link ModuleProfile} information, and the
+     * {@link #computeCriticalPath(FlowProfiler) critical path}. All times
+     * are given in nanoseconds. The caller is responsible for closing the
+     * given writer.
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @param writer The writer
+     * @throws IOException If an IO error occurs
+     */
+    public static void writeJson(FlowProfiler flowProfiler, Writer writer)
+        throws IOException
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("{\n");
+        sb.append("  \"flowExecutions\": ");
+        appendJson(sb, flowProfiler.getFlowExecutionNs());
+        sb.append(",\n");
+        sb.append("  \"modules\": [");
+        List<ModuleProfile> moduleProfiles = flowProfiler.getModuleProfiles();
+        for (int i = 0; i < moduleProfiles.size(); i++)
+        {
+            ModuleProfile moduleProfile = moduleProfiles.get(i);
+            Module module = moduleProfile.getModule();
+            if (i > 0)
+            {
+                sb.append(",");
+            }
+            sb.append("\n    {\n");
+            sb.append("      \"module\": ");
+            sb.append(escapeJson(String.valueOf(module))).append(",\n");
+            sb.append("      \"name\": ");
+            sb.append(escapeJson(module.getModuleInfo().getName()));
+            sb.append(",\n");
+            sb.append("      \"executions\": ");
+            sb.append(moduleProfile.getExecutionCount()).append(",\n");
+            sb.append("      \"failures\": ");
+            sb.append(moduleProfile.getFailureCount()).append(",\n");
+            sb.append("      \"queueWait\": ");
+            appendJson(sb, moduleProfile.getQueueWaitNs());
+            sb.append(",\n");
+            sb.append("      \"execution\": ");
+            appendJson(sb, moduleProfile.getExecutionNs());
+            sb.append(",\n");
+            sb.append("      \"processing\": ");
+            appendJson(sb, moduleProfile.getProcessingNs());
+            sb.append(",\n");
+            sb.append("      \"allocatedBytes\": ");
+            appendJson(sb, moduleProfile.getAllocatedBytes());
+            sb.append("\n    }");
+        }
+        sb.append("\n  ],\n");
+        sb.append("  \"criticalPath\": [");
+        List<ModuleProfile> criticalPath = computeCriticalPath(flowProfiler);
+        for (int i = 0; i < criticalPath.size(); i++)
+        {
+            if (i > 0)
+            {
+                sb.append(", ");
+            }
+            Module module = criticalPath.get(i).getModule();
+            sb.append(escapeJson(String.valueOf(module)));
+        }
+        sb.append("]\n");
+        sb.append("}\n");
+        writer.write(sb.toString());
+        writer.flush();
+    }
+
+    /**
+     * Append a JSON representation of the given statistics to the
+     * given string builder
+     *
+     * @param sb The string builder
+     * @param statistics The statistics
+     */
+    private static void appendJson(
+        StringBuilder sb, ProfileStatistics statistics)
+    {
+        sb.append("{ ");
+        sb.append("\"count\": ").append(statistics.getCount()).append(", ");
+        sb.append("\"sum\": ").append(statistics.getSum()).append(", ");
+        sb.append("\"min\": ").append(statistics.getMin()).append(", ");
+        sb.append("\"max\": ").append(statistics.getMax()).append(", ");
+        sb.append("\"mean\": ").append(format(statistics.getMean()));
+        sb.append(" }");
+    }
+
+    /**
+     * Compute the critical path of the {@link Module} instances that have
+     * been profiled by the given {@link FlowProfiler}. This is the
+     * sequence of modules, connected by links, that has the largest
+     * sum of mean execution times. It is the part of the flow that
+     * determines the minimum time that is required for executing the
+     * flow, regardless of the number of threads that are used.
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @return An unmodifiable list containing the {@link ModuleProfile}
+     * instances on the critical path, in execution order
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static List<ModuleProfile> computeCriticalPath(
+        FlowProfiler flowProfiler)
+    {
+        Flow flow = flowProfiler.getFlow();
+        if (flow == null)
+        {
+            return Collections.emptyList();
+        }
+        Map<Module, ModuleProfile> moduleProfiles =
+            createModuleProfileMap(flowProfiler);
+        List<Module> path = FlowAnalysis.computeLongestPath(
+            flow, createCostFunction(moduleProfiles));
+        List<ModuleProfile> criticalPath = new ArrayList<ModuleProfile>();
+        for (Module module : path)
+        {
+            ModuleProfile moduleProfile = moduleProfiles.get(module);
+            if (moduleProfile != null)
+            {
+                criticalPath.add(moduleProfile);
+            }
+        }
+        return Collections.unmodifiableList(criticalPath);
+    }
+
+    /**
+     * Create a cost function that returns the mean execution time of 
+     * each {@link Module}, in nanoseconds, as recorded by the given
+     * {@link FlowProfiler}. For modules that have not been executed, the 
+     * function will return 0.0. The function is based on a snapshot of 
+     * the current profiles, and may be passed to the methods of 
+     * {@link de.javagl.flow.analysis.FlowParallelism}, for example, to 
+     * estimate the number of threads that should be used for a flow.
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @return The cost function
+     */
+    public static ToDoubleFunction<Module> createCostFunction(
+        FlowProfiler flowProfiler)
+    {
+        return createCostFunction(createModuleProfileMap(flowProfiler));
+    }
+
+    /**
+     * Create a cost function that returns the mean execution time of 
+     * each {@link Module}, as described in 
+     * {@link #createCostFunction(FlowProfiler)}
+     *
+     * @param moduleProfiles The mapping from modules to their profiles
+     * @return The cost function
+     */
+    private static ToDoubleFunction<Module> createCostFunction(
+        Map<Module, ModuleProfile> moduleProfiles)
+    {
+        return module ->
+        {
+            ModuleProfile moduleProfile = moduleProfiles.get(module);
+            if (moduleProfile == null)
+            {
+                return 0.0;
+            }
+            return moduleProfile.getExecutionNs().getMean();
+        };
+    }
+
+    /**
+     * Create a mapping from the profiled modules to the snapshots of 
+     * their {@link ModuleProfile} instances
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @return The mapping
+     */
+    private static Map<Module, ModuleProfile> createModuleProfileMap(
+        FlowProfiler flowProfiler)
+    {
+        Map<Module, ModuleProfile> moduleProfiles =
+            new HashMap<Module, ModuleProfile>();
+        for (ModuleProfile moduleProfile : flowProfiler.getModuleProfiles())
+        {
+            moduleProfiles.put(moduleProfile.getModule(), moduleProfile);
+        }
+        return moduleProfiles;
+    }
+
+    /**
+     * Create a human-readable report about the
+     * {@link #computeCriticalPath(FlowProfiler) critical path} of the
+     * modules that have been profiled by the given {@link FlowProfiler}
+     *
+     * @param flowProfiler The {@link FlowProfiler}
+     * @return The report
+     */
+    public static String createCriticalPathReport(FlowProfiler flowProfiler)
+    {
+        List<ModuleProfile> criticalPath = computeCriticalPath(flowProfiler);
+        ProfileStatistics flowExecution = flowProfiler.getFlowExecutionNs();
+        StringBuilder sb = new StringBuilder();
+        sb.append("Critical path:\n");
+        double totalMs = 0.0;
+        for (ModuleProfile moduleProfile : criticalPath)
+        {
+            double executionMs =
+                moduleProfile.getExecutionNs().getMean() * 1e-6;
+            double queueWaitMs =
+                moduleProfile.getQueueWaitNs().getMean() * 1e-6;
+            totalMs += executionMs;
+            sb.append(String.format(Locale.ENGLISH,
+                "    %10.3f ms (queue wait %10.3f ms) %s%n",
+                executionMs, queueWaitMs, moduleProfile.getModule()));
+        }
+        double flowMs = flowExecution.getMean() * 1e-6;
+        sb.append(String.format(Locale.ENGLISH,
+            "Critical path length  : %10.3f ms%n", totalMs));
+        sb.append(String.format(Locale.ENGLISH,
+            "Mean flow execution   : %10.3f ms (%d executions)%n",
+            flowMs, flowExecution.getCount()));
+        if (flowMs > 0.0)
+        {
+            sb.append(String.format(Locale.ENGLISH,
+                "Critical path fraction: %10.1f %%%n",
+                100.0 * totalMs / flowMs));
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Format the given value with 3 fractional digits
+     *
+     * @param value The value
+     * @return The string
+     */
+    private static String format(double value)
+    {
+        return String.format(Locale.ENGLISH, "%.3f", value);
+    }
+
+    /**
+     * Escape the given string to be used as a CSV field
+     *
+     * @param s The string
+     * @return The escaped string
+     */
+    private static String escapeCsv(String s)
+    {
+        if (s.contains(",") || s.contains("\"") ||
+            s.contains("\n") || s.contains("\r"))
+        {
+            return "\"" + s.replace("\"", "\"\"") + "\"";
+        }
+        return s;
+    }
+
+    /**
+     * Create a quoted JSON string literal from the given string
+     *
+     * @param s The string
+     * @return The JSON string literal
+     */
+    static String escapeJson(String s)
+    {
+        StringBuilder sb = new StringBuilder();
+        sb.append("\"");
+        for (int i = 0; i < s.length(); i++)
+        {
+            char c = s.charAt(i);
+            switch (c)
+            {
+                case '"':
+                    sb.append("\\\"");
+                    break;
+                case '\\':
+                    sb.append("\\\\");
+                    break;
+                case '\n':
+                    sb.append("\\n");
+                    break;
+                case '\r':
+                    sb.append("\\r");
+                    break;
+                case '\t':
+                    sb.append("\\t");
+                    break;
+                default:
+                    if (c < 0x20)
+                    {
+                        sb.append(String.format("\\u%04x", (int) c));
+                    }
+                    else
+                    {
+                        sb.append(c);
+                    }
+            }
+        }
+        sb.append("\"");
+        return sb.toString();
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlowProfiles()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,245 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution.profiling;
+
+import java.util.Objects;
+
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleExecutionListener;
+
+/**
+ * A summary of the profiling information that was recorded by a
+ * {@link FlowProfiler} for a single {@link Module}, aggregated over
+ * all executions.<br>
+ * <br>
+ * All times are given in nanoseconds. The statistics are:
+ * <ul>
+ *   <li>
+ *     The <i>queue wait</i> time: The time between the point where all
+ *     predecessors of the module have been executed (or the start of the
+ *     flow execution, for modules without predecessors) and the point where
+ *     the execution of the module actually started
+ *   </li>
+ *   <li>
+ *     The <i>execution</i> time: The time that was spent in
+ *     {@link Module#execute()}, including obtaining the inputs and
+ *     forwarding the outputs
+ *   </li>
+ *   <li>
+ *     The <i>processing</i> time: The time between the calls to
+ *     {@link ModuleExecutionListener#beforeProcessing} and
+ *     {@link ModuleExecutionListener#afterProcessing}
+ *   </li>
+ *   <li>
+ *     The number of bytes that have been allocated by the executing
+ *     thread during the execution. These statistics will be empty if
+ *     the JVM does not support measuring the allocated memory.
+ *   </li>
+ * </ul>
+ */
+public final class ModuleProfile
+{
+    /**
+     * The {@link Module}
+     */
+    private final Module module;
+
+    /**
+     * The number of executions that caused an error
+     */
+    private long failureCount;
+
+    /**
+     * The queue wait time statistics
+     */
+    private final ProfileStatistics queueWaitNs;
+
+    /**
+     * The execution time statistics
+     */
+    private final ProfileStatistics executionNs;
+
+    /**
+     * The processing time statistics
+     */
+    private final ProfileStatistics processingNs;
+
+    /**
+     * The allocated bytes statistics
+     */
+    private final ProfileStatistics allocatedBytes;
+
+    /**
+     * Creates a new, empty profile for the given {@link Module}
+     *
+     * @param module The {@link Module}
+     */
+    ModuleProfile(Module module)
+    {
+        this.module = Objects.requireNonNull(
+            module, "The module may not be null");
+        this.queueWaitNs = new ProfileStatistics();
+        this.executionNs = new ProfileStatistics();
+        this.processingNs = new ProfileStatistics();
+        this.allocatedBytes = new ProfileStatistics();
+    }
+
+    /**
+     * Creates a copy of the given profile
+     *
+     * @param other The other profile
+     */
+    private ModuleProfile(ModuleProfile other)
+    {
+        this.module = other.module;
+        this.failureCount = other.failureCount;
+        this.queueWaitNs = new ProfileStatistics(other.queueWaitNs);
+        this.executionNs = new ProfileStatistics(other.executionNs);
+        this.processingNs = new ProfileStatistics(other.processingNs);
+        this.allocatedBytes = new ProfileStatistics(other.allocatedBytes);
+    }
+
+    /**
+     * Add the information about one execution to this profile
+     *
+     * @param queueWait The queue wait time
+     * @param execution The execution time
+     * @param processing The processing time, or a negative value if
+     * the processing time is not known
+     * @param allocated The allocated bytes, or a negative value if
+     * the allocated bytes are not known
+     * @param failed Whether the execution caused an error
+     */
+    synchronized void add(long queueWait, long execution,
+        long processing, long allocated, boolean failed)
+    {
+        queueWaitNs.add(queueWait);
+        executionNs.add(execution);
+        if (processing >= 0)
+        {
+            processingNs.add(processing);
+        }
+        if (allocated >= 0)
+        {
+            allocatedBytes.add(allocated);
+        }
+        if (failed)
+        {
+            failureCount++;
+        }
+    }
+
+    /**
+     * Creates an unmodifiable snapshot of this profile
+     *
+     * @return The snapshot
+     */
+    synchronized ModuleProfile copy()
+    {
+        return new ModuleProfile(this);
+    }
+
+    /**
+     * Returns the {@link Module} that this profile refers to
+     *
+     * @return The {@link Module}
+     */
+    public Module getModule()
+    {
+        return module;
+    }
+
+    /**
+     * Returns the number of executions of the {@link Module}
+     *
+     * @return The number of executions
+     */
+    public long getExecutionCount()
+    {
+        return executionNs.getCount();
+    }
+
+    /**
+     * Returns the number of executions that caused an error
+     *
+     * @return The number of failed executions
+     */
+    public long getFailureCount()
+    {
+        return failureCount;
+    }
+
+    /**
+     * Returns the statistics about the queue wait times, in nanoseconds
+     *
+     * @return The statistics
+     */
+    public ProfileStatistics getQueueWaitNs()
+    {
+        return queueWaitNs;
+    }
+
+    /**
+     * Returns the statistics about the execution times, in nanoseconds
+     *
+     * @return The statistics
+     */
+    public ProfileStatistics getExecutionNs()
+    {
+        return executionNs;
+    }
+
+    /**
+     * Returns the statistics about the processing times, in nanoseconds
+     *
+     * @return The statistics
+     */
+    public ProfileStatistics getProcessingNs()
+    {
+        return processingNs;
+    }
+
+    /**
+     * Returns the statistics about the number of bytes that have been
+     * allocated by the executing thread
+     *
+     * @return The statistics
+     */
+    public ProfileStatistics getAllocatedBytes()
+    {
+        return allocatedBytes;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ModuleProfile["
+            + "module=" + module + ","
+            + "executions=" + getExecutionCount() + ","
+            + "failures=" + getFailureCount() + "]";
+    }
+}
@@ -0,0 +1,178 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.execution.profiling;
+
+/**
+ * Simple statistics about a sequence of <code>long</code> values,
+ * like durations in nanoseconds or numbers of bytes.<br>
+ * <br>
+ * Instances of this class are not thread-safe. The instances that are
+ * returned by a {@link ModuleProfile} or a {@link FlowProfiler} are
+ * copies that will not be modified any more.
+ */
+public final class ProfileStatistics
+{
+    /**
+     * The number of values
+     */
+    private long count;
+
+    /**
+     * The sum of all values
+     */
+    private long sum;
+
+    /**
+     * The minimum value
+     */
+    private long min;
+
+    /**
+     * The maximum value
+     */
+    private long max;
+
+    /**
+     * Creates new, empty statistics
+     */
+    ProfileStatistics()
+    {
+        this.count = 0;
+        this.sum = 0;
+        this.min = Long.MAX_VALUE;
+        this.max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Creates a copy of the given statistics
+     *
+     * @param other The other statistics
+     */
+    ProfileStatistics(ProfileStatistics other)
+    {
+        this.count = other.count;
+        this.sum = other.sum;
+        this.min = other.min;
+        this.max = other.max;
+    }
+
+    /**
+     * Reset these statistics to be empty
+     */
+    void reset()
+    {
+        count = 0;
+        sum = 0;
+        min = Long.MAX_VALUE;
+        max = Long.MIN_VALUE;
+    }
+
+    /**
+     * Add the given value to these statistics
+     *
+     * @param value The value
+     */
+    void add(long value)
+    {
+        count++;
+        sum += value;
+        min = Math.min(min, value);
+        max = Math.max(max, value);
+    }
+
+    /**
+     * Returns the number of values that have been recorded
+     *
+     * @return The number of values
+     */
+    public long getCount()
+    {
+        return count;
+    }
+
+    /**
+     * Returns the sum of all values
+     *
+     * @return The sum
+     */
+    public long getSum()
+    {
+        return sum;
+    }
+
+    /**
+     * Returns the minimum value, or 0 if no values have been recorded
+     *
+     * @return The minimum
+     */
+    public long getMin()
+    {
+        if (count == 0)
+        {
+            return 0;
+        }
+        return min;
+    }
+
+    /**
+     * Returns the maximum value, or 0 if no values have been recorded
+     *
+     * @return The maximum
+     */
+    public long getMax()
+    {
+        if (count == 0)
+        {
+            return 0;
+        }
+        return max;
+    }
+
+    /**
+     * Returns the mean value, or 0.0 if no values have been recorded
+     *
+     * @return The mean
+     */
+    public double getMean()
+    {
+        if (count == 0)
+        {
+            return 0.0;
+        }
+        return (double) sum / count;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "ProfileStatistics["
+            + "count=" + getCount() + ","
+            + "sum=" + getSum() + ","
+            + "min=" + getMin() + ","
+            + "max=" + getMax() + "]";
+    }
+}
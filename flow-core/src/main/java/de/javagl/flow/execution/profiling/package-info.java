@@ -0,0 +1,6 @@
+/**
+ * Classes for profiling the execution of a {@link de.javagl.flow.Flow Flow}
+ * with a {@link de.javagl.flow.execution.FlowExecutor FlowExecutor}.
+ */
+package de.javagl.flow.execution.profiling;
+
@@ -0,0 +1,336 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.generator;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.Random;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+
+/**
+ * Methods to create synthetic {@link MutableFlow} instances with different
+ * topologies, for tests and benchmarks.<br>
+ * <br>
+ * All modules of the generated flows have a single output. When they are
+ * processed, they apply the given {@link ModuleCost}, and forward their
+ * first input to their output.
+ */
+public class FlowGenerators
+{
+    /**
+     * Create a flow that consists of a chain of the given number of modules
+     *
+     * @param size The number of modules
+     * @param moduleCost The {@link ModuleCost} for all modules
+     * @return The flow
+     * @throws IllegalArgumentException If the size is negative
+     */
+    public static MutableFlow createChain(int size, ModuleCost moduleCost)
+    {
+        validateNonNegative(size, "size");
+        MutableFlow flow = Flows.create();
+        Module previous = null;
+        for (int i = 0; i < size; i++)
+        {
+            if (previous == null)
+            {
+                previous = addModule(flow, 0, moduleCost);
+            }
+            else
+            {
+                Module current = addModule(flow, 1, moduleCost);
+                flow.addLink(Links.create(previous, 0, current, 0));
+                previous = current;
+            }
+        }
+        return flow;
+    }
+
+    /**
+     * Create a flow that is a tree with the given depth, where each
+     * module has the given number of successors. The root module will
+     * have depth 0, so a tree with depth 1 and a branching factor of
+     * <code>n</code> will consist of one module that is connected to
+     * <code>n</code> independent successors.
+     *
+     * @param depth The depth of the tree
+     * @param branching The number of successors of each inner module
+     * @param moduleCost The {@link ModuleCost} for all modules
+     * @return The flow
+     * @throws IllegalArgumentException If the depth or the branching
+     * factor is negative
+     */
+    public static MutableFlow createTree(
+        int depth, int branching, ModuleCost moduleCost)
+    {
+        validateNonNegative(depth, "depth");
+        validateNonNegative(branching, "branching");
+        MutableFlow flow = Flows.create();
+        List<Module> level = new ArrayList<Module>();
+        level.add(addModule(flow, 0, moduleCost));
+        for (int d = 0; d < depth; d++)
+        {
+            List<Module> nextLevel = new ArrayList<Module>();
+            for (Module parent : level)
+            {
+                for (int b = 0; b < branching; b++)
+                {
+                    Module child = addModule(flow, 1, moduleCost);
+                    flow.addLink(Links.create(parent, 0, child, 0));
+                    nextLevel.add(child);
+                }
+            }
+            level = nextLevel;
+        }
+        return flow;
+    }
+
+    /**
+     * Create a flow that consists of a chain of the given number of
+     * "diamonds": Each diamond consists of two modules that receive
+     * the same input, and one module that combines their outputs.
+     * The resulting flow will contain <code>3 * count + 1</code> modules.
+     *
+     * @param count The number of diamonds
+     * @param moduleCost The {@link ModuleCost} for all modules
+     * @return The flow
+     * @throws IllegalArgumentException If the count is negative
+     */
+    public static MutableFlow createDiamonds(int count, ModuleCost moduleCost)
+    {
+        validateNonNegative(count, "count");
+        MutableFlow flow = Flows.create();
+        Module previous = addModule(flow, 0, moduleCost);
+        for (int i = 0; i < count; i++)
+        {
+            Module left = addModule(flow, 1, moduleCost);
+            Module right = addModule(flow, 1, moduleCost);
+            Module merge = addModule(flow, 2, moduleCost);
+            flow.addLink(Links.create(previous, 0, left, 0));
+            flow.addLink(Links.create(previous, 0, right, 0));
+            flow.addLink(Links.create(left, 0, merge, 0));
+            flow.addLink(Links.create(right, 0, merge, 1));
+            previous = merge;
+        }
+        return flow;
+    }
+
+    /**
+     * Create a random directed acyclic flow with the given number of
+     * modules. The modules are created in a fixed order. For each pair
+     * of modules, the earlier one will be connected to the later one
+     * with the given probability. So the expected number of links is
+     * <code>density * size * (size - 1) / 2</code>.
+     *
+     * @param size The number of modules
+     * @param density The edge density, between 0.0 and 1.0
+     * @param seed The random seed
+     * @param moduleCost The {@link ModuleCost} for all modules
+     * @return The flow
+     * @throws IllegalArgumentException If the size is negative or the
+     * density is not in [0,1]
+     */
+    public static MutableFlow createRandomDag(
+        int size, double density, long seed, ModuleCost moduleCost)
+    {
+        validateNonNegative(size, "size");
+        validateDensity(density);
+        Random random = new Random(seed);
+        MutableFlow flow = Flows.create();
+        List<Module> modules = new ArrayList<Module>(size);
+        for (int i = 0; i < size; i++)
+        {
+            List<Module> sources = new ArrayList<Module>();
+            long j = skip(random, density);
+            while (j < i)
+            {
+                sources.add(modules.get((int) j));
+                j += 1 + skip(random, density);
+            }
+            modules.add(addConnectedModule(flow, sources, moduleCost));
+        }
+        return flow;
+    }
+
+    /**
+     * Create a layered flow. The modules of the first layer have no
+     * inputs. Each module of the subsequent layers is connected to
+     * each module of the previous layer with the given probability,
+     * but to at least one module of the previous layer.
+     *
+     * @param numLayers The number of layers
+     * @param width The number of modules in each layer
+     * @param density The edge density, between 0.0 and 1.0
+     * @param seed The random seed
+     * @param moduleCost The {@link ModuleCost} for all modules
+     * @return The flow
+     * @throws IllegalArgumentException If the number of layers or the
+     * width are negative, or the density is not in [0,1]
+     */
+    public static MutableFlow createLayered(int numLayers, int width,
+        double density, long seed, ModuleCost moduleCost)
+    {
+        validateNonNegative(numLayers, "numLayers");
+        validateNonNegative(width, "width");
+        validateDensity(density);
+        Random random = new Random(seed);
+        MutableFlow flow = Flows.create();
+        List<Module> previousLayer = new ArrayList<Module>();
+        for (int l = 0; l < numLayers; l++)
+        {
+            List<Module> layer = new ArrayList<Module>(width);
+            for (int w = 0; w < width; w++)
+            {
+                List<Module> sources = new ArrayList<Module>();
+                for (Module previous : previousLayer)
+                {
+                    if (random.nextDouble() < density)
+                    {
+                        sources.add(previous);
+                    }
+                }
+                if (sources.isEmpty() && !previousLayer.isEmpty())
+                {
+                    int index = random.nextInt(previousLayer.size());
+                    sources.add(previousLayer.get(index));
+                }
+                layer.add(addConnectedModule(flow, sources, moduleCost));
+            }
+            previousLayer = layer;
+        }
+        return flow;
+    }
+
+    /**
+     * Create a new module with one input for each of the given source
+     * modules, add it to the given flow, and connect the output of each
+     * source module to the corresponding input of the new module
+     *
+     * @param flow The flow
+     * @param sources The source modules
+     * @param moduleCost The {@link ModuleCost}
+     * @return The new module
+     */
+    private static Module addConnectedModule(MutableFlow flow,
+        List<Module> sources, ModuleCost moduleCost)
+    {
+        Module module = addModule(flow, sources.size(), moduleCost);
+        for (int i = 0; i < sources.size(); i++)
+        {
+            flow.addLink(Links.create(sources.get(i), 0, module, i));
+        }
+        return module;
+    }
+
+    /**
+     * Create a new module with the given number of inputs, and add it
+     * to the given flow
+     *
+     * @param flow The flow
+     * @param numInputs The number of inputs
+     * @param moduleCost The {@link ModuleCost}
+     * @return The new module
+     */
+    private static Module addModule(
+        MutableFlow flow, int numInputs, ModuleCost moduleCost)
+    {
+        Objects.requireNonNull(moduleCost, "The moduleCost may not be null");
+        Module module = new GeneratedModule(numInputs, moduleCost);
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Returns the number of elements that should be skipped before the
+     * next element is selected, when each element is selected with the
+     * given probability. This allows selecting elements from a sequence
+     * in time that is proportional to the number of selected elements,
+     * and not to the length of the sequence.
+     *
+     * @param random The random number generator
+     * @param probability The probability
+     * @return The number of elements to skip
+     */
+    private static int skip(Random random, double probability)
+    {
+        if (probability >= 1.0)
+        {
+            return 0;
+        }
+        if (probability <= 0.0)
+        {
+            return Integer.MAX_VALUE - 1;
+        }
+        double u = 1.0 - random.nextDouble();
+        double s = Math.floor(Math.log(u) / Math.log(1.0 - probability));
+        return (int) Math.min(s, Integer.MAX_VALUE - 1);
+    }
+
+    /**
+     * Make sure that the given value is not negative
+     *
+     * @param value The value
+     * @param name The name of the value
+     * @throws IllegalArgumentException If the value is negative
+     */
+    private static void validateNonNegative(int value, String name)
+    {
+        if (value < 0)
+        {
+            throw new IllegalArgumentException(
+                "The " + name + " may not be negative, but is " + value);
+        }
+    }
+
+    /**
+     * Make sure that the given density is in [0,1]
+     *
+     * @param density The density
+     * @throws IllegalArgumentException If the density is not in [0,1]
+     */
+    private static void validateDensity(double density)
+    {
+        if (!(density >= 0.0 && density <= 1.0))
+        {
+            throw new IllegalArgumentException(
+                "The density must be in [0,1], but is " + density);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlowGenerators()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,112 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.generator;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.ModuleInfoBuilder;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.SimpleAbstractModule;
+
+/**
+ * A {@link Module} that is created by the {@link FlowGenerators}. It has 
+ * a configurable number of inputs and a single output. When it is 
+ * processed, it applies its {@link ModuleCost}, and forwards its first 
+ * input to its output. If it has no inputs, then it will write an 
+ * arbitrary non-<code>null</code> object to its output.
+ */
+final class GeneratedModule extends SimpleAbstractModule
+{
+    /**
+     * The {@link ModuleInfo} instances, for each number of inputs
+     */
+    private static final Map<Integer, ModuleInfo> moduleInfos =
+        new ConcurrentHashMap<Integer, ModuleInfo>();
+
+    /**
+     * The object that is written to the output of modules without inputs
+     */
+    private static final Object SOURCE_VALUE = new Object();
+    
+    /**
+     * Returns the {@link ModuleInfo} for a module with the given number
+     * of inputs
+     *
+     * @param numInputs The number of inputs
+     * @return The {@link ModuleInfo}
+     */
+    private static ModuleInfo obtainModuleInfo(int numInputs)
+    {
+        return moduleInfos.computeIfAbsent(numInputs, n ->
+        {
+            ModuleInfoBuilder builder = ModuleInfos.create(
+                "Generated" + n, "A generated module with " + n + " inputs");
+            for (int i = 0; i < n; i++)
+            {
+                builder.addInput(Object.class, "input" + i, "Input " + i);
+            }
+            builder.addOutput(Object.class, "output", "The output");
+            return builder.build();
+        });
+    }
+    
+    /**
+     * The {@link ModuleCost}
+     */
+    private final ModuleCost moduleCost;
+
+    /**
+     * Creates a new instance
+     *
+     * @param numInputs The number of inputs
+     * @param moduleCost The {@link ModuleCost}
+     */
+    GeneratedModule(int numInputs, ModuleCost moduleCost)
+    {
+        super(obtainModuleInfo(numInputs));
+        this.moduleCost = Objects.requireNonNull(
+            moduleCost, "The moduleCost may not be null");
+    }
+
+    @Override
+    protected void processCore(Object inputs[], Object outputs[])
+    {
+        moduleCost.apply();
+        if (inputs.length > 0)
+        {
+            outputs[0] = inputs[0];
+        }
+        else
+        {
+            outputs[0] = SOURCE_VALUE;
+        }
+    }
+}
@@ -0,0 +1,193 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.generator;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.Objects;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Methods to create {@link ModuleCost} instances
+ */
+public class ModuleCosts
+{
+    /**
+     * A sink for allocated objects, to prevent the allocations from 
+     * being optimized away
+     */
+    private static volatile Object sink;
+    
+    /**
+     * Returns a {@link ModuleCost} that does nothing
+     * 
+     * @return The {@link ModuleCost}
+     */
+    public static ModuleCost none()
+    {
+        return () -> 
+        {
+            // No cost
+        };
+    }
+    
+    /**
+     * Returns a {@link ModuleCost} that performs a busy loop on the 
+     * calling thread for the given number of nanoseconds
+     * 
+     * @param nanos The number of nanoseconds
+     * @return The {@link ModuleCost}
+     * @throws IllegalArgumentException If the given value is negative
+     */
+    public static ModuleCost cpuSpin(long nanos)
+    {
+        if (nanos < 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of nanoseconds may not be negative, but is "
+                + nanos);
+        }
+        return () -> 
+        {
+            long end = System.nanoTime() + nanos;
+            while (System.nanoTime() < end)
+            {
+                // Busy loop
+            }
+        };
+    }
+    
+    /**
+     * Returns a {@link ModuleCost} that causes the calling thread to 
+     * sleep for the given number of milliseconds. If the thread is 
+     * interrupted while sleeping, then the interrupted flag will be
+     * set, and the cost will return immediately.
+     * 
+     * @param millis The number of milliseconds
+     * @return The {@link ModuleCost}
+     * @throws IllegalArgumentException If the given value is negative
+     */
+    public static ModuleCost sleep(long millis)
+    {
+        if (millis < 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of milliseconds may not be negative, but is "
+                + millis);
+        }
+        return () -> 
+        {
+            try
+            {
+                Thread.sleep(millis);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+            }
+        };
+    }
+    
+    /**
+     * Returns a {@link ModuleCost} that allocates a byte array with the
+     * given size
+     * 
+     * @param bytes The number of bytes
+     * @return The {@link ModuleCost}
+     * @throws IllegalArgumentException If the given value is negative
+     */
+    public static ModuleCost allocation(int bytes)
+    {
+        if (bytes < 0)
+        {
+            throw new IllegalArgumentException(
+                "The number of bytes may not be negative, but is " + bytes);
+        }
+        return () -> 
+        {
+            sink = new byte[bytes];
+        };
+    }
+    
+    /**
+     * Returns a {@link ModuleCost} that throws an 
+     * <code>IllegalStateException</code> with the given probability
+     * 
+     * @param probability The probability, between 0.0 and 1.0
+     * @return The {@link ModuleCost}
+     * @throws IllegalArgumentException If the probability is not in
+     * [0,1]
+     */
+    public static ModuleCost failure(double probability)
+    {
+        if (!(probability >= 0.0 && probability <= 1.0))
+        {
+            throw new IllegalArgumentException(
+                "The probability must be in [0,1], but is " + probability);
+        }
+        return () -> 
+        {
+            if (ThreadLocalRandom.current().nextDouble() < probability)
+            {
+                throw new IllegalStateException("Generated module failure");
+            }
+        };
+    }
+    
+    /**
+     * Returns a {@link ModuleCost} that applies all the given costs, 
+     * in the given order
+     * 
+     * @param costs The costs
+     * @return The {@link ModuleCost}
+     * @throws NullPointerException If any of the given costs is 
+     * <code>null</code>
+     */
+    public static ModuleCost combine(ModuleCost ... costs)
+    {
+        List<ModuleCost> list = Arrays.asList(costs.clone());
+        for (ModuleCost cost : list)
+        {
+            Objects.requireNonNull(cost, "The costs may not be null");
+        }
+        return () -> 
+        {
+            for (ModuleCost cost : list)
+            {
+                cost.apply();
+            }
+        };
+    }
+    
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private ModuleCosts()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,7 @@
+/**
+ * Classes for generating synthetic {@link de.javagl.flow.Flow Flow}
+ * instances with different topologies and module costs, for tests
+ * and benchmarks.
+ */
+package de.javagl.flow.generator;
+
@@ -34,8 +34,9 @@ import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
 
 /**
- * Abstract base implementation of a {@link Link}. It only manages the 
- * {@link LinkListener} instances.
+ * Abstract base implementation of a {@link Link}. It manages the 
+ * {@link LinkListener} instances and the {@link #isRetained() retained}
+ * flag.
  */
 abstract class AbstractLink implements Link
 {
@@ -56,6 +57,11 @@ abstract class AbstractLink implements Link
      * informed about changes in this link.
      */
     private final List<LinkListener> linkListeners;
+    
+    /**
+     * Whether the contents of this link should be retained
+     */
+    private volatile boolean retained;
 
     /**
      * Creates a new link between the given source- and target slot
@@ -87,6 +93,18 @@ abstract class AbstractLink implements Link
         return targetSlot;
     }
 
+    @Override
+    public final void setRetained(boolean retained)
+    {
+        this.retained = retained;
+    }
+    
+    @Override
+    public final boolean isRetained()
+    {
+        return retained;
+    }
+
     @Override
     public final void addLinkListener(LinkListener linkListener)
     {
@@ -99,6 +117,18 @@ abstract class AbstractLink implements Link
         linkListeners.remove(linkListener);
     }
 
+    /**
+     * Returns whether any {@link LinkListener} is registered. This may be
+     * used by implementations to avoid creating event objects when there
+     * are no listeners.
+     * 
+     * @return Whether any {@link LinkListener} is registered
+     */
+    protected final boolean hasLinkListeners()
+    {
+        return !linkListeners.isEmpty();
+    }
+
     /**
      * Inform all registered {@link LinkListener} instances that the given 
      * object was {@link #accept(Object) accepted} by this link.
@@ -134,5 +164,32 @@ abstract class AbstractLink implements Link
             }
         }
     }
+    
+    @Override
+    public final int hashCode()
+    {
+        final int prime = 31;
+        int result = 1;
+        result = prime * result + Objects.hashCode(getSourceSlot());
+        result = prime * result + Objects.hashCode(getTargetSlot());
+        return result;
+    }
+
+    @Override
+    public final boolean equals(Object obj)
+    {
+        if (this == obj)
+            return true;
+        if (obj == null)
+            return false;
+        if (!(obj instanceof Link))
+            return false;
+        Link other = (Link) obj;
+        if (!Objects.equals(getSourceSlot(), other.getSourceSlot()))
+            return false;
+        if (!Objects.equals(getTargetSlot(), other.getTargetSlot()))
+            return false;
+        return true;
+    }
 
 }
\ No newline at end of file
@@ -0,0 +1,519 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.BufferOverflowException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+
+/**
+ * A sequential view on several byte buffers, which are read or written
+ * one after the other. This is used by the {@link LinkCodec}s that
+ * support data that does not fit into a single buffer. Values that
+ * cross the boundary between two buffers are split at the byte level.
+ * <br>
+ * <br>
+ * This class is not thread-safe.
+ */
+final class ChunkedBuffer
+{
+    /**
+     * The buffers
+     */
+    private final ByteBuffer buffers[];
+
+    /**
+     * The index of the current buffer
+     */
+    private int index;
+
+    /**
+     * A buffer for values that cross the boundary between two buffers
+     */
+    private final ByteBuffer scratch;
+
+    /**
+     * Creates a new instance for the given buffers
+     *
+     * @param buffers The buffers
+     * @throws IllegalArgumentException If the given array is empty
+     */
+    ChunkedBuffer(ByteBuffer ... buffers)
+    {
+        if (buffers.length == 0)
+        {
+            throw new IllegalArgumentException(
+                "There must be at least one buffer");
+        }
+        this.buffers = buffers;
+        this.index = 0;
+        this.scratch = ByteBuffer.allocate(Long.BYTES);
+    }
+
+    /**
+     * Returns the total number of remaining bytes in all buffers
+     *
+     * @return The number of remaining bytes
+     */
+    long remaining()
+    {
+        long remaining = 0;
+        for (int i = index; i < buffers.length; i++)
+        {
+            remaining += buffers[i].remaining();
+        }
+        return remaining;
+    }
+
+    /**
+     * Returns the current buffer, which is the first buffer that has
+     * remaining bytes, or the last buffer if there is no such buffer
+     *
+     * @return The current buffer
+     */
+    private ByteBuffer current()
+    {
+        while (!buffers[index].hasRemaining() && index < buffers.length - 1)
+        {
+            index++;
+        }
+        return buffers[index];
+    }
+
+    /**
+     * Write the given number of bytes from the {@link #scratch} buffer,
+     * which are the bytes of a value that may cross the boundary between
+     * two buffers
+     *
+     * @param bytes The number of bytes
+     * @throws BufferOverflowException If there are not enough bytes
+     * remaining
+     */
+    private void putScratch(int bytes)
+    {
+        for (int i = 0; i < bytes; i++)
+        {
+            current().put(scratch.get(i));
+        }
+    }
+
+    /**
+     * Read the given number of bytes into the {@link #scratch} buffer,
+     * which are the bytes of a value that may cross the boundary between
+     * two buffers
+     *
+     * @param bytes The number of bytes
+     * @throws BufferUnderflowException If there are not enough bytes
+     * remaining
+     */
+    private void getScratch(int bytes)
+    {
+        scratch.order(current().order());
+        for (int i = 0; i < bytes; i++)
+        {
+            scratch.put(i, current().get());
+        }
+    }
+
+    /**
+     * Write the given value
+     *
+     * @param value The value
+     */
+    void putInt(int value)
+    {
+        ByteBuffer buffer = current();
+        if (buffer.remaining() >= Integer.BYTES)
+        {
+            buffer.putInt(value);
+            return;
+        }
+        scratch.order(buffer.order());
+        scratch.putInt(0, value);
+        putScratch(Integer.BYTES);
+    }
+
+    /**
+     * Read a value
+     *
+     * @return The value
+     */
+    int getInt()
+    {
+        ByteBuffer buffer = current();
+        if (buffer.remaining() >= Integer.BYTES)
+        {
+            return buffer.getInt();
+        }
+        getScratch(Integer.BYTES);
+        return scratch.getInt(0);
+    }
+
+    /**
+     * Write the given value
+     *
+     * @param value The value
+     */
+    void putLong(long value)
+    {
+        ByteBuffer buffer = current();
+        if (buffer.remaining() >= Long.BYTES)
+        {
+            buffer.putLong(value);
+            return;
+        }
+        scratch.order(buffer.order());
+        scratch.putLong(0, value);
+        putScratch(Long.BYTES);
+    }
+
+    /**
+     * Read a value
+     *
+     * @return The value
+     */
+    long getLong()
+    {
+        ByteBuffer buffer = current();
+        if (buffer.remaining() >= Long.BYTES)
+        {
+            return buffer.getLong();
+        }
+        getScratch(Long.BYTES);
+        return scratch.getLong(0);
+    }
+
+    /**
+     * Write the given bytes
+     *
+     * @param array The array
+     * @param offset The offset in the array
+     * @param length The number of bytes
+     */
+    void put(byte array[], int offset, int length)
+    {
+        int done = 0;
+        while (done < length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(length - done, buffer.remaining());
+            if (n == 0)
+            {
+                throw new BufferOverflowException();
+            }
+            buffer.put(array, offset + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Read the given number of bytes
+     *
+     * @param array The array
+     * @param offset The offset in the array
+     * @param length The number of bytes
+     */
+    void get(byte array[], int offset, int length)
+    {
+        int done = 0;
+        while (done < length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(length - done, buffer.remaining());
+            if (n == 0)
+            {
+                throw new BufferUnderflowException();
+            }
+            buffer.get(array, offset + done, n);
+            done += n;
+        }
+    }
+
+    /**
+     * Write the given values
+     *
+     * @param array The values
+     */
+    void put(int array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Integer.BYTES);
+            if (n == 0)
+            {
+                putInt(array[done]);
+                done++;
+                continue;
+            }
+            buffer.asIntBuffer().put(array, done, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Read values into the given array
+     *
+     * @param array The array
+     */
+    void get(int array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Integer.BYTES);
+            if (n == 0)
+            {
+                array[done] = getInt();
+                done++;
+                continue;
+            }
+            buffer.asIntBuffer().get(array, done, n);
+            buffer.position(buffer.position() + n * Integer.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Write the given values
+     *
+     * @param array The values
+     */
+    void put(long array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Long.BYTES);
+            if (n == 0)
+            {
+                putLong(array[done]);
+                done++;
+                continue;
+            }
+            buffer.asLongBuffer().put(array, done, n);
+            buffer.position(buffer.position() + n * Long.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Read values into the given array
+     *
+     * @param array The array
+     */
+    void get(long array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Long.BYTES);
+            if (n == 0)
+            {
+                array[done] = getLong();
+                done++;
+                continue;
+            }
+            buffer.asLongBuffer().get(array, done, n);
+            buffer.position(buffer.position() + n * Long.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Write the given values
+     *
+     * @param array The values
+     */
+    void put(float array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Float.BYTES);
+            if (n == 0)
+            {
+                putInt(Float.floatToRawIntBits(array[done]));
+                done++;
+                continue;
+            }
+            buffer.asFloatBuffer().put(array, done, n);
+            buffer.position(buffer.position() + n * Float.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Read values into the given array
+     *
+     * @param array The array
+     */
+    void get(float array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Float.BYTES);
+            if (n == 0)
+            {
+                array[done] = Float.intBitsToFloat(getInt());
+                done++;
+                continue;
+            }
+            buffer.asFloatBuffer().get(array, done, n);
+            buffer.position(buffer.position() + n * Float.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Write the given values
+     *
+     * @param array The values
+     */
+    void put(double array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Double.BYTES);
+            if (n == 0)
+            {
+                putLong(Double.doubleToRawLongBits(array[done]));
+                done++;
+                continue;
+            }
+            buffer.asDoubleBuffer().put(array, done, n);
+            buffer.position(buffer.position() + n * Double.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Read values into the given array
+     *
+     * @param array The array
+     */
+    void get(double array[])
+    {
+        int done = 0;
+        while (done < array.length)
+        {
+            ByteBuffer buffer = current();
+            int n = Math.min(array.length - done,
+                buffer.remaining() / Double.BYTES);
+            if (n == 0)
+            {
+                array[done] = Double.longBitsToDouble(getLong());
+                done++;
+                continue;
+            }
+            buffer.asDoubleBuffer().get(array, done, n);
+            buffer.position(buffer.position() + n * Double.BYTES);
+            done += n;
+        }
+    }
+
+    /**
+     * Returns an output stream that writes into this buffer
+     *
+     * @return The output stream
+     */
+    OutputStream asOutputStream()
+    {
+        return new OutputStream()
+        {
+            @Override
+            public void write(int b)
+            {
+                current().put((byte) b);
+            }
+
+            @Override
+            public void write(byte array[], int offset, int length)
+            {
+                put(array, offset, length);
+            }
+        };
+    }
+
+    /**
+     * Returns an input stream that reads from this buffer
+     *
+     * @return The input stream
+     */
+    InputStream asInputStream()
+    {
+        return new InputStream()
+        {
+            @Override
+            public int read()
+            {
+                ByteBuffer buffer = current();
+                if (!buffer.hasRemaining())
+                {
+                    return -1;
+                }
+                return buffer.get() & 0xFF;
+            }
+
+            @Override
+            public int read(byte array[], int offset, int length)
+            {
+                if (length == 0)
+                {
+                    return 0;
+                }
+                ByteBuffer buffer = current();
+                if (!buffer.hasRemaining())
+                {
+                    return -1;
+                }
+                int n = Math.min(length, buffer.remaining());
+                buffer.get(array, offset, n);
+                return n;
+            }
+        };
+    }
+}
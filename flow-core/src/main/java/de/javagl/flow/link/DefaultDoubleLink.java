@@ -0,0 +1,138 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+
+/**
+ * Default implementation of a {@link DoubleLink}.
+ */
+final class DefaultDoubleLink extends AbstractLink implements DoubleLink
+{
+    /**
+     * The current value of this link, if {@link #primitive} is 
+     * <code>true</code>
+     */
+    private double value;
+    
+    /**
+     * Whether the current contents of this link are the primitive value
+     */
+    private boolean primitive;
+    
+    /**
+     * The current contents of this link, if they are not the primitive
+     * value. If the primitive value was accepted as a boxed object, then
+     * this is that object, so that it can be provided without boxing the
+     * value again.
+     */
+    private Object contents;
+    
+    /**
+     * Creates a new link between the given source- and target slot
+     * 
+     * @param sourceSlot The {@link OutputSlot} that is the source of this link
+     * @param targetSlot The {@link InputSlot} that is the target of this link
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    DefaultDoubleLink(
+        OutputSlot sourceSlot,
+        InputSlot targetSlot)
+    {
+        super(sourceSlot, targetSlot);
+    }
+    
+    @Override
+    public void acceptDouble(double value)
+    {
+        this.value = value;
+        this.primitive = true;
+        this.contents = null;
+        if (hasLinkListeners())
+        {
+            fireObjectAccepted(value);
+        }
+    }
+    
+    @Override
+    public void accept(Object object)
+    {
+        if (object instanceof Double)
+        {
+            this.value = (Double) object;
+            this.primitive = true;
+            this.contents = object;
+        }
+        else
+        {
+            this.primitive = false;
+            this.contents = object;
+        }
+        fireObjectAccepted(object);
+    }
+
+    @Override
+    public double provideDouble()
+    {
+        if (primitive)
+        {
+            if (hasLinkListeners())
+            {
+                fireObjectProvided(value);
+            }
+            return value;
+        }
+        fireObjectProvided(contents);
+        return (Double) contents;
+    }
+    
+    @Override
+    public Object provide()
+    {
+        Object object = contents;
+        if (primitive && object == null)
+        {
+            object = Double.valueOf(value);
+        }
+        fireObjectProvided(object);
+        return object;
+    }
+    
+    @Override
+    public void clear()
+    {
+        this.primitive = false;
+        this.contents = null;
+    }
+    
+    @Override
+    public String toString()
+    {
+        return "DoubleLink[" + getSourceSlot() + "-" + getTargetSlot() + "]";
+    }
+}
@@ -26,8 +26,6 @@
  */
 package de.javagl.flow.link;
 
-import java.util.Objects;
-
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
 
@@ -40,7 +38,7 @@ final class DefaultLink extends AbstractLink implements Link
      * The current contents of this link
      */
     private Object contents;
-
+    
     /**
      * Creates a new link between the given source- and target slot
      * 
@@ -68,38 +66,17 @@ final class DefaultLink extends AbstractLink implements Link
         fireObjectProvided(contents);
         return contents;
     }
-
-    @Override
-    public String toString()
-    {
-        return "Link[" + getSourceSlot() + "-" + getTargetSlot() + "]";
-    }
-
+    
     @Override
-    public int hashCode()
+    public void clear()
     {
-        final int prime = 31;
-        int result = 1;
-        result = prime * result + Objects.hashCode(getSourceSlot());
-        result = prime * result + Objects.hashCode(getTargetSlot());
-        return result;
+        this.contents = null;
     }
-
+    
     @Override
-    public boolean equals(Object obj)
+    public String toString()
     {
-        if (this == obj)
-            return true;
-        if (obj == null)
-            return false;
-        if (!(obj instanceof Link))
-            return false;
-        Link other = (Link) obj;
-        if (!Objects.equals(getSourceSlot(), other.getSourceSlot()))
-            return false;
-        if (!Objects.equals(getTargetSlot(), other.getTargetSlot()))
-            return false;
-        return true;
+        return "Link[" + getSourceSlot() + "-" + getTargetSlot() + "]";
     }
 
 }
\ No newline at end of file
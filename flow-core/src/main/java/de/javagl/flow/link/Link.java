@@ -57,6 +57,33 @@ public interface Link
      */
     Object provide();
     
+    /**
+     * Clear the object that was previously {@link #accept(Object) accepted},
+     * so that it may be garbage collected. Until a new object is accepted,
+     * {@link #provide()} will return <code>null</code>.
+     */
+    void clear();
+    
+    /**
+     * Set whether the object that is {@link #accept(Object) accepted} by
+     * this link should be retained, for example, to be inspected after 
+     * the flow was executed. A {@link de.javagl.flow.execution.FlowExecutor}
+     * that releases intermediate results as early as possible will not
+     * {@link #clear()} links that are retained. 
+     * 
+     * @param retained Whether the object should be retained
+     */
+    void setRetained(boolean retained);
+    
+    /**
+     * Returns whether the object that is {@link #accept(Object) accepted} 
+     * by this link should be retained. 
+     * 
+     * @return Whether the object should be retained
+     * @see #setRetained(boolean)
+     */
+    boolean isRetained();
+    
     /**
      * Returns the source slot of this link, namely the {@link OutputSlot}
      * of the source module.
@@ -0,0 +1,140 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Interface for classes that can convert objects of a certain type into
+ * a sequence of bytes and back. This is used by links that
+ * {@link Links#createSpilling(de.javagl.flow.module.slot.OutputSlot,
+ * de.javagl.flow.module.slot.InputSlot, SpillPolicy) spill} large
+ * objects into files. Instances of the default codecs may be obtained
+ * from the {@link LinkCodecs} class.<br>
+ * <br>
+ * The buffers that are passed to the methods of this interface will
+ * use the native byte order.<br>
+ * <br>
+ * Objects whose size exceeds the size of a single buffer can only be
+ * written by codecs that {@link #supportsChunks() support chunks}. These
+ * codecs receive the data as an array of buffers, which have to be read
+ * or written one after the other.
+ *
+ * @param <T> The type of the objects
+ */
+public interface LinkCodec<T>
+{
+    /**
+     * Compute the number of bytes that are required for
+     * {@link #encode(Object, ByteBuffer) encoding} the given object
+     *
+     * @param object The object
+     * @return The number of bytes
+     */
+    long computeSize(T object);
+
+    /**
+     * Write the given object into the given buffer. The buffer will have
+     * exactly the number of {@link #computeSize(Object) required}
+     * bytes remaining.
+     *
+     * @param object The object
+     * @param buffer The target buffer
+     */
+    void encode(T object, ByteBuffer buffer);
+
+    /**
+     * Read an object from the given buffer, which contains the data that
+     * was written with {@link #encode(Object, ByteBuffer)}
+     *
+     * @param buffer The source buffer
+     * @return The object
+     */
+    T decode(ByteBuffer buffer);
+
+    /**
+     * Returns whether this codec supports the methods that receive an
+     * array of buffers, which are used for objects that do not fit into
+     * a single buffer. The default implementation returns
+     * <code>false</code>.
+     *
+     * @return Whether this codec supports chunks
+     */
+    default boolean supportsChunks()
+    {
+        return false;
+    }
+
+    /**
+     * Write the given object into the given buffers, one after the other.
+     * The buffers will have exactly the number of
+     * {@link #computeSize(Object) required} bytes remaining in total. The
+     * number of remaining bytes in each buffer except for the last one
+     * will be a multiple of 8.<br>
+     * <br>
+     * The default implementation delegates to
+     * {@link #encode(Object, ByteBuffer)} if there is only one buffer.
+     *
+     * @param object The object
+     * @param buffers The target buffers
+     * @throws UnsupportedOperationException If there is more than one
+     * buffer, and this codec does not {@link #supportsChunks() support
+     * chunks}
+     */
+    default void encode(T object, ByteBuffer buffers[])
+    {
+        if (buffers.length != 1)
+        {
+            throw new UnsupportedOperationException(
+                "This codec does not support chunks");
+        }
+        encode(object, buffers[0]);
+    }
+
+    /**
+     * Read an object from the given buffers, which contain the data that
+     * was written with {@link #encode(Object, ByteBuffer[])}<br>
+     * <br>
+     * The default implementation delegates to {@link #decode(ByteBuffer)}
+     * if there is only one buffer.
+     *
+     * @param buffers The source buffers
+     * @return The object
+     * @throws UnsupportedOperationException If there is more than one
+     * buffer, and this codec does not {@link #supportsChunks() support
+     * chunks}
+     */
+    default T decode(ByteBuffer buffers[])
+    {
+        if (buffers.length != 1)
+        {
+            throw new UnsupportedOperationException(
+                "This codec does not support chunks");
+        }
+        return decode(buffers[0]);
+    }
+}
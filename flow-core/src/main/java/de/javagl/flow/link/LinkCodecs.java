@@ -0,0 +1,433 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+
+/**
+ * Methods to create {@link LinkCodec} instances. All codecs that are
+ * created here {@link LinkCodec#supportsChunks() support chunks}.
+ */
+public class LinkCodecs
+{
+    /**
+     * Returns a {@link LinkCodec} for <code>byte</code> arrays
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<byte[]> createByteArrayCodec()
+    {
+        return new ChunkedLinkCodec<byte[]>()
+        {
+            @Override
+            public long computeSize(byte[] object)
+            {
+                return object.length;
+            }
+
+            @Override
+            void encode(byte[] object, ChunkedBuffer buffer)
+            {
+                buffer.put(object, 0, object.length);
+            }
+
+            @Override
+            byte[] decode(ChunkedBuffer buffer)
+            {
+                byte result[] = new byte[length(buffer, Byte.BYTES)];
+                buffer.get(result, 0, result.length);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for <code>int</code> arrays
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<int[]> createIntArrayCodec()
+    {
+        return new ChunkedLinkCodec<int[]>()
+        {
+            @Override
+            public long computeSize(int[] object)
+            {
+                return (long) object.length * Integer.BYTES;
+            }
+
+            @Override
+            void encode(int[] object, ChunkedBuffer buffer)
+            {
+                buffer.put(object);
+            }
+
+            @Override
+            int[] decode(ChunkedBuffer buffer)
+            {
+                int result[] = new int[length(buffer, Integer.BYTES)];
+                buffer.get(result);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for <code>long</code> arrays
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<long[]> createLongArrayCodec()
+    {
+        return new ChunkedLinkCodec<long[]>()
+        {
+            @Override
+            public long computeSize(long[] object)
+            {
+                return (long) object.length * Long.BYTES;
+            }
+
+            @Override
+            void encode(long[] object, ChunkedBuffer buffer)
+            {
+                buffer.put(object);
+            }
+
+            @Override
+            long[] decode(ChunkedBuffer buffer)
+            {
+                long result[] = new long[length(buffer, Long.BYTES)];
+                buffer.get(result);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for <code>float</code> arrays
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<float[]> createFloatArrayCodec()
+    {
+        return new ChunkedLinkCodec<float[]>()
+        {
+            @Override
+            public long computeSize(float[] object)
+            {
+                return (long) object.length * Float.BYTES;
+            }
+
+            @Override
+            void encode(float[] object, ChunkedBuffer buffer)
+            {
+                buffer.put(object);
+            }
+
+            @Override
+            float[] decode(ChunkedBuffer buffer)
+            {
+                float result[] = new float[length(buffer, Float.BYTES)];
+                buffer.get(result);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for <code>double</code> arrays
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<double[]> createDoubleArrayCodec()
+    {
+        return new ChunkedLinkCodec<double[]>()
+        {
+            @Override
+            public long computeSize(double[] object)
+            {
+                return (long) object.length * Double.BYTES;
+            }
+
+            @Override
+            void encode(double[] object, ChunkedBuffer buffer)
+            {
+                buffer.put(object);
+            }
+
+            @Override
+            double[] decode(ChunkedBuffer buffer)
+            {
+                double result[] = new double[length(buffer, Double.BYTES)];
+                buffer.get(result);
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for two-dimensional <code>double</code>
+     * arrays, like matrices. The rows of the arrays may have different
+     * lengths, but may not be <code>null</code>.
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<double[][]> createDoubleArray2DCodec()
+    {
+        return new ChunkedLinkCodec<double[][]>()
+        {
+            @Override
+            public long computeSize(double[][] object)
+            {
+                long size = Integer.BYTES;
+                for (double row[] : object)
+                {
+                    size += Integer.BYTES + (long) row.length * Double.BYTES;
+                }
+                return size;
+            }
+
+            @Override
+            void encode(double[][] object, ChunkedBuffer buffer)
+            {
+                buffer.putInt(object.length);
+                for (double row[] : object)
+                {
+                    buffer.putInt(row.length);
+                }
+                for (double row[] : object)
+                {
+                    buffer.put(row);
+                }
+            }
+
+            @Override
+            double[][] decode(ChunkedBuffer buffer)
+            {
+                int rows = buffer.getInt();
+                double result[][] = new double[rows][];
+                for (int r = 0; r < rows; r++)
+                {
+                    result[r] = new double[buffer.getInt()];
+                }
+                for (int r = 0; r < rows; r++)
+                {
+                    buffer.get(result[r]);
+                }
+                return result;
+            }
+        };
+    }
+
+    /**
+     * Returns a {@link LinkCodec} for arbitrary {@link Serializable}
+     * objects, which uses the default Java serialization. Computing the
+     * size of an object with this codec requires serializing it, so this
+     * codec is mainly intended as a fallback for objects for which no
+     * specialized codec is available.
+     *
+     * @return The {@link LinkCodec}
+     */
+    public static LinkCodec<Serializable> createSerializableCodec()
+    {
+        return new ChunkedLinkCodec<Serializable>()
+        {
+            @Override
+            public long computeSize(Serializable object)
+            {
+                CountingOutputStream outputStream = new CountingOutputStream();
+                write(object, outputStream);
+                return outputStream.count;
+            }
+
+            @Override
+            void encode(Serializable object, ChunkedBuffer buffer)
+            {
+                write(object, buffer.asOutputStream());
+            }
+
+            @Override
+            Serializable decode(ChunkedBuffer buffer)
+            {
+                try (ObjectInputStream objectInputStream =
+                    new ObjectInputStream(new BufferedInputStream(
+                        buffer.asInputStream())))
+                {
+                    return (Serializable) objectInputStream.readObject();
+                }
+                catch (IOException e)
+                {
+                    throw new UncheckedIOException(e);
+                }
+                catch (ClassNotFoundException e)
+                {
+                    throw new IllegalStateException(
+                        "Could not deserialize object", e);
+                }
+            }
+        };
+    }
+
+    /**
+     * Serialize the given object into the given stream
+     *
+     * @param object The object
+     * @param outputStream The output stream
+     * @throws UncheckedIOException If an IO error occurs, for example,
+     * because the object graph contains objects that are not
+     * serializable
+     */
+    private static void write(Serializable object, OutputStream outputStream)
+    {
+        try (ObjectOutputStream objectOutputStream = new ObjectOutputStream(
+            new BufferedOutputStream(outputStream)))
+        {
+            objectOutputStream.writeObject(object);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+    }
+
+    /**
+     * Computes the number of elements with the given size that are
+     * remaining in the given buffer
+     *
+     * @param buffer The buffer
+     * @param elementSize The size of one element, in bytes
+     * @return The number of elements
+     * @throws IllegalArgumentException If the number of elements is too
+     * large for an array
+     */
+    private static int length(ChunkedBuffer buffer, int elementSize)
+    {
+        long length = buffer.remaining() / elementSize;
+        if (length > Integer.MAX_VALUE)
+        {
+            throw new IllegalArgumentException(
+                "The buffer contains too many elements: " + length);
+        }
+        return (int) length;
+    }
+
+    /**
+     * Abstract base class for {@link LinkCodec} implementations that
+     * {@link LinkCodec#supportsChunks() support chunks}. The single
+     * buffer that is passed to the methods of the {@link LinkCodec}
+     * interface is treated as a single chunk.
+     *
+     * @param <T> The type of the objects
+     */
+    private static abstract class ChunkedLinkCodec<T> implements LinkCodec<T>
+    {
+        /**
+         * Write the given object into the given buffer
+         *
+         * @param object The object
+         * @param buffer The buffer
+         */
+        abstract void encode(T object, ChunkedBuffer buffer);
+
+        /**
+         * Read an object from the given buffer
+         *
+         * @param buffer The buffer
+         * @return The object
+         */
+        abstract T decode(ChunkedBuffer buffer);
+
+        @Override
+        public final boolean supportsChunks()
+        {
+            return true;
+        }
+
+        @Override
+        public final void encode(T object, ByteBuffer buffer)
+        {
+            encode(object, new ChunkedBuffer(buffer));
+        }
+
+        @Override
+        public final T decode(ByteBuffer buffer)
+        {
+            return decode(new ChunkedBuffer(buffer));
+        }
+
+        @Override
+        public final void encode(T object, ByteBuffer buffers[])
+        {
+            encode(object, new ChunkedBuffer(buffers));
+        }
+
+        @Override
+        public final T decode(ByteBuffer buffers[])
+        {
+            return decode(new ChunkedBuffer(buffers));
+        }
+    }
+
+    /**
+     * An output stream that only counts the bytes that are written
+     */
+    private static final class CountingOutputStream extends OutputStream
+    {
+        /**
+         * The number of bytes that have been written
+         */
+        private long count;
+
+        @Override
+        public void write(int b)
+        {
+            count++;
+        }
+
+        @Override
+        public void write(byte array[], int offset, int length)
+        {
+            count += length;
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private LinkCodecs()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
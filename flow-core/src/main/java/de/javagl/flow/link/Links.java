@@ -28,6 +28,7 @@ package de.javagl.flow.link;
 
 import java.lang.reflect.Type;
 import java.util.List;
+import java.util.Objects;
 
 import de.javagl.flow.Flow;
 import de.javagl.flow.MutableFlow;
@@ -83,6 +84,13 @@ public class Links
      * Create a {@link Link} between the given {@link InputSlot} and 
      * {@link OutputSlot}.<br> 
      * <br>
+     * If the {@link OutputSlot#getFormalType() formal type} of the source
+     * slot is <code>int</code>, <code>long</code> or <code>double</code>,
+     * or the corresponding boxed type, then the returned link will be an
+     * {@link IntLink}, {@link LongLink} or {@link DoubleLink}, 
+     * respectively, which can transport the values without boxing them.
+     * <br>
+     * <br>
      * Note that this method does not add the {@link Link} to the respective 
      * slots. It will only be added to the respective slots when it is 
      * inserted into a {@link Flow} using {@link MutableFlow#addLink(Link)}.  
@@ -93,10 +101,62 @@ public class Links
      */
     public static Link create(OutputSlot sourceSlot, InputSlot targetSlot)
     {
+        Type type = sourceSlot.getFormalType();
+        if (type == Integer.class || type == int.class)
+        {
+            return new DefaultIntLink(sourceSlot, targetSlot);
+        }
+        if (type == Long.class || type == long.class)
+        {
+            return new DefaultLongLink(sourceSlot, targetSlot);
+        }
+        if (type == Double.class || type == double.class)
+        {
+            return new DefaultDoubleLink(sourceSlot, targetSlot);
+        }
         Link link = new DefaultLink(sourceSlot, targetSlot);
         return link;
     }
     
+    /**
+     * Create a {@link Link} between the given {@link InputSlot} and 
+     * {@link OutputSlot} that writes large objects into temporary 
+     * files, as described by the given {@link SpillPolicy}.
+     * These objects will only be read again when they are 
+     * {@link Link#provide() provided}. This may be used for links 
+     * that transport objects which are too large to keep all of them 
+     * in memory during the execution of a flow.<br> 
+     * <br>
+     * Note that this method does not add the {@link Link} to the respective 
+     * slots. It will only be added to the respective slots when it is 
+     * inserted into a {@link Flow} using {@link MutableFlow#addLink(Link)}.  
+     * 
+     * @param sourceSlot The source {@link OutputSlot}
+     * @param targetSlot The target {@link InputSlot}
+     * @param spillPolicy The {@link SpillPolicy}
+     * @return The new {@link Link}
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static Link createSpilling(OutputSlot sourceSlot, 
+        InputSlot targetSlot, SpillPolicy spillPolicy)
+    {
+        Objects.requireNonNull(spillPolicy, 
+            "The spillPolicy may not be null");
+        return new SpillingLink(sourceSlot, targetSlot, spillPolicy);
+    }
+    
+    /**
+     * Create a new {@link SpillPolicyBuilder} for building a 
+     * {@link SpillPolicy} that may be passed to 
+     * {@link #createSpilling(OutputSlot, InputSlot, SpillPolicy)}
+     * 
+     * @return The new {@link SpillPolicyBuilder}
+     */
+    public static SpillPolicyBuilder createSpillPolicyBuilder()
+    {
+        return new SpillPolicyBuilder();
+    }
+    
     /**
      * Returns whether the given {@link Link} is valid. That is, whether the
      * {@link InputSlot#getExpectedType() expected type} of the 
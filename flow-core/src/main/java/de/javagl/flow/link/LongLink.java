@@ -0,0 +1,61 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+/**
+ * Interface for a {@link Link} that transports <code>long</code> values
+ * without boxing them. Instances of this interface are created by 
+ * {@link Links#create(de.javagl.flow.module.slot.OutputSlot, 
+ * de.javagl.flow.module.slot.InputSlot)} when the source slot has the
+ * type <code>long</code> or <code>Long</code>.<br>
+ * <br>
+ * The link still accepts and provides arbitrary objects, so that it may
+ * be used by modules that are not aware of the primitive methods.
+ */
+public interface LongLink extends Link
+{
+    /**
+     * Accept the given value, so that it may be {@link #provideLong() 
+     * provided} to another module.
+     * 
+     * @param value The value to accept
+     */
+    void acceptLong(long value);
+    
+    /**
+     * Provide the value that was previously accepted, as an input for the
+     * module that the {@link #getTargetSlot()} belongs to. If the value 
+     * was accepted as an object, then it is unboxed.
+     * 
+     * @return The value 
+     * @throws NullPointerException If the accepted object was 
+     * <code>null</code>
+     * @throws ClassCastException If the accepted object was not a 
+     * <code>Long</code>
+     */
+    long provideLong();
+}
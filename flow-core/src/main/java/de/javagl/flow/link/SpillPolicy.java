@@ -0,0 +1,138 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.nio.file.Path;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Map.Entry;
+
+/**
+ * A description of when and how a {@link Link} that was created with
+ * {@link Links#createSpilling(de.javagl.flow.module.slot.OutputSlot,
+ * de.javagl.flow.module.slot.InputSlot, SpillPolicy)} writes the objects
+ * that it accepts into files. Instances of this class are created with
+ * a {@link SpillPolicyBuilder}, which may be obtained from
+ * {@link Links#createSpillPolicyBuilder()}.<br>
+ * <br>
+ * An object is written into a file when there is a {@link LinkCodec}
+ * for its type, and the {@link LinkCodec#computeSize(Object) size} of
+ * the encoded object is at least the {@link #getThreshold() threshold}.
+ */
+public final class SpillPolicy
+{
+    /**
+     * The threshold, in bytes
+     */
+    private final long threshold;
+
+    /**
+     * The directory for the files, or <code>null</code>
+     */
+    private final Path directory;
+
+    /**
+     * The mapping from types to the codecs
+     */
+    private final Map<Class<?>, LinkCodec<?>> codecs;
+
+    /**
+     * Creates a new instance
+     *
+     * @param threshold The threshold, in bytes
+     * @param directory The directory for the files, or <code>null</code>
+     * @param codecs The mapping from types to the codecs
+     */
+    SpillPolicy(long threshold, Path directory,
+        Map<Class<?>, LinkCodec<?>> codecs)
+    {
+        this.threshold = threshold;
+        this.directory = directory;
+        this.codecs = Collections.unmodifiableMap(
+            new LinkedHashMap<Class<?>, LinkCodec<?>>(codecs));
+    }
+
+    /**
+     * Returns the size, in bytes, above which objects are written into
+     * files
+     *
+     * @return The threshold
+     */
+    public long getThreshold()
+    {
+        return threshold;
+    }
+
+    /**
+     * Returns the directory in which the files are created, or
+     * <code>null</code> if the default directory for temporary
+     * files is used
+     *
+     * @return The directory
+     */
+    public Path getDirectory()
+    {
+        return directory;
+    }
+
+    /**
+     * Returns the {@link LinkCodec} for the given type. This is the codec
+     * that was registered for exactly this type, if present, and otherwise
+     * the first codec that was registered for a supertype. If there is no
+     * such codec, then <code>null</code> is returned.
+     *
+     * @param type The type
+     * @return The {@link LinkCodec}
+     */
+    @SuppressWarnings("unchecked")
+    LinkCodec<Object> getCodec(Class<?> type)
+    {
+        LinkCodec<?> codec = codecs.get(type);
+        if (codec == null)
+        {
+            for (Entry<Class<?>, LinkCodec<?>> entry : codecs.entrySet())
+            {
+                if (entry.getKey().isAssignableFrom(type))
+                {
+                    codec = entry.getValue();
+                    break;
+                }
+            }
+        }
+        return (LinkCodec<Object>) codec;
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SpillPolicy["
+            + "threshold=" + threshold + ","
+            + "directory=" + directory + ","
+            + "types=" + codecs.keySet() + "]";
+    }
+}
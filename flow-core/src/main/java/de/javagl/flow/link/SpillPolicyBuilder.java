@@ -0,0 +1,172 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.io.Serializable;
+import java.nio.file.Path;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * A builder for {@link SpillPolicy} instances.
+ */
+public final class SpillPolicyBuilder
+{
+    /**
+     * The default threshold, in bytes
+     */
+    private static final long DEFAULT_THRESHOLD = 64L * 1024L * 1024L;
+
+    /**
+     * The threshold, in bytes
+     */
+    private long threshold;
+
+    /**
+     * The directory for the files, or <code>null</code>
+     */
+    private Path directory;
+
+    /**
+     * The mapping from types to the codecs
+     */
+    private final Map<Class<?>, LinkCodec<?>> codecs;
+
+    /**
+     * Whether serializable objects should be written into files
+     */
+    private boolean serializableFallback;
+
+    /**
+     * Creates a new builder, initialized with the default values. The
+     * builder will contain the codecs for arrays of primitive types and
+     * for two-dimensional <code>double</code> arrays from the
+     * {@link LinkCodecs} class.
+     */
+    SpillPolicyBuilder()
+    {
+        this.threshold = DEFAULT_THRESHOLD;
+        this.directory = null;
+        this.codecs = new LinkedHashMap<Class<?>, LinkCodec<?>>();
+        this.serializableFallback = false;
+        codecs.put(byte[].class, LinkCodecs.createByteArrayCodec());
+        codecs.put(int[].class, LinkCodecs.createIntArrayCodec());
+        codecs.put(long[].class, LinkCodecs.createLongArrayCodec());
+        codecs.put(float[].class, LinkCodecs.createFloatArrayCodec());
+        codecs.put(double[].class, LinkCodecs.createDoubleArrayCodec());
+        codecs.put(double[][].class, LinkCodecs.createDoubleArray2DCodec());
+    }
+
+    /**
+     * Set the size, in bytes, above which objects are written into files.
+     * The default is 64 MB.
+     *
+     * @param threshold The threshold
+     * @return This builder
+     * @throws IllegalArgumentException If the threshold is negative
+     */
+    public SpillPolicyBuilder setThreshold(long threshold)
+    {
+        if (threshold < 0)
+        {
+            throw new IllegalArgumentException(
+                "The threshold may not be negative, but is " + threshold);
+        }
+        this.threshold = threshold;
+        return this;
+    }
+
+    /**
+     * Set the directory in which the files are created. If this is
+     * <code>null</code>, which is the default, then the default directory
+     * for temporary files is used.
+     *
+     * @param directory The directory
+     * @return This builder
+     */
+    public SpillPolicyBuilder setDirectory(Path directory)
+    {
+        this.directory = directory;
+        return this;
+    }
+
+    /**
+     * Set the {@link LinkCodec} that should be used for objects of the
+     * given type. This will replace any codec that was previously set
+     * for the same type.
+     *
+     * @param <T> The type of the objects
+     * @param type The type
+     * @param codec The {@link LinkCodec}
+     * @return This builder
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public <T> SpillPolicyBuilder setCodec(
+        Class<T> type, LinkCodec<? super T> codec)
+    {
+        Objects.requireNonNull(type, "The type may not be null");
+        Objects.requireNonNull(codec, "The codec may not be null");
+        codecs.put(type, codec);
+        return this;
+    }
+
+    /**
+     * Set whether objects that implement {@link Serializable}, and for
+     * which no other codec was set, should be written into files with
+     * the {@link LinkCodecs#createSerializableCodec() serializable codec}.
+     * The default is <code>false</code>, because computing the size of
+     * such an object requires serializing it.
+     *
+     * @param serializableFallback Whether the serializable codec should
+     * be used as a fallback
+     * @return This builder
+     */
+    public SpillPolicyBuilder setSerializableFallback(
+        boolean serializableFallback)
+    {
+        this.serializableFallback = serializableFallback;
+        return this;
+    }
+
+    /**
+     * Build the {@link SpillPolicy} that has been described so far.
+     *
+     * @return The new {@link SpillPolicy}
+     */
+    public SpillPolicy build()
+    {
+        Map<Class<?>, LinkCodec<?>> allCodecs =
+            new LinkedHashMap<Class<?>, LinkCodec<?>>(codecs);
+        if (serializableFallback)
+        {
+            allCodecs.putIfAbsent(Serializable.class,
+                LinkCodecs.createSerializableCodec());
+        }
+        return new SpillPolicy(threshold, directory, allCodecs);
+    }
+}
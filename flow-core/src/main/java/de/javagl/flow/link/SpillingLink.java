@@ -0,0 +1,483 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.link;
+
+import java.io.EOFException;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.PhantomReference;
+import java.lang.ref.Reference;
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+
+/**
+ * Implementation of a {@link Link} that writes large objects into
+ * temporary files, as described by a {@link SpillPolicy}.
+ * <br>
+ * <br>
+ * The objects that have been written into a file are only read again
+ * when they are {@link #provide() provided}. As long as the object that
+ * was provided (or originally accepted) is still referenced elsewhere,
+ * it is returned directly. The file is deleted when the link is
+ * {@link #clear() cleared} or accepts a new object. The files of links
+ * that became unreachable without being cleared are deleted when any
+ * spilling link writes or releases a file afterwards.<br>
+ * <br>
+ * The data is copied between the files and heap buffers. The files are 
+ * not memory-mapped, because a mapped file can not be deleted on all 
+ * platforms as long as the mapping was not garbage collected.<br>
+ * <br>
+ * Objects that are larger than 2 GB are encoded into several chunks. 
+ * This is only possible when the {@link LinkCodec} for the object
+ * {@link LinkCodec#supportsChunks() supports chunks}. Otherwise, such
+ * objects are kept in memory.
+ */
+final class SpillingLink extends AbstractLink implements Link
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(SpillingLink.class.getName());
+
+    /**
+     * The size of the chunks, in bytes, that are used for objects that
+     * do not fit into a single buffer
+     */
+    private static final long CHUNK_SIZE = 1L << 30;
+
+    /**
+     * The maximum number of bytes that are passed to a single read or
+     * write call of a channel. The channel may copy the data through a 
+     * temporary direct buffer of this size, which is cached per thread.
+     */
+    private static final int TRANSFER_SIZE = 1 << 20;
+
+    /**
+     * The queue that receives the {@link FileReference} instances of 
+     * links that are no longer reachable
+     */
+    private static final ReferenceQueue<SpillingLink> referenceQueue =
+        new ReferenceQueue<SpillingLink>();
+
+    /**
+     * The {@link FileReference} instances for all files that currently
+     * exist. These have to be kept reachable, so that they are enqueued
+     * when their links become unreachable.
+     */
+    private static final Set<FileReference> fileReferences =
+        ConcurrentHashMap.newKeySet();
+
+    /**
+     * The {@link SpillPolicy}
+     */
+    private final SpillPolicy spillPolicy;
+
+    /**
+     * The current contents of this link, if they have not been written
+     * into a file
+     */
+    private Object contents;
+
+    /**
+     * The reference to this link that stores the file that contains the
+     * current contents of this link, or <code>null</code>
+     */
+    private FileReference file;
+
+    /**
+     * The {@link LinkCodec} that was used for writing the file
+     */
+    private LinkCodec<Object> codec;
+
+    /**
+     * A weak reference to the object that is stored in the file
+     */
+    private Reference<Object> materialized;
+
+    /**
+     * Creates a new link between the given source- and target slot
+     *
+     * @param sourceSlot The {@link OutputSlot} that is the source of this link
+     * @param targetSlot The {@link InputSlot} that is the target of this link
+     * @param spillPolicy The {@link SpillPolicy}
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    SpillingLink(
+        OutputSlot sourceSlot,
+        InputSlot targetSlot,
+        SpillPolicy spillPolicy)
+    {
+        super(sourceSlot, targetSlot);
+        this.spillPolicy = spillPolicy;
+    }
+
+    @Override
+    public void accept(Object object)
+    {
+        synchronized (this)
+        {
+            release();
+            if (!spill(object))
+            {
+                this.contents = object;
+            }
+        }
+        fireObjectAccepted(object);
+    }
+
+    @Override
+    public Object provide()
+    {
+        Object object = null;
+        synchronized (this)
+        {
+            object = materialize();
+        }
+        fireObjectProvided(object);
+        return object;
+    }
+
+    @Override
+    public synchronized void clear()
+    {
+        release();
+    }
+
+    /**
+     * Try to write the given object into a file, if this is required
+     * by the {@link SpillPolicy}
+     *
+     * @param object The object
+     * @return Whether the object was written into a file
+     */
+    private boolean spill(Object object)
+    {
+        deleteUnreachableFiles();
+        if (object == null)
+        {
+            return false;
+        }
+        LinkCodec<Object> objectCodec =
+            spillPolicy.getCodec(object.getClass());
+        if (objectCodec == null)
+        {
+            return false;
+        }
+        long size = 0;
+        try
+        {
+            size = objectCodec.computeSize(object);
+        }
+        catch (UncheckedIOException e)
+        {
+            logger.warning("Could not compute size of object, "
+                + "keeping it in memory: " + e);
+            return false;
+        }
+        if (size < spillPolicy.getThreshold())
+        {
+            return false;
+        }
+        if (size > Integer.MAX_VALUE && !objectCodec.supportsChunks())
+        {
+            logger.warning("The object has a size of " + size + " bytes, "
+                + "but its codec does not support chunks, "
+                + "keeping it in memory");
+            return false;
+        }
+        Path newFile = null;
+        try
+        {
+            Path directory = spillPolicy.getDirectory();
+            if (directory == null)
+            {
+                newFile = Files.createTempFile("flow-link-", ".bin");
+            }
+            else
+            {
+                newFile = Files.createTempFile(
+                    directory, "flow-link-", ".bin");
+            }
+            ByteBuffer buffers[] = allocate(size);
+            objectCodec.encode(object, buffers);
+            try (FileChannel channel = FileChannel.open(newFile,
+                StandardOpenOption.WRITE))
+            {
+                write(channel, buffers);
+            }
+        }
+        catch (IOException | UncheckedIOException e)
+        {
+            logger.warning("Could not write object into file, "
+                + "keeping it in memory: " + e);
+            delete(newFile);
+            return false;
+        }
+        this.file = new FileReference(this, newFile);
+        fileReferences.add(file);
+        this.codec = objectCodec;
+        this.materialized = new WeakReference<Object>(object);
+        return true;
+    }
+
+    /**
+     * Returns the current contents of this link, reading them from the
+     * file if necessary
+     *
+     * @return The contents
+     * @throws UncheckedIOException If the file could not be read
+     */
+    private Object materialize()
+    {
+        if (file == null)
+        {
+            return contents;
+        }
+        Object object = materialized.get();
+        if (object != null)
+        {
+            return object;
+        }
+        Path path = file.getPath();
+        try (FileChannel channel =
+            FileChannel.open(path, StandardOpenOption.READ))
+        {
+            ByteBuffer buffers[] = allocate(channel.size());
+            read(channel, buffers);
+            object = codec.decode(buffers);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(
+                "Could not read object from " + path, e);
+        }
+        materialized = new WeakReference<Object>(object);
+        return object;
+    }
+
+    /**
+     * Allocate heap buffers with the native byte order for the given 
+     * number of bytes. If the size is not larger than the maximum size 
+     * of a single buffer, then a single buffer is returned. Otherwise, 
+     * the returned buffers have the {@link #CHUNK_SIZE}, except for the 
+     * last one.
+     *
+     * @param size The size, in bytes
+     * @return The buffers
+     */
+    private static ByteBuffer[] allocate(long size)
+    {
+        if (size <= Integer.MAX_VALUE)
+        {
+            ByteBuffer buffer = ByteBuffer.allocate((int) size);
+            buffer.order(ByteOrder.nativeOrder());
+            return new ByteBuffer[] { buffer };
+        }
+        int numChunks = (int) ((size + CHUNK_SIZE - 1) / CHUNK_SIZE);
+        ByteBuffer buffers[] = new ByteBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++)
+        {
+            long position = i * CHUNK_SIZE;
+            int length = (int) Math.min(CHUNK_SIZE, size - position);
+            buffers[i] = ByteBuffer.allocate(length);
+            buffers[i].order(ByteOrder.nativeOrder());
+        }
+        return buffers;
+    }
+
+    /**
+     * Write the full contents of the given buffers into the given 
+     * channel, one after the other. The positions and limits of the 
+     * given buffers are not modified.
+     *
+     * @param channel The channel
+     * @param buffers The buffers
+     * @throws IOException If an IO error occurs
+     */
+    private static void write(FileChannel channel, ByteBuffer buffers[]) 
+        throws IOException
+    {
+        for (ByteBuffer buffer : buffers)
+        {
+            ByteBuffer b = buffer.duplicate();
+            b.clear();
+            while (b.position() < b.capacity())
+            {
+                b.limit(Math.min(b.position() + TRANSFER_SIZE, 
+                    b.capacity()));
+                channel.write(b);
+            }
+        }
+    }
+
+    /**
+     * Fill the given buffers with the contents of the given channel, one 
+     * after the other. The positions and limits of the given buffers are 
+     * not modified.
+     *
+     * @param channel The channel
+     * @param buffers The buffers
+     * @throws IOException If an IO error occurs, or the channel does not
+     * contain enough bytes to fill the buffers
+     */
+    private static void read(FileChannel channel, ByteBuffer buffers[]) 
+        throws IOException
+    {
+        for (ByteBuffer buffer : buffers)
+        {
+            ByteBuffer b = buffer.duplicate();
+            b.clear();
+            while (b.position() < b.capacity())
+            {
+                b.limit(Math.min(b.position() + TRANSFER_SIZE, 
+                    b.capacity()));
+                if (channel.read(b) < 0)
+                {
+                    throw new EOFException(
+                        "Unexpected end of file at " + channel.position());
+                }
+            }
+        }
+    }
+
+    /**
+     * Release the current contents of this link, deleting the file if
+     * necessary
+     */
+    private void release()
+    {
+        contents = null;
+        materialized = null;
+        codec = null;
+        if (file != null)
+        {
+            fileReferences.remove(file);
+            file.clear();
+            delete(file.getPath());
+            file = null;
+        }
+        deleteUnreachableFiles();
+    }
+
+    /**
+     * Delete the files of all links that became unreachable without 
+     * having been cleared
+     */
+    private static void deleteUnreachableFiles()
+    {
+        Reference<? extends SpillingLink> reference = null;
+        while ((reference = referenceQueue.poll()) != null)
+        {
+            FileReference fileReference = (FileReference) reference;
+            if (fileReferences.remove(fileReference))
+            {
+                logger.fine("Deleting " + fileReference.getPath() 
+                    + " of an unreachable link");
+                delete(fileReference.getPath());
+            }
+        }
+    }
+
+    /**
+     * Delete the given file. If this is not possible, for example,
+     * because the file is still opened elsewhere, then the file will
+     * be deleted when the virtual machine terminates.
+     *
+     * @param path The file. May be <code>null</code>.
+     */
+    private static void delete(Path path)
+    {
+        if (path == null)
+        {
+            return;
+        }
+        try
+        {
+            Files.deleteIfExists(path);
+        }
+        catch (IOException e)
+        {
+            logger.fine("Could not delete " + path + ": " + e);
+            path.toFile().deleteOnExit();
+        }
+    }
+
+    @Override
+    public String toString()
+    {
+        return "SpillingLink[" + getSourceSlot() + "-" + getTargetSlot() + "]";
+    }
+
+    /**
+     * A phantom reference to a {@link SpillingLink} that stores the path 
+     * of the file that contains the contents of the link, so that the 
+     * file can be deleted after the link became unreachable
+     */
+    private static final class FileReference 
+        extends PhantomReference<SpillingLink>
+    {
+        /**
+         * The path of the file
+         */
+        private final Path path;
+
+        /**
+         * Creates a new reference to the given link
+         *
+         * @param link The link
+         * @param path The path of the file
+         */
+        FileReference(SpillingLink link, Path path)
+        {
+            super(link, referenceQueue);
+            this.path = path;
+        }
+
+        /**
+         * Returns the path of the file
+         *
+         * @return The path
+         */
+        Path getPath()
+        {
+            return path;
+        }
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Objects;
+
+/**
+ * Abstract base implementation of a {@link Metric}
+ */
+abstract class AbstractMetric implements Metric
+{
+    /**
+     * The name
+     */
+    private final String name;
+
+    /**
+     * The tags
+     */
+    private final Map<String, String> tags;
+
+    /**
+     * Creates a new instance
+     *
+     * @param name The name
+     * @param tags The tags
+     */
+    AbstractMetric(String name, Map<String, String> tags)
+    {
+        this.name = Objects.requireNonNull(name, "The name may not be null");
+        this.tags = tags;
+    }
+
+    /**
+     * Creates an unmodifiable map from the given tags
+     *
+     * @param tags The tags, as alternating keys and values
+     * @return The map
+     * @throws IllegalArgumentException If the number of tag strings is odd
+     */
+    static Map<String, String> createTags(String... tags)
+    {
+        if (tags == null || tags.length == 0)
+        {
+            return Collections.emptyMap();
+        }
+        if (tags.length % 2 != 0)
+        {
+            throw new IllegalArgumentException(
+                "The tags must be given as key-value pairs, "
+                + "but received " + tags.length + " strings");
+        }
+        Map<String, String> map = new LinkedHashMap<String, String>();
+        for (int i = 0; i < tags.length; i += 2)
+        {
+            map.put(tags[i], tags[i + 1]);
+        }
+        return Collections.unmodifiableMap(map);
+    }
+
+    @Override
+    public final String getName()
+    {
+        return name;
+    }
+
+    @Override
+    public final Map<String, String> getTags()
+    {
+        return tags;
+    }
+
+    @Override
+    public String toString()
+    {
+        if (tags.isEmpty())
+        {
+            return name;
+        }
+        return name + tags;
+    }
+}
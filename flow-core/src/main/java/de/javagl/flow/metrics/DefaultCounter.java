@@ -0,0 +1,71 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default implementation of a {@link Counter}
+ */
+final class DefaultCounter extends AbstractMetric implements Counter
+{
+    /**
+     * The count
+     */
+    private final LongAdder count;
+
+    /**
+     * Creates a new instance
+     *
+     * @param name The name
+     * @param tags The tags
+     */
+    DefaultCounter(String name, Map<String, String> tags)
+    {
+        super(name, tags);
+        this.count = new LongAdder();
+    }
+
+    @Override
+    public void increment()
+    {
+        count.increment();
+    }
+
+    @Override
+    public void increment(long amount)
+    {
+        count.add(amount);
+    }
+
+    @Override
+    public long getCount()
+    {
+        return count.sum();
+    }
+}
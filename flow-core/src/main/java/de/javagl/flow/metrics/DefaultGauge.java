@@ -0,0 +1,63 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.Map;
+import java.util.Objects;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Default implementation of a {@link Gauge}
+ */
+final class DefaultGauge extends AbstractMetric implements Gauge
+{
+    /**
+     * The supplier for the value
+     */
+    private final DoubleSupplier valueSupplier;
+
+    /**
+     * Creates a new instance
+     *
+     * @param name The name
+     * @param tags The tags
+     * @param valueSupplier The supplier for the value
+     */
+    DefaultGauge(String name, Map<String, String> tags,
+        DoubleSupplier valueSupplier)
+    {
+        super(name, tags);
+        this.valueSupplier = Objects.requireNonNull(valueSupplier,
+            "The valueSupplier may not be null");
+    }
+
+    @Override
+    public double getValue()
+    {
+        return valueSupplier.getAsDouble();
+    }
+}
@@ -0,0 +1,223 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAccumulator;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Default implementation of a {@link Histogram}.<br>
+ * <br>
+ * This implementation uses a fixed set of log-linear buckets, similar
+ * to an HDR histogram: The range of values is divided into powers of
+ * two, and each of these ranges is divided into a fixed number of
+ * linear sub-buckets. This allows recording values over the whole
+ * range of <code>long</code> values with a relative error of less than
+ * 1/64 (about 1.6%), with constant memory, and without locking.
+ */
+final class DefaultHistogram extends AbstractMetric implements Histogram
+{
+    /**
+     * The number of bits for the sub-buckets
+     */
+    private static final int SUB_BUCKET_BITS = 7;
+
+    /**
+     * The number of sub-buckets
+     */
+    private static final int SUB_BUCKET_COUNT = 1 << SUB_BUCKET_BITS;
+
+    /**
+     * Half the number of sub-buckets
+     */
+    private static final int SUB_BUCKET_HALF_COUNT = SUB_BUCKET_COUNT / 2;
+
+    /**
+     * The total number of buckets
+     */
+    private static final int BUCKET_COUNT =
+        (64 - SUB_BUCKET_BITS + 1) * SUB_BUCKET_HALF_COUNT
+        + SUB_BUCKET_HALF_COUNT;
+
+    /**
+     * The counts for each bucket
+     */
+    private final AtomicLongArray counts;
+
+    /**
+     * The total number of values
+     */
+    private final LongAdder count;
+
+    /**
+     * The sum of all values
+     */
+    private final LongAdder sum;
+
+    /**
+     * The minimum value
+     */
+    private final LongAccumulator min;
+
+    /**
+     * The maximum value
+     */
+    private final LongAccumulator max;
+
+    /**
+     * Creates a new instance
+     *
+     * @param name The name
+     * @param tags The tags
+     */
+    DefaultHistogram(String name, Map<String, String> tags)
+    {
+        super(name, tags);
+        this.counts = new AtomicLongArray(BUCKET_COUNT);
+        this.count = new LongAdder();
+        this.sum = new LongAdder();
+        this.min = new LongAccumulator(Math::min, Long.MAX_VALUE);
+        this.max = new LongAccumulator(Math::max, Long.MIN_VALUE);
+    }
+
+    /**
+     * Returns the index of the bucket for the given value
+     *
+     * @param value The value, which must be non-negative
+     * @return The bucket index
+     */
+    private static int computeBucketIndex(long value)
+    {
+        if (value < SUB_BUCKET_COUNT)
+        {
+            return (int) value;
+        }
+        int msb = 63 - Long.numberOfLeadingZeros(value);
+        int shift = msb - (SUB_BUCKET_BITS - 1);
+        int subBucket = (int) (value >>> shift);
+        return shift * SUB_BUCKET_HALF_COUNT + subBucket;
+    }
+
+    /**
+     * Returns the largest value that falls into the bucket with the
+     * given index
+     *
+     * @param index The bucket index
+     * @return The largest value
+     */
+    private static long computeHighestValue(int index)
+    {
+        if (index < SUB_BUCKET_COUNT)
+        {
+            return index;
+        }
+        int shift = index / SUB_BUCKET_HALF_COUNT - 1;
+        long subBucket = index - shift * SUB_BUCKET_HALF_COUNT;
+        long lowest = subBucket << shift;
+        return lowest + (1L << shift) - 1;
+    }
+
+    @Override
+    public void record(long value)
+    {
+        long v = Math.max(0, value);
+        counts.incrementAndGet(computeBucketIndex(v));
+        count.increment();
+        sum.add(v);
+        min.accumulate(v);
+        max.accumulate(v);
+    }
+
+    @Override
+    public long getCount()
+    {
+        return count.sum();
+    }
+
+    @Override
+    public long getMin()
+    {
+        if (getCount() == 0)
+        {
+            return 0;
+        }
+        return min.get();
+    }
+
+    @Override
+    public long getMax()
+    {
+        if (getCount() == 0)
+        {
+            return 0;
+        }
+        return max.get();
+    }
+
+    @Override
+    public double getMean()
+    {
+        long n = getCount();
+        if (n == 0)
+        {
+            return 0.0;
+        }
+        return (double) sum.sum() / n;
+    }
+
+    @Override
+    public long getValueAtPercentile(double percentile)
+    {
+        if (percentile < 0.0 || percentile > 100.0)
+        {
+            throw new IllegalArgumentException(
+                "The percentile must be in [0,100], but is " + percentile);
+        }
+        long total = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            total += counts.get(i);
+        }
+        if (total == 0)
+        {
+            return 0;
+        }
+        long rank = Math.max(1, (long) Math.ceil(percentile / 100.0 * total));
+        long cumulative = 0;
+        for (int i = 0; i < BUCKET_COUNT; i++)
+        {
+            cumulative += counts.get(i);
+            if (cumulative >= rank)
+            {
+                return Math.min(computeHighestValue(i), getMax());
+            }
+        }
+        return getMax();
+    }
+}
@@ -0,0 +1,83 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+/**
+ * Interface for a {@link Metric} that records the distribution of
+ * non-negative <code>long</code> values, like durations in nanoseconds
+ */
+public interface Histogram extends Metric
+{
+    /**
+     * Record the given value. Negative values will be treated as 0.
+     *
+     * @param value The value
+     */
+    void record(long value);
+
+    /**
+     * Returns the number of values that have been recorded
+     *
+     * @return The number of values
+     */
+    long getCount();
+
+    /**
+     * Returns the minimum value that was recorded, or 0 if no values
+     * have been recorded
+     *
+     * @return The minimum
+     */
+    long getMin();
+
+    /**
+     * Returns the maximum value that was recorded, or 0 if no values
+     * have been recorded
+     *
+     * @return The maximum
+     */
+    long getMax();
+
+    /**
+     * Returns the mean of all values that have been recorded, or 0.0
+     * if no values have been recorded
+     *
+     * @return The mean
+     */
+    double getMean();
+
+    /**
+     * Returns the value at the given percentile, or 0 if no values have
+     * been recorded. Depending on the implementation, this may be an
+     * approximation.
+     *
+     * @param percentile The percentile, in [0,100]
+     * @return The value at the given percentile
+     * @throws IllegalArgumentException If the percentile is not in [0,100]
+     */
+    long getValueAtPercentile(double percentile);
+}
@@ -0,0 +1,178 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Implementation of a {@link MetricRegistry} that stores all metrics
+ * in memory
+ */
+final class InMemoryMetricRegistry implements MetricRegistry
+{
+    /**
+     * The metrics, for fast lookup
+     */
+    private final Map<String, Metric> metrics;
+
+    /**
+     * The metrics, in the order in which they have been created
+     */
+    private final Map<String, Metric> orderedMetrics;
+
+    /**
+     * Creates a new, empty registry
+     */
+    InMemoryMetricRegistry()
+    {
+        this.metrics = new ConcurrentHashMap<String, Metric>();
+        this.orderedMetrics = new LinkedHashMap<String, Metric>();
+    }
+
+    /**
+     * Creates the key for the metric with the given name and tags
+     *
+     * @param name The name
+     * @param tags The tags
+     * @return The key
+     */
+    private static String createKey(String name, Map<String, String> tags)
+    {
+        return name + tags;
+    }
+
+    @Override
+    public Counter counter(String name, String... tags)
+    {
+        Map<String, String> tagsMap = AbstractMetric.createTags(tags);
+        String key = createKey(name, tagsMap);
+        Metric metric = metrics.get(key);
+        if (metric == null)
+        {
+            synchronized (orderedMetrics)
+            {
+                metric = metrics.get(key);
+                if (metric == null)
+                {
+                    metric = new DefaultCounter(name, tagsMap);
+                    store(key, metric);
+                }
+            }
+        }
+        return cast(metric, Counter.class);
+    }
+
+    @Override
+    public Histogram histogram(String name, String... tags)
+    {
+        Map<String, String> tagsMap = AbstractMetric.createTags(tags);
+        String key = createKey(name, tagsMap);
+        Metric metric = metrics.get(key);
+        if (metric == null)
+        {
+            synchronized (orderedMetrics)
+            {
+                metric = metrics.get(key);
+                if (metric == null)
+                {
+                    metric = new DefaultHistogram(name, tagsMap);
+                    store(key, metric);
+                }
+            }
+        }
+        return cast(metric, Histogram.class);
+    }
+
+    @Override
+    public Gauge gauge(String name, DoubleSupplier valueSupplier,
+        String... tags)
+    {
+        Map<String, String> tagsMap = AbstractMetric.createTags(tags);
+        String key = createKey(name, tagsMap);
+        Gauge gauge = new DefaultGauge(name, tagsMap, valueSupplier);
+        synchronized (orderedMetrics)
+        {
+            Metric oldMetric = metrics.get(key);
+            if (oldMetric != null)
+            {
+                cast(oldMetric, Gauge.class);
+            }
+            store(key, gauge);
+        }
+        return gauge;
+    }
+
+    /**
+     * Store the given metric under the given key. The caller must
+     * hold the lock on the {@link #orderedMetrics}.
+     *
+     * @param key The key
+     * @param metric The metric
+     */
+    private void store(String key, Metric metric)
+    {
+        orderedMetrics.put(key, metric);
+        metrics.put(key, metric);
+    }
+
+    /**
+     * Cast the given metric to the given type
+     *
+     * @param <T> The metric type
+     * @param metric The metric
+     * @param type The type
+     * @return The metric
+     * @throws IllegalArgumentException If the metric does not have
+     * the given type
+     */
+    private static <T extends Metric> T cast(Metric metric, Class<T> type)
+    {
+        if (!type.isInstance(metric))
+        {
+            throw new IllegalArgumentException(
+                "The metric " + metric + " is not a "
+                + type.getSimpleName());
+        }
+        return type.cast(metric);
+    }
+
+    @Override
+    public List<Metric> getMetrics()
+    {
+        synchronized (orderedMetrics)
+        {
+            return Collections.unmodifiableList(
+                new ArrayList<Metric>(orderedMetrics.values()));
+        }
+    }
+}
@@ -0,0 +1,122 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Methods to create {@link MetricRegistry} instances
+ */
+public class MetricRegistries
+{
+    /**
+     * Returns a {@link MetricRegistry} that does not record anything.
+     * The {@link Counter} and {@link Histogram} instances that are
+     * returned by this registry will ignore all values, and the
+     * registry will never contain any {@link Metric} instances.
+     *
+     * @return The {@link MetricRegistry}
+     */
+    public static MetricRegistry createNoOp()
+    {
+        return NoOpMetricRegistry.INSTANCE;
+    }
+
+    /**
+     * Creates a new {@link MetricRegistry} that stores all metrics in
+     * memory. The {@link Histogram} instances that are created by this
+     * registry use log-linear buckets, similar to an HDR histogram, and
+     * allow computing percentiles with a relative error of less than
+     * about 1.6%.
+     *
+     * @return The {@link MetricRegistry}
+     */
+    public static MetricRegistry createInMemory()
+    {
+        return new InMemoryMetricRegistry();
+    }
+
+    /**
+     * Creates a string containing a summary of all {@link Metric} instances
+     * of the given registry, with one line per metric. The exact format
+     * of this string is not specified.
+     *
+     * @param metricRegistry The {@link MetricRegistry}
+     * @return The summary string
+     */
+    public static String createSummaryString(MetricRegistry metricRegistry)
+    {
+        StringBuilder sb = new StringBuilder();
+        List<Metric> metrics = metricRegistry.getMetrics();
+        for (Metric metric : metrics)
+        {
+            sb.append(metric.getName());
+            Map<String, String> tags = metric.getTags();
+            if (!tags.isEmpty())
+            {
+                sb.append(tags);
+            }
+            sb.append(": ");
+            if (metric instanceof Counter)
+            {
+                Counter counter = (Counter) metric;
+                sb.append("count=").append(counter.getCount());
+            }
+            else if (metric instanceof Gauge)
+            {
+                Gauge gauge = (Gauge) metric;
+                sb.append(String.format(Locale.ENGLISH,
+                    "value=%.3f", gauge.getValue()));
+            }
+            else if (metric instanceof Histogram)
+            {
+                Histogram histogram = (Histogram) metric;
+                sb.append(String.format(Locale.ENGLISH,
+                    "count=%d, mean=%.1f, min=%d, "
+                    + "p50=%d, p90=%d, p99=%d, max=%d",
+                    histogram.getCount(), histogram.getMean(),
+                    histogram.getMin(),
+                    histogram.getValueAtPercentile(50.0),
+                    histogram.getValueAtPercentile(90.0),
+                    histogram.getValueAtPercentile(99.0),
+                    histogram.getMax()));
+            }
+            sb.append("\n");
+        }
+        return sb.toString();
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MetricRegistries()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
@@ -0,0 +1,90 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.List;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Interface for a registry of {@link Metric} instances. Instances of
+ * classes implementing this interface may be created with the
+ * {@link MetricRegistries} class.<br>
+ * <br>
+ * Each metric is identified by its name and its tags. The tags are
+ * given as an array of strings that contains alternating keys and
+ * values. Requesting a {@link Counter} or {@link Histogram} with a
+ * name and tags that have already been requested will return the
+ * same instance.<br>
+ * <br>
+ * Implementations of this interface must be thread-safe.
+ */
+public interface MetricRegistry
+{
+    /**
+     * Returns the {@link Counter} with the given name and tags, creating
+     * it if necessary
+     *
+     * @param name The name
+     * @param tags The tags, as alternating keys and values
+     * @return The {@link Counter}
+     * @throws IllegalArgumentException If the number of tag strings is odd
+     */
+    Counter counter(String name, String... tags);
+
+    /**
+     * Returns the {@link Histogram} with the given name and tags, creating
+     * it if necessary
+     *
+     * @param name The name
+     * @param tags The tags, as alternating keys and values
+     * @return The {@link Histogram}
+     * @throws IllegalArgumentException If the number of tag strings is odd
+     */
+    Histogram histogram(String name, String... tags);
+
+    /**
+     * Register a {@link Gauge} with the given name and tags, that obtains
+     * its value from the given supplier. If a gauge with the same name
+     * and tags already existed, it will be replaced.
+     *
+     * @param name The name
+     * @param valueSupplier The supplier for the value
+     * @param tags The tags, as alternating keys and values
+     * @return The {@link Gauge}
+     * @throws IllegalArgumentException If the number of tag strings is odd
+     */
+    Gauge gauge(String name, DoubleSupplier valueSupplier, String... tags);
+
+    /**
+     * Returns an unmodifiable list containing all {@link Metric} instances
+     * that are currently contained in this registry, in the order in
+     * which they have been created
+     *
+     * @return The metrics
+     */
+    List<Metric> getMetrics();
+}
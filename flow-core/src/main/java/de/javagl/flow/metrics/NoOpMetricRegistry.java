@@ -0,0 +1,172 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.metrics;
+
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.function.DoubleSupplier;
+
+/**
+ * Implementation of a {@link MetricRegistry} that does not record
+ * anything
+ */
+final class NoOpMetricRegistry implements MetricRegistry
+{
+    /**
+     * The singleton instance
+     */
+    static final MetricRegistry INSTANCE = new NoOpMetricRegistry();
+
+    /**
+     * The {@link Counter} that is returned for all requests
+     */
+    private static final Counter COUNTER = new NoOpCounter();
+
+    /**
+     * The {@link Histogram} that is returned for all requests
+     */
+    private static final Histogram HISTOGRAM = new NoOpHistogram();
+
+    /**
+     * A {@link Counter} that does not count anything
+     */
+    private static final class NoOpCounter
+        extends AbstractMetric implements Counter
+    {
+        /**
+         * Default constructor
+         */
+        NoOpCounter()
+        {
+            super("noop", Collections.<String, String>emptyMap());
+        }
+
+        @Override
+        public void increment()
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public void increment(long amount)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public long getCount()
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * A {@link Histogram} that does not record anything
+     */
+    private static final class NoOpHistogram
+        extends AbstractMetric implements Histogram
+    {
+        /**
+         * Default constructor
+         */
+        NoOpHistogram()
+        {
+            super("noop", Collections.<String, String>emptyMap());
+        }
+
+        @Override
+        public void record(long value)
+        {
+            // Nothing to do
+        }
+
+        @Override
+        public long getCount()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getMin()
+        {
+            return 0;
+        }
+
+        @Override
+        public long getMax()
+        {
+            return 0;
+        }
+
+        @Override
+        public double getMean()
+        {
+            return 0.0;
+        }
+
+        @Override
+        public long getValueAtPercentile(double percentile)
+        {
+            return 0;
+        }
+    }
+
+    /**
+     * Private constructor for the singleton instance
+     */
+    private NoOpMetricRegistry()
+    {
+        // Private constructor for the singleton instance
+    }
+
+    @Override
+    public Counter counter(String name, String... tags)
+    {
+        return COUNTER;
+    }
+
+    @Override
+    public Histogram histogram(String name, String... tags)
+    {
+        return HISTOGRAM;
+    }
+
+    @Override
+    public Gauge gauge(String name, DoubleSupplier valueSupplier,
+        String... tags)
+    {
+        Map<String, String> tagsMap = AbstractMetric.createTags(tags);
+        return new DefaultGauge(name, tagsMap, valueSupplier);
+    }
+
+    @Override
+    public List<Metric> getMetrics()
+    {
+        return Collections.emptyList();
+    }
+}
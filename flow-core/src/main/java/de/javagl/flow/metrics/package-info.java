@@ -0,0 +1,10 @@
+/**
+ * Classes for recording metrics like counters and histograms.<br>
+ * <br>
+ * A {@link de.javagl.flow.metrics.MetricRegistry} may be passed to a
+ * {@link de.javagl.flow.execution.FlowExecutor FlowExecutor} when it is
+ * created, to record information about the execution of flows and
+ * modules.
+ */
+package de.javagl.flow.metrics;
+
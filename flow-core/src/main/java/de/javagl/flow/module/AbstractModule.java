@@ -26,15 +26,21 @@
  */
 package de.javagl.flow.module;
 
+import java.util.Arrays;
 import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.atomic.AtomicBoolean;
 import java.util.concurrent.atomic.AtomicInteger;
 
 import de.javagl.flow.Flow;
+import de.javagl.flow.link.DoubleLink;
+import de.javagl.flow.link.IntLink;
 import de.javagl.flow.link.Link;
+import de.javagl.flow.link.LongLink;
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
+import de.javagl.flow.module.slot.SlotInfo;
 
 /**
  * Abstract base implementation of a {@link Module}. It manages the 
@@ -78,6 +84,24 @@ public abstract class AbstractModule implements Module
      */
     private final String idString;
     
+    /**
+     * Whether the {@link #inputBuffer} and {@link #outputBuffer} are 
+     * currently used by an execution of the {@link #process()} method
+     */
+    private final AtomicBoolean buffersInUse;
+    
+    /**
+     * The array that receives the input values in {@link #process()}.
+     * This is reused for subsequent executions, to avoid allocations.
+     */
+    private Object inputBuffer[];
+    
+    /**
+     * The array that receives the output values in {@link #process()}.
+     * This is reused for subsequent executions, to avoid allocations.
+     */
+    private Object outputBuffer[];
+    
     /**
      * Creates new module with the given {@link ModuleInfo}
      * 
@@ -89,6 +113,7 @@ public abstract class AbstractModule implements Module
             moduleInfo, "The moduleInfo may not be null");
         this.moduleExecutionListeners = 
             new CopyOnWriteArrayList<ModuleExecutionListener>();
+        this.buffersInUse = new AtomicBoolean();
         
         idString = String.valueOf(idCounter.getAndIncrement());
     }
@@ -134,6 +159,21 @@ public abstract class AbstractModule implements Module
     /**
      * Convenience method to obtain the input from the {@link Link} that
      * is set as the input for the {@link InputSlot} with the given index.
+     * <br>
+     * <br>
+     * If the slot is {@link SlotInfo#isMutating() mutating}, and the 
+     * {@link OutputSlot} that the value originates from is connected 
+     * to other modules as well, or is {@link SlotInfo#isForwarding() 
+     * forwarding}, or the link is {@link Link#isRetained() retained}, 
+     * then a copy of the value will be returned, which is created with 
+     * the {@link SlotInfo#getCopyFunction() copy function} of the slot. 
+     * Otherwise, the value is shared between all consumers and returned 
+     * without copying it.<br>
+     * <br>
+     * Note that a module that passes one of its input values to an 
+     * output slot that is not declared as forwarding may cause such a 
+     * value to be modified by a mutating consumer, even though it is 
+     * still referenced by the link that the value originally came from.
      * 
      * @param index The index of the input slot.
      * @return The value provided by the {@link Link} that is set as the
@@ -142,12 +182,95 @@ public abstract class AbstractModule implements Module
      */
     protected final Object obtainInput(int index)
     {
-        Link inputLink = getInputSlots().get(index).getInputLink();
+        InputSlot inputSlot = getInputSlots().get(index);
+        Link inputLink = inputSlot.getInputLink();
         if (inputLink == null)
         {
             return null;
         }
-        return inputLink.provide();
+        Object value = inputLink.provide();
+        if (value == null)
+        {
+            return null;
+        }
+        SlotInfo slotInfo = inputSlot.getSlotInfo();
+        if (slotInfo.isMutating())
+        {
+            OutputSlot sourceSlot = inputLink.getSourceSlot();
+            if (inputLink.isRetained() ||
+                sourceSlot.getOutputLinks().size() > 1 ||
+                sourceSlot.getSlotInfo().isForwarding())
+            {
+                return slotInfo.getCopyFunction().apply(value);
+            }
+        }
+        return value;
+    }
+    
+    /**
+     * Convenience method to obtain the <code>int</code> input from the 
+     * {@link Link} that is set as the input for the {@link InputSlot} 
+     * with the given index. If the link is an {@link IntLink}, then
+     * the value is obtained without boxing it.
+     * 
+     * @param index The index of the input slot.
+     * @return The value provided by the {@link Link}
+     * @throws NullPointerException If there is no input set for the 
+     * specified slot, or the input is <code>null</code>
+     */
+    protected final int obtainIntInput(int index)
+    {
+        Link inputLink = getInputSlots().get(index).getInputLink();
+        if (inputLink instanceof IntLink)
+        {
+            IntLink intLink = (IntLink) inputLink;
+            return intLink.provideInt();
+        }
+        return (Integer) obtainInput(index);
+    }
+    
+    /**
+     * Convenience method to obtain the <code>long</code> input from the 
+     * {@link Link} that is set as the input for the {@link InputSlot} 
+     * with the given index. If the link is a {@link LongLink}, then
+     * the value is obtained without boxing it.
+     * 
+     * @param index The index of the input slot.
+     * @return The value provided by the {@link Link}
+     * @throws NullPointerException If there is no input set for the 
+     * specified slot, or the input is <code>null</code>
+     */
+    protected final long obtainLongInput(int index)
+    {
+        Link inputLink = getInputSlots().get(index).getInputLink();
+        if (inputLink instanceof LongLink)
+        {
+            LongLink longLink = (LongLink) inputLink;
+            return longLink.provideLong();
+        }
+        return (Long) obtainInput(index);
+    }
+    
+    /**
+     * Convenience method to obtain the <code>double</code> input from the 
+     * {@link Link} that is set as the input for the {@link InputSlot} 
+     * with the given index. If the link is a {@link DoubleLink}, then
+     * the value is obtained without boxing it.
+     * 
+     * @param index The index of the input slot.
+     * @return The value provided by the {@link Link}
+     * @throws NullPointerException If there is no input set for the 
+     * specified slot, or the input is <code>null</code>
+     */
+    protected final double obtainDoubleInput(int index)
+    {
+        Link inputLink = getInputSlots().get(index).getInputLink();
+        if (inputLink instanceof DoubleLink)
+        {
+            DoubleLink doubleLink = (DoubleLink) inputLink;
+            return doubleLink.provideDouble();
+        }
+        return (Double) obtainInput(index);
     }
     
     /**
@@ -160,12 +283,114 @@ public abstract class AbstractModule implements Module
     protected final void forwardOutput(int index, Object value)
     {
         OutputSlot outputSlot = getOutputSlots().get(index);
-        for (Link output : outputSlot.getOutputLinks())
+        List<Link> outputLinks = outputSlot.getOutputLinks();
+        int numOutputLinks = outputLinks.size();
+        for (int i = 0; i < numOutputLinks; i++)
         {
+            Link output = outputLinks.get(i);
             output.accept(value);
         }
     }
     
+    /**
+     * Forward the given <code>int</code> value to each {@link Link} that 
+     * is set as output for the {@link OutputSlot} with the given index.
+     * The value is passed to each {@link IntLink} without boxing it. 
+     * 
+     * @param index The index of the output slot
+     * @param value The value to forward to each output {@link Link}
+     */
+    protected final void forwardIntOutput(int index, int value)
+    {
+        OutputSlot outputSlot = getOutputSlots().get(index);
+        Integer boxedValue = null;
+        List<Link> outputLinks = outputSlot.getOutputLinks();
+        int numOutputLinks = outputLinks.size();
+        for (int i = 0; i < numOutputLinks; i++)
+        {
+            Link output = outputLinks.get(i);
+            if (output instanceof IntLink)
+            {
+                IntLink intLink = (IntLink) output;
+                intLink.acceptInt(value);
+            }
+            else
+            {
+                if (boxedValue == null)
+                {
+                    boxedValue = value;
+                }
+                output.accept(boxedValue);
+            }
+        }
+    }
+    
+    /**
+     * Forward the given <code>long</code> value to each {@link Link} that 
+     * is set as output for the {@link OutputSlot} with the given index.
+     * The value is passed to each {@link LongLink} without boxing it. 
+     * 
+     * @param index The index of the output slot
+     * @param value The value to forward to each output {@link Link}
+     */
+    protected final void forwardLongOutput(int index, long value)
+    {
+        OutputSlot outputSlot = getOutputSlots().get(index);
+        Long boxedValue = null;
+        List<Link> outputLinks = outputSlot.getOutputLinks();
+        int numOutputLinks = outputLinks.size();
+        for (int i = 0; i < numOutputLinks; i++)
+        {
+            Link output = outputLinks.get(i);
+            if (output instanceof LongLink)
+            {
+                LongLink longLink = (LongLink) output;
+                longLink.acceptLong(value);
+            }
+            else
+            {
+                if (boxedValue == null)
+                {
+                    boxedValue = value;
+                }
+                output.accept(boxedValue);
+            }
+        }
+    }
+    
+    /**
+     * Forward the given <code>double</code> value to each {@link Link} that 
+     * is set as output for the {@link OutputSlot} with the given index.
+     * The value is passed to each {@link DoubleLink} without boxing it. 
+     * 
+     * @param index The index of the output slot
+     * @param value The value to forward to each output {@link Link}
+     */
+    protected final void forwardDoubleOutput(int index, double value)
+    {
+        OutputSlot outputSlot = getOutputSlots().get(index);
+        Double boxedValue = null;
+        List<Link> outputLinks = outputSlot.getOutputLinks();
+        int numOutputLinks = outputLinks.size();
+        for (int i = 0; i < numOutputLinks; i++)
+        {
+            Link output = outputLinks.get(i);
+            if (output instanceof DoubleLink)
+            {
+                DoubleLink doubleLink = (DoubleLink) output;
+                doubleLink.acceptDouble(value);
+            }
+            else
+            {
+                if (boxedValue == null)
+                {
+                    boxedValue = value;
+                }
+                output.accept(boxedValue);
+            }
+        }
+    }
+    
     /**
      * {@inheritDoc}
      * <br>
@@ -257,29 +482,78 @@ public abstract class AbstractModule implements Module
      *     receive the input values, and may write the output values into
      *     the given output array.
      *   </li>
-     *   <li>It calls {@link #fireAfterProcessing()}</li>
+     *   <li>
+     *     It calls {@link #fireAfterProcessing()}, even when the
+     *     processing caused an exception
+     *   </li>
      *   <li>It forwards the output values</li>
      * </ul>
      * For simple module implementations, users may thus choose to only
      * implement the {@link #processCore(Object[], Object[])} method 
-     * accordingly.
+     * accordingly.<br>
+     * <br>
+     * The arrays that are passed to the 
+     * {@link #processCore(Object[], Object[])} method are reused for
+     * subsequent executions of this module, and are cleared after each
+     * execution. Only when this method is called while another call
+     * is still in progress (for example, when the same module is 
+     * executed by multiple threads), then new arrays are allocated. 
      */
     protected void process()
     {
         int numInputs = getInputSlots().size();
-        Object inputs[] = new Object[numInputs];
-        for (int i=0; i<numInputs; i++)
+        int numOutputs = getOutputSlots().size();
+        boolean reuseBuffers = buffersInUse.compareAndSet(false, true);
+        Object inputs[] = null;
+        Object outputs[] = null;
+        if (reuseBuffers)
         {
-            inputs[i] = obtainInput(i);
+            if (inputBuffer == null || inputBuffer.length != numInputs)
+            {
+                inputBuffer = new Object[numInputs];
+            }
+            if (outputBuffer == null || outputBuffer.length != numOutputs)
+            {
+                outputBuffer = new Object[numOutputs];
+            }
+            inputs = inputBuffer;
+            outputs = outputBuffer;
         }
-        int numOutputs = getOutputSlots().size();
-        Object outputs[] = new Object[numOutputs];
-        fireBeforeProcessing();
-        processCore(inputs, outputs);
-        fireAfterProcessing();
-        for (int i=0; i<numOutputs; i++)
+        else
+        {
+            inputs = new Object[numInputs];
+            outputs = new Object[numOutputs];
+        }
+        try
         {
-            forwardOutput(i, outputs[i]);
+            for (int i=0; i<numInputs; i++)
+            {
+                inputs[i] = obtainInput(i);
+            }
+            fireBeforeProcessing();
+            try
+            {
+                processCore(inputs, outputs);
+            }
+            finally
+            {
+                fireAfterProcessing();
+            }
+            for (int i=0; i<numOutputs; i++)
+            {
+                forwardOutput(i, outputs[i]);
+            }
+        }
+        finally
+        {
+            if (reuseBuffers)
+            {
+                // Clear the buffers, so that they do not keep the
+                // values of the links reachable
+                Arrays.fill(inputs, null);
+                Arrays.fill(outputs, null);
+                buffersInUse.set(false);
+            }
         }
     }
     
@@ -295,7 +569,10 @@ public abstract class AbstractModule implements Module
      * @param outputs A pre-allocated array that will receive the output
      * values. The elements of this array will afterwards be forwarded 
      * to the {@link #getOutputSlots() output slots.} This may be an 
-     * empty array if there are no output slots.
+     * empty array if there are no output slots.<br>
+     * <br>
+     * Implementations should not keep references to the given arrays, 
+     * because they may be reused for subsequent executions.
      */
     protected void processCore(Object inputs[], Object outputs[])
     {
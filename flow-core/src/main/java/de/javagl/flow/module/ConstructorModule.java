@@ -27,10 +27,7 @@
 package de.javagl.flow.module;
 
 import java.lang.reflect.Constructor;
-import java.lang.reflect.Type;
-
-import de.javagl.reflection.Constructors;
-import de.javagl.types.Types;
+import java.util.Arrays;
 
 /**
  * A {@link Module} that wraps a single constructor call.
@@ -38,9 +35,9 @@ import de.javagl.types.Types;
 final class ConstructorModule extends SimpleAbstractModule
 {
     /**
-     * The constructor that is called
+     * The {@link ExecutableInvoker} that calls the constructor
      */
-    private final Constructor<?> constructor;
+    private final ExecutableInvoker invoker;
     
     /**
      * Creates a new constructor calling {@link Module} with
@@ -53,40 +50,18 @@ final class ConstructorModule extends SimpleAbstractModule
     ConstructorModule(ModuleInfo moduleInfo, Constructor<?> constructor)
     {
         super(moduleInfo);
-        this.constructor = constructor;
+        this.invoker = ExecutableInvoker.get(constructor);
     }
 
     @Override
-    protected void process()
+    protected void processCore(Object inputs[], Object outputs[])
     {
-        // Obtain the constructor arguments from the input slots
-        int numArguments = getModuleInfo().getInputSlotInfos().size();
-        Object arguments[] = new Object[numArguments];
-        for (int i=0; i<numArguments; i++)
-        {
-            arguments[i] =  obtainInput(i);
-        }
-        
-        // Invoke the constructor
-        fireBeforeProcessing();
-        Object result = 
-            Constructors.newInstanceNonAccessibleUnchecked(
-                constructor, arguments);
-        fireAfterProcessing();
-        
-        // Forward the instance
-        forwardOutput(0, result);
-
-        // Forward the parameters
-        Type[] parameterTypes = constructor.getGenericParameterTypes();
-        int n = 1;
-        for (int i=0; i<numArguments; i++)
+        Object arguments[] = inputs;
+        int numArguments = invoker.getNumArguments();
+        if (arguments.length != numArguments)
         {
-            if (!Types.isPrimitive(parameterTypes[i]))
-            {
-                forwardOutput(n, arguments[i]);
-                n++;
-            }
+            arguments = Arrays.copyOf(inputs, numArguments);
         }
+        invoker.invoke(arguments, outputs);
     }
 }
\ No newline at end of file
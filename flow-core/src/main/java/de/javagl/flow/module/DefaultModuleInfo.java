@@ -28,8 +28,10 @@ package de.javagl.flow.module;
 
 import java.util.ArrayList;
 import java.util.Collections;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
 
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
@@ -62,6 +64,16 @@ final class DefaultModuleInfo implements ModuleInfo
      */
     private final List<SlotInfo> outputSlotInfos;
     
+    /**
+     * The {@link ExecutionTrait} values of the {@link Module}
+     */
+    private final Set<ExecutionTrait> executionTraits;
+    
+    /**
+     * The expected memory footprint of the {@link Module}, in bytes
+     */
+    private final long expectedMemoryFootprint;
+    
     /**
      * Creates a new module info for a {@link Module} with the
      * name, description and {@link SlotInfo} instances.
@@ -70,12 +82,16 @@ final class DefaultModuleInfo implements ModuleInfo
      * @param description The description
      * @param inputSlotInfos The input {@link SlotInfo} instances
      * @param outputSlotInfos The output {@link SlotInfo} instances
+     * @param executionTraits The {@link ExecutionTrait} values
+     * @param expectedMemoryFootprint The expected memory footprint
      */
     DefaultModuleInfo(
         String name,
         String description,
         List<SlotInfo> inputSlotInfos, 
-        List<SlotInfo> outputSlotInfos)
+        List<SlotInfo> outputSlotInfos,
+        Set<ExecutionTrait> executionTraits,
+        long expectedMemoryFootprint)
     {
         this.name = name;
         this.description = description;
@@ -83,6 +99,10 @@ final class DefaultModuleInfo implements ModuleInfo
             new ArrayList<SlotInfo>(inputSlotInfos));
         this.outputSlotInfos = Collections.unmodifiableList(
             new ArrayList<SlotInfo>(outputSlotInfos));
+        Set<ExecutionTrait> traits = EnumSet.noneOf(ExecutionTrait.class);
+        traits.addAll(executionTraits);
+        this.executionTraits = Collections.unmodifiableSet(traits);
+        this.expectedMemoryFootprint = expectedMemoryFootprint;
     }
     
     @Override
@@ -109,6 +129,24 @@ final class DefaultModuleInfo implements ModuleInfo
         return outputSlotInfos;
     }
     
+    @Override
+    public Set<ExecutionTrait> getExecutionTraits()
+    {
+        return executionTraits;
+    }
+    
+    @Override
+    public boolean isPure()
+    {
+        return executionTraits.contains(ExecutionTrait.PURE);
+    }
+    
+    @Override
+    public long getExpectedMemoryFootprint()
+    {
+        return expectedMemoryFootprint;
+    }
+    
     @Override
     public String toString()
     {
@@ -124,6 +162,9 @@ final class DefaultModuleInfo implements ModuleInfo
         result = prime * result + Objects.hashCode(getDescription());
         result = prime * result + Objects.hashCode(getInputSlotInfos());
         result = prime * result + Objects.hashCode(getOutputSlotInfos());
+        result = prime * result + Objects.hashCode(getExecutionTraits());
+        result = prime * result + 
+            Long.hashCode(getExpectedMemoryFootprint());
         return result;
     }
 
@@ -145,6 +186,11 @@ final class DefaultModuleInfo implements ModuleInfo
             return false;
         if (!Objects.equals(getOutputSlotInfos(), other.getOutputSlotInfos()))
             return false;
+        if (!Objects.equals(getExecutionTraits(), other.getExecutionTraits()))
+            return false;
+        if (getExpectedMemoryFootprint() != 
+            other.getExpectedMemoryFootprint())
+            return false;
         return true;
     }
 
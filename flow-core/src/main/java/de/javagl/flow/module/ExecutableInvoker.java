@@ -0,0 +1,604 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.module;
+
+import java.lang.invoke.CallSite;
+import java.lang.invoke.LambdaMetafactory;
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.logging.Logger;
+
+import de.javagl.reflection.Constructors;
+import de.javagl.reflection.Methods;
+import de.javagl.types.Types;
+
+/**
+ * A class that invokes a method or constructor with the input values of
+ * a {@link Module}. All information that is required for the invocation
+ * is computed once, when the instance is created.<br>
+ * <br>
+ * When possible, the invocation is done with a function that is generated
+ * with the <code>LambdaMetafactory</code>, and that calls the method or 
+ * constructor directly, so that the call may be inlined by the JIT. This 
+ * is possible for methods that are not <code>void</code> and that have 
+ * at most {@value #MAX_FUNCTION_ARGUMENTS} arguments (including the 
+ * instance for non-static methods), and when all involved types are 
+ * public. Otherwise, the invocation is done with a 
+ * <code>MethodHandle</code> that receives all arguments in a single 
+ * array. When such a handle can not be created, for example, due to 
+ * access restrictions, then reflection is used.<br>
+ * <br>
+ * Instances of this class are immutable, and are shared between all 
+ * modules that invoke the same method or constructor. They are cached 
+ * in a <code>ClassValue</code> of the declaring class, so that the cache
+ * does not prevent the class from being unloaded.
+ */
+final class ExecutableInvoker
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(ExecutableInvoker.class.getName());
+
+    /**
+     * The maximum number of arguments for which a function is generated
+     */
+    private static final int MAX_FUNCTION_ARGUMENTS = 6;
+
+    /**
+     * The functional interfaces for the generated functions, indexed by
+     * the number of arguments
+     */
+    private static final Class<?> FUNCTION_TYPES[] =
+    {
+        Function0.class, Function1.class, Function2.class, Function3.class,
+        Function4.class, Function5.class, Function6.class
+    };
+
+    /**
+     * The invokers for the methods and constructors of each class
+     */
+    private static final ClassValue<Map<Executable, ExecutableInvoker>> 
+        INVOKERS = new ClassValue<Map<Executable, ExecutableInvoker>>()
+    {
+        @Override
+        protected Map<Executable, ExecutableInvoker> computeValue(
+            Class<?> type)
+        {
+            return new ConcurrentHashMap<Executable, ExecutableInvoker>();
+        }
+    };
+
+    /**
+     * The method that is invoked, or <code>null</code> if this
+     * invoker is for a constructor
+     */
+    private final Method method;
+
+    /**
+     * The constructor that is invoked, or <code>null</code> if this
+     * invoker is for a method
+     */
+    private final Constructor<?> constructor;
+
+    /**
+     * The generated function, implementing the functional interface 
+     * from the {@link #FUNCTION_TYPES} that corresponds to the number
+     * of arguments. This is <code>null</code> if no function could be 
+     * generated.
+     */
+    private final Object function;
+
+    /**
+     * The handle that receives all arguments as an array and returns
+     * an object. This is <code>null</code> if a {@link #function} was 
+     * generated, or if the handle could not be created.
+     */
+    private final MethodHandle methodHandle;
+
+    /**
+     * Whether the first argument is the instance that the method is
+     * invoked on
+     */
+    private final boolean hasInstance;
+
+    /**
+     * Whether the invocation has a result. This is <code>false</code>
+     * only for <code>void</code> methods.
+     */
+    private final boolean hasResult;
+
+    /**
+     * The total number of arguments, including the instance
+     */
+    private final int numArguments;
+
+    /**
+     * For each argument (including the instance), whether it is
+     * forwarded to an output after the invocation
+     */
+    private final boolean forwardedArguments[];
+
+    /**
+     * Returns the invoker for the given method, creating it if necessary
+     *
+     * @param method The method
+     * @return The invoker
+     */
+    static ExecutableInvoker get(Method method)
+    {
+        return INVOKERS.get(method.getDeclaringClass()).computeIfAbsent(
+            method, m -> create(method));
+    }
+
+    /**
+     * Returns the invoker for the given constructor, creating it if 
+     * necessary
+     *
+     * @param constructor The constructor
+     * @return The invoker
+     */
+    static ExecutableInvoker get(Constructor<?> constructor)
+    {
+        return INVOKERS.get(constructor.getDeclaringClass()).computeIfAbsent(
+            constructor, c -> create(constructor));
+    }
+
+    /**
+     * Creates an invoker for the given method
+     *
+     * @param method The method
+     * @return The invoker
+     */
+    private static ExecutableInvoker create(Method method)
+    {
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        boolean hasResult = !Types.isVoid(method.getGenericReturnType());
+        MethodHandle methodHandle = null;
+        try
+        {
+            methodHandle = MethodHandles.lookup().unreflect(method);
+        }
+        catch (IllegalAccessException e)
+        {
+            logger.fine("Could not create method handle for " + method
+                + ", using reflection: " + e);
+        }
+        return new ExecutableInvoker(method, null,
+            methodHandle, !isStatic, hasResult);
+    }
+
+    /**
+     * Creates an invoker for the given constructor
+     *
+     * @param constructor The constructor
+     * @return The invoker
+     */
+    private static ExecutableInvoker create(Constructor<?> constructor)
+    {
+        MethodHandle methodHandle = null;
+        try
+        {
+            constructor.setAccessible(true);
+            methodHandle =
+                MethodHandles.lookup().unreflectConstructor(constructor);
+        }
+        catch (IllegalAccessException | RuntimeException e)
+        {
+            logger.fine("Could not create method handle for " + constructor
+                + ", using reflection: " + e);
+        }
+        return new ExecutableInvoker(null, constructor,
+            methodHandle, false, true);
+    }
+
+    /**
+     * Creates a new instance
+     *
+     * @param method The method
+     * @param constructor The constructor
+     * @param methodHandle The direct method handle, or <code>null</code>
+     * @param hasInstance Whether the first argument is the instance
+     * @param hasResult Whether the invocation has a result
+     */
+    private ExecutableInvoker(Method method, Constructor<?> constructor,
+        MethodHandle methodHandle, boolean hasInstance, boolean hasResult)
+    {
+        this.method = method;
+        this.constructor = constructor;
+        this.hasInstance = hasInstance;
+        this.hasResult = hasResult;
+
+        Executable executable = method != null ? method : constructor;
+        Type parameterTypes[] = executable.getGenericParameterTypes();
+        int offset = hasInstance ? 1 : 0;
+        this.numArguments = parameterTypes.length + offset;
+        this.forwardedArguments = new boolean[numArguments];
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            forwardedArguments[i + offset] =
+                !Types.isPrimitive(parameterTypes[i]);
+        }
+        if (methodHandle == null)
+        {
+            this.function = null;
+            this.methodHandle = null;
+        }
+        else
+        {
+            this.function = createFunction(executable, methodHandle);
+            if (function == null)
+            {
+                this.methodHandle = methodHandle.asFixedArity()
+                    .asType(MethodType.genericMethodType(numArguments))
+                    .asSpreader(Object[].class, numArguments);
+            }
+            else
+            {
+                this.methodHandle = null;
+            }
+        }
+    }
+
+    /**
+     * Try to create a function that calls the given method handle, 
+     * using the <code>LambdaMetafactory</code>. If this is not possible,
+     * then <code>null</code> is returned.
+     * 
+     * @param executable The method or constructor
+     * @param methodHandle The direct method handle 
+     * @return The function, or <code>null</code>
+     */
+    private Object createFunction(
+        Executable executable, MethodHandle methodHandle)
+    {
+        if (!hasResult || numArguments > MAX_FUNCTION_ARGUMENTS)
+        {
+            return null;
+        }
+        if (!isPublic(executable.getDeclaringClass()))
+        {
+            return null;
+        }
+        for (Class<?> parameterType : executable.getParameterTypes())
+        {
+            if (!isPublic(parameterType))
+            {
+                return null;
+            }
+        }
+        Class<?> functionType = FUNCTION_TYPES[numArguments];
+        MethodType erasedType = MethodType.genericMethodType(numArguments);
+        MethodType instantiatedType = methodHandle.type().wrap();
+        try
+        {
+            CallSite callSite = LambdaMetafactory.metafactory(
+                MethodHandles.lookup(), "apply", 
+                MethodType.methodType(functionType), 
+                erasedType, methodHandle, instantiatedType);
+            return callSite.getTarget().invoke();
+        }
+        catch (Throwable t)
+        {
+            logger.fine("Could not create function for " + executable
+                + ", using method handle: " + t);
+            return null;
+        }
+    }
+
+    /**
+     * Returns whether the given class, and all classes that it is 
+     * nested in, are public. For arrays, this refers to the
+     * component type.
+     * 
+     * @param c The class
+     * @return Whether the class is public
+     */
+    private static boolean isPublic(Class<?> c)
+    {
+        Class<?> current = c;
+        while (current.isArray())
+        {
+            current = current.getComponentType();
+        }
+        while (current != null)
+        {
+            if (!current.isPrimitive() && 
+                !Modifier.isPublic(current.getModifiers()))
+            {
+                return false;
+            }
+            current = current.getEnclosingClass();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the total number of arguments, including the instance
+     * for non-static methods
+     *
+     * @return The number of arguments
+     */
+    int getNumArguments()
+    {
+        return numArguments;
+    }
+
+    /**
+     * Invoke the method or constructor with the given arguments, and
+     * write the results into the given array: For non-static methods,
+     * this is the instance. Then follows the return value, if the
+     * method is not <code>void</code>, or the new instance for a
+     * constructor. Then follow all arguments that do not have a
+     * primitive type.
+     *
+     * @param arguments The arguments, which must have a length that
+     * is equal to the {@link #getNumArguments() number of arguments}
+     * @param outputs The array that receives the outputs
+     * @throws RuntimeException If the invocation caused an exception
+     */
+    void invoke(Object arguments[], Object outputs[])
+    {
+        Object result = invoke(arguments);
+        int n = 0;
+        if (hasInstance)
+        {
+            outputs[n] = arguments[0];
+            n++;
+        }
+        if (hasResult)
+        {
+            outputs[n] = result;
+            n++;
+        }
+        for (int i = hasInstance ? 1 : 0; i < numArguments; i++)
+        {
+            if (forwardedArguments[i])
+            {
+                outputs[n] = arguments[i];
+                n++;
+            }
+        }
+    }
+
+    /**
+     * Invoke the method or constructor with the given arguments
+     *
+     * @param arguments The arguments
+     * @return The result
+     * @throws RuntimeException If the invocation caused an exception
+     */
+    private Object invoke(Object arguments[])
+    {
+        try
+        {
+            if (function != null)
+            {
+                return invokeFunction(arguments);
+            }
+            if (methodHandle != null)
+            {
+                return (Object) methodHandle.invokeExact(arguments);
+            }
+        }
+        catch (RuntimeException | Error e)
+        {
+            throw e;
+        }
+        catch (Throwable t)
+        {
+            throw new RuntimeException(t);
+        }
+        return invokeReflectively(arguments);
+    }
+
+    /**
+     * Invoke the {@link #function} with the given arguments
+     *
+     * @param a The arguments
+     * @return The result
+     */
+    private Object invokeFunction(Object a[])
+    {
+        switch (numArguments)
+        {
+            case 0:
+                return ((Function0) function).apply();
+            case 1:
+                return ((Function1) function).apply(a[0]);
+            case 2:
+                return ((Function2) function).apply(a[0], a[1]);
+            case 3:
+                return ((Function3) function).apply(a[0], a[1], a[2]);
+            case 4:
+                return ((Function4) function).apply(a[0], a[1], a[2], a[3]);
+            case 5:
+                return ((Function5) function).apply(
+                    a[0], a[1], a[2], a[3], a[4]);
+            case 6:
+                return ((Function6) function).apply(
+                    a[0], a[1], a[2], a[3], a[4], a[5]);
+            default:
+                throw new IllegalStateException(
+                    "Invalid number of arguments: " + numArguments);
+        }
+    }
+
+    /**
+     * Invoke the method or constructor with the given arguments,
+     * using reflection
+     *
+     * @param arguments The arguments
+     * @return The result
+     */
+    private Object invokeReflectively(Object arguments[])
+    {
+        if (constructor != null)
+        {
+            return Constructors.newInstanceNonAccessibleUnchecked(
+                constructor, arguments);
+        }
+        if (hasInstance)
+        {
+            return Methods.invokeUnchecked(method, arguments[0],
+                Arrays.copyOfRange(arguments, 1, arguments.length));
+        }
+        return Methods.invokeUnchecked(method, null, arguments);
+    }
+
+    /**
+     * A function without arguments
+     */
+    interface Function0
+    {
+        /**
+         * Apply this function
+         * 
+         * @return The result
+         */
+        Object apply();
+    }
+
+    /**
+     * A function with 1 argument
+     */
+    interface Function1
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @return The result
+         */
+        Object apply(Object a0);
+    }
+
+    /**
+     * A function with 2 arguments
+     */
+    interface Function2
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @param a1 Argument 1
+         * @return The result
+         */
+        Object apply(Object a0, Object a1);
+    }
+
+    /**
+     * A function with 3 arguments
+     */
+    interface Function3
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @param a1 Argument 1
+         * @param a2 Argument 2
+         * @return The result
+         */
+        Object apply(Object a0, Object a1, Object a2);
+    }
+
+    /**
+     * A function with 4 arguments
+     */
+    interface Function4
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @param a1 Argument 1
+         * @param a2 Argument 2
+         * @param a3 Argument 3
+         * @return The result
+         */
+        Object apply(Object a0, Object a1, Object a2, Object a3);
+    }
+
+    /**
+     * A function with 5 arguments
+     */
+    interface Function5
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @param a1 Argument 1
+         * @param a2 Argument 2
+         * @param a3 Argument 3
+         * @param a4 Argument 4
+         * @return The result
+         */
+        Object apply(Object a0, Object a1, Object a2, Object a3, Object a4);
+    }
+
+    /**
+     * A function with 6 arguments
+     */
+    interface Function6
+    {
+        /**
+         * Apply this function
+         * 
+         * @param a0 Argument 0
+         * @param a1 Argument 1
+         * @param a2 Argument 2
+         * @param a3 Argument 3
+         * @param a4 Argument 4
+         * @param a5 Argument 5
+         * @return The result
+         */
+        Object apply(
+            Object a0, Object a1, Object a2, Object a3, Object a4, Object a5);
+    }
+
+    @Override
+    public String toString()
+    {
+        Executable executable = method != null ? method : constructor;
+        return "ExecutableInvoker[" + executable + ","
+            + "function=" + (function != null) + ","
+            + "methodHandle=" + (methodHandle != null) + "]";
+    }
+}
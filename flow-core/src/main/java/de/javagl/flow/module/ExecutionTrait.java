@@ -0,0 +1,79 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.module;
+
+/**
+ * An enumeration of traits that describe how a {@link Module} behaves
+ * when it is executed. These traits may be declared in the 
+ * {@link ModuleInfo}, and allow executors, schedulers or caches to 
+ * decide whether a module may be re-executed, executed concurrently,
+ * memoized or reordered.
+ */
+public enum ExecutionTrait
+{
+    /**
+     * The outputs of the module only depend on its inputs and its 
+     * configuration, and its execution has no observable side effects.
+     * The execution may be skipped when its outputs are not needed, or
+     * shared between equivalent modules, and its results may be memoized.
+     */
+    PURE,
+    
+    /**
+     * The module may be executed concurrently with itself, for example,
+     * to process several batches of inputs in parallel. 
+     */
+    THREAD_SAFE,
+    
+    /**
+     * Executing the module multiple times with the same inputs has the
+     * same effect as executing it once. The execution may safely be
+     * repeated, for example, after a failure or a cancellation.
+     */
+    IDEMPOTENT,
+    
+    /**
+     * The module spends most of its execution time waiting for blocking
+     * input or output operations, like reading files or network access.
+     * Such modules may be executed in a thread pool that is larger than
+     * the number of processors.
+     */
+    BLOCKING_IO,
+    
+    /**
+     * The module performs computationally expensive operations. Such 
+     * modules should be executed in a thread pool that is not larger 
+     * than the number of processors.
+     */
+    CPU_HEAVY,
+    
+    /**
+     * The module must be executed on the Swing Event Dispatch Thread, 
+     * for example, because it modifies user interface components. 
+     */
+    EVENT_DISPATCH_THREAD
+}
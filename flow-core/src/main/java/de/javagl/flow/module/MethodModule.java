@@ -27,11 +27,7 @@
 package de.javagl.flow.module;
 
 import java.lang.reflect.Method;
-import java.lang.reflect.Modifier;
-import java.lang.reflect.Type;
-
-import de.javagl.reflection.Methods;
-import de.javagl.types.Types;
+import java.util.Arrays;
 
 /**
  * A {@link Module} that wraps a single method call.
@@ -39,9 +35,9 @@ import de.javagl.types.Types;
 final class MethodModule extends SimpleAbstractModule
 {
     /**
-     * The method that is called
+     * The {@link ExecutableInvoker} that calls the method
      */
-    private final Method method;
+    private final ExecutableInvoker invoker;
     
     /**
      * Creates a new method calling {@link Module} with
@@ -54,66 +50,18 @@ final class MethodModule extends SimpleAbstractModule
     MethodModule(ModuleInfo moduleInfo, Method method)
     {
         super(moduleInfo);
-        this.method = method;
+        this.invoker = ExecutableInvoker.get(method);
     }
 
     @Override
-    protected void process()
+    protected void processCore(Object inputs[], Object outputs[])
     {
-        // When the method is an instance method, obtain the
-        // instance from the first input slot
-        int inputOffset = 0;
-        Object instance = null;
-        boolean isStatic = Modifier.isStatic(method.getModifiers());
-        if (!isStatic)
-        {
-            instance = obtainInput(0);
-            inputOffset++;
-        }
-        
-        // Obtain the method arguments from the remaining input slots
-        Type[] parameterTypes = method.getGenericParameterTypes();
-        int numArguments = parameterTypes.length;
-        Object arguments[] = new Object[numArguments];
-        for (int i = 0; i < numArguments; i++)
-        {
-            arguments[i] = obtainInput(i + inputOffset);
-        }
-        
-        // Invoke the method
-        fireBeforeProcessing();
-        Object result = null;
-        try
-        {
-            result = Methods.invokeUnchecked(
-                method, instance, arguments);
-        }
-        finally
-        {
-            fireAfterProcessing();
-        }
-        
-        // Forward the instance and return value, and the non-primitive
-        // method arguments
-        int n = 0;
-        if (!isStatic)
-        {
-            forwardOutput(n, instance);
-            n++;
-        }
-        Type returnType = method.getGenericReturnType();
-        if (!Types.isVoid(returnType))
-        {
-            forwardOutput(n, result);
-            n++;
-        }
-        for (int i = 0; i < numArguments; i++)
+        Object arguments[] = inputs;
+        int numArguments = invoker.getNumArguments();
+        if (arguments.length != numArguments)
         {
-            if (!Types.isPrimitive(parameterTypes[i]))
-            {
-                forwardOutput(n, arguments[i]);
-                n++;
-            }
+            arguments = Arrays.copyOf(inputs, numArguments);
         }
+        invoker.invoke(arguments, outputs);
     }
 }
\ No newline at end of file
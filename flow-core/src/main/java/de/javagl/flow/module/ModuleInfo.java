@@ -26,7 +26,9 @@
  */
 package de.javagl.flow.module;
 
+import java.util.Collections;
 import java.util.List;
+import java.util.Set;
 
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
@@ -71,5 +73,54 @@ public interface ModuleInfo
      * @return The output {@link SlotInfo} objects
      */
     List<SlotInfo> getOutputSlotInfos();
+    
+    /**
+     * Returns an unmodifiable set containing the {@link ExecutionTrait}
+     * values that describe how the {@link Module} behaves when it is 
+     * executed.<br>
+     * <br>
+     * The default implementation returns an empty set.
+     * 
+     * @return The {@link ExecutionTrait} values
+     */
+    default Set<ExecutionTrait> getExecutionTraits()
+    {
+        return Collections.emptySet();
+    }
+    
+    /**
+     * Returns whether the {@link Module} is pure. This means that the 
+     * values that it forwards to its {@link OutputSlot} objects only 
+     * depend on the values that it receives in its {@link InputSlot}
+     * objects and on its configuration, and that its execution has no 
+     * observable side effects. Optimizations may execute only one of
+     * several equivalent pure modules, and share its results.<br>
+     * <br>
+     * This is equivalent to checking whether the 
+     * {@link #getExecutionTraits() execution traits} contain 
+     * {@link ExecutionTrait#PURE}, which is what the default 
+     * implementation does.
+     * 
+     * @return Whether the {@link Module} is pure
+     */
+    default boolean isPure()
+    {
+        return getExecutionTraits().contains(ExecutionTrait.PURE);
+    }
+    
+    /**
+     * Returns the expected amount of memory that one execution of the
+     * {@link Module} requires, in bytes, or a negative value if this is
+     * not known. Schedulers may use this value in order to limit the 
+     * number of modules that are executed concurrently.<br>
+     * <br>
+     * The default implementation returns -1.
+     * 
+     * @return The expected memory footprint
+     */
+    default long getExpectedMemoryFootprint()
+    {
+        return -1;
+    }
 
 }
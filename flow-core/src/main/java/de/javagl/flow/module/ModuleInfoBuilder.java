@@ -28,8 +28,12 @@ package de.javagl.flow.module;
 
 import java.lang.reflect.Type;
 import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumSet;
 import java.util.List;
 import java.util.Objects;
+import java.util.Set;
+import java.util.function.UnaryOperator;
 
 import de.javagl.flow.module.slot.SlotInfo;
 import de.javagl.flow.module.slot.SlotInfos;
@@ -59,6 +63,16 @@ public final class ModuleInfoBuilder
      */
     private final List<SlotInfo> outputSlotInfos;
     
+    /**
+     * The {@link ExecutionTrait} values
+     */
+    private final Set<ExecutionTrait> executionTraits;
+    
+    /**
+     * The expected memory footprint, in bytes
+     */
+    private long expectedMemoryFootprint;
+    
     /**
      * Create a builder for a {@link ModuleInfo} about a
      * {@link Module} with the given name and description.
@@ -73,6 +87,8 @@ public final class ModuleInfoBuilder
             description, "The description may not be null");
         this.inputSlotInfos = new ArrayList<SlotInfo>();
         this.outputSlotInfos = new ArrayList<SlotInfo>();
+        this.executionTraits = EnumSet.noneOf(ExecutionTrait.class);
+        this.expectedMemoryFootprint = -1L;
     }
 
     /**
@@ -92,6 +108,54 @@ public final class ModuleInfoBuilder
         return this;
     }
 
+    /**
+     * Add the specified input {@link SlotInfo} to the {@link ModuleInfo}
+     * that is currently being built, which is 
+     * {@link SlotInfo#isMutating() mutating}. When the objects that are 
+     * received through this slot are shared with other modules, then 
+     * copies of them will be created with the 
+     * {@link SlotInfos#createCloningCopyFunction() cloning copy function}.
+     * 
+     * @param type The type of the slot to add.
+     * @param name The name of the slot to add.
+     * @param description The description for the slot.
+     * @return This builder
+     */
+    public ModuleInfoBuilder addMutatingInput(Type type, 
+        String name, String description)
+    {
+        inputSlotInfos.add(SlotInfos.createMutating(type, name, description,
+            SlotInfos.createCloningCopyFunction()));
+        return this;
+    }
+    
+    /**
+     * Add the specified input {@link SlotInfo} to the {@link ModuleInfo}
+     * that is currently being built, which is 
+     * {@link SlotInfo#isMutating() mutating}. When the objects that are 
+     * received through this slot are shared with other modules, then 
+     * copies of them will be created with the given function.
+     * 
+     * @param <T> The type of the objects
+     * @param type The type of the slot to add.
+     * @param name The name of the slot to add.
+     * @param description The description for the slot.
+     * @param copyFunction The function that creates a copy of an object
+     * @return This builder
+     * @throws NullPointerException If the copy function is 
+     * <code>null</code>
+     */
+    public <T> ModuleInfoBuilder addMutatingInput(Class<T> type, 
+        String name, String description, 
+        UnaryOperator<T> copyFunction)
+    {
+        Objects.requireNonNull(copyFunction, 
+            "The copyFunction may not be null");
+        inputSlotInfos.add(SlotInfos.createMutating(type, name, description,
+            object -> copyFunction.apply(type.cast(object))));
+        return this;
+    }
+
     /**
      * Add the specified output {@link SlotInfo} to the {@link ModuleInfo}
      * that is currently being built.
@@ -109,6 +173,77 @@ public final class ModuleInfoBuilder
         return this;
     }
     
+    /**
+     * Add the specified output {@link SlotInfo} to the {@link ModuleInfo}
+     * that is currently being built, which is 
+     * {@link SlotInfo#isForwarding() forwarding}. This should be used 
+     * for outputs that may receive objects that the module obtained
+     * from one of its inputs.
+     * 
+     * @param type The type of the slot to add.
+     * @param name The name of the slot to add.
+     * @param description The description for the slot.
+     * @return This builder
+     */
+    public ModuleInfoBuilder addForwardingOutput(Type type, 
+        String name, String description)
+    {
+        outputSlotInfos.add(
+            SlotInfos.createForwarding(type, name, description));
+        return this;
+    }
+    
+    /**
+     * Set whether the {@link ModuleInfo} that is currently being built
+     * describes a {@link ModuleInfo#isPure() pure} {@link Module}.
+     * The default is <code>false</code>.
+     * 
+     * @param pure Whether the {@link Module} is pure
+     * @return This builder
+     */
+    public ModuleInfoBuilder setPure(boolean pure)
+    {
+        if (pure)
+        {
+            executionTraits.add(ExecutionTrait.PURE);
+        }
+        else
+        {
+            executionTraits.remove(ExecutionTrait.PURE);
+        }
+        return this;
+    }
+    
+    /**
+     * Add the given {@link ExecutionTrait} values to the 
+     * {@link ModuleInfo} that is currently being built.
+     * 
+     * @param executionTraits The {@link ExecutionTrait} values
+     * @return This builder
+     */
+    public ModuleInfoBuilder addExecutionTraits(
+        ExecutionTrait ... executionTraits)
+    {
+        this.executionTraits.addAll(Arrays.asList(executionTraits));
+        return this;
+    }
+    
+    /**
+     * Set the {@link ModuleInfo#getExpectedMemoryFootprint() expected
+     * memory footprint} of the {@link ModuleInfo} that is currently 
+     * being built. The default is -1, meaning that it is not known.
+     * 
+     * @param expectedMemoryFootprint The expected memory footprint, 
+     * in bytes
+     * @return This builder
+     */
+    public ModuleInfoBuilder setExpectedMemoryFootprint(
+        long expectedMemoryFootprint)
+    {
+        this.expectedMemoryFootprint = expectedMemoryFootprint;
+        return this;
+    }
+    
     /**
      * Build the {@link ModuleInfo} that has been described so far.
      * 
@@ -119,7 +254,9 @@ public final class ModuleInfoBuilder
         return new DefaultModuleInfo(
             name, description, 
             inputSlotInfos, 
-            outputSlotInfos);
+            outputSlotInfos,
+            executionTraits,
+            expectedMemoryFootprint);
     }
     
     
@@ -27,9 +27,14 @@
 package de.javagl.flow.module;
 
 import java.lang.reflect.Constructor;
+import java.lang.reflect.Executable;
 import java.lang.reflect.Method;
 import java.lang.reflect.Modifier;
+import java.lang.reflect.Parameter;
 import java.lang.reflect.Type;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.Set;
 
 import de.javagl.flow.module.slot.SlotInfo;
 import de.javagl.reflection.Methods;
@@ -103,7 +108,9 @@ public class ModuleInfos
      * Create a {@link ModuleInfo} with the given name and description,
      * for a function that receives a single input and produces
      * a single output. The input and output will receive unspecified, 
-     * generic names and descriptions.
+     * generic names and descriptions. If the function may return its
+     * argument, based on the given types, then the output will be
+     * {@link SlotInfo#isForwarding() forwarding}.
      * 
      * @param <S> The argument type
      * @param <T> The result type
@@ -118,11 +125,56 @@ public class ModuleInfos
         String name, String description, 
         Class<S> argumentType, Class<T> resultType)
     {
-        ModuleInfo moduleInfo = ModuleInfos.create(name, description)
-            .addInput(argumentType, "Input", "The function argument")
-            .addOutput(resultType, "Output", "The function result")
-            .build();
-        return moduleInfo;
+        ModuleInfoBuilder b = ModuleInfos.create(name, description)
+            .addInput(argumentType, "Input", "The function argument");
+        if (mayForward(resultType, argumentType))
+        {
+            b.addForwardingOutput(resultType, "Output", 
+                "The function result");
+        }
+        else
+        {
+            b.addOutput(resultType, "Output", "The function result");
+        }
+        return b.build();
+    }
+    
+    /**
+     * Create a {@link ModuleInfo} that is equal to the given one, except
+     * for being {@link ModuleInfo#isPure() pure}. This may be used to 
+     * declare that a module that was created, for example, with 
+     * {@link Modules#createForMethod(ModuleInfo, Method)}, does not
+     * have any side effects.
+     * 
+     * @param moduleInfo The {@link ModuleInfo}
+     * @return The pure {@link ModuleInfo}
+     */
+    public static ModuleInfo createPure(ModuleInfo moduleInfo)
+    {
+        return createWithExecutionTraits(moduleInfo, ExecutionTrait.PURE);
+    }
+    
+    /**
+     * Create a {@link ModuleInfo} that is equal to the given one, except
+     * for additionally having the given {@link ExecutionTrait} values.
+     * 
+     * @param moduleInfo The {@link ModuleInfo}
+     * @param executionTraits The additional {@link ExecutionTrait} values
+     * @return The new {@link ModuleInfo}
+     */
+    public static ModuleInfo createWithExecutionTraits(
+        ModuleInfo moduleInfo, ExecutionTrait ... executionTraits)
+    {
+        Set<ExecutionTrait> traits = EnumSet.noneOf(ExecutionTrait.class);
+        traits.addAll(moduleInfo.getExecutionTraits());
+        traits.addAll(Arrays.asList(executionTraits));
+        return new DefaultModuleInfo(
+            moduleInfo.getName(), 
+            moduleInfo.getDescription(), 
+            moduleInfo.getInputSlotInfos(), 
+            moduleInfo.getOutputSlotInfos(), 
+            traits,
+            moduleInfo.getExpectedMemoryFootprint());
     }
     
     /**
@@ -186,12 +238,21 @@ public class ModuleInfos
         
         // The instance that the method is called on is input as well as output
         Class<?> c = method.getDeclaringClass();
+        ModuleTraits moduleTraits = method.getAnnotation(ModuleTraits.class);
         if (!isStatic)
         {
             Type instanceType = Types.asParameterizedType(c);
-            b.addInput(instanceType, "Instance", 
-                "The instance to call the method on");
-            b.addOutput(instanceType, "Instance", 
+            if (moduleTraits != null && moduleTraits.mutatesInstance())
+            {
+                b.addMutatingInput(instanceType, "Instance", 
+                    "The instance to call the method on");
+            }
+            else
+            {
+                b.addInput(instanceType, "Instance", 
+                    "The instance to call the method on");
+            }
+            b.addForwardingOutput(instanceType, "Instance", 
                 "The instance that the method was called on");
         }
 
@@ -207,8 +268,16 @@ public class ModuleInfos
                 t = PrimitiveTypes.getBoxedType(parameterType);
             }
             String nth = createShortOrdinalNumberString(n);
-            b.addInput(t, nth + " argument", 
-                "The " + nth + " method argument");
+            if (isMutating(method, n - 1, parameterTypes.length))
+            {
+                b.addMutatingInput(t, nth + " argument", 
+                    "The " + nth + " method argument");
+            }
+            else
+            {
+                b.addInput(t, nth + " argument", 
+                    "The " + nth + " method argument");
+            }
             n++;
         }
         
@@ -222,7 +291,21 @@ public class ModuleInfos
                 // TODO Always boxing here - is this OK? 
                 t = PrimitiveTypes.getBoxedType(returnType);
             }
-            b.addOutput(t, "Result", "The result of the method call");
+            Class<?> inputTypes[] = method.getParameterTypes();
+            if (!isStatic)
+            {
+                inputTypes = Arrays.copyOf(inputTypes, inputTypes.length + 1);
+                inputTypes[inputTypes.length - 1] = c;
+            }
+            if (mayForward(method.getReturnType(), inputTypes))
+            {
+                b.addForwardingOutput(t, "Result", 
+                    "The result of the method call");
+            }
+            else
+            {
+                b.addOutput(t, "Result", "The result of the method call");
+            }
         }
         
         // Add the (non-primitive) parameters as outputs, to be available 
@@ -234,15 +317,88 @@ public class ModuleInfos
             if (!Types.isPrimitive(parameterType))
             {
                 String nth = createShortOrdinalNumberString(n);
-                b.addOutput(parameterType, nth + " argument",
+                b.addForwardingOutput(parameterType, nth + " argument",
                     "The " + nth + " method argument after the call");
             }
             n++;
         }
         
+        applyModuleTraits(b, moduleTraits);
         return b.build();
     }
 
+    /**
+     * Returns whether an object with the given result type may be one 
+     * of the objects with the given input types. This is the case when
+     * the result type is not primitive, and one of the input types is 
+     * a subtype or a supertype of the result type.
+     * 
+     * @param resultType The result type
+     * @param inputTypes The input types
+     * @return Whether the result may be one of the inputs
+     */
+    private static boolean mayForward(
+        Class<?> resultType, Class<?> ... inputTypes)
+    {
+        if (resultType.isPrimitive())
+        {
+            return false;
+        }
+        for (Class<?> inputType : inputTypes)
+        {
+            if (resultType.isAssignableFrom(inputType) || 
+                inputType.isAssignableFrom(resultType))
+            {
+                return true;
+            }
+        }
+        return false;
+    }
+    
+    /**
+     * Returns whether the parameter with the given index of the given 
+     * method or constructor is annotated as {@link Mutating}, and does
+     * not have a primitive type
+     * 
+     * @param executable The method or constructor
+     * @param index The index of the parameter
+     * @param parameterCount The number of generic parameter types. If 
+     * this differs from the number of parameters, for example, due to 
+     * synthetic parameters of constructors of inner classes, then 
+     * <code>false</code> is returned.
+     * @return Whether the parameter is mutating
+     */
+    private static boolean isMutating(
+        Executable executable, int index, int parameterCount)
+    {
+        Parameter[] parameters = executable.getParameters();
+        if (parameters.length != parameterCount)
+        {
+            return false;
+        }
+        Parameter parameter = parameters[index];
+        return parameter.isAnnotationPresent(Mutating.class)
+            && !parameter.getType().isPrimitive();
+    }
+    
+    /**
+     * Apply the information from the given {@link ModuleTraits} to the
+     * given {@link ModuleInfoBuilder}
+     * 
+     * @param b The {@link ModuleInfoBuilder}
+     * @param moduleTraits The {@link ModuleTraits}. If this is 
+     * <code>null</code>, then nothing is done.
+     */
+    private static void applyModuleTraits(
+        ModuleInfoBuilder b, ModuleTraits moduleTraits)
+    {
+        if (moduleTraits != null)
+        {
+            b.addExecutionTraits(moduleTraits.value());
+            b.setExpectedMemoryFootprint(moduleTraits.memoryFootprint());
+        }
+    }
+
     /**
      * Creates a short string representation for the given method,
      * mainly consisting of the (unqualified) name of the declaring
@@ -297,8 +453,16 @@ public class ModuleInfos
                 t = PrimitiveTypes.getBoxedType(parameterType);
             }
             String nth = createShortOrdinalNumberString(n);
-            b.addInput(t, nth + " argument",
-                "The " + nth + " constructor argument");
+            if (isMutating(constructor, n - 1, parameterTypes.length))
+            {
+                b.addMutatingInput(t, nth + " argument",
+                    "The " + nth + " constructor argument");
+            }
+            else
+            {
+                b.addInput(t, nth + " argument",
+                    "The " + nth + " constructor argument");
+            }
             n++;
         }
         
@@ -317,12 +481,14 @@ public class ModuleInfos
             if (!Types.isPrimitive(parameterType))
             {
                 String nth = createShortOrdinalNumberString(n);
-                b.addOutput(parameterType, nth + " argument",
+                b.addForwardingOutput(parameterType, nth + " argument",
                     "The " + nth + " constructor argument after the call");
             }
             n++;
         }
         
+        applyModuleTraits(b, 
+            constructor.getAnnotation(ModuleTraits.class));
         return b.build();
     }
     
@@ -407,6 +573,10 @@ public class ModuleInfos
         sb.append("Name                : " + moduleInfo.getName() + "\n");
         sb.append(
             "Description         : " + moduleInfo.getDescription() + "\n");
+        sb.append("Execution traits    : " 
+            + moduleInfo.getExecutionTraits() + "\n");
+        sb.append("Memory footprint    : " 
+            + moduleInfo.getExpectedMemoryFootprint() + "\n");
         
         if (!moduleInfo.getInputSlotInfos().isEmpty())
         {
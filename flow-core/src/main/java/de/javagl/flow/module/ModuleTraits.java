@@ -0,0 +1,78 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.module;
+
+import java.lang.annotation.Documented;
+import java.lang.annotation.ElementType;
+import java.lang.annotation.Retention;
+import java.lang.annotation.RetentionPolicy;
+import java.lang.annotation.Target;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Method;
+
+/**
+ * An annotation that may be attached to methods and constructors in order
+ * to declare the {@link ExecutionTrait} values and the expected memory
+ * footprint of the {@link Module} that calls them. It is evaluated by 
+ * {@link ModuleInfos#createForMethod(Method, String)} and 
+ * {@link ModuleInfos#createForConstructor(Constructor)}. Example:
+ * <pre><code>
+ * &#64;ModuleTraits({ExecutionTrait.PURE, ExecutionTrait.THREAD_SAFE})
+ * public static double add(double a, double b) { ... }
+ * </code></pre>
+ */
+@Documented
+@Retention(RetentionPolicy.RUNTIME)
+@Target({ElementType.METHOD, ElementType.CONSTRUCTOR})
+public @interface ModuleTraits
+{
+    /**
+     * The {@link ExecutionTrait} values
+     * 
+     * @return The {@link ExecutionTrait} values
+     */
+    ExecutionTrait[] value() default {};
+    
+    /**
+     * The expected memory footprint of one execution, in bytes, or a
+     * negative value if it is not known. See 
+     * {@link ModuleInfo#getExpectedMemoryFootprint()}.
+     * 
+     * @return The expected memory footprint
+     */
+    long memoryFootprint() default -1L;
+    
+    /**
+     * Whether the method modifies the instance that it is called on. If 
+     * this is <code>true</code>, then the input slot for the instance 
+     * will be {@link de.javagl.flow.module.slot.SlotInfo#isMutating() 
+     * mutating}. This is ignored for static methods and constructors.
+     * 
+     * @return Whether the method modifies the instance
+     */
+    boolean mutatesInstance() default false;
+}
@@ -26,12 +26,14 @@
  */
 package de.javagl.flow.module;
 
+import java.util.ArrayDeque;
 import java.util.Arrays;
-import java.util.Collection;
 import java.util.Collections;
+import java.util.Deque;
 import java.util.LinkedHashSet;
 import java.util.Set;
 
+import de.javagl.flow.Flow;
 import de.javagl.flow.link.Link;
 import de.javagl.flow.module.slot.InputSlot;
 import de.javagl.flow.module.slot.OutputSlot;
@@ -42,6 +44,11 @@ import de.javagl.flow.module.slot.OutputSlot;
  * computing the successors or predecessors of a {@link Module}, or the 
  * {@link Link} objects that are attached to a {@link Module}.<br>
  * <br>
+ * When the given {@link Module} objects are contained in a {@link Flow},
+ * then the methods of this class will use the adjacency information
+ * that is maintained by the {@link Flow}. Otherwise, they will inspect
+ * the slots of the {@link Module} objects.<br>
+ * <br>
  * Note: The methods in this class might be moved to the {@link Modules}
  * class in the future, and this class may be omitted.
  */
@@ -58,6 +65,12 @@ public class ModuleUtils
      */
     public static Set<Module> computeSuccessors(Module module)
     {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return Collections.unmodifiableSet(
+                new LinkedHashSet<Module>(flow.getSuccessors(module)));
+        }
         Set<Module> successors = new LinkedHashSet<Module>();
         for (OutputSlot outputSlot : module.getOutputSlots())
         {
@@ -87,7 +100,7 @@ public class ModuleUtils
         Set<Module> successors = new LinkedHashSet<Module>();
         for (Module module : modules)
         {
-            successors.addAll(computeSuccessors(module));
+            successors.addAll(successorsOf(module));
         }
         return Collections.unmodifiableSet(successors);
     }
@@ -110,23 +123,52 @@ public class ModuleUtils
     }
     
     /**
-     * Recursively compute all successors of the given collection of 
-     * {@link Module} objects
+     * Compute all successors of the given collection of {@link Module} 
+     * objects. The given result collection also serves as the set of
+     * modules that have already been visited.
      * 
      * @param modules The {@link Module} objects
      * @param result The collection that will store the result
      */
     private static void computeAllSuccessors(
-        Iterable<? extends Module> modules, Collection<Module> result)
+        Iterable<? extends Module> modules, Set<Module> result)
     {
+        Deque<Module> queue = new ArrayDeque<Module>();
         for (Module module : modules)
         {
-            Set<Module> successors = computeSuccessors(module);
-            result.addAll(successors);
-            computeAllSuccessors(successors, result);
+            queue.add(module);
+        }
+        while (!queue.isEmpty())
+        {
+            Module module = queue.poll();
+            for (Module successor : successorsOf(module))
+            {
+                if (result.add(successor))
+                {
+                    queue.add(successor);
+                }
+            }
         }
     }
     
+    /**
+     * Returns the direct successors of the given {@link Module}, without
+     * creating a copy if the adjacency information is maintained by 
+     * the {@link Flow} of the module
+     * 
+     * @param module The {@link Module}
+     * @return The successors
+     */
+    private static Set<Module> successorsOf(Module module)
+    {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return flow.getSuccessors(module);
+        }
+        return computeSuccessors(module);
+    }
+    
 
     /**
      * Return an unmodifiable set containing the direct predecessors of the 
@@ -139,6 +181,12 @@ public class ModuleUtils
      */
     public static Set<Module> computePredecessors(Module module)
     {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return Collections.unmodifiableSet(
+                new LinkedHashSet<Module>(flow.getPredecessors(module)));
+        }
         Set<Module> predecessors = new LinkedHashSet<Module>();
         for (InputSlot inputSlot : module.getInputSlots())
         {
@@ -167,7 +215,7 @@ public class ModuleUtils
         Set<Module> predecessors = new LinkedHashSet<Module>();
         for (Module module : modules)
         {
-            predecessors.addAll(computePredecessors(module));
+            predecessors.addAll(predecessorsOf(module));
         }
         return Collections.unmodifiableSet(predecessors);
     }
@@ -190,21 +238,50 @@ public class ModuleUtils
     }
     
     /**
-     * Recursively compute all predecessors of the given collection of 
-     * {@link Module} objects
+     * Compute all predecessors of the given collection of {@link Module} 
+     * objects. The given result collection also serves as the set of
+     * modules that have already been visited.
      * 
      * @param modules The {@link Module} objects
      * @param result The collection that will store the result
      */
     private static void computeAllPredecessors(
-        Iterable<? extends Module> modules, Collection<Module> result)
+        Iterable<? extends Module> modules, Set<Module> result)
     {
+        Deque<Module> queue = new ArrayDeque<Module>();
         for (Module module : modules)
         {
-            Set<Module> predecessors = computePredecessors(module);
-            result.addAll(predecessors);
-            computeAllPredecessors(predecessors, result);
+            queue.add(module);
+        }
+        while (!queue.isEmpty())
+        {
+            Module module = queue.poll();
+            for (Module predecessor : predecessorsOf(module))
+            {
+                if (result.add(predecessor))
+                {
+                    queue.add(predecessor);
+                }
+            }
+        }
+    }
+    
+    /**
+     * Returns the direct predecessors of the given {@link Module}, without
+     * creating a copy if the adjacency information is maintained by 
+     * the {@link Flow} of the module
+     * 
+     * @param module The {@link Module}
+     * @return The predecessors
+     */
+    private static Set<Module> predecessorsOf(Module module)
+    {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return flow.getPredecessors(module);
         }
+        return computePredecessors(module);
     }
     
     /**
@@ -244,6 +321,12 @@ public class ModuleUtils
      */
     public static Set<Link> computeIncomingLinks(Module module)
     {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return Collections.unmodifiableSet(
+                new LinkedHashSet<Link>(flow.getIncomingLinks(module)));
+        }
         Set<Link> links = new LinkedHashSet<Link>();
         for (InputSlot inputSlot : module.getInputSlots())
         {
@@ -285,6 +368,12 @@ public class ModuleUtils
      */
     public static Set<Link> computeOutgoingLinks(Module module)
     {
+        Flow flow = module.getFlow();
+        if (flow != null)
+        {
+            return Collections.unmodifiableSet(
+                new LinkedHashSet<Link>(flow.getOutgoingLinks(module)));
+        }
         Set<Link> links = new LinkedHashSet<Link>();
         for (OutputSlot outputSlot : module.getOutputSlots())
         {
@@ -56,6 +56,16 @@ public abstract class SimpleAbstractModule
      */
     private final List<OutputSlot> outputSlots;
 
+    /**
+     * An unmodifiable view on the {@link #inputSlots}
+     */
+    private final List<InputSlot> inputSlotsView;
+
+    /**
+     * An unmodifiable view on the {@link #outputSlots}
+     */
+    private final List<OutputSlot> outputSlotsView;
+
     /**
      * Creates a new module with the given {@link ModuleInfo}
      * 
@@ -67,6 +77,8 @@ public abstract class SimpleAbstractModule
         
         this.inputSlots = new ArrayList<InputSlot>();
         this.outputSlots = new ArrayList<OutputSlot>();
+        this.inputSlotsView = Collections.unmodifiableList(inputSlots);
+        this.outputSlotsView = Collections.unmodifiableList(outputSlots);
         
         TypeVariableInstantiator typeVariableInstantiator =
             createTypeVariableInstantiator();
@@ -177,13 +189,13 @@ public abstract class SimpleAbstractModule
     @Override
     public final List<InputSlot> getInputSlots()
     {
-        return Collections.unmodifiableList(inputSlots);
+        return inputSlotsView;
     }
     
     @Override
     public final List<OutputSlot> getOutputSlots()
     {
-        return Collections.unmodifiableList(outputSlots);
+        return outputSlotsView;
     }
     
 }
\ No newline at end of file
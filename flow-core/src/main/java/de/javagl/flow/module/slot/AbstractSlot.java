@@ -31,6 +31,8 @@ import java.util.List;
 import java.util.Objects;
 import java.util.concurrent.CopyOnWriteArrayList;
 
+import de.javagl.flow.Flow;
+import de.javagl.flow.TypeContext;
 import de.javagl.flow.link.Link;
 import de.javagl.flow.module.Module;
 
@@ -65,6 +67,12 @@ abstract class AbstractSlot implements Slot
      */
     private final List<SlotListener> slotListeners;
     
+    /**
+     * The result of the last resolution of the formal type, or 
+     * <code>null</code> if the type was not resolved yet
+     */
+    private volatile ResolvedType resolvedFormalType;
+    
     /**
      * Creates a new slot for the given {@link Module},
      * with the given index.
@@ -93,6 +101,38 @@ abstract class AbstractSlot implements Slot
         return formalType;
     }
 
+    /**
+     * Returns the {@link #getFormalType() formal type} of this slot, 
+     * resolved in the {@link TypeContext} of the {@link Flow} that the 
+     * {@link Module} of this slot belongs to. If the module does not
+     * belong to a flow, then the formal type is returned.<br>
+     * <br>
+     * The resolved type is cached, and only computed again when the 
+     * {@link TypeContext} or its {@link TypeContext#getGeneration() 
+     * generation} changed. 
+     * 
+     * @return The resolved formal type
+     */
+    protected final Type getResolvedFormalType()
+    {
+        Flow flow = module.getFlow();
+        if (flow == null)
+        {
+            return formalType;
+        }
+        TypeContext typeContext = flow.getTypeContext();
+        long generation = typeContext.getGeneration();
+        ResolvedType cached = resolvedFormalType;
+        if (cached != null && cached.typeContext == typeContext && 
+            cached.generation == generation)
+        {
+            return cached.type;
+        }
+        Type type = typeContext.resolveType(formalType);
+        resolvedFormalType = new ResolvedType(typeContext, generation, type);
+        return type;
+    }
+    
     @Override
     public final Module getModule()
     {
@@ -159,5 +199,42 @@ abstract class AbstractSlot implements Slot
         }
     }
     
+    /**
+     * A type that was resolved in a certain generation of a 
+     * {@link TypeContext}
+     */
+    private static final class ResolvedType
+    {
+        /**
+         * The {@link TypeContext}
+         */
+        private final TypeContext typeContext;
+        
+        /**
+         * The {@link TypeContext#getGeneration() generation} of the
+         * {@link TypeContext} 
+         */
+        private final long generation;
+        
+        /**
+         * The resolved type
+         */
+        private final Type type;
+        
+        /**
+         * Creates a new instance
+         * 
+         * @param typeContext The {@link TypeContext}
+         * @param generation The generation
+         * @param type The resolved type
+         */
+        ResolvedType(TypeContext typeContext, long generation, Type type)
+        {
+            this.typeContext = typeContext;
+            this.generation = generation;
+            this.type = type;
+        }
+    }
+    
     
 }
@@ -29,8 +29,6 @@ package de.javagl.flow.module.slot;
 import java.lang.reflect.Type;
 import java.util.Objects;
 
-import de.javagl.flow.Flow;
-import de.javagl.flow.TypeContext;
 import de.javagl.flow.link.Link;
 import de.javagl.flow.module.Module;
 
@@ -39,15 +37,10 @@ import de.javagl.flow.module.Module;
  */
 final class DefaultInputSlot extends AbstractSlot implements InputSlot
 {
-    /**
-     * The default type that is expected by this {@link InputSlot}
-     */
-    private final Type defaultExpectedType;
-    
     /**
      * The {@link Link} that is currently set as the inputLink
      */
-    private Link inputLink;
+    private volatile Link inputLink;
 
     /**
      * Create a new input slot for the given {@link Module} with the
@@ -64,20 +57,12 @@ final class DefaultInputSlot extends AbstractSlot implements InputSlot
     {
         super(module, index, 
             module.getModuleInfo().getInputSlotInfos().get(index), formalType);
-        this.defaultExpectedType = formalType;
     }
     
     @Override
     public Type getExpectedType()
     {
-        Type expectedType = defaultExpectedType;
-        Flow flow = getModule().getFlow();
-        if (flow != null)
-        {
-            TypeContext typeContext = flow.getTypeContext();
-            expectedType = typeContext.resolveType(defaultExpectedType);
-        }
-        return expectedType;
+        return getResolvedFormalType();
     }
     
     @Override
@@ -32,8 +32,6 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Objects;
 
-import de.javagl.flow.Flow;
-import de.javagl.flow.TypeContext;
 import de.javagl.flow.link.Link;
 import de.javagl.flow.module.Module;
 
@@ -42,16 +40,15 @@ import de.javagl.flow.module.Module;
  */
 final class DefaultOutputSlot extends AbstractSlot implements OutputSlot
 {
-    /**
-     * The default actual type for this {@link OutputSlot}
-     */
-    private final Type defaultActualType;
-
     /**
      * The list of output {@link Link} objects that have been 
-     * attached to this slot.
+     * attached to this slot. This is an unmodifiable list that is 
+     * replaced with a new one whenever a link is added or removed,
+     * so that the links may be iterated by the threads that execute 
+     * a flow while the flow is modified, without having to create
+     * an iterator or a copy of the list.
      */
-    private List<Link> outputLinks;
+    private volatile List<Link> outputLinks;
     
     /**
      * Creates a new output slot for the given {@link Module}, with the
@@ -68,47 +65,47 @@ final class DefaultOutputSlot extends AbstractSlot implements OutputSlot
         super(module, index, 
             module.getModuleInfo().getOutputSlotInfos().get(index),
             formalType);
-        this.defaultActualType = formalType;
-        this.outputLinks = new ArrayList<Link>();
+        this.outputLinks = Collections.emptyList();
     }
     
     @Override
     public Type getActualType()
     {
-        Type actualType = defaultActualType;
-        Flow flow = getModule().getFlow();
-        if (flow != null)
-        {
-            TypeContext typeContext = flow.getTypeContext();
-            actualType = typeContext.resolveType(defaultActualType);
-        }
-        return actualType;
+        return getResolvedFormalType();
     }
     
     @Override
     public final void addOutputLink(Link output)
     {
-        boolean changed = outputLinks.add(output);
-        if (changed)
+        synchronized (this)
         {
-            fireLinkAdded(output);
+            List<Link> newOutputLinks = new ArrayList<Link>(outputLinks);
+            newOutputLinks.add(output);
+            outputLinks = Collections.unmodifiableList(newOutputLinks);
         }
+        fireLinkAdded(output);
     }
 
     @Override
     public final void removeOutputLink(Link output)
     {
-        boolean changed = outputLinks.remove(output);
-        if (changed)
+        synchronized (this)
         {
-            fireLinkRemoved(output);
+            if (!outputLinks.contains(output))
+            {
+                return;
+            }
+            List<Link> newOutputLinks = new ArrayList<Link>(outputLinks);
+            newOutputLinks.remove(output);
+            outputLinks = Collections.unmodifiableList(newOutputLinks);
         }
+        fireLinkRemoved(output);
     }
 
     @Override
     public final List<Link> getOutputLinks()
     {
-        return Collections.unmodifiableList(outputLinks);
+        return outputLinks;
     }
     
     @Override
@@ -28,6 +28,7 @@ package de.javagl.flow.module.slot;
 
 import java.lang.reflect.Type;
 import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 
 /**
@@ -49,6 +50,16 @@ class DefaultSlotInfo implements SlotInfo
      * The description of the {@link Slot}
      */
     private final String description;
+    
+    /**
+     * The copy function for mutating slots, or <code>null</code>
+     */
+    private final UnaryOperator<Object> copyFunction;
+
+    /**
+     * Whether the slot is forwarding
+     */
+    private final boolean forwarding;
 
     /**
      * Creates a new slot info with the given type, name and description
@@ -56,14 +67,21 @@ class DefaultSlotInfo implements SlotInfo
      * @param type The type
      * @param name The name
      * @param description The description 
-     * @throws NullPointerException If any argument is <code>null</code>
+     * @param copyFunction The copy function for mutating slots. If this
+     * is <code>null</code>, then the slot is not mutating.
+     * @param forwarding Whether the slot is forwarding
+     * @throws NullPointerException If the type, name or description is 
+     * <code>null</code>
      */
-    DefaultSlotInfo(Type type, String name, String description)
+    DefaultSlotInfo(Type type, String name, String description,
+        UnaryOperator<Object> copyFunction, boolean forwarding)
     {
         this.type = Objects.requireNonNull(type, "The type may not be null");
         this.name = Objects.requireNonNull(name, "The name may not be null");
         this.description = Objects.requireNonNull(
             description, "The description may not be null");
+        this.copyFunction = copyFunction;
+        this.forwarding = forwarding;
     }
     
     @Override
@@ -83,13 +101,33 @@ class DefaultSlotInfo implements SlotInfo
     {
         return description;
     }
+    
+    @Override
+    public boolean isMutating()
+    {
+        return copyFunction != null;
+    }
+    
+    @Override
+    public UnaryOperator<Object> getCopyFunction()
+    {
+        return copyFunction;
+    }
+    
+    @Override
+    public boolean isForwarding()
+    {
+        return forwarding;
+    }
 
     @Override
     public String toString()
     {
         return "DefaultSlotInfo[" +
             "type=" + type + "," +
-            "description=" + description + "]";
+            "description=" + description + "," +
+            "mutating=" + isMutating() + "," +
+            "forwarding=" + isForwarding() + "]";
     }
     
     @Override
@@ -99,6 +137,8 @@ class DefaultSlotInfo implements SlotInfo
         int result = 1;
         result = prime * result + Objects.hashCode(description);
         result = prime * result + Objects.hashCode(type);
+        result = prime * result + (isMutating() ? 1231 : 1237);
+        result = prime * result + (isForwarding() ? 1231 : 1237);
         return result;
     }
 
@@ -116,6 +156,10 @@ class DefaultSlotInfo implements SlotInfo
             return false;
         if (!Objects.equals(type, other.getType()))
             return false;
+        if (isMutating() != other.isMutating())
+            return false;
+        if (isForwarding() != other.isForwarding())
+            return false;
         return true;
     }
 
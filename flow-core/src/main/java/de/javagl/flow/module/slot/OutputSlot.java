@@ -55,8 +55,12 @@ public interface OutputSlot extends Slot
     void removeOutputLink(Link outputLink);
     
     /**
-     * Returns an unmodifiable view on the list of output {@link Link}
-     * instances that have been attached to this slot.
+     * Returns an unmodifiable list of the output {@link Link}
+     * instances that have been attached to this slot.<br>
+     * <br>
+     * The returned list is a snapshot: It will not reflect links that 
+     * are added or removed afterwards, and thus, may safely be iterated
+     * while links are added or removed.
      * 
      * @return The list of output {@link Link} instances
      */
@@ -27,6 +27,7 @@
 package de.javagl.flow.module.slot;
 
 import java.lang.reflect.Type;
+import java.util.function.UnaryOperator;
 
 import de.javagl.flow.module.Module;
 import de.javagl.flow.module.ModuleInfo;
@@ -62,4 +63,55 @@ public interface SlotInfo
      * @return A description of the {@link Slot}
      */
     String getDescription();
+    
+    /**
+     * Returns whether the {@link Module} modifies the objects that it 
+     * receives through the {@link Slot}. This is only relevant for 
+     * {@link InputSlot} instances. When an object is provided to multiple
+     * modules, then a module with a mutating input slot will receive a 
+     * copy of the object that was created with the 
+     * {@link #getCopyFunction() copy function}, so that the other 
+     * modules are not affected by the modifications.<br>
+     * <br>
+     * The default implementation returns <code>false</code>.
+     * 
+     * @return Whether the {@link Slot} is mutating
+     */
+    default boolean isMutating()
+    {
+        return false;
+    }
+    
+    /**
+     * Returns the function that creates a copy of an object that is 
+     * received through a {@link #isMutating() mutating} {@link Slot}.
+     * Implementations may return <code>null</code> if the slot is not 
+     * mutating.<br>
+     * <br>
+     * The default implementation returns the identity function.
+     * 
+     * @return The copy function
+     */
+    default UnaryOperator<Object> getCopyFunction()
+    {
+        return UnaryOperator.identity();
+    }
+    
+    /**
+     * Returns whether the {@link Module} may pass objects that it received
+     * through one of its input slots to the {@link Slot}, unmodified and
+     * without copying them. This is only relevant for {@link OutputSlot} 
+     * instances. The objects that are received from such a slot may 
+     * still be referenced by other modules or links, so a module with a 
+     * {@link #isMutating() mutating} input slot that is connected to 
+     * such a slot will always receive a copy of the object.<br>
+     * <br>
+     * The default implementation returns <code>false</code>.
+     * 
+     * @return Whether the {@link Slot} is forwarding
+     */
+    default boolean isForwarding()
+    {
+        return false;
+    }
 }
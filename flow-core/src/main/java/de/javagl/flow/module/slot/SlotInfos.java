@@ -26,7 +26,12 @@
  */
 package de.javagl.flow.module.slot;
 
+import java.lang.reflect.Array;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
 import java.lang.reflect.Type;
+import java.util.Objects;
+import java.util.function.UnaryOperator;
 
 
 /**
@@ -45,7 +50,105 @@ public class SlotInfos
     public static SlotInfo create(
         Type type, String name, String description)
     {
-        return new DefaultSlotInfo(type, name, description);
+        return new DefaultSlotInfo(type, name, description, null, false);
+    }
+    
+    /**
+     * Creates a new {@link SlotInfo} with the given type, name and 
+     * description, that is {@link SlotInfo#isForwarding() forwarding}
+     * 
+     * @param type The type
+     * @param name The name
+     * @param description The description
+     * @return The new {@link SlotInfo}
+     */
+    public static SlotInfo createForwarding(
+        Type type, String name, String description)
+    {
+        return new DefaultSlotInfo(type, name, description, null, true);
+    }
+    
+    /**
+     * Creates a new {@link SlotInfo} with the given type, name and 
+     * description, that is {@link SlotInfo#isMutating() mutating}, and 
+     * uses the given function to create copies of shared objects
+     * 
+     * @param type The type
+     * @param name The name
+     * @param description The description
+     * @param copyFunction The copy function
+     * @return The new {@link SlotInfo}
+     * @throws NullPointerException If any argument is <code>null</code>
+     */
+    public static SlotInfo createMutating(
+        Type type, String name, String description,
+        UnaryOperator<Object> copyFunction)
+    {
+        Objects.requireNonNull(copyFunction, 
+            "The copyFunction may not be null");
+        return new DefaultSlotInfo(
+            type, name, description, copyFunction, false);
+    }
+    
+    /**
+     * Returns a copy function for {@link SlotInfo#isMutating() mutating}
+     * slots that creates shallow copies of arrays, and calls the public
+     * <code>clone</code> method of objects that are 
+     * <code>Cloneable</code>. When it receives any other object, it will
+     * throw an <code>IllegalArgumentException</code>.
+     * 
+     * @return The copy function
+     */
+    public static UnaryOperator<Object> createCloningCopyFunction()
+    {
+        return SlotInfos::createClone;
+    }
+    
+    /**
+     * Create a clone of the given object, as described in 
+     * {@link #createCloningCopyFunction()}
+     * 
+     * @param object The object. May be <code>null</code>.
+     * @return The clone
+     * @throws IllegalArgumentException If the object cannot be cloned
+     */
+    private static Object createClone(Object object)
+    {
+        if (object == null)
+        {
+            return null;
+        }
+        Class<?> c = object.getClass();
+        if (c.isArray())
+        {
+            int length = Array.getLength(object);
+            Object copy = Array.newInstance(c.getComponentType(), length);
+            System.arraycopy(object, 0, copy, 0, length);
+            return copy;
+        }
+        if (object instanceof Cloneable)
+        {
+            try
+            {
+                Method method = c.getMethod("clone");
+                return method.invoke(object);
+            }
+            catch (NoSuchMethodException e)
+            {
+                // Handled below
+            }
+            catch (IllegalAccessException e)
+            {
+                // Handled below
+            }
+            catch (InvocationTargetException e)
+            {
+                throw new IllegalArgumentException(
+                    "Could not clone " + c, e.getCause());
+            }
+        }
+        throw new IllegalArgumentException(
+            "Cannot create a copy of an object with type " + c);
     }
 
     /**
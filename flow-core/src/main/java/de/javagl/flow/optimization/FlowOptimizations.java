@@ -0,0 +1,286 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.optimization;
+
+import java.util.ArrayList;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.FlowTopology;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.analysis.FlowAnalysis;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.slot.InputSlot;
+import de.javagl.flow.module.slot.OutputSlot;
+
+/**
+ * Methods for optimizing a {@link Flow} before it is executed.
+ */
+public class FlowOptimizations
+{
+    /**
+     * Find the common subexpressions in the given {@link Flow}.<br>
+     * <br>
+     * Two modules are considered to be equivalent when they are both
+     * {@link ModuleInfo#isPure() pure}, have the same class, equal
+     * {@link ModuleInfo} objects, equal
+     * {@link Module#getConfiguration() configurations}, and when each
+     * of their inputs is connected to the same output of the same
+     * (or an equivalent) module. Such modules will always produce the 
+     * same outputs, so only one of them has to be executed.<br>
+     * <br>
+     * Modules that have an unconnected input are never considered to be 
+     * equivalent to other modules: The values of such inputs may be set
+     * directly, and may be different for modules that otherwise have 
+     * the same structure.<br>
+     * <br>
+     * The modules are detected by structural hashing, visiting the
+     * modules in topological order, so that chains of equivalent modules
+     * are detected in a single pass.<br>
+     * <br>
+     * The result is an unmodifiable map from each module that may be
+     * eliminated to the equivalent module that should be executed
+     * instead. It will be empty if there are no common subexpressions.
+     *
+     * @param flow The {@link Flow}
+     * @return The mapping from duplicate modules to their representatives
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static Map<Module, Module> findCommonSubexpressions(Flow flow)
+    {
+        List<Module> modules = FlowAnalysis.computeTopologicalOrder(flow);
+        Map<Module, Module> representatives =
+            new LinkedHashMap<Module, Module>();
+        Map<List<Object>, Module> keyToModule =
+            new HashMap<List<Object>, Module>();
+        for (Module module : modules)
+        {
+            if (!module.getModuleInfo().isPure())
+            {
+                continue;
+            }
+            List<Object> key = createKey(module, representatives);
+            if (key == null)
+            {
+                continue;
+            }
+            Module representative = keyToModule.get(key);
+            if (representative == null)
+            {
+                keyToModule.put(key, module);
+            }
+            else
+            {
+                representatives.put(module, representative);
+            }
+        }
+        return Collections.unmodifiableMap(representatives);
+    }
+
+    /**
+     * Eliminate the common subexpressions from the given {@link MutableFlow}.
+     * <br>
+     * <br>
+     * The modules that are {@link #findCommonSubexpressions(Flow)
+     * equivalent} to other modules will be removed from the flow. Each
+     * {@link Link} that started at an output of a removed module will be
+     * replaced by a link that starts at the same output of its
+     * representative. So when the flow is executed, each of the
+     * equivalent modules is only executed once, and its outputs are
+     * forwarded to all consumers.
+     *
+     * @param flow The {@link MutableFlow}
+     * @return The unmodifiable mapping from the removed modules to the
+     * modules that replaced them
+     * @throws IllegalArgumentException If the flow contains a cycle
+     */
+    public static Map<Module, Module> eliminateCommonSubexpressions(
+        MutableFlow flow)
+    {
+        Map<Module, Module> representatives = findCommonSubexpressions(flow);
+        if (representatives.isEmpty())
+        {
+            return representatives;
+        }
+        List<Link> newLinks = new ArrayList<Link>();
+        for (Map.Entry<Module, Module> entry : representatives.entrySet())
+        {
+            Module duplicate = entry.getKey();
+            Module representative = entry.getValue();
+            List<OutputSlot> outputSlots = duplicate.getOutputSlots();
+            for (Link link : flow.getOutgoingLinks(duplicate))
+            {
+                InputSlot targetSlot = link.getTargetSlot();
+                if (representatives.containsKey(targetSlot.getModule()))
+                {
+                    continue;
+                }
+                int index = outputSlots.indexOf(link.getSourceSlot());
+                OutputSlot sourceSlot =
+                    representative.getOutputSlots().get(index);
+                newLinks.add(Links.create(sourceSlot, targetSlot));
+            }
+        }
+        flow.removeAll(representatives.keySet(),
+            Collections.<Link>emptyList());
+        flow.addAll(Collections.<Module>emptyList(), newLinks);
+        return representatives;
+    }
+
+    /**
+     * Find the dead modules in the given {@link Flow}.<br>
+     * <br>
+     * A module is dead when it is {@link ModuleInfo#isPure() pure}, and
+     * none of the modules that are not pure depends on it, directly or
+     * transitively. Modules that are not pure are assumed to have side 
+     * effects, like writing to the console or showing a result in a user
+     * interface. The outputs of dead modules are never consumed by such 
+     * a module, so executing them has no observable effect.
+     *
+     * @param flow The {@link Flow}
+     * @return An unmodifiable set containing the dead modules
+     */
+    public static Set<Module> findDeadModules(Flow flow)
+    {
+        FlowTopology topology = flow.getTopology();
+        int n = topology.getModuleCount();
+        
+        // Start at all modules that are not pure, and mark all of 
+        // their transitive predecessors as being alive
+        BitSet alive = new BitSet(n);
+        int queue[] = new int[n];
+        int tail = 0;
+        for (int m = 0; m < n; m++)
+        {
+            if (!topology.getModule(m).getModuleInfo().isPure())
+            {
+                alive.set(m);
+                queue[tail++] = m;
+            }
+        }
+        int head = 0;
+        while (head < tail)
+        {
+            int m = queue[head++];
+            int count = topology.getPredecessorCount(m);
+            for (int k = 0; k < count; k++)
+            {
+                int p = topology.getPredecessor(m, k);
+                if (!alive.get(p))
+                {
+                    alive.set(p);
+                    queue[tail++] = p;
+                }
+            }
+        }
+        Set<Module> deadModules = new LinkedHashSet<Module>();
+        for (int m = alive.nextClearBit(0); m < n; 
+            m = alive.nextClearBit(m + 1))
+        {
+            deadModules.add(topology.getModule(m));
+        }
+        return Collections.unmodifiableSet(deadModules);
+    }
+
+    /**
+     * Remove the {@link #findDeadModules(Flow) dead modules} from the given
+     * {@link MutableFlow}, together with all links that are connected to 
+     * them.
+     *
+     * @param flow The {@link MutableFlow}
+     * @return An unmodifiable set containing the removed modules
+     */
+    public static Set<Module> eliminateDeadModules(MutableFlow flow)
+    {
+        Set<Module> deadModules = findDeadModules(flow);
+        if (!deadModules.isEmpty())
+        {
+            flow.removeAll(deadModules, Collections.<Link>emptyList());
+        }
+        return deadModules;
+    }
+
+    /**
+     * Create the structural key for the given {@link Module}. This
+     * consists of the class, {@link ModuleInfo} and configuration
+     * of the module, and the source module and output index for each
+     * input, where the source modules are replaced by their
+     * representatives. If the module has an unconnected input, then
+     * <code>null</code> is returned.
+     *
+     * @param module The {@link Module}
+     * @param representatives The mapping from modules to their
+     * representatives
+     * @return The key, or <code>null</code>
+     */
+    private static List<Object> createKey(Module module,
+        Map<Module, Module> representatives)
+    {
+        List<InputSlot> inputSlots = module.getInputSlots();
+        List<Object> key = new ArrayList<Object>(3 + 2 * inputSlots.size());
+        key.add(module.getClass());
+        key.add(module.getModuleInfo());
+        key.add(module.getConfiguration());
+        for (InputSlot inputSlot : inputSlots)
+        {
+            Link link = inputSlot.getInputLink();
+            if (link == null)
+            {
+                return null;
+            }
+            OutputSlot sourceSlot = link.getSourceSlot();
+            Module source = sourceSlot.getModule();
+            int index = source.getOutputSlots().indexOf(sourceSlot);
+            Module representative = representatives.get(source);
+            if (representative != null)
+            {
+                source = representative;
+            }
+            key.add(source);
+            key.add(index);
+        }
+        return key;
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private FlowOptimizations()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
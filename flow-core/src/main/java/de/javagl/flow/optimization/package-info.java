@@ -0,0 +1,6 @@
+/**
+ * Classes for optimizing the structure of a {@link de.javagl.flow.Flow Flow}
+ * before it is executed.
+ */
+package de.javagl.flow.optimization;
+
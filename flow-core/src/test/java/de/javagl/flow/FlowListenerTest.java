@@ -0,0 +1,244 @@
+package de.javagl.flow;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the notification of {@link FlowListener} instances
+ * about the bulk operations of a {@link MutableFlow}
+ */
+@RunWith(JUnit4.class)
+public class FlowListenerTest
+{
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * The source module
+     */
+    private Module source;
+
+    /**
+     * The first target module
+     */
+    private Module target0;
+
+    /**
+     * The second target module
+     */
+    private Module target1;
+
+    /**
+     * The link from the source to the first target
+     */
+    private Link link0;
+
+    /**
+     * The link from the source to the second target
+     */
+    private Link link1;
+
+    /**
+     * Initialize the flow elements
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+        source = Modules.createForSupplier(
+            "Source", "", () -> "value", String.class);
+        target0 = Modules.createForConsumer(
+            "Target0", "", object -> {}, String.class);
+        target1 = Modules.createForConsumer(
+            "Target1", "", object -> {}, String.class);
+        link0 = Links.create(source, 0, target0, 0);
+        link1 = Links.create(source, 0, target1, 0);
+    }
+
+    @Test
+    public void testAddAllFiresSingleEvent()
+    {
+        List<FlowEvent> events = new ArrayList<FlowEvent>();
+        RecordingFlowListener listener = new RecordingFlowListener()
+        {
+            @Override
+            public void modulesAndLinksAdded(FlowEvent flowEvent)
+            {
+                events.add(flowEvent);
+            }
+        };
+        flow.addFlowListener(listener);
+        boolean changed = flow.addAll(
+            Arrays.asList(source, target0, target1), 
+            Arrays.asList(link0, link1));
+
+        assertTrue(changed);
+        assertEquals(1, events.size());
+        FlowEvent event = events.get(0);
+        assertSame(flow, event.getFlow());
+        assertEquals(Arrays.asList(source, target0, target1), 
+            new ArrayList<Module>(event.getModules()));
+        assertEquals(Arrays.asList(link0, link1), 
+            new ArrayList<Link>(event.getLinks()));
+        assertEquals(Collections.emptyList(), listener.calls);
+    }
+
+    @Test
+    public void testAddAllPassesSingleEventsToDefaultMethod()
+    {
+        RecordingFlowListener listener = new RecordingFlowListener();
+        flow.addFlowListener(listener);
+        flow.addAll(
+            Arrays.asList(source, target0, target1), 
+            Arrays.asList(link0, link1));
+
+        assertEquals(Arrays.asList(
+            "moduleAdded Source", "moduleAdded Target0", 
+            "moduleAdded Target1", "linkAdded Target0", 
+            "linkAdded Target1"), listener.calls);
+    }
+
+    @Test
+    public void testAddAllOnlyReportsNewElements()
+    {
+        flow.addAll(Arrays.asList(source, target0), Arrays.asList(link0));
+        RecordingFlowListener listener = new RecordingFlowListener();
+        flow.addFlowListener(listener);
+
+        assertFalse(flow.addAll(
+            Arrays.asList(source, target0), Arrays.asList(link0)));
+        assertEquals(Collections.emptyList(), listener.calls);
+
+        assertTrue(flow.addAll(
+            Arrays.asList(source, target1), Arrays.asList(link0, link1)));
+        assertEquals(Arrays.asList(
+            "moduleAdded Target1", "linkAdded Target1"), listener.calls);
+    }
+
+    @Test
+    public void testRemoveAllReportsAttachedLinks()
+    {
+        flow.addAll(
+            Arrays.asList(source, target0, target1), 
+            Arrays.asList(link0, link1));
+        List<FlowEvent> events = new ArrayList<FlowEvent>();
+        RecordingFlowListener listener = new RecordingFlowListener()
+        {
+            @Override
+            public void modulesAndLinksRemoved(FlowEvent flowEvent)
+            {
+                events.add(flowEvent);
+            }
+        };
+        flow.addFlowListener(listener);
+        boolean changed = flow.removeAll(
+            Arrays.asList(source), Collections.<Link>emptyList());
+
+        assertTrue(changed);
+        assertEquals(1, events.size());
+        FlowEvent event = events.get(0);
+        assertEquals(Arrays.asList(source), 
+            new ArrayList<Module>(event.getModules()));
+        assertEquals(2, event.getLinks().size());
+        assertTrue(event.getLinks().contains(link0));
+        assertTrue(event.getLinks().contains(link1));
+        assertEquals(Collections.emptyList(), listener.calls);
+        assertTrue(flow.getLinks().isEmpty());
+        assertEquals(2, flow.getModules().size());
+    }
+
+    @Test
+    public void testRemoveAllPassesLinksBeforeModules()
+    {
+        flow.addAll(
+            Arrays.asList(source, target0, target1), 
+            Arrays.asList(link0, link1));
+        RecordingFlowListener listener = new RecordingFlowListener();
+        flow.addFlowListener(listener);
+        flow.removeAll(
+            Arrays.asList(target0, target1), Arrays.asList(link0));
+
+        assertEquals(Arrays.asList(
+            "linkRemoved Target0", "linkRemoved Target1", 
+            "moduleRemoved Target0", "moduleRemoved Target1"), 
+            listener.calls);
+    }
+
+    /**
+     * A {@link FlowListener} that records the calls to the methods for 
+     * single elements. The links are identified by the name of their
+     * target module.
+     */
+    private static class RecordingFlowListener implements FlowListener
+    {
+        /**
+         * The recorded calls
+         */
+        final List<String> calls = new ArrayList<String>();
+
+        @Override
+        public void moduleAdded(FlowEvent flowEvent)
+        {
+            calls.add("moduleAdded " + name(flowEvent.getModule()));
+        }
+
+        @Override
+        public void moduleRemoved(FlowEvent flowEvent)
+        {
+            calls.add("moduleRemoved " + name(flowEvent.getModule()));
+        }
+
+        @Override
+        public void linkAdded(FlowEvent flowEvent)
+        {
+            calls.add("linkAdded " + name(flowEvent.getLink()));
+        }
+
+        @Override
+        public void linkRemoved(FlowEvent flowEvent)
+        {
+            calls.add("linkRemoved " + name(flowEvent.getLink()));
+        }
+
+        /**
+         * Returns the name of the given module
+         *
+         * @param module The module
+         * @return The name
+         */
+        private static String name(Module module)
+        {
+            return module.getModuleInfo().getName();
+        }
+
+        /**
+         * Returns the name of the target module of the given link
+         *
+         * @param link The link
+         * @return The name
+         */
+        private static String name(Link link)
+        {
+            return name(link.getTargetSlot().getModule());
+        }
+    }
+}
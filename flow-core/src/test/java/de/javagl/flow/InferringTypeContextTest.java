@@ -0,0 +1,276 @@
+package de.javagl.flow;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertTrue;
+
+import java.lang.reflect.Method;
+import java.lang.reflect.ParameterizedType;
+import java.lang.reflect.Type;
+import java.lang.reflect.TypeVariable;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the binding of type variables in a flow that was 
+ * created with {@link Flows#createWithTypeInference()}, and for the 
+ * {@link Flows#validate(Flow) validation} of such a flow
+ */
+@RunWith(JUnit4.class)
+public class InferringTypeContextTest
+{
+    /**
+     * Creates a list containing the given element
+     *
+     * @param <T> The element type
+     * @param element The element
+     * @return The list
+     */
+    public static <T> List<T> wrap(T element)
+    {
+        return Collections.singletonList(element);
+    }
+
+    /**
+     * Returns the first element of the given list
+     *
+     * @param <U> The element type
+     * @param list The list
+     * @return The first element
+     */
+    public static <U> U first(List<U> list)
+    {
+        return list.get(0);
+    }
+
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * A module providing a string
+     */
+    private Module stringSource;
+
+    /**
+     * The module for {@link #wrap(Object)}
+     */
+    private Module wrap;
+
+    /**
+     * The module for {@link #first(List)}
+     */
+    private Module first;
+
+    /**
+     * Initialize the flow and the modules
+     *
+     * @throws Exception If a method can not be found
+     */
+    @Before
+    public void setUp() throws Exception
+    {
+        flow = Flows.createWithTypeInference();
+        stringSource = Modules.createForSupplier(
+            "Source", "", () -> "value", String.class);
+        Method wrapMethod = 
+            InferringTypeContextTest.class.getMethod("wrap", Object.class);
+        wrap = Modules.createForMethod(wrapMethod);
+        Method firstMethod = 
+            InferringTypeContextTest.class.getMethod("first", List.class);
+        first = Modules.createForMethod(firstMethod);
+        flow.addModule(stringSource);
+        flow.addModule(wrap);
+        flow.addModule(first);
+    }
+
+    @Test
+    public void testTypesAreUnboundInitially()
+    {
+        assertTrue(getInputType(wrap) instanceof TypeVariable<?>);
+        assertParameterized(getOutputType(wrap), List.class, 
+            TypeVariable.class);
+        assertTrue(getOutputType(first) instanceof TypeVariable<?>);
+    }
+
+    @Test
+    public void testLinkBindsTypeVariable()
+    {
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+
+        assertEquals(String.class, getInputType(wrap));
+        assertParameterized(getOutputType(wrap), List.class, String.class);
+    }
+
+    @Test
+    public void testBindingsArePropagated()
+    {
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+        flow.addLink(Links.create(wrap, 0, first, 0));
+
+        assertParameterized(getInputType(first), List.class, String.class);
+        assertEquals(String.class, getOutputType(first));
+    }
+
+    @Test
+    public void testBindingsArePropagatedInAnyOrder()
+    {
+        flow.addLink(Links.create(wrap, 0, first, 0));
+        assertTrue(getOutputType(first) instanceof TypeVariable<?>);
+
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+        assertEquals(String.class, getOutputType(first));
+    }
+
+    @Test
+    public void testRemovingLinkUnbindsTypeVariables()
+    {
+        Link link = Links.create(stringSource, 0, wrap, 0);
+        flow.addLink(link);
+        flow.addLink(Links.create(wrap, 0, first, 0));
+        assertEquals(String.class, getOutputType(first));
+
+        flow.removeLink(link);
+        assertTrue(getInputType(wrap) instanceof TypeVariable<?>);
+        assertTrue(getOutputType(first) instanceof TypeVariable<?>);
+        assertParameterized(getInputType(first), List.class, 
+            TypeVariable.class);
+    }
+
+    @Test
+    public void testRemovingModuleUnbindsTypeVariables()
+    {
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+        flow.addLink(Links.create(wrap, 0, first, 0));
+        flow.removeModule(stringSource);
+
+        assertTrue(getOutputType(first) instanceof TypeVariable<?>);
+    }
+
+    @Test
+    public void testBulkOperationsUpdateBindings()
+    {
+        Link link0 = Links.create(stringSource, 0, wrap, 0);
+        Link link1 = Links.create(wrap, 0, first, 0);
+        flow.addAll(Collections.<Module>emptyList(), 
+            Arrays.asList(link0, link1));
+        assertEquals(String.class, getOutputType(first));
+
+        flow.removeAll(Collections.<Module>emptyList(), 
+            Collections.singletonList(link0));
+        assertTrue(getOutputType(first) instanceof TypeVariable<?>);
+    }
+
+    @Test
+    public void testGenerationChangesWithBindings()
+    {
+        TypeContext typeContext = flow.getTypeContext();
+        long generation0 = typeContext.getGeneration();
+        Link link = Links.create(stringSource, 0, wrap, 0);
+        flow.addLink(link);
+        long generation1 = typeContext.getGeneration();
+        assertTrue(generation1 != generation0);
+        flow.removeLink(link);
+        assertTrue(typeContext.getGeneration() != generation1);
+    }
+
+    @Test
+    public void testValidateReportsInvalidLinks()
+    {
+        Module integerSink = Modules.createForConsumer(
+            "Sink", "", object -> {}, Integer.class);
+        flow.addModule(integerSink);
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+        flow.addLink(Links.create(wrap, 0, first, 0));
+        Link link = Links.create(first, 0, integerSink, 0);
+        flow.addLink(link);
+
+        FlowValidationResult result = Flows.validate(flow);
+        assertFalse(result.isValid());
+        assertEquals(Collections.singleton(link), result.getInvalidLinks());
+        assertTrue(result.getUnresolvedSlots().isEmpty());
+    }
+
+    @Test
+    public void testValidateReportsUnresolvedSlots()
+    {
+        flow.addLink(Links.create(wrap, 0, first, 0));
+
+        FlowValidationResult result = Flows.validate(flow);
+        assertFalse(result.isValid());
+        assertTrue(result.getInvalidLinks().isEmpty());
+        assertEquals(2, result.getUnresolvedSlots().size());
+        assertTrue(result.getUnresolvedSlots().contains(
+            wrap.getOutputSlots().get(0)));
+        assertTrue(result.getUnresolvedSlots().contains(
+            first.getInputSlots().get(0)));
+
+        flow.addLink(Links.create(stringSource, 0, wrap, 0));
+        assertTrue(Flows.validate(flow).isValid());
+    }
+
+    /**
+     * Returns the expected type of the first input slot of the given module
+     *
+     * @param module The module
+     * @return The type
+     */
+    private static Type getInputType(Module module)
+    {
+        return module.getInputSlots().get(0).getExpectedType();
+    }
+
+    /**
+     * Returns the actual type of the first output slot of the given module
+     *
+     * @param module The module
+     * @return The type
+     */
+    private static Type getOutputType(Module module)
+    {
+        return module.getOutputSlots().get(0).getActualType();
+    }
+
+    /**
+     * Assert that the given type is a parameterized type with the given
+     * raw type and a single type argument. If the expected argument is 
+     * <code>TypeVariable.class</code>, then the argument must be a type
+     * variable. Otherwise, it must be equal to the given type.
+     *
+     * @param type The type
+     * @param rawType The expected raw type
+     * @param argument The expected type argument
+     */
+    private static void assertParameterized(
+        Type type, Class<?> rawType, Type argument)
+    {
+        assertTrue("Expected parameterized type, but got " + type, 
+            type instanceof ParameterizedType);
+        ParameterizedType parameterizedType = (ParameterizedType) type;
+        assertEquals(rawType, parameterizedType.getRawType());
+        Type arguments[] = parameterizedType.getActualTypeArguments();
+        assertEquals(1, arguments.length);
+        if (argument == TypeVariable.class)
+        {
+            assertTrue("Expected type variable, but got " + arguments[0],
+                arguments[0] instanceof TypeVariable<?>);
+        }
+        else
+        {
+            assertArrayEquals(new Type[] { argument }, arguments);
+        }
+    }
+}
@@ -0,0 +1,225 @@
+package de.javagl.flow.analysis;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the strongly connected components and dominators that
+ * are computed by the {@link FlowAnalysis} class
+ */
+@RunWith(JUnit4.class)
+public class FlowAnalysisTest
+{
+    /**
+     * The method that is used for all modules of the tests
+     *
+     * @param a The first argument
+     * @param b The second argument
+     * @return The first argument
+     */
+    public static Object combine(Object a, Object b)
+    {
+        return a;
+    }
+
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * Initialize the flow
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+    }
+
+    @Test
+    public void testComponentsOfAcyclicFlow()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        Module c = createModule();
+        link(a, b, 0);
+        link(b, c, 0);
+
+        List<Set<Module>> components = 
+            FlowAnalysis.computeStronglyConnectedComponents(flow);
+        assertEquals(Arrays.asList(
+            setOf(c), setOf(b), setOf(a)), components);
+    }
+
+    @Test
+    public void testComponentsOfCyclicFlow()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        Module c = createModule();
+        Module d = createModule();
+        link(a, b, 0);
+        link(b, c, 0);
+        link(c, b, 1);
+        link(c, d, 0);
+
+        List<Set<Module>> components = 
+            FlowAnalysis.computeStronglyConnectedComponents(flow);
+        assertEquals(Arrays.asList(
+            setOf(d), setOf(b, c), setOf(a)), components);
+    }
+
+    @Test
+    public void testComponentsOfSelfLoop()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        link(a, b, 0);
+        link(b, b, 1);
+
+        List<Set<Module>> components = 
+            FlowAnalysis.computeStronglyConnectedComponents(flow);
+        assertEquals(Arrays.asList(setOf(b), setOf(a)), components);
+    }
+
+    @Test
+    public void testDominatorsOfDiamond()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        Module c = createModule();
+        Module d = createModule();
+        Module e = createModule();
+        link(a, b, 0);
+        link(a, c, 0);
+        link(b, d, 0);
+        link(c, d, 1);
+        link(d, e, 0);
+
+        Map<Module, Module> dominators = 
+            FlowAnalysis.computeImmediateDominators(flow);
+        assertEquals(5, dominators.size());
+        assertNull(dominators.get(a));
+        assertSame(a, dominators.get(b));
+        assertSame(a, dominators.get(c));
+        assertSame(a, dominators.get(d));
+        assertSame(d, dominators.get(e));
+    }
+
+    @Test
+    public void testDominatorsWithSeveralSources()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        Module c = createModule();
+        Module d = createModule();
+        link(a, c, 0);
+        link(b, c, 1);
+        link(c, d, 0);
+
+        Map<Module, Module> dominators = 
+            FlowAnalysis.computeImmediateDominators(flow);
+        assertNull(dominators.get(a));
+        assertNull(dominators.get(b));
+        assertNull(dominators.get(c));
+        assertSame(c, dominators.get(d));
+    }
+
+    @Test
+    public void testDominatorsOfUnbalancedPaths()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        Module c = createModule();
+        Module d = createModule();
+        Module e = createModule();
+        link(a, b, 0);
+        link(b, c, 0);
+        link(c, d, 0);
+        link(a, e, 0);
+        link(b, e, 1);
+
+        Map<Module, Module> dominators = 
+            FlowAnalysis.computeImmediateDominators(flow);
+        assertNull(dominators.get(a));
+        assertSame(a, dominators.get(b));
+        assertSame(b, dominators.get(c));
+        assertSame(c, dominators.get(d));
+        assertSame(a, dominators.get(e));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testDominatorsOfCyclicFlow()
+    {
+        Module a = createModule();
+        Module b = createModule();
+        link(a, b, 0);
+        link(b, a, 0);
+        FlowAnalysis.computeImmediateDominators(flow);
+    }
+
+    /**
+     * Create a module with two inputs, and add it to the flow
+     *
+     * @return The module
+     */
+    private Module createModule()
+    {
+        try
+        {
+            Module module = Modules.createForMethod(
+                FlowAnalysisTest.class.getMethod(
+                    "combine", Object.class, Object.class));
+            flow.addModule(module);
+            return module;
+        }
+        catch (NoSuchMethodException e)
+        {
+            throw new AssertionError(e);
+        }
+    }
+
+    /**
+     * Add a link from the first output of the given source module to the
+     * specified input of the given target module to the flow
+     *
+     * @param source The source module
+     * @param target The target module
+     * @param inputIndex The index of the input slot
+     */
+    private void link(Module source, Module target, int inputIndex)
+    {
+        assertTrue(flow.addLink(
+            Links.create(source, 0, target, inputIndex)));
+    }
+
+    /**
+     * Create a set containing the given modules
+     *
+     * @param modules The modules
+     * @return The set
+     */
+    private static Set<Module> setOf(Module ... modules)
+    {
+        return new HashSet<Module>(Arrays.asList(modules));
+    }
+}
@@ -0,0 +1,230 @@
+package de.javagl.flow.execution;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the {@link MemoryTracker} class, and for the execution
+ * of a flow with a memory bounded {@link FlowExecutor}
+ */
+@RunWith(JUnit4.class)
+public class MemoryTrackerTest
+{
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * Initialize the flow
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+    }
+
+    @Test
+    public void testLinksAreClearedAfterLastConsumer()
+    {
+        Module source = createModule(0);
+        Module consumer0 = createModule(0);
+        Module consumer1 = createModule(0);
+        Link link0 = link(source, consumer0);
+        Link link1 = link(source, consumer1);
+        MemoryTracker memoryTracker = new MemoryTracker(
+            Arrays.asList(source, consumer0, consumer1), 100);
+
+        link0.accept("value");
+        link1.accept("value");
+        memoryTracker.moduleExecuted(source);
+        assertEquals("value", link0.provide());
+        assertEquals("value", link1.provide());
+
+        memoryTracker.moduleExecuted(consumer0);
+        assertEquals("value", link0.provide());
+        assertEquals("value", link1.provide());
+
+        memoryTracker.moduleExecuted(consumer1);
+        assertNull(link0.provide());
+        assertNull(link1.provide());
+    }
+
+    @Test
+    public void testRetainedLinksAreNotCleared()
+    {
+        Module source = createModule(0);
+        Module consumer0 = createModule(0);
+        Module consumer1 = createModule(0);
+        Link link0 = link(source, consumer0);
+        Link link1 = link(source, consumer1);
+        link1.setRetained(true);
+        MemoryTracker memoryTracker = new MemoryTracker(
+            Arrays.asList(source, consumer0, consumer1), 100);
+
+        link0.accept("value");
+        link1.accept("value");
+        memoryTracker.moduleExecuted(source);
+        memoryTracker.moduleExecuted(consumer0);
+        memoryTracker.moduleExecuted(consumer1);
+        assertNull(link0.provide());
+        assertEquals("value", link1.provide());
+    }
+
+    @Test
+    public void testOutputsWithoutExecutedConsumersAreClearedImmediately()
+    {
+        Module source = createModule(0);
+        Module consumer = createModule(0);
+        Link link = link(source, consumer);
+        MemoryTracker memoryTracker = 
+            new MemoryTracker(Arrays.asList(source), 100);
+
+        link.accept("value");
+        memoryTracker.moduleExecuted(source);
+        assertNull(link.provide());
+    }
+
+    @Test
+    public void testFootprintIsReservedUntilOutputsAreConsumed()
+    {
+        Module source = createModule(60);
+        Module consumer = createModule(0);
+        Module other = createModule(60);
+        link(source, consumer);
+        MemoryTracker memoryTracker = new MemoryTracker(
+            Arrays.asList(source, consumer, other), 100);
+
+        assertTrue(memoryTracker.tryAdmit(source));
+        assertFalse(memoryTracker.tryAdmit(other));
+        memoryTracker.moduleExecuted(source);
+
+        // The footprint of the source is still reserved, because its 
+        // output has not been consumed yet
+        assertTrue(memoryTracker.tryAdmit(consumer));
+        assertFalse(memoryTracker.tryAdmit(other));
+        memoryTracker.moduleExecuted(consumer);
+
+        assertTrue(memoryTracker.tryAdmit(other));
+    }
+
+    @Test
+    public void testModuleExceedingBudgetIsAdmittedWhenIdle()
+    {
+        Module small = createModule(10);
+        Module large = createModule(500);
+        MemoryTracker memoryTracker = 
+            new MemoryTracker(Arrays.asList(small, large), 100);
+
+        assertTrue(memoryTracker.tryAdmit(small));
+        assertFalse(memoryTracker.tryAdmit(large));
+        memoryTracker.moduleExecuted(small);
+        assertTrue(memoryTracker.tryAdmit(large));
+        assertFalse(memoryTracker.tryAdmit(small));
+        memoryTracker.moduleExecuted(large);
+        assertTrue(memoryTracker.tryAdmit(small));
+    }
+
+    @Test
+    public void testModulesWithUnknownFootprintDoNotReserveMemory()
+    {
+        Module large = createModule(90);
+        Module unknown0 = createModule(-1);
+        Module unknown1 = createModule(-1);
+        Module small = createModule(20);
+        MemoryTracker memoryTracker = new MemoryTracker(
+            Arrays.asList(large, unknown0, unknown1, small), 100);
+
+        assertTrue(memoryTracker.tryAdmit(large));
+        assertTrue(memoryTracker.tryAdmit(unknown0));
+        assertTrue(memoryTracker.tryAdmit(unknown1));
+        assertFalse(memoryTracker.tryAdmit(small));
+    }
+
+    @Test
+    public void testMemoryBoundedExecution()
+    {
+        List<Object> results = new ArrayList<Object>();
+        Module source = Modules.createForSupplier(
+            "Source", "", () -> 20, Integer.class);
+        flow.addModule(source);
+        Module previous = source;
+        List<Link> links = new ArrayList<Link>();
+        for (int i = 0; i < 5; i++)
+        {
+            Module module = createModule(60);
+            links.add(link(previous, module));
+            previous = module;
+        }
+        Module sink = Modules.createForConsumer(
+            "Sink", "", results::add, Integer.class);
+        flow.addModule(sink);
+        Link lastLink = link(previous, sink);
+        lastLink.setRetained(true);
+
+        FlowExecutor flowExecutor = FlowExecutors.createMemoryBounded(100);
+        flowExecutor.execute(flow);
+
+        assertEquals(Arrays.asList(25), results);
+        for (Link link : links)
+        {
+            assertNull(link.provide());
+        }
+        assertEquals(25, lastLink.provide());
+    }
+
+    /**
+     * Create a module that increments its integer input, with the given
+     * expected memory footprint, and add it to the flow
+     *
+     * @param footprint The expected memory footprint
+     * @return The module
+     */
+    private Module createModule(long footprint)
+    {
+        ModuleInfo moduleInfo = ModuleInfos.create("Increment", "")
+            .addInput(Integer.class, "Input", "The input")
+            .addOutput(Integer.class, "Output", "The output")
+            .setExpectedMemoryFootprint(footprint)
+            .build();
+        Module module = Modules.createForFunction(
+            moduleInfo, (Integer i) -> i + 1);
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Add a link from the first output of the given source module to the
+     * first input of the given target module to the flow
+     *
+     * @param source The source module
+     * @param target The target module
+     * @return The link
+     */
+    private Link link(Module source, Module target)
+    {
+        Link link = Links.create(source, 0, target, 0);
+        assertTrue(flow.addLink(link));
+        return link;
+    }
+}
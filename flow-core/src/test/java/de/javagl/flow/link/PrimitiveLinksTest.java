@@ -0,0 +1,241 @@
+package de.javagl.flow.link;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+import de.javagl.flow.module.SimpleAbstractModule;
+
+/**
+ * Test cases for the links for primitive values that are created by 
+ * {@link Links#create(Module, int, Module, int)}
+ */
+@RunWith(JUnit4.class)
+public class PrimitiveLinksTest
+{
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * Initialize the flow
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+    }
+
+    @Test
+    public void testLinkTypesAreSelectedFromSourceType()
+    {
+        assertTrue(createLink(int.class) instanceof IntLink);
+        assertTrue(createLink(Integer.class) instanceof IntLink);
+        assertTrue(createLink(long.class) instanceof LongLink);
+        assertTrue(createLink(Long.class) instanceof LongLink);
+        assertTrue(createLink(double.class) instanceof DoubleLink);
+        assertTrue(createLink(Double.class) instanceof DoubleLink);
+
+        Link link = createLink(Number.class);
+        assertFalse(link instanceof IntLink);
+        assertFalse(link instanceof LongLink);
+        assertFalse(link instanceof DoubleLink);
+    }
+
+    @Test
+    public void testIntLink()
+    {
+        IntLink link = (IntLink) createLink(int.class);
+        link.acceptInt(42);
+        assertEquals(42, link.provideInt());
+        assertEquals(42, link.provide());
+
+        link.accept(Integer.valueOf(23));
+        assertEquals(23, link.provideInt());
+        assertEquals(23, link.provide());
+
+        link.clear();
+        assertNull(link.provide());
+    }
+
+    @Test
+    public void testLongLink()
+    {
+        LongLink link = (LongLink) createLink(long.class);
+        link.acceptLong(40000000000L);
+        assertEquals(40000000000L, link.provideLong());
+        assertEquals(40000000000L, link.provide());
+
+        link.accept(Long.valueOf(-1L));
+        assertEquals(-1L, link.provideLong());
+
+        link.clear();
+        assertNull(link.provide());
+    }
+
+    @Test
+    public void testDoubleLink()
+    {
+        DoubleLink link = (DoubleLink) createLink(double.class);
+        link.acceptDouble(1.5);
+        assertEquals(1.5, link.provideDouble(), 0.0);
+        assertEquals(1.5, link.provide());
+
+        link.accept(Double.valueOf(-0.25));
+        assertEquals(-0.25, link.provideDouble(), 0.0);
+
+        link.clear();
+        assertNull(link.provide());
+    }
+
+    @Test
+    public void testPrimitiveLinkWithNullObject()
+    {
+        IntLink link = (IntLink) createLink(Integer.class);
+        link.acceptInt(42);
+        link.accept(null);
+        assertNull(link.provide());
+        try
+        {
+            link.provideInt();
+            fail("Expected a NullPointerException");
+        }
+        catch (NullPointerException e)
+        {
+            // Expected
+        }
+    }
+
+    @Test
+    public void testPrimitiveLinksAreRetained()
+    {
+        Link link = createLink(double.class);
+        assertFalse(link.isRetained());
+        link.setRetained(true);
+        assertTrue(link.isRetained());
+    }
+
+    @Test
+    public void testListenersReceiveBoxedValues()
+    {
+        IntLink link = (IntLink) createLink(int.class);
+        List<Object> accepted = new ArrayList<Object>();
+        List<Object> provided = new ArrayList<Object>();
+        link.addLinkListener(new LinkListener()
+        {
+            @Override
+            public void objectAccepted(LinkEvent linkEvent)
+            {
+                accepted.add(linkEvent.getObject());
+            }
+
+            @Override
+            public void objectProvided(LinkEvent linkEvent)
+            {
+                provided.add(linkEvent.getObject());
+            }
+        });
+        link.acceptInt(42);
+        link.provideInt();
+        assertEquals(1, accepted.size());
+        assertEquals(42, accepted.get(0));
+        assertEquals(1, provided.size());
+        assertEquals(42, provided.get(0));
+    }
+
+    @Test
+    public void testModulesPassPrimitiveValues()
+    {
+        Module source = new IntModule(ModuleInfos.create("Source", "")
+            .addOutput(int.class, "Output", "The value")
+            .build())
+        {
+            @Override
+            protected void process()
+            {
+                forwardIntOutput(0, 21);
+            }
+        };
+        Module doubler = new IntModule(ModuleInfos.create("Doubler", "")
+            .addInput(int.class, "Input", "The value")
+            .addOutput(int.class, "Output", "The doubled value")
+            .build())
+        {
+            @Override
+            protected void process()
+            {
+                forwardIntOutput(0, obtainIntInput(0) * 2);
+            }
+        };
+        List<Object> results = new ArrayList<Object>();
+        Module sink = Modules.createForConsumer(
+            "Sink", "", results::add, Integer.class);
+        flow.addModule(source);
+        flow.addModule(doubler);
+        flow.addModule(sink);
+        Link link0 = Links.create(source, 0, doubler, 0);
+        Link link1 = Links.create(doubler, 0, sink, 0);
+        flow.addLink(link0);
+        flow.addLink(link1);
+        assertTrue(link0 instanceof IntLink);
+        assertTrue(link1 instanceof IntLink);
+
+        source.execute();
+        doubler.execute();
+        sink.execute();
+        assertEquals(1, results.size());
+        assertEquals(42, results.get(0));
+    }
+
+    /**
+     * Create a link from a module with an output of the given type to
+     * a module with an input of the same type
+     *
+     * @param type The type
+     * @return The link
+     */
+    private static Link createLink(Class<?> type)
+    {
+        Module source = new IntModule(ModuleInfos.create("Source", "")
+            .addOutput(type, "Output", "The value")
+            .build());
+        Module target = new IntModule(ModuleInfos.create("Target", "")
+            .addInput(type, "Input", "The value")
+            .build());
+        return Links.create(source, 0, target, 0);
+    }
+
+    /**
+     * A module that may override the processing to use the methods for
+     * primitive values
+     */
+    private static class IntModule extends SimpleAbstractModule
+    {
+        /**
+         * Creates a new instance
+         *
+         * @param moduleInfo The {@link ModuleInfo}
+         */
+        IntModule(ModuleInfo moduleInfo)
+        {
+            super(moduleInfo);
+        }
+    }
+}
@@ -0,0 +1,364 @@
+package de.javagl.flow.link;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.io.IOException;
+import java.lang.ref.WeakReference;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the {@link SpillingLink} class and the chunked
+ * encoding of the {@link LinkCodecs}
+ */
+@RunWith(JUnit4.class)
+public class SpillingLinkTest
+{
+    /**
+     * The threshold for spilling objects, in bytes
+     */
+    private static final long THRESHOLD = 1024;
+
+    /**
+     * The directory for the spilled files
+     */
+    private Path directory;
+
+    /**
+     * Create the directory for the spilled files
+     *
+     * @throws IOException If an IO error occurs
+     */
+    @Before
+    public void setUp() throws IOException
+    {
+        directory = Files.createTempDirectory("flow-spilling-link-test");
+    }
+
+    /**
+     * Delete the directory for the spilled files
+     *
+     * @throws IOException If an IO error occurs
+     */
+    @After
+    public void tearDown() throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory))
+        {
+            for (Path file : (Iterable<Path>) files::iterator)
+            {
+                Files.deleteIfExists(file);
+            }
+        }
+        Files.deleteIfExists(directory);
+    }
+
+    @Test
+    public void testSmallObjectIsKeptInMemory() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        int array[] = createIntArray(10);
+        link.accept(array);
+        assertEquals(0, countFiles());
+        assertSame(array, link.provide());
+    }
+
+    @Test
+    public void testLargeObjectIsSpilledAndReloaded() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        awaitGarbageCollection(acceptIntArray(link, 1000));
+        assertEquals(1, countFiles());
+
+        // The accepted array has been garbage collected, so the link 
+        // has to read it from the file
+        int provided[] = (int[]) link.provide();
+        assertArrayEquals(createIntArray(1000), provided);
+        assertSame(provided, link.provide());
+        assertEquals(1, countFiles());
+    }
+
+    @Test
+    public void testSpilledObjectIsReturnedWhileReferenced() 
+        throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        double array[] = new double[1000];
+        Arrays.fill(array, 1.5);
+        link.accept(array);
+        assertEquals(1, countFiles());
+        assertSame(array, link.provide());
+    }
+
+    @Test
+    public void testClearDeletesFile() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        acceptIntArray(link, 1000);
+        assertEquals(1, countFiles());
+        link.clear();
+        assertEquals(0, countFiles());
+        assertNull(link.provide());
+    }
+
+    @Test
+    public void testAcceptReplacesFile() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        acceptIntArray(link, 1000);
+        awaitGarbageCollection(acceptIntArray(link, 2000));
+        assertEquals(1, countFiles());
+        assertArrayEquals(createIntArray(2000), (int[]) link.provide());
+        link.accept("small");
+        assertEquals(0, countFiles());
+        assertEquals("small", link.provide());
+    }
+
+    @Test
+    public void testObjectWithoutCodecIsKeptInMemory() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder().build());
+        List<String> list = createList(1000);
+        link.accept(list);
+        assertEquals(0, countFiles());
+        assertSame(list, link.provide());
+    }
+
+    @Test
+    public void testSerializableFallback() throws IOException
+    {
+        Link link = createLink(createPolicyBuilder()
+            .setSerializableFallback(true).build());
+        WeakReference<Object> accepted = 
+            new WeakReference<Object>(createList(1000));
+        link.accept(accepted.get());
+        assertEquals(1, countFiles());
+        awaitGarbageCollection(accepted);
+        assertEquals(createList(1000), link.provide());
+    }
+
+    @Test
+    public void testFileOfUnreachableLinkIsDeleted() throws IOException
+    {
+        SpillPolicy spillPolicy = createPolicyBuilder().build();
+        Link link = createLink(spillPolicy);
+        acceptIntArray(link, 1000);
+        assertEquals(1, countFiles());
+        WeakReference<Object> reference = new WeakReference<Object>(link);
+        link = null;
+        awaitGarbageCollection(reference);
+
+        // The file of the unreachable link is deleted when the next 
+        // file is written
+        Link otherLink = createLink(spillPolicy);
+        acceptIntArray(otherLink, 1000);
+        assertEquals(1, countFiles());
+        otherLink.clear();
+        assertEquals(0, countFiles());
+    }
+
+    @Test
+    public void testChunkedArrayCodecs()
+    {
+        int ints[] = createIntArray(37);
+        assertArrayEquals(ints, roundTrip(
+            LinkCodecs.createIntArrayCodec(), ints, 16));
+        long longs[] = new long[29];
+        double doubles[] = new double[29];
+        float floats[] = new float[29];
+        byte bytes[] = new byte[29];
+        for (int i = 0; i < 29; i++)
+        {
+            longs[i] = i * 10000000000L;
+            doubles[i] = i * 0.25;
+            floats[i] = i * 0.5f;
+            bytes[i] = (byte) i;
+        }
+        assertArrayEquals(longs, roundTrip(
+            LinkCodecs.createLongArrayCodec(), longs, 8));
+        assertArrayEquals(doubles, roundTrip(
+            LinkCodecs.createDoubleArrayCodec(), doubles, 24), 0.0);
+        assertArrayEquals(floats, roundTrip(
+            LinkCodecs.createFloatArrayCodec(), floats, 16), 0.0f);
+        assertArrayEquals(bytes, roundTrip(
+            LinkCodecs.createByteArrayCodec(), bytes, 8));
+    }
+
+    @Test
+    public void testChunkedSerializableCodec()
+    {
+        ArrayList<String> list = createList(100);
+        assertEquals(list, roundTrip(
+            LinkCodecs.createSerializableCodec(), list, 64));
+    }
+
+    /**
+     * Create a builder for a spill policy that writes into the test 
+     * directory, with the test threshold
+     *
+     * @return The builder
+     */
+    private SpillPolicyBuilder createPolicyBuilder()
+    {
+        return Links.createSpillPolicyBuilder()
+            .setDirectory(directory)
+            .setThreshold(THRESHOLD);
+    }
+
+    /**
+     * Create a spilling link with the given policy, between two modules
+     * that pass objects
+     *
+     * @param spillPolicy The policy
+     * @return The link
+     */
+    private static Link createLink(SpillPolicy spillPolicy)
+    {
+        Module source = Modules.createForSupplier(
+            "Source", "", () -> null, Object.class);
+        Module target = Modules.createForConsumer(
+            "Target", "", object -> {}, Object.class);
+        return Links.createSpilling(source.getOutputSlots().get(0), 
+            target.getInputSlots().get(0), spillPolicy);
+    }
+
+    /**
+     * Pass a new array that is created with {@link #createIntArray(int)}
+     * to the given link, without keeping a reference to the array
+     *
+     * @param link The link
+     * @param length The length of the array
+     * @return A weak reference to the array
+     */
+    private static WeakReference<Object> acceptIntArray(
+        Link link, int length)
+    {
+        int array[] = createIntArray(length);
+        link.accept(array);
+        return new WeakReference<Object>(array);
+    }
+
+    /**
+     * Create an array with the given length, filled with its indices
+     *
+     * @param length The length
+     * @return The array
+     */
+    private static int[] createIntArray(int length)
+    {
+        int array[] = new int[length];
+        for (int i = 0; i < length; i++)
+        {
+            array[i] = i;
+        }
+        return array;
+    }
+
+    /**
+     * Create a list with the given number of strings
+     *
+     * @param size The size
+     * @return The list
+     */
+    private static ArrayList<String> createList(int size)
+    {
+        ArrayList<String> list = new ArrayList<String>();
+        for (int i = 0; i < size; i++)
+        {
+            list.add("Element " + i);
+        }
+        return list;
+    }
+
+    /**
+     * Returns the number of files in the test directory
+     *
+     * @return The number of files
+     * @throws IOException If an IO error occurs
+     */
+    private long countFiles() throws IOException
+    {
+        try (Stream<Path> files = Files.list(directory))
+        {
+            return files.count();
+        }
+    }
+
+    /**
+     * Run the garbage collector until the referent of the given reference
+     * has been collected, and fail if this does not happen
+     * 
+     * @param reference The reference
+     */
+    private static void awaitGarbageCollection(WeakReference<?> reference)
+    {
+        for (int i = 0; i < 100 && reference.get() != null; i++)
+        {
+            System.gc();
+            try
+            {
+                Thread.sleep(10);
+            }
+            catch (InterruptedException e)
+            {
+                Thread.currentThread().interrupt();
+                break;
+            }
+        }
+        assertTrue("Object was not garbage collected", 
+            reference.get() == null);
+    }
+
+    /**
+     * Encode the given object with the given codec into buffers with the
+     * given chunk size, decode it, and return the result
+     *
+     * @param <T> The type of the object
+     * @param codec The codec
+     * @param object The object
+     * @param chunkSize The size of all chunks except for the last one
+     * @return The decoded object
+     */
+    private static <T> T roundTrip(LinkCodec<T> codec, T object, 
+        int chunkSize)
+    {
+        long size = codec.computeSize(object);
+        int numChunks = (int) ((size + chunkSize - 1) / chunkSize);
+        ByteBuffer buffers[] = new ByteBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++)
+        {
+            long length = Math.min(chunkSize, size - (long) i * chunkSize);
+            buffers[i] = ByteBuffer.allocate((int) length)
+                .order(ByteOrder.nativeOrder());
+        }
+        codec.encode(object, buffers);
+        for (ByteBuffer buffer : buffers)
+        {
+            assertEquals(0, buffer.remaining());
+            buffer.flip();
+        }
+        T result = codec.decode(buffers);
+        assertNotSame(object, result);
+        return result;
+    }
+}
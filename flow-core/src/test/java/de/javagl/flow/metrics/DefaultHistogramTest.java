@@ -0,0 +1,107 @@
+package de.javagl.flow.metrics;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Collections;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+/**
+ * Test cases for the {@link DefaultHistogram} class
+ */
+@RunWith(JUnit4.class)
+public class DefaultHistogramTest
+{
+    @Test
+    public void testEmpty()
+    {
+        DefaultHistogram histogram = createHistogram();
+        assertEquals(0, histogram.getCount());
+        assertEquals(0, histogram.getMin());
+        assertEquals(0, histogram.getMax());
+        assertEquals(0.0, histogram.getMean(), 0.0);
+        assertEquals(0, histogram.getValueAtPercentile(50.0));
+    }
+
+    @Test
+    public void testSmallValuesAreExact()
+    {
+        DefaultHistogram histogram = createHistogram();
+        for (int i = 100; i >= 1; i--)
+        {
+            histogram.record(i);
+        }
+        assertEquals(100, histogram.getCount());
+        assertEquals(1, histogram.getMin());
+        assertEquals(100, histogram.getMax());
+        assertEquals(50.5, histogram.getMean(), 1e-9);
+        assertEquals(1, histogram.getValueAtPercentile(0.0));
+        assertEquals(50, histogram.getValueAtPercentile(50.0));
+        assertEquals(90, histogram.getValueAtPercentile(90.0));
+        assertEquals(99, histogram.getValueAtPercentile(99.0));
+        assertEquals(100, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testLargeValuesHaveBoundedRelativeError()
+    {
+        DefaultHistogram histogram = createHistogram();
+        long scale = 1234567L;
+        for (int i = 1; i <= 1000; i++)
+        {
+            histogram.record(i * scale);
+        }
+        double percentiles[] = { 1.0, 25.0, 50.0, 75.0, 90.0, 99.0, 99.9 };
+        for (double percentile : percentiles)
+        {
+            long expected = (long) Math.ceil(percentile * 10.0) * scale;
+            long actual = histogram.getValueAtPercentile(percentile);
+            assertTrue("Percentile " + percentile + " is " + actual 
+                + ", expected at least " + expected, actual >= expected);
+            assertTrue("Percentile " + percentile + " is " + actual 
+                + ", expected about " + expected, 
+                actual <= expected + expected / 64);
+        }
+        assertEquals(1000 * scale, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testPercentileDoesNotExceedMax()
+    {
+        DefaultHistogram histogram = createHistogram();
+        histogram.record(1000001L);
+        assertEquals(1000001L, histogram.getValueAtPercentile(50.0));
+        assertEquals(1000001L, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test
+    public void testExtremeValues()
+    {
+        DefaultHistogram histogram = createHistogram();
+        histogram.record(-5);
+        histogram.record(Long.MAX_VALUE);
+        assertEquals(0, histogram.getMin());
+        assertEquals(Long.MAX_VALUE, histogram.getMax());
+        assertEquals(0, histogram.getValueAtPercentile(50.0));
+        assertEquals(Long.MAX_VALUE, histogram.getValueAtPercentile(100.0));
+    }
+
+    @Test(expected = IllegalArgumentException.class)
+    public void testInvalidPercentile()
+    {
+        createHistogram().getValueAtPercentile(100.5);
+    }
+
+    /**
+     * Create a new histogram for the tests
+     *
+     * @return The histogram
+     */
+    private static DefaultHistogram createHistogram()
+    {
+        return new DefaultHistogram("test", Collections.emptyMap());
+    }
+}
@@ -0,0 +1,246 @@
+package de.javagl.flow.module;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+
+/**
+ * Test cases for the copies that are created by 
+ * {@link AbstractModule#obtainInput(int)} for mutating input slots
+ */
+@RunWith(JUnit4.class)
+public class MutatingInputTest
+{
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * The number of copies that have been created
+     */
+    private AtomicInteger copies;
+
+    /**
+     * The objects that have been received by the consumers
+     */
+    private List<int[]> received;
+
+    /**
+     * The array that is provided by the source
+     */
+    private int array[];
+
+    /**
+     * The source module
+     */
+    private Module source;
+
+    /**
+     * Initialize the flow and the source module
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+        copies = new AtomicInteger();
+        received = new ArrayList<int[]>();
+        array = new int[] { 1, 2, 3 };
+        source = Modules.createForSupplier(
+            "Source", "", () -> array, int[].class);
+        flow.addModule(source);
+    }
+
+    @Test
+    public void testSingleConsumerIsNotCopied()
+    {
+        Module consumer = createMutatingConsumer();
+        link(source, consumer);
+        execute(source, consumer);
+
+        assertEquals(0, copies.get());
+        assertSame(array, received.get(0));
+        assertArrayEquals(new int[] { -1, 2, 3 }, array);
+    }
+
+    @Test
+    public void testObjectFromRetainedLinkIsCopied()
+    {
+        Module consumer = createMutatingConsumer();
+        Link link = Links.create(source, 0, consumer, 0);
+        link.setRetained(true);
+        assertTrue(flow.addLink(link));
+        execute(source, consumer);
+
+        assertEquals(1, copies.get());
+        assertNotSame(array, received.get(0));
+        assertSame(array, link.provide());
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void testSharedObjectIsCopiedForEachMutatingConsumer()
+    {
+        Module consumer0 = createMutatingConsumer();
+        Module consumer1 = createMutatingConsumer();
+        link(source, consumer0);
+        link(source, consumer1);
+        execute(source, consumer0, consumer1);
+
+        assertEquals(2, copies.get());
+        assertNotSame(array, received.get(0));
+        assertNotSame(array, received.get(1));
+        assertNotSame(received.get(0), received.get(1));
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+        assertArrayEquals(new int[] { -1, 2, 3 }, received.get(0));
+        assertArrayEquals(new int[] { -1, 2, 3 }, received.get(1));
+    }
+
+    @Test
+    public void testNonMutatingConsumerReceivesOriginal()
+    {
+        List<int[]> observed = new ArrayList<int[]>();
+        Module observer = Modules.createForConsumer(
+            "Observer", "", (int[] a) -> observed.add(a), int[].class);
+        flow.addModule(observer);
+        Module consumer = createMutatingConsumer();
+        link(source, observer);
+        link(source, consumer);
+        execute(source, observer, consumer);
+
+        assertEquals(1, copies.get());
+        assertSame(array, observed.get(0));
+        assertNotSame(array, received.get(0));
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void testObjectFromForwardingOutputIsCopied()
+    {
+        Module identity = Modules.createForFunction(
+            "Identity", "", (int[] a) -> a, int[].class, int[].class);
+        flow.addModule(identity);
+        assertTrue(identity.getOutputSlots().get(0)
+            .getSlotInfo().isForwarding());
+        Module consumer = createMutatingConsumer();
+        link(source, identity);
+        link(identity, consumer);
+        execute(source, identity, consumer);
+
+        assertEquals(1, copies.get());
+        assertNotSame(array, received.get(0));
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void testObjectFromNonForwardingOutputIsNotCopied()
+    {
+        ModuleInfo moduleInfo = ModuleInfos.create("Length", "")
+            .addInput(int[].class, "Input", "The input")
+            .addOutput(int[].class, "Output", "A new array")
+            .build();
+        Module length = Modules.createForFunction(
+            moduleInfo, (int[] a) -> new int[a.length]);
+        flow.addModule(length);
+        assertFalse(length.getOutputSlots().get(0)
+            .getSlotInfo().isForwarding());
+        Module consumer = createMutatingConsumer();
+        link(source, length);
+        link(length, consumer);
+        execute(source, length, consumer);
+
+        assertEquals(0, copies.get());
+        assertArrayEquals(new int[] { -1, 0, 0 }, received.get(0));
+        assertArrayEquals(new int[] { 1, 2, 3 }, array);
+    }
+
+    @Test
+    public void testCloningCopyFunction()
+    {
+        ModuleInfo moduleInfo = ModuleInfos.create("Consumer", "")
+            .addMutatingInput(int[].class, "Input", "The input")
+            .build();
+        Module consumer0 = Modules.createForConsumer(
+            moduleInfo, (int[] a) -> received.add(a));
+        Module consumer1 = Modules.createForConsumer(
+            moduleInfo, (int[] a) -> received.add(a));
+        flow.addModule(consumer0);
+        flow.addModule(consumer1);
+        link(source, consumer0);
+        link(source, consumer1);
+        execute(source, consumer0, consumer1);
+
+        assertNotSame(array, received.get(0));
+        assertNotSame(array, received.get(1));
+        assertArrayEquals(array, received.get(0));
+        assertArrayEquals(array, received.get(1));
+    }
+
+    /**
+     * Create a module that sets the first element of the array that it 
+     * receives to -1, and add it to the flow. The received arrays are 
+     * stored in the {@link #received} list, and the copies are counted 
+     * in {@link #copies}.
+     *
+     * @return The module
+     */
+    private Module createMutatingConsumer()
+    {
+        ModuleInfo moduleInfo = ModuleInfos.create("Consumer", "")
+            .addMutatingInput(int[].class, "Input", "The input", a -> 
+            {
+                copies.incrementAndGet();
+                return a.clone();
+            })
+            .build();
+        Module module = Modules.createForConsumer(moduleInfo, (int[] a) -> 
+        {
+            a[0] = -1;
+            received.add(a);
+        });
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Add a link from the first output of the given source module to the
+     * first input of the given target module to the flow
+     *
+     * @param source The source module
+     * @param target The target module
+     */
+    private void link(Module source, Module target)
+    {
+        assertTrue(flow.addLink(Links.create(source, 0, target, 0)));
+    }
+
+    /**
+     * Execute the given modules, in the given order
+     *
+     * @param modules The modules
+     */
+    private static void execute(Module ... modules)
+    {
+        for (Module module : modules)
+        {
+            module.execute();
+        }
+    }
+}
@@ -0,0 +1,278 @@
+package de.javagl.flow.optimization;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNotNull;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import org.junit.Before;
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the common subexpression elimination and the dead
+ * module elimination of the {@link FlowOptimizations} class
+ */
+@RunWith(JUnit4.class)
+public class FlowOptimizationsTest
+{
+    /**
+     * The {@link ModuleInfo} for the pure modules that increment a value
+     */
+    private static final ModuleInfo INCREMENT_INFO = ModuleInfos.createPure(
+        ModuleInfos.createForFunction(
+            "Increment", "", Integer.class, Integer.class));
+
+    /**
+     * The {@link ModuleInfo} for the pure modules that double a value
+     */
+    private static final ModuleInfo DOUBLE_INFO = ModuleInfos.createPure(
+        ModuleInfos.createForFunction(
+            "Double", "", Integer.class, Integer.class));
+
+    /**
+     * The flow
+     */
+    private MutableFlow flow;
+
+    /**
+     * The source module, which is not pure
+     */
+    private Module source;
+
+    /**
+     * Initialize the flow and the source module
+     */
+    @Before
+    public void setUp()
+    {
+        flow = Flows.create();
+        source = Modules.createForSupplier(
+            "Source", "", () -> 42, Integer.class);
+        flow.addModule(source);
+    }
+
+    @Test
+    public void testEliminateCommonSubexpressionsRewiresLinks()
+    {
+        Module increment0 = createIncrement();
+        Module increment1 = createIncrement();
+        Module double0 = createDouble();
+        Module double1 = createDouble();
+        Module sink0 = createSink();
+        Module sink1 = createSink();
+        link(source, increment0);
+        link(source, increment1);
+        link(increment0, double0);
+        link(increment1, double1);
+        link(double0, sink0);
+        link(double1, sink1);
+
+        Map<Module, Module> representatives = 
+            FlowOptimizations.eliminateCommonSubexpressions(flow);
+
+        assertEquals(2, representatives.size());
+        assertSame(increment0, representatives.get(increment1));
+        assertSame(double0, representatives.get(double1));
+        assertEquals(new HashSet<Module>(Arrays.asList(
+            source, increment0, double0, sink0, sink1)), 
+            flow.getModules());
+        assertEquals(4, flow.getLinks().size());
+        assertSame(double0, getSourceModule(sink0));
+        assertSame(double0, getSourceModule(sink1));
+        assertSame(increment0, getSourceModule(double0));
+        assertSame(source, getSourceModule(increment0));
+        assertEquals(2, flow.getOutgoingLinks(double0).size());
+        assertTrue(flow.getOutgoingLinks(increment1).isEmpty());
+        assertTrue(flow.getOutgoingLinks(double1).isEmpty());
+    }
+
+    @Test
+    public void testDifferentModulesAreNotEquivalent()
+    {
+        Module increment = createIncrement();
+        Module doubled = createDouble();
+        link(source, increment);
+        link(source, doubled);
+        link(increment, createSink());
+        link(doubled, createSink());
+
+        assertTrue(FlowOptimizations.findCommonSubexpressions(
+            flow).isEmpty());
+    }
+
+    @Test
+    public void testModulesWithDifferentInputsAreNotEquivalent()
+    {
+        Module increment0 = createIncrement();
+        Module increment1 = createIncrement();
+        Module increment2 = createIncrement();
+        link(source, increment0);
+        link(source, increment1);
+        link(increment1, increment2);
+
+        Map<Module, Module> representatives = 
+            FlowOptimizations.findCommonSubexpressions(flow);
+        assertEquals(Collections.singletonMap(increment1, increment0),
+            representatives);
+    }
+
+    @Test
+    public void testModulesWithUnconnectedInputsAreNotEquivalent()
+    {
+        Module increment0 = createIncrement();
+        Module increment1 = createIncrement();
+        link(increment0, createSink());
+        link(increment1, createSink());
+
+        assertTrue(FlowOptimizations.findCommonSubexpressions(
+            flow).isEmpty());
+    }
+
+    @Test
+    public void testModulesThatAreNotPureAreNotEquivalent()
+    {
+        Module sink0 = createSink();
+        Module sink1 = createSink();
+        link(source, sink0);
+        link(source, sink1);
+
+        assertTrue(FlowOptimizations.findCommonSubexpressions(
+            flow).isEmpty());
+    }
+
+    @Test
+    public void testEliminateDeadModules()
+    {
+        Module increment0 = createIncrement();
+        Module increment1 = createIncrement();
+        Module double0 = createDouble();
+        Module double1 = createDouble();
+        Module sink = createSink();
+        link(source, increment0);
+        link(increment0, double0);
+        link(double0, sink);
+        link(source, increment1);
+        link(increment1, double1);
+        link(increment0, createIncrement());
+
+        Set<Module> deadModules = 
+            FlowOptimizations.eliminateDeadModules(flow);
+
+        assertEquals(3, deadModules.size());
+        assertTrue(deadModules.contains(increment1));
+        assertTrue(deadModules.contains(double1));
+        assertFalse(deadModules.contains(increment0));
+        assertEquals(new HashSet<Module>(Arrays.asList(
+            source, increment0, double0, sink)), flow.getModules());
+        assertEquals(3, flow.getLinks().size());
+        for (Link link : flow.getLinks())
+        {
+            assertTrue(flow.getModules().contains(
+                link.getSourceSlot().getModule()));
+            assertTrue(flow.getModules().contains(
+                link.getTargetSlot().getModule()));
+        }
+        assertTrue(FlowOptimizations.findDeadModules(flow).isEmpty());
+    }
+
+    @Test
+    public void testFlowWithoutSideEffectsIsDead()
+    {
+        Module pureSource = Modules.createForSupplier(
+            ModuleInfos.createPure(ModuleInfos.createForSupplier(
+                "PureSource", "", Integer.class)), () -> 42);
+        flow.removeModule(source);
+        flow.addModule(pureSource);
+        Module increment = createIncrement();
+        link(pureSource, increment);
+
+        assertEquals(new HashSet<Module>(Arrays.asList(
+            pureSource, increment)), 
+            FlowOptimizations.findDeadModules(flow));
+    }
+
+    /**
+     * Create a pure module that increments its input, and add it to 
+     * the flow
+     *
+     * @return The module
+     */
+    private Module createIncrement()
+    {
+        Module module = Modules.createForFunction(
+            INCREMENT_INFO, (Integer i) -> i + 1);
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Create a pure module that doubles its input, and add it to the flow
+     *
+     * @return The module
+     */
+    private Module createDouble()
+    {
+        Module module = Modules.createForFunction(
+            DOUBLE_INFO, (Integer i) -> i * 2);
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Create a module that consumes its input, which is not pure, and 
+     * add it to the flow
+     *
+     * @return The module
+     */
+    private Module createSink()
+    {
+        Module module = Modules.createForConsumer(
+            "Sink", "", object -> {}, Integer.class);
+        flow.addModule(module);
+        return module;
+    }
+
+    /**
+     * Add a link from the first output of the given source module to the
+     * first input of the given target module to the flow
+     *
+     * @param source The source module
+     * @param target The target module
+     */
+    private void link(Module source, Module target)
+    {
+        assertTrue(flow.addLink(Links.create(source, 0, target, 0)));
+    }
+
+    /**
+     * Returns the module that the first input of the given module is
+     * connected to
+     *
+     * @param module The module
+     * @return The source module
+     */
+    private static Module getSourceModule(Module module)
+    {
+        Link link = module.getInputSlots().get(0).getInputLink();
+        assertNotNull(link);
+        return link.getSourceSlot().getModule();
+    }
+}
@@ -64,6 +64,8 @@ import org.w3c.dom.Node;
 
 import de.javagl.category.Category;
 import de.javagl.flow.Flow;
+import de.javagl.flow.FlowValidationResult;
+import de.javagl.flow.Flows;
 import de.javagl.flow.gui.editor.FlowEditor;
 import de.javagl.flow.gui.editor.FlowEditorContext;
 import de.javagl.flow.gui.editor.FlowEditorUndoManager;
@@ -271,6 +273,14 @@ public final class FlowEditorApplication
      */
     private boolean currentStateUnsaved = false;
     
+    /**
+     * Whether new flows and flows that are read from files should infer
+     * the types of their slots
+     * 
+     * @see Flows#createWithTypeInference()
+     */
+    private boolean typeInference = false;
+    
     /**
      * The {@link FlowExecutorControl}
      */
@@ -332,7 +342,7 @@ public final class FlowEditorApplication
         frame.getContentPane().add(
             flowExecutorControlPanel, BorderLayout.NORTH);
 
-        initWorkspace(FlowWorkspaces.create());
+        initWorkspace(createWorkspace());
         
         
         // Set up the hotkeys for undo/redo
@@ -412,6 +422,8 @@ public final class FlowEditorApplication
         
         editMenu.add(new JMenuItem(flowEditorUndoManager.getUndoAction()));
         editMenu.add(new JMenuItem(flowEditorUndoManager.getRedoAction()));
+        editMenu.addSeparator();
+        editMenu.add(createTypeInferenceMenuItem());
         
         return editMenu;
     }
@@ -434,6 +446,40 @@ public final class FlowEditorApplication
         return viewMenu;
     }
     
+    /**
+     * Create the menu item for setting whether new flows and flows that 
+     * are read from files should infer the types of their slots
+     * 
+     * @return The menu item
+     */
+    private JMenuItem createTypeInferenceMenuItem()
+    {
+        JCheckBoxMenuItem menuItem = new JCheckBoxMenuItem();
+        Action action = new AbstractAction()
+        {
+            /**
+             * Serial UID
+             */
+            private static final long serialVersionUID = 4712082437826419553L;
+
+            // Initialization
+            {
+                putValue(NAME, "Infer types");
+                putValue(SHORT_DESCRIPTION, 
+                    "Infer the types of slots in new or opened flows");
+            }
+            
+            @Override
+            public void actionPerformed(ActionEvent e)
+            {
+                typeInference = menuItem.isSelected();
+            }
+        };
+        menuItem.setAction(action);
+        menuItem.setSelected(typeInference);
+        return menuItem;
+    }
+    
     /**
      * Create the menu item for setting the visibility of the external frame
      * for the given {@link ModuleViewType}
@@ -503,7 +549,7 @@ public final class FlowEditorApplication
                 return;
             }
         }
-        initWorkspace(FlowWorkspaces.create());
+        initWorkspace(createWorkspace());
     }
     
     
@@ -564,7 +610,7 @@ public final class FlowEditorApplication
                 flowEditorContext.getModuleCreatorRepository();
             
             flowWorkspace = XmlFlowWorkspace.parse(
-                node, moduleCreatorRepository);
+                node, moduleCreatorRepository, typeInference);
         }
         catch (FileNotFoundException e)
         {
@@ -599,8 +645,51 @@ public final class FlowEditorApplication
                 }
             }
         }
+        if (typeInference)
+        {
+            validate(flowWorkspace.getFlow(), file);
+        }
         initWorkspace(flowWorkspace);
     }
+    
+    /**
+     * Validate the given {@link Flow} that was read from the given file,
+     * and show a warning if it contains invalid links or slots whose 
+     * types could not be inferred
+     * 
+     * @param flow The {@link Flow}
+     * @param file The file
+     */
+    private void validate(Flow flow, File file)
+    {
+        FlowValidationResult result = Flows.validate(flow);
+        if (result.isValid())
+        {
+            return;
+        }
+        logger.warning("Flow from " + file + " is not valid: " + result);
+        JOptionPane.showMessageDialog(frame,
+            "The flow from " + file + " contains " 
+            + result.getInvalidLinks().size() + " invalid link(s) and " 
+            + result.getUnresolvedSlots().size() + " slot(s) whose "
+            + "type could not be inferred",
+            "Warning", JOptionPane.WARNING_MESSAGE);
+    }
+    
+    /**
+     * Create a new, empty {@link MutableFlowWorkspace}, which infers the
+     * types of its slots if {@link #typeInference} is enabled
+     * 
+     * @return The new {@link MutableFlowWorkspace}
+     */
+    private MutableFlowWorkspace createWorkspace()
+    {
+        if (typeInference)
+        {
+            return FlowWorkspaces.createWithTypeInference();
+        }
+        return FlowWorkspaces.create();
+    }
 
     
     /**
@@ -304,11 +304,8 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
         public void moduleAdded(FlowEvent flowEvent)
         {
             //logger.info("moduleAdded " + flowEvent);
-            ModuleComponent moduleComponent = createModuleComponent(
-                flowEvent.getModule());
-            Dimension d = moduleComponent.getPreferredSize();
-            Rectangle2D worldBounds = new Rectangle(0,0,d.width,d.height);
-            addModuleComponent(moduleComponent, worldBounds);
+            createAndAddModuleComponent(flowEvent.getModule());
+            repaint();
         }
 
         @Override
@@ -316,6 +313,7 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
         {
             //logger.info("moduleRemoved " + flowEvent);
             removeModuleComponent(flowEvent.getModule());
+            repaint();
         }
 
         @Override
@@ -333,6 +331,44 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
             linksPanel.setHighlightedLink(null);
             repaint();
         }
+
+        @Override
+        public void modulesAndLinksAdded(FlowEvent flowEvent)
+        {
+            //logger.info("modulesAndLinksAdded " + flowEvent);
+            for (Module module : flowEvent.getModules())
+            {
+                createAndAddModuleComponent(module);
+            }
+            linksPanel.setHighlightedLink(null);
+            repaint();
+        }
+
+        @Override
+        public void modulesAndLinksRemoved(FlowEvent flowEvent)
+        {
+            //logger.info("modulesAndLinksRemoved " + flowEvent);
+            for (Module module : flowEvent.getModules())
+            {
+                removeModuleComponent(module);
+            }
+            linksPanel.setHighlightedLink(null);
+            repaint();
+        }
+        
+        /**
+         * Create a {@link ModuleComponent} for the given {@link Module},
+         * with its preferred size, and add it to this panel
+         * 
+         * @param module The {@link Module}
+         */
+        private void createAndAddModuleComponent(Module module)
+        {
+            ModuleComponent moduleComponent = createModuleComponent(module);
+            Dimension d = moduleComponent.getPreferredSize();
+            Rectangle2D worldBounds = new Rectangle(0,0,d.width,d.height);
+            addModuleComponent(moduleComponent, worldBounds);
+        }
     };
     
     
@@ -889,6 +925,7 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
                 addModuleComponent(moduleComponent, worldBounds);
             }
         }
+        repaint();
     }
     
     /**
@@ -1024,7 +1061,8 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
      * Called by the {@link #flowListener} when a {@link Module}
      * was added to the {@link Flow} via the {@link FlowEditor}. 
      * It will add the give module component to the desktop pane
-     * and set up the necessary listener connections.
+     * and set up the necessary listener connections. The caller
+     * is responsible for repainting this component afterwards.
      * 
      * @param moduleComponent The {@link ModuleComponent} that was added
      * @param worldBounds The bounds of the module, in world coordinates
@@ -1069,15 +1107,14 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
             new StatusModuleExecutionListener(moduleComponent);
         statusModuleExecutionListeners.put(module, statusListener);
         module.addModuleExecutionListener(statusListener);
-        
-        repaint();
     }
     
     
     /**
      * Called by the {@link #flowListener} when a {@link Module}
      * was removed from the {@link Flow} via the {@link FlowEditor}. 
-     * This will remove the corresponding {@link ModuleComponent}.
+     * This will remove the corresponding {@link ModuleComponent}. The 
+     * caller is responsible for repainting this component afterwards.
      * 
      * @param module The {@link Module} that was removed
      */
@@ -1114,8 +1151,6 @@ final class FlowEditorComponent extends JPanel implements ModuleComponentOwner
         ModuleExecutionListener statusListener = 
             statusModuleExecutionListeners.remove(module);
         module.removeModuleExecutionListener(statusListener);
-        
-        repaint();
     }
     
     
@@ -458,24 +458,27 @@ public final class FlowEditor
             ModuleUtils.computeIncomingLinks(deletedModules));
         actuallyDeletedIncomingLinks.removeAll(deletedLinks);
         
+        Set<Link> allDeletedLinks = new LinkedHashSet<Link>();
+        allDeletedLinks.addAll(actuallyDeletedOutgoingLinks);
+        allDeletedLinks.addAll(actuallyDeletedIncomingLinks);
+        allDeletedLinks.addAll(deletedLinks);
+        
         CompoundEdit edit = new CompoundEdit();
-        for (Link link : actuallyDeletedOutgoingLinks)
-        {
-            edit.addEdit(removeLinkInternal(link));
-        }
-        for (Link link : actuallyDeletedIncomingLinks)
-        {
-            edit.addEdit(removeLinkInternal(link));
-        }
-        for (Link link : deletedLinks)
+        for (Link link : allDeletedLinks)
         {
-            edit.addEdit(removeLinkInternal(link));
+            edit.addEdit(removeLinkInternal(link, false));
         }
         for (Module module : deletedModules)
         {
-            edit.addEdit(removeModuleInternal(module));
+            edit.addEdit(removeModuleInternal(module, false));
         }
         edit.end();
+        
+        // Remove all elements from the flow at once, so that the 
+        // listeners receive a single event
+        MutableFlow flow = flowWorkspace.getFlow();
+        flow.removeAll(deletedModules, allDeletedLinks);
+        
         notifyUndoableEdit(edit);
     }
     
@@ -522,6 +525,22 @@ public final class FlowEditor
      * @return The UndoableEdit describing the modification
      */
     UndoableEdit removeModuleInternal(Module module)
+    {
+        return removeModuleInternal(module, true);
+    }
+    
+    /**
+     * Remove the given {@link Module} from the currently edited 
+     * {@link MutableFlow}.
+     * 
+     * @param module The {@link Module} to remove
+     * @param updateFlow Whether the module should be removed from the 
+     * flow. If this is <code>false</code>, then the caller is responsible
+     * for removing the module from the flow after calling this method.
+     * @return The UndoableEdit describing the modification
+     */
+    private UndoableEdit removeModuleInternal(
+        Module module, boolean updateFlow)
     {
         CompoundEdit edit = new CompoundEdit();
 
@@ -541,7 +560,10 @@ public final class FlowEditor
         
         MutableFlow flow = flowWorkspace.getFlow();
         MutableFlowLayout flowLayout = flowWorkspace.getFlowLayout();
-        flow.removeModule(module);
+        if (updateFlow)
+        {
+            flow.removeModule(module);
+        }
         Rectangle2D bounds = flowLayout.setBounds(module, null);
 
         removeModuleConfigurationListener(module);
@@ -577,6 +599,21 @@ public final class FlowEditor
      * @return The UndoableEdit describing the modification
      */
     UndoableEdit removeLinkInternal(Link link)
+    {
+        return removeLinkInternal(link, true);
+    }
+    
+    /**
+     * Remove the given {@link Link} from the currently edited 
+     * {@link MutableFlow}.
+     *  
+     * @param link The {@link Link} to remove
+     * @param updateFlow Whether the link should be removed from the flow.
+     * If this is <code>false</code>, then the caller is responsible for
+     * removing the link from the flow after calling this method.
+     * @return The UndoableEdit describing the modification
+     */
+    private UndoableEdit removeLinkInternal(Link link, boolean updateFlow)
     {
         CompoundEdit edit = new CompoundEdit();
         
@@ -587,8 +624,11 @@ public final class FlowEditor
             edit.addEdit(unselectionEdit);
         }
         
-        MutableFlow flow = flowWorkspace.getFlow();
-        flow.removeLink(link);
+        if (updateFlow)
+        {
+            MutableFlow flow = flowWorkspace.getFlow();
+            flow.removeLink(link);
+        }
         
         UndoableEdit deletionEdit = new LinkDeletionEdit(this, link);
         edit.addEdit(deletionEdit);
@@ -56,15 +56,18 @@ class XmlFlow
      * @param idToModule The mapping from IDs to {@link Module} instances
      * @param moduleCreatorRepository The {@link Repository} of 
      * {@link ModuleCreator} instances
+     * @param typeInference Whether the flow should be created with
+     * {@link Flows#createWithTypeInference()}
      * @return The object
      * @throws XmlException If the object can not be parsed
      */
     static MutableFlow parse(Node node, Map<String, Module> idToModule,
-        Repository<ModuleInfo, ModuleCreator> moduleCreatorRepository)
+        Repository<ModuleInfo, ModuleCreator> moduleCreatorRepository,
+        boolean typeInference)
     {
         XmlUtils.verifyNodeName(node, "flow");
 
-        MutableFlow flow = Flows.create();
+        MutableFlow flow = createFlow(typeInference);
 
         NodeList childNodes = node.getChildNodes();
         for (int i = 0; i < childNodes.getLength(); i++)
@@ -79,11 +82,6 @@ class XmlFlow
             }
         }
         
-        for (Module module : idToModule.values())
-        {
-            flow.addModule(module);
-        }
-        
         Set<Link> links = Collections.emptySet();
         for (int i = 0; i < childNodes.getLength(); i++)
         {
@@ -95,14 +93,27 @@ class XmlFlow
             }
         }
         
-        for (Link link : links)
-        {
-            flow.addLink(link);
-        }
+        flow.addAll(idToModule.values(), links);
         
         return flow;
     }
     
+    /**
+     * Create a new, empty {@link MutableFlow}
+     * 
+     * @param typeInference Whether the flow should be created with
+     * {@link Flows#createWithTypeInference()}
+     * @return The new {@link MutableFlow}
+     */
+    static MutableFlow createFlow(boolean typeInference)
+    {
+        if (typeInference)
+        {
+            return Flows.createWithTypeInference();
+        }
+        return Flows.create();
+    }
+    
     /**
      * Create the node for the given object
      * 
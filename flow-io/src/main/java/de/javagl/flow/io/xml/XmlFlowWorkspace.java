@@ -65,10 +65,34 @@ public class XmlFlowWorkspace
      */
     public static MutableFlowWorkspace parse(Node node,
         Repository<ModuleInfo, ModuleCreator> moduleCreatorRepository)
+    {
+        return parse(node, moduleCreatorRepository, false);
+    }
+    
+    /**
+     * Parse a {@link MutableFlowWorkspace} from the given XML node.<br>
+     * <br>
+     * If <code>typeInference</code> is <code>true</code>, then the flow
+     * of the workspace will be created with 
+     * {@link Flows#createWithTypeInference()}, so that the type variables
+     * of the slots are bound based on the links that are read. The 
+     * result may then be checked with {@link Flows#validate(Flow)}.
+     * 
+     * @param node The node
+     * @param moduleCreatorRepository The {@link Repository} of
+     * {@link ModuleCreator} instances
+     * @param typeInference Whether the flow should infer the types
+     * of its slots
+     * @return The {@link MutableFlowWorkspace}
+     * @throws XmlException If the object can not be parsed
+     */
+    public static MutableFlowWorkspace parse(Node node,
+        Repository<ModuleInfo, ModuleCreator> moduleCreatorRepository,
+        boolean typeInference)
     {
         XmlUtils.verifyNodeName(node, "flowWorkspace");
 
-        MutableFlow flow = Flows.create();
+        MutableFlow flow = XmlFlow.createFlow(typeInference);
         MutableFlowLayout flowLayout = FlowLayouts.create();
 
         Map<String, Module> idToModule = new LinkedHashMap<String, Module>();
@@ -81,7 +105,7 @@ public class XmlFlowWorkspace
             if (childName.equalsIgnoreCase("flow"))
             {
                 flow = XmlFlow.parse(child, idToModule, 
-                    moduleCreatorRepository);
+                    moduleCreatorRepository, typeInference);
             }
         }
 
@@ -0,0 +1,69 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.jfr;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.execution.FlowExecutor;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event that describes the execution of a
+ * {@link Flow} with a {@link FlowExecutor}
+ */
+@Name("de.javagl.flow.FlowExecution")
+@Label("Flow Execution")
+@Category("Flow")
+@Description("The execution of a flow by a flow executor")
+public final class FlowExecutionJfrEvent extends jdk.jfr.Event
+{
+    /**
+     * The string representation of the flow
+     */
+    @Label("Flow")
+    String flow;
+
+    /**
+     * The number of modules in the flow
+     */
+    @Label("Modules")
+    int modules;
+
+    /**
+     * Whether the execution was cancelled
+     */
+    @Label("Cancelled")
+    boolean cancelled;
+
+    /**
+     * The number of errors that have been caused by the execution
+     */
+    @Label("Errors")
+    int errors;
+}
@@ -0,0 +1,330 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.jfr;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import de.javagl.flow.Flow;
+import de.javagl.flow.execution.FlowExecutor;
+import de.javagl.flow.execution.FlowExecutorEvent;
+import de.javagl.flow.execution.FlowExecutorListener;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.LinkEvent;
+import de.javagl.flow.link.LinkListener;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleExecutionEvent;
+import de.javagl.flow.module.ModuleExecutionListener;
+import jdk.jfr.EventType;
+
+/**
+ * A {@link FlowExecutorListener} that emits JDK Flight Recorder events
+ * for the execution of a {@link Flow}.<br>
+ * <br>
+ * An instance of this class may be attached to a {@link FlowExecutor}
+ * by passing it to {@link FlowExecutor#addFlowExecutorListener}. It will
+ * emit a {@link FlowExecutionJfrEvent} for each flow execution. When the
+ * execution of a flow starts, and the {@link ModuleExecutionJfrEvent} or
+ * {@link LinkTransferJfrEvent} is enabled in the current recording, then
+ * it will attach listeners to the modules or links of the flow, and
+ * remove them when the execution ends. When no recording is active,
+ * then no listeners will be attached, and the execution of the flow
+ * is not affected.
+ */
+public final class JfrFlowExecutorListener implements FlowExecutorListener
+{
+    /**
+     * The information about a module execution that is ongoing
+     */
+    private static class ModuleRecord
+    {
+        /**
+         * The event
+         */
+        final ModuleExecutionJfrEvent event;
+
+        /**
+         * The time when the processing started, or -1
+         */
+        long processingStartNs = -1;
+
+        /**
+         * Creates a new instance
+         *
+         * @param event The event
+         */
+        ModuleRecord(ModuleExecutionJfrEvent event)
+        {
+            this.event = event;
+        }
+    }
+
+    /**
+     * The event type of the {@link ModuleExecutionJfrEvent}
+     */
+    private static final EventType moduleExecutionEventType =
+        EventType.getEventType(ModuleExecutionJfrEvent.class);
+
+    /**
+     * The event type of the {@link LinkTransferJfrEvent}
+     */
+    private static final EventType linkTransferEventType =
+        EventType.getEventType(LinkTransferJfrEvent.class);
+
+    /**
+     * The event for the current flow execution
+     */
+    private volatile FlowExecutionJfrEvent flowExecutionEvent;
+
+    /**
+     * The records of the module executions that are currently ongoing
+     */
+    private final Map<Module, ModuleRecord> moduleRecords;
+
+    /**
+     * The events for the objects that have been accepted by a link,
+     * but not yet provided
+     */
+    private final Map<Link, LinkTransferJfrEvent> linkTransferEvents;
+
+    /**
+     * The listener that is attached to the modules
+     */
+    private final ModuleExecutionListener moduleExecutionListener;
+
+    /**
+     * The listener that is attached to the links
+     */
+    private final LinkListener linkListener;
+
+    /**
+     * The modules that the {@link #moduleExecutionListener} is
+     * currently attached to
+     */
+    private final List<Module> attachedModules;
+
+    /**
+     * The links that the {@link #linkListener} is currently attached to
+     */
+    private final List<Link> attachedLinks;
+
+    /**
+     * Creates a new instance
+     */
+    public JfrFlowExecutorListener()
+    {
+        this.moduleRecords = new ConcurrentHashMap<Module, ModuleRecord>();
+        this.linkTransferEvents =
+            new ConcurrentHashMap<Link, LinkTransferJfrEvent>();
+        this.moduleExecutionListener = createModuleExecutionListener();
+        this.linkListener = createLinkListener();
+        this.attachedModules = new ArrayList<Module>();
+        this.attachedLinks = new ArrayList<Link>();
+    }
+
+    /**
+     * Create the listener that will be attached to the modules
+     *
+     * @return The listener
+     */
+    private ModuleExecutionListener createModuleExecutionListener()
+    {
+        return new ModuleExecutionListener()
+        {
+            @Override
+            public void beforeExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ModuleExecutionJfrEvent event = new ModuleExecutionJfrEvent();
+                event.begin();
+                moduleRecords.put(moduleExecutionEvent.getModule(),
+                    new ModuleRecord(event));
+            }
+
+            @Override
+            public void beforeProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ModuleRecord record =
+                    moduleRecords.get(moduleExecutionEvent.getModule());
+                if (record != null)
+                {
+                    record.processingStartNs = System.nanoTime();
+                }
+            }
+
+            @Override
+            public void progressChanged(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                // Not recorded
+            }
+
+            @Override
+            public void afterProcessing(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                ModuleRecord record =
+                    moduleRecords.get(moduleExecutionEvent.getModule());
+                if (record != null && record.processingStartNs >= 0)
+                {
+                    record.event.processingDuration =
+                        System.nanoTime() - record.processingStartNs;
+                }
+            }
+
+            @Override
+            public void afterExecution(
+                ModuleExecutionEvent moduleExecutionEvent)
+            {
+                Module module = moduleExecutionEvent.getModule();
+                ModuleRecord record = moduleRecords.remove(module);
+                if (record == null)
+                {
+                    return;
+                }
+                ModuleExecutionJfrEvent event = record.event;
+                event.end();
+                if (event.shouldCommit())
+                {
+                    event.moduleName = module.getModuleInfo().getName();
+                    event.module = String.valueOf(module);
+                    event.failed = moduleExecutionEvent.getThrowable() != null;
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    /**
+     * Create the listener that will be attached to the links
+     *
+     * @return The listener
+     */
+    private LinkListener createLinkListener()
+    {
+        return new LinkListener()
+        {
+            @Override
+            public void objectAccepted(LinkEvent linkEvent)
+            {
+                LinkTransferJfrEvent event = new LinkTransferJfrEvent();
+                event.begin();
+                linkTransferEvents.put(linkEvent.getLink(), event);
+            }
+
+            @Override
+            public void objectProvided(LinkEvent linkEvent)
+            {
+                Link link = linkEvent.getLink();
+                LinkTransferJfrEvent event = linkTransferEvents.remove(link);
+                if (event == null)
+                {
+                    return;
+                }
+                event.end();
+                if (event.shouldCommit())
+                {
+                    event.source = String.valueOf(link.getSourceSlot());
+                    event.target = String.valueOf(link.getTargetSlot());
+                    Object object = linkEvent.getObject();
+                    if (object != null)
+                    {
+                        event.objectType = object.getClass();
+                    }
+                    event.commit();
+                }
+            }
+        };
+    }
+
+    @Override
+    public void beforeExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        Flow flow = flowExecutorEvent.getFlow().snapshot();
+        synchronized (attachedModules)
+        {
+            if (moduleExecutionEventType.isEnabled())
+            {
+                for (Module module : flow.getModules())
+                {
+                    module.addModuleExecutionListener(
+                        moduleExecutionListener);
+                    attachedModules.add(module);
+                }
+            }
+            if (linkTransferEventType.isEnabled())
+            {
+                for (Link link : flow.getLinks())
+                {
+                    link.addLinkListener(linkListener);
+                    attachedLinks.add(link);
+                }
+            }
+        }
+        FlowExecutionJfrEvent event = new FlowExecutionJfrEvent();
+        event.begin();
+        flowExecutionEvent = event;
+    }
+
+    @Override
+    public void afterExecution(FlowExecutorEvent flowExecutorEvent)
+    {
+        FlowExecutionJfrEvent event = flowExecutionEvent;
+        flowExecutionEvent = null;
+        if (event != null)
+        {
+            event.end();
+            if (event.shouldCommit())
+            {
+                Flow flow = flowExecutorEvent.getFlow();
+                event.flow = String.valueOf(flow);
+                event.modules = flow.snapshot().getModules().size();
+                event.cancelled = flowExecutorEvent.isCancelled();
+                event.errors = flowExecutorEvent.getErrors().size();
+                event.commit();
+            }
+        }
+        synchronized (attachedModules)
+        {
+            for (Module module : attachedModules)
+            {
+                module.removeModuleExecutionListener(moduleExecutionListener);
+            }
+            attachedModules.clear();
+            for (Link link : attachedLinks)
+            {
+                link.removeLinkListener(linkListener);
+            }
+            attachedLinks.clear();
+        }
+        moduleRecords.clear();
+        linkTransferEvents.clear();
+    }
+}
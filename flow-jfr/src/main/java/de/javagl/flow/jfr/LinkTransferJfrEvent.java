@@ -0,0 +1,65 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.jfr;
+
+import de.javagl.flow.link.Link;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * A JDK Flight Recorder event that describes the transfer of an object
+ * through a {@link Link}. The event starts when the object is
+ * {@link Link#accept(Object) accepted} by the link, and ends when it
+ * is {@link Link#provide() provided} to the target module. It is
+ * committed in the thread of the target module.
+ */
+@Name("de.javagl.flow.LinkTransfer")
+@Label("Link Transfer")
+@Category("Flow")
+@Description("The transfer of an object from one module to another")
+public final class LinkTransferJfrEvent extends jdk.jfr.Event
+{
+    /**
+     * The string representation of the source slot
+     */
+    @Label("Source")
+    String source;
+
+    /**
+     * The string representation of the target slot
+     */
+    @Label("Target")
+    String target;
+
+    /**
+     * The class of the object that was transferred
+     */
+    @Label("Object Type")
+    Class<?> objectType;
+}
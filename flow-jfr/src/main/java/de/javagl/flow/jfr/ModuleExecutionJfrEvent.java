@@ -0,0 +1,71 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.jfr;
+
+import de.javagl.flow.module.Module;
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.Timespan;
+
+/**
+ * A JDK Flight Recorder event that describes the execution of a
+ * single {@link Module}
+ */
+@Name("de.javagl.flow.ModuleExecution")
+@Label("Module Execution")
+@Category("Flow")
+@Description("The execution of a single module of a flow")
+public final class ModuleExecutionJfrEvent extends jdk.jfr.Event
+{
+    /**
+     * The name of the module info
+     */
+    @Label("Module Name")
+    String moduleName;
+
+    /**
+     * The string representation of the module
+     */
+    @Label("Module")
+    String module;
+
+    /**
+     * The time that was spent for the actual processing, excluding
+     * the time for obtaining the inputs and forwarding the outputs
+     */
+    @Label("Processing Duration")
+    @Timespan(Timespan.NANOSECONDS)
+    long processingDuration;
+
+    /**
+     * Whether the execution caused an error
+     */
+    @Label("Failed")
+    boolean failed;
+}
@@ -0,0 +1,11 @@
+/**
+ * Classes for recording the execution of a {@link de.javagl.flow.Flow Flow}
+ * with the JDK Flight Recorder.<br>
+ * <br>
+ * The {@link de.javagl.flow.jfr.JfrFlowExecutorListener} may be attached
+ * to a {@link de.javagl.flow.execution.FlowExecutor FlowExecutor}, and will
+ * emit events for the flow execution, the module executions and the
+ * link transfers, if these events are enabled in the current recording.
+ */
+package de.javagl.flow.jfr;
+
@@ -0,0 +1,472 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.module.creation;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * A minimal writer for class files. It only supports what is required
+ * by the {@link MethodModuleClassGenerator}: A single class with methods
+ * that consist of plain code without branches. A method may contain a
+ * single handler for all exceptions, which only requires a single, 
+ * fixed stack map frame.<br>
+ * <br>
+ * All names and descriptors are given in their internal form, as in
+ * <code>"java/lang/Object"</code> and <code>"(I)V"</code>.
+ */
+final class ClassFileWriter
+{
+    /**
+     * The access flag for public elements
+     */
+    static final int ACC_PUBLIC = 0x0001;
+
+    /**
+     * The access flag for protected elements
+     */
+    static final int ACC_PROTECTED = 0x0004;
+
+    /**
+     * The access flag for final elements
+     */
+    static final int ACC_FINAL = 0x0010;
+
+    /**
+     * The access flag that has to be set for all classes
+     */
+    static final int ACC_SUPER = 0x0020;
+
+    /**
+     * The major version of the written class files (Java 8)
+     */
+    private static final int MAJOR_VERSION = 52;
+
+    /**
+     * The constant pool tag for UTF8 entries
+     */
+    private static final int CONSTANT_UTF8 = 1;
+
+    /**
+     * The constant pool tag for class entries
+     */
+    private static final int CONSTANT_CLASS = 7;
+
+    /**
+     * The constant pool tag for method references
+     */
+    private static final int CONSTANT_METHODREF = 10;
+
+    /**
+     * The constant pool tag for interface method references
+     */
+    private static final int CONSTANT_INTERFACE_METHODREF = 11;
+
+    /**
+     * The constant pool tag for name-and-type entries
+     */
+    private static final int CONSTANT_NAME_AND_TYPE = 12;
+
+    /**
+     * The stack map frame type for a frame with the same local variables
+     * as the previous frame and a single stack item, where the offset
+     * is added to this type
+     */
+    private static final int SAME_LOCALS_1_STACK_ITEM_FRAME = 64;
+
+    /**
+     * The stack map frame type for a frame with the same local variables
+     * as the previous frame and a single stack item, where the offset
+     * is given explicitly
+     */
+    private static final int SAME_LOCALS_1_STACK_ITEM_FRAME_EXTENDED = 247;
+
+    /**
+     * The tag of the verification type info for objects
+     */
+    private static final int ITEM_OBJECT = 7;
+
+    /**
+     * The mapping from a string representation of each constant pool
+     * entry to its index
+     */
+    private final Map<String, Integer> constantIndices;
+
+    /**
+     * The stream containing the constant pool entries
+     */
+    private final ByteArrayOutputStream constantPool;
+
+    /**
+     * The number of slots in the constant pool, plus one
+     */
+    private int constantPoolCount;
+
+    /**
+     * The methods that have been added
+     */
+    private final List<byte[]> methods;
+
+    /**
+     * The constant pool index of this class
+     */
+    private final int thisClassIndex;
+
+    /**
+     * The constant pool index of the super class
+     */
+    private final int superClassIndex;
+
+    /**
+     * The index of the "Code" attribute name
+     */
+    private final int codeIndex;
+
+    /**
+     * The access flags of the class
+     */
+    private final int accessFlags;
+
+    /**
+     * Creates a new writer for a class with the given name and
+     * super class
+     *
+     * @param accessFlags The access flags
+     * @param className The internal name of the class
+     * @param superClassName The internal name of the super class
+     */
+    ClassFileWriter(int accessFlags, String className, String superClassName)
+    {
+        this.constantIndices = new LinkedHashMap<String, Integer>();
+        this.constantPool = new ByteArrayOutputStream();
+        this.constantPoolCount = 1;
+        this.methods = new ArrayList<byte[]>();
+        this.accessFlags = accessFlags;
+        this.thisClassIndex = classConstant(className);
+        this.superClassIndex = classConstant(superClassName);
+        this.codeIndex = utf8Constant("Code");
+    }
+
+    /**
+     * Returns the index of the UTF8 constant for the given string,
+     * adding it to the constant pool if necessary
+     *
+     * @param s The string
+     * @return The index
+     */
+    int utf8Constant(String s)
+    {
+        String key = "U:" + s;
+        Integer index = constantIndices.get(key);
+        if (index != null)
+        {
+            return index;
+        }
+        DataOutputStream out = new DataOutputStream(constantPool);
+        try
+        {
+            out.writeByte(CONSTANT_UTF8);
+            out.writeUTF(s);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return register(key);
+    }
+
+    /**
+     * Returns the index of the class constant for the given internal
+     * class name, adding it to the constant pool if necessary
+     *
+     * @param className The internal class name
+     * @return The index
+     */
+    int classConstant(String className)
+    {
+        String key = "C:" + className;
+        Integer index = constantIndices.get(key);
+        if (index != null)
+        {
+            return index;
+        }
+        int nameIndex = utf8Constant(className);
+        writeEntry(CONSTANT_CLASS, nameIndex);
+        return register(key);
+    }
+
+    /**
+     * Returns the index of the method reference constant for the given
+     * method, adding it to the constant pool if necessary
+     *
+     * @param owner The internal name of the class that declares the method
+     * @param name The method name
+     * @param descriptor The method descriptor
+     * @param isInterface Whether the owner is an interface
+     * @return The index
+     */
+    int methodConstant(String owner, String name, String descriptor,
+        boolean isInterface)
+    {
+        String key = (isInterface ? "I:" : "M:")
+            + owner + "." + name + descriptor;
+        Integer index = constantIndices.get(key);
+        if (index != null)
+        {
+            return index;
+        }
+        int classIndex = classConstant(owner);
+        int nameAndTypeIndex = nameAndTypeConstant(name, descriptor);
+        int tag = isInterface ?
+            CONSTANT_INTERFACE_METHODREF : CONSTANT_METHODREF;
+        writeEntry(tag, classIndex, nameAndTypeIndex);
+        return register(key);
+    }
+
+    /**
+     * Returns the index of the name-and-type constant for the given
+     * name and descriptor, adding it to the constant pool if necessary
+     *
+     * @param name The name
+     * @param descriptor The descriptor
+     * @return The index
+     */
+    private int nameAndTypeConstant(String name, String descriptor)
+    {
+        String key = "N:" + name + ":" + descriptor;
+        Integer index = constantIndices.get(key);
+        if (index != null)
+        {
+            return index;
+        }
+        int nameIndex = utf8Constant(name);
+        int descriptorIndex = utf8Constant(descriptor);
+        writeEntry(CONSTANT_NAME_AND_TYPE, nameIndex, descriptorIndex);
+        return register(key);
+    }
+
+    /**
+     * Write a constant pool entry with the given tag, followed by the
+     * given two-byte values
+     *
+     * @param tag The tag
+     * @param values The values
+     */
+    private void writeEntry(int tag, int ... values)
+    {
+        constantPool.write(tag);
+        for (int value : values)
+        {
+            constantPool.write((value >> 8) & 0xFF);
+            constantPool.write(value & 0xFF);
+        }
+    }
+
+    /**
+     * Register the entry that was just written under the given key
+     *
+     * @param key The key
+     * @return The index of the entry
+     */
+    private int register(String key)
+    {
+        int index = constantPoolCount;
+        constantIndices.put(key, index);
+        constantPoolCount++;
+        return index;
+    }
+
+    /**
+     * Add a method with the given code.
+     *
+     * @param access The access flags
+     * @param name The method name
+     * @param descriptor The method descriptor
+     * @param maxStack The maximum stack size
+     * @param maxLocals The maximum number of local variable slots
+     * @param code The code
+     */
+    void addMethod(int access, String name, String descriptor,
+        int maxStack, int maxLocals, byte code[])
+    {
+        addMethod(access, name, descriptor, maxStack, maxLocals, code,
+            -1, -1, -1);
+    }
+
+    /**
+     * Add a method with the given code, which contains a handler for 
+     * all exceptions that are thrown by the instructions in the given 
+     * range. The handler must directly follow an instruction that ends 
+     * the normal control flow, like a <code>return</code>. When the 
+     * handler is entered, the stack only contains the exception, and 
+     * the handler may only use the local variables that are defined 
+     * by the method descriptor, like <code>this</code> and the 
+     * parameters.
+     *
+     * @param access The access flags
+     * @param name The method name
+     * @param descriptor The method descriptor
+     * @param maxStack The maximum stack size
+     * @param maxLocals The maximum number of local variable slots
+     * @param code The code
+     * @param startPc The start of the protected range, inclusive
+     * @param endPc The end of the protected range, exclusive
+     * @param handlerPc The start of the handler. If this is negative,
+     * then the method does not contain a handler.
+     */
+    void addMethod(int access, String name, String descriptor,
+        int maxStack, int maxLocals, byte code[], 
+        int startPc, int endPc, int handlerPc)
+    {
+        byte stackMapTable[] = null;
+        if (handlerPc >= 0)
+        {
+            stackMapTable = createStackMapTable(handlerPc);
+        }
+        ByteArrayOutputStream method = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(method);
+        try
+        {
+            out.writeShort(access);
+            out.writeShort(utf8Constant(name));
+            out.writeShort(utf8Constant(descriptor));
+            out.writeShort(1);
+            out.writeShort(codeIndex);
+            if (stackMapTable == null)
+            {
+                out.writeInt(12 + code.length);
+            }
+            else
+            {
+                out.writeInt(12 + code.length + 8 + 6 + stackMapTable.length);
+            }
+            out.writeShort(maxStack);
+            out.writeShort(maxLocals);
+            out.writeInt(code.length);
+            out.write(code);
+            if (stackMapTable == null)
+            {
+                out.writeShort(0);
+                out.writeShort(0);
+            }
+            else
+            {
+                out.writeShort(1);
+                out.writeShort(startPc);
+                out.writeShort(endPc);
+                out.writeShort(handlerPc);
+                out.writeShort(0);
+                out.writeShort(1);
+                out.writeShort(utf8Constant("StackMapTable"));
+                out.writeInt(stackMapTable.length);
+                out.write(stackMapTable);
+            }
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        methods.add(method.toByteArray());
+    }
+
+    /**
+     * Create the contents of the <code>StackMapTable</code> attribute for
+     * a method with a single handler at the given position. The table
+     * contains a single frame with the local variables of the initial
+     * frame of the method, and a <code>Throwable</code> on the stack.
+     *
+     * @param handlerPc The start of the handler
+     * @return The contents of the attribute
+     */
+    private byte[] createStackMapTable(int handlerPc)
+    {
+        int throwableIndex = classConstant("java/lang/Throwable");
+        ByteArrayOutputStream table = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(table);
+        try
+        {
+            out.writeShort(1);
+            if (handlerPc < SAME_LOCALS_1_STACK_ITEM_FRAME)
+            {
+                out.writeByte(SAME_LOCALS_1_STACK_ITEM_FRAME + handlerPc);
+            }
+            else
+            {
+                out.writeByte(SAME_LOCALS_1_STACK_ITEM_FRAME_EXTENDED);
+                out.writeShort(handlerPc);
+            }
+            out.writeByte(ITEM_OBJECT);
+            out.writeShort(throwableIndex);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return table.toByteArray();
+    }
+
+    /**
+     * Returns the class file data
+     *
+     * @return The class file data
+     */
+    byte[] toByteArray()
+    {
+        ByteArrayOutputStream result = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(result);
+        try
+        {
+            out.writeInt(0xCAFEBABE);
+            out.writeShort(0);
+            out.writeShort(MAJOR_VERSION);
+            out.writeShort(constantPoolCount);
+            constantPool.writeTo(out);
+            out.writeShort(accessFlags);
+            out.writeShort(thisClassIndex);
+            out.writeShort(superClassIndex);
+            out.writeShort(0);
+            out.writeShort(0);
+            out.writeShort(methods.size());
+            for (byte method[] : methods)
+            {
+                out.write(method);
+            }
+            out.writeShort(0);
+        }
+        catch (IOException e)
+        {
+            throw new UncheckedIOException(e);
+        }
+        return result.toByteArray();
+    }
+}
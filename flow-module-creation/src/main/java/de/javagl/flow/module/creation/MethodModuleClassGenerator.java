@@ -0,0 +1,924 @@
+/*
+ * www.javagl.de - Flow
+ *
+ * Copyright (c) 2012-2017 Marco Hutter - http://www.javagl.de
+ * 
+ * Permission is hereby granted, free of charge, to any person
+ * obtaining a copy of this software and associated documentation
+ * files (the "Software"), to deal in the Software without
+ * restriction, including without limitation the rights to use,
+ * copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the
+ * Software is furnished to do so, subject to the following
+ * conditions:
+ * 
+ * The above copyright notice and this permission notice shall be
+ * included in all copies or substantial portions of the Software.
+ * 
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND,
+ * EXPRESS OR IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES
+ * OF MERCHANTABILITY, FITNESS FOR A PARTICULAR PURPOSE AND
+ * NONINFRINGEMENT. IN NO EVENT SHALL THE AUTHORS OR COPYRIGHT
+ * HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER LIABILITY,
+ * WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING
+ * FROM, OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR
+ * OTHER DEALINGS IN THE SOFTWARE.
+ */
+package de.javagl.flow.module.creation;
+
+import java.io.ByteArrayOutputStream;
+import java.lang.invoke.MethodType;
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.lang.reflect.Modifier;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.logging.Logger;
+
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleInfo;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.SimpleAbstractModule;
+
+/**
+ * A class that generates a dedicated {@link SimpleAbstractModule} subclass
+ * for a method at runtime. The <code>process</code> method of the generated
+ * class obtains the inputs, calls the method directly, and forwards the
+ * outputs, exactly like a module that was created with
+ * {@link de.javagl.flow.module.Modules#createForMethod(ModuleInfo, Method)},
+ * but without creating argument arrays, and without boxing the values of
+ * <code>int</code>, <code>long</code> and <code>double</code> parameters
+ * and return values.<br>
+ * <br>
+ * Classes can only be generated for public methods, where the declaring
+ * class and the parameter and return types are public as well.<br>
+ * <br>
+ * The generated classes are cached in a <code>ClassValue</code> of the
+ * class that declares the method, so that the cache does not prevent
+ * this class from being unloaded.
+ */
+final class MethodModuleClassGenerator
+{
+    /**
+     * The logger used in this class
+     */
+    private static final Logger logger =
+        Logger.getLogger(MethodModuleClassGenerator.class.getName());
+
+    /**
+     * The opcode for <code>invokevirtual</code>
+     */
+    private static final int INVOKEVIRTUAL = 0xB6;
+
+    /**
+     * The opcode for <code>invokespecial</code>
+     */
+    private static final int INVOKESPECIAL = 0xB7;
+
+    /**
+     * The opcode for <code>invokestatic</code>
+     */
+    private static final int INVOKESTATIC = 0xB8;
+
+    /**
+     * The opcode for <code>invokeinterface</code>
+     */
+    private static final int INVOKEINTERFACE = 0xB9;
+
+    /**
+     * The opcode for <code>checkcast</code>
+     */
+    private static final int CHECKCAST = 0xC0;
+
+    /**
+     * The opcode for <code>return</code>
+     */
+    private static final int RETURN = 0xB1;
+
+    /**
+     * The opcode for <code>athrow</code>
+     */
+    private static final int ATHROW = 0xBF;
+
+    /**
+     * The internal name of the super class of the generated classes
+     */
+    private static final String SUPER_CLASS =
+        internalName(SimpleAbstractModule.class);
+
+    /**
+     * The descriptor of the constructor of the generated classes
+     */
+    private static final String CONSTRUCTOR_DESCRIPTOR =
+        "(" + descriptor(ModuleInfo.class) + ")V";
+
+    /**
+     * A counter for generating unique class names
+     */
+    private static final AtomicInteger classCounter = new AtomicInteger();
+
+    /**
+     * The constructors of the classes that have been generated so far,
+     * for the methods of each class
+     */
+    private static final ClassValue<Map<Method, Constructor<?>>> 
+        constructors = new ClassValue<Map<Method, Constructor<?>>>()
+    {
+        @Override
+        protected Map<Method, Constructor<?>> computeValue(Class<?> type)
+        {
+            return new ConcurrentHashMap<Method, Constructor<?>>();
+        }
+    };
+
+    /**
+     * Returns whether a class can be generated for the given method
+     *
+     * @param method The method
+     * @return Whether a class can be generated
+     */
+    static boolean isSupported(Method method)
+    {
+        if (!Modifier.isPublic(method.getModifiers()))
+        {
+            return false;
+        }
+        if (!isPublic(method.getDeclaringClass()) ||
+            !isPublic(method.getReturnType()))
+        {
+            return false;
+        }
+        for (Class<?> parameterType : method.getParameterTypes())
+        {
+            if (!isPublic(parameterType))
+            {
+                return false;
+            }
+        }
+        // The local variable indices are written as single bytes
+        return method.getParameterCount() < 100;
+    }
+
+    /**
+     * Create a new {@link Module} with the given {@link ModuleInfo} that
+     * calls the given method, using an instance of a class that is
+     * generated for the method. The class is only generated once for
+     * each method.
+     *
+     * @param moduleInfo The {@link ModuleInfo}, which should have been
+     * created with {@link ModuleInfos#createForMethod(Method, String)}
+     * @param method The method
+     * @return The {@link Module}
+     * @throws IllegalArgumentException If the method is not
+     * {@link #isSupported(Method) supported}
+     */
+    static Module createModule(ModuleInfo moduleInfo, Method method)
+    {
+        if (!isSupported(method))
+        {
+            throw new IllegalArgumentException(
+                "Can not generate a module class for " + method);
+        }
+        Constructor<?> constructor = constructors.get(
+            method.getDeclaringClass()).computeIfAbsent(
+                method, m -> generate(m));
+        try
+        {
+            return (Module) constructor.newInstance(moduleInfo);
+        }
+        catch (InstantiationException | IllegalAccessException
+            | InvocationTargetException e)
+        {
+            throw new IllegalStateException(
+                "Could not instantiate generated module class", e);
+        }
+    }
+
+    /**
+     * Generate the module class for the given method, and return its
+     * constructor that receives the {@link ModuleInfo}
+     *
+     * @param method The method
+     * @return The constructor
+     */
+    private static Constructor<?> generate(Method method)
+    {
+        String className = SimpleAbstractModule.class.getPackage().getName()
+            + ".generated.MethodModule" + classCounter.getAndIncrement();
+        byte classData[] = generateClassData(
+            className.replace('.', '/'), method);
+        ClassLoader parent = method.getDeclaringClass().getClassLoader();
+        GeneratedClassLoader classLoader =
+            new GeneratedClassLoader(parent, className, classData);
+        try
+        {
+            Class<?> generatedClass = classLoader.loadClass(className);
+            logger.fine("Generated " + generatedClass + " for " + method);
+            return generatedClass.getConstructor(ModuleInfo.class);
+        }
+        catch (ClassNotFoundException | NoSuchMethodException e)
+        {
+            throw new IllegalStateException(
+                "Could not load generated module class", e);
+        }
+    }
+
+    /**
+     * Generate the class file data for the module class
+     *
+     * @param className The internal name of the class
+     * @param method The method
+     * @return The class file data
+     */
+    private static byte[] generateClassData(String className, Method method)
+    {
+        ClassFileWriter w = new ClassFileWriter(
+            ClassFileWriter.ACC_PUBLIC | ClassFileWriter.ACC_FINAL
+            | ClassFileWriter.ACC_SUPER, className, SUPER_CLASS);
+
+        CodeBuilder init = new CodeBuilder();
+        init.load(Object.class, 0);
+        init.load(Object.class, 1);
+        init.op(INVOKESPECIAL);
+        init.u2(w.methodConstant(
+            SUPER_CLASS, "<init>", CONSTRUCTOR_DESCRIPTOR, false));
+        init.op(RETURN);
+        w.addMethod(ClassFileWriter.ACC_PUBLIC, "<init>",
+            CONSTRUCTOR_DESCRIPTOR, 2, 2, init.toByteArray());
+
+        CodeBuilder process = new CodeBuilder();
+        int maxLocals = generateProcess(w, className, method, process);
+        w.addMethod(ClassFileWriter.ACC_PROTECTED, "process", "()V",
+            process.getMaxStack(), maxLocals, process.toByteArray(),
+            process.getStartPc(), process.getEndPc(), 
+            process.getHandlerPc());
+        return w.toByteArray();
+    }
+
+    /**
+     * Generate the code of the <code>process</code> method. The call of
+     * the method is protected by a handler that calls 
+     * <code>fireAfterProcessing</code> and rethrows the exception, so 
+     * that listeners are informed about the end of the processing even 
+     * when the method throws an exception.
+     *
+     * @param w The {@link ClassFileWriter}
+     * @param className The internal name of the class
+     * @param method The method
+     * @param c The {@link CodeBuilder} that receives the code
+     * @return The maximum number of local variable slots
+     */
+    private static int generateProcess(ClassFileWriter w, String className,
+        Method method, CodeBuilder c)
+    {
+        Class<?> declaringClass = method.getDeclaringClass();
+        boolean isStatic = Modifier.isStatic(method.getModifiers());
+        Class<?> parameterTypes[] = method.getParameterTypes();
+        Class<?> returnType = method.getReturnType();
+
+        // Obtain the instance and the arguments from the input slots,
+        // and store them in local variables
+        int inputIndex = 0;
+        int nextLocal = 1;
+        int instanceLocal = -1;
+        if (!isStatic)
+        {
+            instanceLocal = nextLocal;
+            nextLocal += obtainInput(w, className, c,
+                inputIndex, declaringClass, instanceLocal);
+            inputIndex++;
+        }
+        int parameterLocals[] = new int[parameterTypes.length];
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            parameterLocals[i] = nextLocal;
+            nextLocal += obtainInput(w, className, c,
+                inputIndex, parameterTypes[i], parameterLocals[i]);
+            inputIndex++;
+        }
+
+        // Call the method, and store the result in a local variable
+        invokeSelf(w, className, c, "fireBeforeProcessing", "()V");
+        c.startProtected();
+        if (!isStatic)
+        {
+            c.load(declaringClass, instanceLocal);
+        }
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            c.load(parameterTypes[i], parameterLocals[i]);
+        }
+        String methodDescriptor = methodDescriptor(method);
+        boolean isInterface = declaringClass.isInterface();
+        int methodIndex = w.methodConstant(internalName(declaringClass),
+            method.getName(), methodDescriptor, isInterface);
+        if (isStatic)
+        {
+            c.op(INVOKESTATIC);
+            c.u2(methodIndex);
+        }
+        else if (isInterface)
+        {
+            c.op(INVOKEINTERFACE);
+            c.u2(methodIndex);
+            c.u1(1 + argumentSlots(parameterTypes));
+            c.u1(0);
+        }
+        else
+        {
+            c.op(INVOKEVIRTUAL);
+            c.u2(methodIndex);
+        }
+        c.popStack(argumentSlots(parameterTypes) + (isStatic ? 0 : 1));
+        int resultLocal = -1;
+        if (returnType != void.class)
+        {
+            c.pushStack(size(returnType));
+            resultLocal = nextLocal;
+            nextLocal += size(returnType);
+            c.store(returnType, resultLocal);
+        }
+        c.endProtected();
+        invokeSelf(w, className, c, "fireAfterProcessing", "()V");
+
+        // Forward the instance, the result and the non-primitive arguments
+        int outputIndex = 0;
+        if (!isStatic)
+        {
+            forwardOutput(w, className, c,
+                outputIndex, declaringClass, instanceLocal);
+            outputIndex++;
+        }
+        if (returnType != void.class)
+        {
+            forwardOutput(w, className, c,
+                outputIndex, returnType, resultLocal);
+            outputIndex++;
+        }
+        for (int i = 0; i < parameterTypes.length; i++)
+        {
+            if (!parameterTypes[i].isPrimitive())
+            {
+                forwardOutput(w, className, c,
+                    outputIndex, parameterTypes[i], parameterLocals[i]);
+                outputIndex++;
+            }
+        }
+        c.op(RETURN);
+
+        // The handler, receiving the exception on the stack
+        c.startHandler();
+        invokeSelf(w, className, c, "fireAfterProcessing", "()V");
+        c.op(ATHROW);
+        return nextLocal;
+    }
+
+    /**
+     * Generate the code for obtaining the input with the given index,
+     * and storing it in the given local variable
+     *
+     * @param w The {@link ClassFileWriter}
+     * @param className The internal name of the class
+     * @param c The {@link CodeBuilder}
+     * @param index The index of the input slot
+     * @param type The type of the input
+     * @param local The index of the local variable
+     * @return The number of local variable slots that are occupied
+     */
+    private static int obtainInput(ClassFileWriter w, String className,
+        CodeBuilder c, int index, Class<?> type, int local)
+    {
+        c.load(Object.class, 0);
+        c.pushInt(index);
+        if (type == int.class)
+        {
+            invokeSelf(w, className, c, "obtainIntInput", "(I)I");
+        }
+        else if (type == long.class)
+        {
+            invokeSelf(w, className, c, "obtainLongInput", "(I)J");
+        }
+        else if (type == double.class)
+        {
+            invokeSelf(w, className, c,
+                "obtainDoubleInput", "(I)D");
+        }
+        else
+        {
+            invokeSelf(w, className, c,
+                "obtainInput", "(I)Ljava/lang/Object;");
+            if (type.isPrimitive())
+            {
+                Class<?> wrapperType = wrapperType(type);
+                c.op(CHECKCAST);
+                c.u2(w.classConstant(internalName(wrapperType)));
+                c.op(INVOKEVIRTUAL);
+                c.u2(w.methodConstant(internalName(wrapperType),
+                    type.getName() + "Value", "()" + descriptor(type),
+                    false));
+            }
+            else if (type != Object.class)
+            {
+                c.op(CHECKCAST);
+                c.u2(w.classConstant(internalName(type)));
+            }
+        }
+        c.popStack(2);
+        c.pushStack(size(type));
+        c.store(type, local);
+        return size(type);
+    }
+
+    /**
+     * Generate the code for forwarding the value from the given local
+     * variable to the output with the given index
+     *
+     * @param w The {@link ClassFileWriter}
+     * @param className The internal name of the class
+     * @param c The {@link CodeBuilder}
+     * @param index The index of the output slot
+     * @param type The type of the output
+     * @param local The index of the local variable
+     */
+    private static void forwardOutput(ClassFileWriter w, String className,
+        CodeBuilder c, int index, Class<?> type, int local)
+    {
+        c.load(Object.class, 0);
+        c.pushInt(index);
+        c.load(type, local);
+        if (type == int.class)
+        {
+            invokeSelf(w, className, c, "forwardIntOutput", "(II)V");
+        }
+        else if (type == long.class)
+        {
+            invokeSelf(w, className, c, "forwardLongOutput", "(IJ)V");
+        }
+        else if (type == double.class)
+        {
+            invokeSelf(w, className, c, "forwardDoubleOutput", "(ID)V");
+        }
+        else
+        {
+            if (type.isPrimitive())
+            {
+                Class<?> wrapperType = wrapperType(type);
+                c.op(INVOKESTATIC);
+                c.u2(w.methodConstant(internalName(wrapperType), "valueOf",
+                    "(" + descriptor(type) + ")" + descriptor(wrapperType),
+                    false));
+            }
+            invokeSelf(w, className, c,
+                "forwardOutput", "(ILjava/lang/Object;)V");
+        }
+        c.popStack(2 + size(type));
+    }
+
+    /**
+     * Generate an <code>invokevirtual</code> instruction for the given
+     * method of the generated class. This does not modify the stack
+     * size that is tracked by the given {@link CodeBuilder}.
+     *
+     * @param w The {@link ClassFileWriter}
+     * @param className The internal name of the class
+     * @param c The {@link CodeBuilder}
+     * @param name The method name
+     * @param descriptor The method descriptor
+     */
+    private static void invokeSelf(ClassFileWriter w, String className,
+        CodeBuilder c, String name, String descriptor)
+    {
+        if (descriptor.equals("()V"))
+        {
+            c.load(Object.class, 0);
+            c.popStack(1);
+        }
+        c.op(INVOKEVIRTUAL);
+        c.u2(w.methodConstant(className, name, descriptor, false));
+    }
+
+    /**
+     * Returns the number of stack slots that are occupied by values of
+     * the given types
+     *
+     * @param types The types
+     * @return The number of slots
+     */
+    private static int argumentSlots(Class<?> types[])
+    {
+        int slots = 0;
+        for (Class<?> type : types)
+        {
+            slots += size(type);
+        }
+        return slots;
+    }
+
+    /**
+     * Returns the number of stack- or local variable slots that are
+     * occupied by a value of the given type
+     *
+     * @param type The type
+     * @return The number of slots
+     */
+    private static int size(Class<?> type)
+    {
+        if (type == long.class || type == double.class)
+        {
+            return 2;
+        }
+        return 1;
+    }
+
+    /**
+     * Returns the wrapper type for the given primitive type
+     *
+     * @param type The primitive type
+     * @return The wrapper type
+     */
+    private static Class<?> wrapperType(Class<?> type)
+    {
+        return MethodType.methodType(type).wrap().returnType();
+    }
+
+    /**
+     * Returns whether the given class, and all classes that it is
+     * nested in, are public. For arrays, this refers to the
+     * component type.
+     *
+     * @param c The class
+     * @return Whether the class is public
+     */
+    private static boolean isPublic(Class<?> c)
+    {
+        Class<?> current = c;
+        while (current.isArray())
+        {
+            current = current.getComponentType();
+        }
+        while (current != null)
+        {
+            if (!current.isPrimitive() &&
+                !Modifier.isPublic(current.getModifiers()))
+            {
+                return false;
+            }
+            current = current.getEnclosingClass();
+        }
+        return true;
+    }
+
+    /**
+     * Returns the internal name of the given class, as used in
+     * class files
+     *
+     * @param c The class
+     * @return The internal name
+     */
+    private static String internalName(Class<?> c)
+    {
+        if (c.isArray())
+        {
+            return descriptor(c);
+        }
+        return c.getName().replace('.', '/');
+    }
+
+    /**
+     * Returns the descriptor of the given method
+     *
+     * @param method The method
+     * @return The descriptor
+     */
+    private static String methodDescriptor(Method method)
+    {
+        MethodType methodType = MethodType.methodType(
+            method.getReturnType(), method.getParameterTypes());
+        return methodType.toMethodDescriptorString();
+    }
+
+    /**
+     * Returns the descriptor of the given type, as used in class files
+     *
+     * @param c The type
+     * @return The descriptor
+     */
+    private static String descriptor(Class<?> c)
+    {
+        // The method descriptor of a method without parameters that
+        // returns the given type has the form "()<descriptor>"
+        String methodDescriptor =
+            MethodType.methodType(c).toMethodDescriptorString();
+        return methodDescriptor.substring(2);
+    }
+
+    /**
+     * A simple builder for the code of a method, which keeps track
+     * of the maximum stack size
+     */
+    private static final class CodeBuilder
+    {
+        /**
+         * The code
+         */
+        private final ByteArrayOutputStream code =
+            new ByteArrayOutputStream();
+
+        /**
+         * The current stack size
+         */
+        private int stack;
+
+        /**
+         * The maximum stack size
+         */
+        private int maxStack;
+
+        /**
+         * The start of the range that is protected by the handler
+         */
+        private int startPc = -1;
+
+        /**
+         * The end of the range that is protected by the handler
+         */
+        private int endPc = -1;
+
+        /**
+         * The start of the handler
+         */
+        private int handlerPc = -1;
+
+        /**
+         * Write the given opcode
+         *
+         * @param opcode The opcode
+         */
+        void op(int opcode)
+        {
+            code.write(opcode);
+        }
+
+        /**
+         * Write the given one-byte value
+         *
+         * @param value The value
+         */
+        void u1(int value)
+        {
+            code.write(value & 0xFF);
+        }
+
+        /**
+         * Write the given two-byte value
+         *
+         * @param value The value
+         */
+        void u2(int value)
+        {
+            code.write((value >> 8) & 0xFF);
+            code.write(value & 0xFF);
+        }
+
+        /**
+         * Write the instruction for pushing the given int value
+         *
+         * @param value The value
+         */
+        void pushInt(int value)
+        {
+            if (value <= 5)
+            {
+                // iconst_0 ... iconst_5
+                op(0x03 + value);
+            }
+            else if (value <= Byte.MAX_VALUE)
+            {
+                // bipush
+                op(0x10);
+                u1(value);
+            }
+            else
+            {
+                // sipush
+                op(0x11);
+                u2(value);
+            }
+            pushStack(1);
+        }
+
+        /**
+         * Write the instruction for loading the local variable with the
+         * given index, which has the given type
+         *
+         * @param type The type
+         * @param local The index of the local variable
+         */
+        void load(Class<?> type, int local)
+        {
+            // iload, lload, fload, dload, aload
+            op(0x15 + typeOffset(type));
+            u1(local);
+            pushStack(size(type));
+        }
+
+        /**
+         * Write the instruction for storing the value on the top of the
+         * stack in the local variable with the given index, which has
+         * the given type
+         *
+         * @param type The type
+         * @param local The index of the local variable
+         */
+        void store(Class<?> type, int local)
+        {
+            // istore, lstore, fstore, dstore, astore
+            op(0x36 + typeOffset(type));
+            u1(local);
+            popStack(size(type));
+        }
+
+        /**
+         * Returns the offset of the load- and store instructions for the
+         * given type, relative to the ones for <code>int</code>
+         *
+         * @param type The type
+         * @return The offset
+         */
+        private static int typeOffset(Class<?> type)
+        {
+            if (type == long.class)
+            {
+                return 1;
+            }
+            if (type == float.class)
+            {
+                return 2;
+            }
+            if (type == double.class)
+            {
+                return 3;
+            }
+            if (type.isPrimitive())
+            {
+                return 0;
+            }
+            return 4;
+        }
+
+        /**
+         * Record that the given number of slots was pushed on the stack
+         *
+         * @param slots The number of slots
+         */
+        void pushStack(int slots)
+        {
+            stack += slots;
+            maxStack = Math.max(maxStack, stack);
+        }
+
+        /**
+         * Record that the given number of slots was popped from the stack
+         *
+         * @param slots The number of slots
+         */
+        void popStack(int slots)
+        {
+            stack -= slots;
+        }
+
+        /**
+         * Record that the range that is protected by the handler starts
+         * at the current position
+         */
+        void startProtected()
+        {
+            startPc = code.size();
+        }
+
+        /**
+         * Record that the range that is protected by the handler ends
+         * at the current position
+         */
+        void endProtected()
+        {
+            endPc = code.size();
+        }
+
+        /**
+         * Record that the handler starts at the current position. When 
+         * the handler is entered, the stack only contains the exception.
+         */
+        void startHandler()
+        {
+            handlerPc = code.size();
+            stack = 0;
+            pushStack(1);
+        }
+
+        /**
+         * Returns the start of the range that is protected by the handler
+         *
+         * @return The start
+         */
+        int getStartPc()
+        {
+            return startPc;
+        }
+
+        /**
+         * Returns the end of the range that is protected by the handler
+         *
+         * @return The end
+         */
+        int getEndPc()
+        {
+            return endPc;
+        }
+
+        /**
+         * Returns the start of the handler, or -1 if there is no handler
+         *
+         * @return The start of the handler
+         */
+        int getHandlerPc()
+        {
+            return handlerPc;
+        }
+
+        /**
+         * Returns the maximum stack size
+         *
+         * @return The maximum stack size
+         */
+        int getMaxStack()
+        {
+            return maxStack;
+        }
+
+        /**
+         * Returns the code
+         *
+         * @return The code
+         */
+        byte[] toByteArray()
+        {
+            return code.toByteArray();
+        }
+    }
+
+    /**
+     * A class loader for a single generated class. Other classes are
+     * loaded by the parent class loader, which is the class loader of
+     * the class that declares the method, or by the class loader of
+     * the flow classes.
+     */
+    private static final class GeneratedClassLoader extends ClassLoader
+    {
+        /**
+         * The binary name of the generated class
+         */
+        private final String className;
+
+        /**
+         * The class file data of the generated class
+         */
+        private final byte classData[];
+
+        /**
+         * Creates a new instance
+         *
+         * @param parent The parent class loader
+         * @param className The binary name of the generated class
+         * @param classData The class file data of the generated class
+         */
+        GeneratedClassLoader(
+            ClassLoader parent, String className, byte classData[])
+        {
+            super(parent);
+            this.className = className;
+            this.classData = classData;
+        }
+
+        @Override
+        protected Class<?> findClass(String name)
+            throws ClassNotFoundException
+        {
+            if (name.equals(className))
+            {
+                return defineClass(name, classData, 0, classData.length);
+            }
+            return SimpleAbstractModule.class.getClassLoader().loadClass(name);
+        }
+    }
+
+    /**
+     * Private constructor to prevent instantiation
+     */
+    private MethodModuleClassGenerator()
+    {
+        // Private constructor to prevent instantiation
+    }
+}
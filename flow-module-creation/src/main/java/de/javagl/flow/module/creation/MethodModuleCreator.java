@@ -45,24 +45,40 @@ class MethodModuleCreator
      */
     private final Method method;
     
+    /**
+     * Whether the modules should be instances of a class that is 
+     * generated for the method
+     */
+    private final boolean generateClass;
+    
     /**
      * Create a new instance for the given method
      * 
      * @param method The method
      * @param shortName The short name that should be used instead of 
      * the full method string. May be <code>null</code>.
+     * @param generateClass Whether the modules should be instances of 
+     * a class that is generated for the method, if possible
      */
-    MethodModuleCreator(Method method, String shortName)
+    MethodModuleCreator(
+        Method method, String shortName, boolean generateClass)
     {
         super(ModuleCreatorInstantiator.createInstantiationString(
                 method, shortName),
             ModuleInfos.createForMethod(method, shortName));
         this.method = method;
+        this.generateClass = 
+            generateClass && MethodModuleClassGenerator.isSupported(method);
     }
 
     @Override
     public Module createModule()
     {
+        if (generateClass)
+        {
+            return MethodModuleClassGenerator.createModule(
+                getModuleInfo(), method);
+        }
         return Modules.createForMethod(getModuleInfo(), method);
     }
 
@@ -62,7 +62,32 @@ public class ModuleCreators
     public static ModuleCreator createForMethod(
         Method method, String shortName)
     {
-        return new MethodModuleCreator(method, shortName);
+        return createForMethod(method, shortName, false);
+    }
+    
+    /**
+     * Create a {@link ModuleCreator} that will create {@link Module} instances
+     * that call the given method.<br>
+     * <br>
+     * If <code>generateClass</code> is <code>true</code>, then the modules 
+     * will be instances of a class that is generated at runtime for the 
+     * given method. The generated class calls the method directly, without 
+     * reflection, and passes <code>int</code>, <code>long</code> and 
+     * <code>double</code> values between the links and the method without 
+     * boxing them. This is only possible when the method, its declaring 
+     * class and all parameter and return types are public. Otherwise, 
+     * the flag is ignored.
+     * 
+     * @param method The method
+     * @param shortName An optional short name for the module description
+     * @param generateClass Whether a class should be generated for the
+     * method
+     * @return The {@link ModuleCreator}
+     */
+    public static ModuleCreator createForMethod(
+        Method method, String shortName, boolean generateClass)
+    {
+        return new MethodModuleCreator(method, shortName, generateClass);
     }
     
     
@@ -0,0 +1,322 @@
+package de.javagl.flow.module.creation;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+
+import org.junit.Test;
+import org.junit.runner.RunWith;
+import org.junit.runners.JUnit4;
+
+import de.javagl.flow.Flows;
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.link.Link;
+import de.javagl.flow.link.Links;
+import de.javagl.flow.module.Module;
+import de.javagl.flow.module.ModuleExecutionAdapter;
+import de.javagl.flow.module.ModuleExecutionEvent;
+import de.javagl.flow.module.ModuleInfos;
+import de.javagl.flow.module.Modules;
+
+/**
+ * Test cases for the {@link MethodModuleClassGenerator} class. The
+ * modules are created with generated classes, connected to suppliers
+ * for their inputs, and executed.
+ */
+@RunWith(JUnit4.class)
+public class MethodModuleClassGeneratorTest
+{
+    /**
+     * The methods for which modules are generated
+     */
+    public static class Functions
+    {
+        /**
+         * The last value that was passed to {@link #record(String)}
+         */
+        static String recorded;
+
+        /**
+         * Adds the given values
+         *
+         * @param a The first value
+         * @param b The second value
+         * @return The sum
+         */
+        public static double add(double a, double b)
+        {
+            return a + b;
+        }
+
+        /**
+         * Adds the given values
+         *
+         * @param a The first value
+         * @param b The second value
+         * @return The sum
+         */
+        public static long sum(int a, long b)
+        {
+            return a + b;
+        }
+
+        /**
+         * Negates the given value
+         *
+         * @param b The value
+         * @return The negated value
+         */
+        public static boolean not(boolean b)
+        {
+            return !b;
+        }
+
+        /**
+         * Stores the given value in {@link #recorded}
+         *
+         * @param s The value
+         */
+        public static void record(String s)
+        {
+            recorded = s;
+        }
+
+        /**
+         * Always throws an exception
+         *
+         * @param x The value
+         * @return Nothing
+         */
+        public static int fail(int x)
+        {
+            throw new IllegalStateException("Failure for " + x);
+        }
+    }
+
+    /**
+     * A class with an instance method for which a module is generated
+     */
+    public static class Counter
+    {
+        /**
+         * The current value
+         */
+        private int value;
+
+        /**
+         * Increment the value of this counter
+         *
+         * @param delta The increment
+         * @return The new value
+         */
+        public int increment(int delta)
+        {
+            value += delta;
+            return value;
+        }
+    }
+
+    /**
+     * An interface with a method for which a module is generated
+     */
+    public interface Greeter
+    {
+        /**
+         * Creates a greeting
+         *
+         * @param name The name
+         * @return The greeting
+         */
+        String greet(String name);
+    }
+
+    @Test
+    public void testStaticMethodWithDoubleArguments() throws Exception
+    {
+        Method method = Functions.class.getMethod(
+            "add", double.class, double.class);
+        List<Object> outputs = execute(method, 1.5, 2.0);
+        assertEquals(1, outputs.size());
+        assertEquals(3.5, outputs.get(0));
+    }
+
+    @Test
+    public void testStaticMethodWithLongArgument() throws Exception
+    {
+        Method method = Functions.class.getMethod(
+            "sum", int.class, long.class);
+        List<Object> outputs = execute(method, 2, 40000000000L);
+        assertEquals(1, outputs.size());
+        assertEquals(40000000002L, outputs.get(0));
+    }
+
+    @Test
+    public void testStaticMethodWithBooleanArgument() throws Exception
+    {
+        Method method = Functions.class.getMethod("not", boolean.class);
+        List<Object> outputs = execute(method, true);
+        assertEquals(1, outputs.size());
+        assertEquals(false, outputs.get(0));
+    }
+
+    @Test
+    public void testVoidMethod() throws Exception
+    {
+        Method method = Functions.class.getMethod("record", String.class);
+        List<Object> outputs = execute(method, "value");
+        assertEquals("value", Functions.recorded);
+
+        // Only the argument is forwarded
+        assertEquals(1, outputs.size());
+        assertEquals("value", outputs.get(0));
+    }
+
+    @Test
+    public void testInstanceMethod() throws Exception
+    {
+        Method method = Counter.class.getMethod("increment", int.class);
+        Counter counter = new Counter();
+        counter.increment(10);
+        List<Object> outputs = execute(method, counter, 5);
+
+        // The instance is forwarded, followed by the result
+        assertEquals(2, outputs.size());
+        assertSame(counter, outputs.get(0));
+        assertEquals(15, outputs.get(1));
+    }
+
+    @Test
+    public void testInterfaceMethod() throws Exception
+    {
+        Method method = Greeter.class.getMethod("greet", String.class);
+        Greeter greeter = name -> "Hello " + name;
+        List<Object> outputs = execute(method, greeter, "World");
+        assertEquals(3, outputs.size());
+        assertSame(greeter, outputs.get(0));
+        assertEquals("Hello World", outputs.get(1));
+        assertEquals("World", outputs.get(2));
+    }
+
+    @Test
+    public void testThrowingMethodFiresAfterProcessing() throws Exception
+    {
+        Method method = Functions.class.getMethod("fail", int.class);
+        Module module = createModule(method);
+        connectInputs(Flows.create(), module, 42);
+
+        int counts[] = new int[2];
+        module.addModuleExecutionListener(new ModuleExecutionAdapter()
+        {
+            @Override
+            public void beforeProcessing(ModuleExecutionEvent event)
+            {
+                counts[0]++;
+            }
+
+            @Override
+            public void afterProcessing(ModuleExecutionEvent event)
+            {
+                counts[1]++;
+            }
+        });
+        try
+        {
+            module.execute();
+            fail("Expected an exception");
+        }
+        catch (RuntimeException e)
+        {
+            assertTrue(e.getCause() instanceof IllegalStateException);
+        }
+        assertEquals(1, counts[0]);
+        assertEquals(1, counts[1]);
+    }
+
+    @Test
+    public void testClassIsGeneratedOnce() throws Exception
+    {
+        Method method = Functions.class.getMethod(
+            "add", double.class, double.class);
+        Module module0 = createModule(method);
+        Module module1 = createModule(method);
+        assertNotSame(module0, module1);
+        assertSame(module0.getClass(), module1.getClass());
+        assertTrue(module0.getClass().getName().contains(".generated."));
+    }
+
+    /**
+     * Create a module for the given method, using a generated class
+     *
+     * @param method The method
+     * @return The module
+     */
+    private static Module createModule(Method method)
+    {
+        return MethodModuleClassGenerator.createModule(
+            ModuleInfos.createForMethod(method, null), method);
+    }
+
+    /**
+     * Add the given module to the given flow, connect each of its input 
+     * slots to a supplier module that provides the respective value, and 
+     * execute the suppliers
+     *
+     * @param flow The flow
+     * @param module The module
+     * @param inputs The input values
+     */
+    private static void connectInputs(
+        MutableFlow flow, Module module, Object ... inputs)
+    {
+        flow.addModule(module);
+        for (int i = 0; i < inputs.length; i++)
+        {
+            Object input = inputs[i];
+            Module supplier = Modules.createForSupplier(
+                "Supplier", "", () -> input, Object.class);
+            flow.addModule(supplier);
+            flow.addLink(Links.create(supplier, 0, module, i));
+            supplier.execute();
+        }
+    }
+
+    /**
+     * Create a module for the given method with a generated class,
+     * execute it with the given inputs, and return the values that
+     * have been forwarded to its output slots
+     *
+     * @param method The method
+     * @param inputs The input values
+     * @return The output values
+     */
+    private static List<Object> execute(Method method, Object ... inputs)
+    {
+        MutableFlow flow = Flows.create();
+        Module module = createModule(method);
+        connectInputs(flow, module, inputs);
+        List<Link> outputLinks = new ArrayList<Link>();
+        int numOutputs = module.getOutputSlots().size();
+        for (int i = 0; i < numOutputs; i++)
+        {
+            Module consumer = Modules.createForConsumer(
+                "Consumer", "", object -> {}, Object.class);
+            flow.addModule(consumer);
+            Link outputLink = Links.create(module, i, consumer, 0);
+            flow.addLink(outputLink);
+            outputLinks.add(outputLink);
+        }
+        module.execute();
+        List<Object> outputs = new ArrayList<Object>();
+        for (Link outputLink : outputLinks)
+        {
+            outputs.add(outputLink.provide());
+        }
+        return outputs;
+    }
+}
@@ -28,7 +28,8 @@ public final class GenericWekaClassifierModuleCreator
      */
     private static final ModuleInfo MODULE_INFO = ModuleInfos.create(
         "Generic Classifier", "Creates and initializes a Weka classifier")
-        .addInput(Instances.class, "Instances", "The input instances")
+        .addMutatingInput(Instances.class, "Instances", 
+            "The input instances", Instances::new)
         .addOutput(Classifier.class, "Classifier", "The classifier")
         .build();
 
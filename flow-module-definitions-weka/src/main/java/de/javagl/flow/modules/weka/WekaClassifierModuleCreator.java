@@ -36,7 +36,8 @@ public final class WekaClassifierModuleCreator
         String description = 
             WekaCategoriesGenerator.getDescriptionHtml(className);
         return ModuleInfos.create(name, description)
-            .addInput(Instances.class, "Instances", "The input instances")
+            .addMutatingInput(Instances.class, "Instances", 
+                "The input instances", Instances::new)
             .addOutput(Classifier.class, "Classifier", "The classifier")
             .build();
     }
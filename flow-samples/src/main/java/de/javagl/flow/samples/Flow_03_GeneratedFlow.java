@@ -0,0 +1,39 @@
+package de.javagl.flow.samples;
+
+import de.javagl.flow.MutableFlow;
+import de.javagl.flow.execution.FlowExecutor;
+import de.javagl.flow.execution.FlowExecutors;
+import de.javagl.flow.generator.FlowGenerators;
+import de.javagl.flow.generator.ModuleCost;
+import de.javagl.flow.generator.ModuleCosts;
+
+@SuppressWarnings("javadoc")
+public class Flow_03_GeneratedFlow
+{
+    public static void main(String[] args)
+    {
+        // Each module will sleep for 10 milliseconds, and
+        // allocate a small amount of memory
+        ModuleCost moduleCost = ModuleCosts.combine(
+            ModuleCosts.sleep(10), 
+            ModuleCosts.allocation(1024));
+        
+        // Create a flow with 5 layers of 8 modules, where each
+        // module is connected to about half of the modules in
+        // the previous layer
+        MutableFlow flow = 
+            FlowGenerators.createLayered(5, 8, 0.5, 0, moduleCost);
+        System.out.println("Modules: " + flow.getModules().size());
+        System.out.println("Links  : " + flow.getLinks().size());
+        
+        // Execute the flow. The modules of each layer may be 
+        // executed in parallel, so this should take about 
+        // 5 * 10 milliseconds
+        FlowExecutor flowExecutor = FlowExecutors.createDefault();
+        long before = System.nanoTime();
+        flowExecutor.execute(flow);
+        long after = System.nanoTime();
+        System.out.println("Execution took " 
+            + (after - before) / 1e6 + " ms");
+    }
+}
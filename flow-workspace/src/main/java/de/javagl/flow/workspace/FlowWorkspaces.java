@@ -27,6 +27,7 @@
 package de.javagl.flow.workspace;
 
 import de.javagl.flow.Flow;
+import de.javagl.flow.Flows;
 import de.javagl.flow.MutableFlow;
 import de.javagl.selection.SelectionModel;
 
@@ -45,6 +46,18 @@ public class FlowWorkspaces
         return new DefaultFlowWorkspace();
     }
 
+    /**
+     * Create a new, empty {@link MutableFlowWorkspace} whose {@link Flow}
+     * is created with {@link Flows#createWithTypeInference()}
+     * 
+     * @return A new, empty {@link MutableFlowWorkspace}
+     */
+    public static MutableFlowWorkspace createWithTypeInference()
+    {
+        return new DefaultFlowWorkspace(
+            Flows.createWithTypeInference(), FlowLayouts.create());
+    }
+
     /**
      * Create a new {@link FlowWorkspace} with the given {@link Flow}
      * and {@link FlowLayout} (and empty {@link SelectionModel} objects).